@@ -6,7 +6,8 @@ package java.base.linux.classes.sun.nio.ch;
 import java.io.IOException;
 
 /**
- * Default PollerProvider for Linux.
+ * Default PollerProvider for Linux. Uses io_uring if enabled and supported,
+ * otherwise epoll.
  * 
  * @since Pre Java 1
  * @author Logan Abernathy
@@ -15,13 +16,22 @@ import java.io.IOException;
 class DefaultPollerProvider extends PollerProvider {
     DefaultPollerProvider() { }
 
+    /**
+     * io_uring pollers register directly, so that poll requests prepared
+     * by threads registering concurrently are submitted together.
+     */
+    @Override
+    boolean useDirectRegister() {
+        return IOUring.isEnabled();
+    }
+
     @Override
     Poller readPoller() throws IOException {
-        return new EPollPoller(true);
+        return (IOUring.isEnabled()) ? new IOUringPoller(true) : new EPollPoller(true);
     }
 
     @Override
     Poller writePoller() throws IOException {
-        return new EPollPoller(false);
+        return (IOUring.isEnabled()) ? new IOUringPoller(false) : new EPollPoller(false);
     }
 }
@@ -48,9 +48,12 @@ class EPoll {
     // events
     static final int EPOLLIN   = 0x1;
     static final int EPOLLOUT  = 0x4;
+    static final int EPOLLERR  = 0x8;
+    static final int EPOLLHUP  = 0x10;
 
     // flags
     static final int EPOLLONESHOT   = (1 << 30);
+    static final int EPOLLET        = (1 << 31);
 
     /**
      * Allocates a poll array to handle up to {@code count} events.
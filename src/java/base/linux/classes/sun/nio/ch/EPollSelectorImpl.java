@@ -10,14 +10,18 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.base.share.classes.jdk.internal.misc.Blocker;
+import sun.security.action.GetPropertyAction;
 
+import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLLERR;
+import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLLET;
+import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLLHUP;
 import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLLIN;
+import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLLOUT;
 import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLL_CTL_ADD;
 import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLL_CTL_DEL;
 import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLL_CTL_MOD;
@@ -25,7 +29,19 @@ import static java.base.linux.classes.sun.nio.ch.EPoll.EPOLL_CTL_MOD;
 
 /**
  * Linux epoll based Selector implementation
- * 
+ *
+ * <p> By default file descriptors are registered level-triggered, for the
+ * events of the key's interest set, and each change to the interest set
+ * is an epoll_ctl at the next selection operation. If the system property
+ * {@code jdk.nio.epoll.edgeTriggered} is {@code true}, file descriptors
+ * are instead registered once, edge-triggered, for all events. The events
+ * polled for a key are kept in the key until they are delivered, when the
+ * key is interested in them, so that changing the interest set is not a
+ * system call. An event is delivered once per edge: having been selected
+ * for an operation, a channel must perform it until it would block, or
+ * else it may not be selected again. Keys are best selected with
+ * {@link Selector#select(Consumer)}, which does not allocate.
+ *
  * @since Pre Java 1
  * @author Logan Abernathy
  * @edited 23/4/2023
@@ -36,6 +52,13 @@ class EPollSelectorImpl extends SelectorImpl {
     // maximum number of events to poll in one call to epoll_wait
     private static final int NUM_EPOLLEVENTS = Math.min(IOUtil.fdLimit(), 1024);
 
+    // register file descriptors edge-triggered
+    private static final boolean EDGE_TRIGGERED = edgeTriggered();
+
+    // events of file descriptors registered edge-triggered; the registered
+    // events of a key are then the events polled but not yet delivered
+    private static final int EDGE_TRIGGERED_EVENTS = EPOLLIN | EPOLLOUT | EPOLLET;
+
     // epoll file descriptor
     private final int epfd;
 
@@ -46,12 +69,16 @@ class EPollSelectorImpl extends SelectorImpl {
     private final EventFD eventfd;
 
     // maps file descriptor to selection key, synchronize on selector
-    private final Map<Integer, SelectionKeyImpl> fdToKey = new HashMap<>();
+    private SelectionKeyImpl[] fdToKey = new SelectionKeyImpl[64];
 
     // pending new registrations/updates, queued by setEventOps
     private final Object updateLock = new Object();
     private final Deque<SelectionKeyImpl> updateKeys = new ArrayDeque<>();
 
+    // keys with polled events whose interest ops changed, edge-triggered
+    // mode only, synchronize on selector
+    private final Deque<SelectionKeyImpl> readyKeys = new ArrayDeque<>();
+
     // interrupt triggering and clearing
     private final Object interruptLock = new Object();
     private boolean interruptTriggered;
@@ -75,25 +102,50 @@ class EPollSelectorImpl extends SelectorImpl {
         EPoll.ctl(epfd, EPOLL_CTL_ADD, eventfd.efd(), EPOLLIN);
     }
 
+    private static boolean edgeTriggered() {
+        String s = GetPropertyAction.privilegedGetProperty("jdk.nio.epoll.edgeTriggered");
+        return (s != null) && (s.isEmpty() || Boolean.parseBoolean(s));
+    }
+
     private void ensureOpen() {
         if (!isOpen())
             throw new ClosedSelectorException();
     }
 
+    private SelectionKeyImpl getKey(int fd) {
+        return (fd < fdToKey.length) ? fdToKey[fd] : null;
+    }
+
+    private void putKey(int fd, SelectionKeyImpl ski) {
+        if (fd >= fdToKey.length) {
+            int newLength = Math.max(fd + 1, fdToKey.length * 2);
+            fdToKey = Arrays.copyOf(fdToKey, newLength);
+        }
+        fdToKey[fd] = ski;
+    }
+
+    private SelectionKeyImpl removeKey(int fd) {
+        SelectionKeyImpl ski = getKey(fd);
+        if (ski != null)
+            fdToKey[fd] = null;
+        return ski;
+    }
+
     @Override
     protected int doSelect(Consumer<SelectionKey> action, long timeout)
         throws IOException
     {
         assert Thread.holdsLock(this);
 
-        // epoll_wait timeout is int
-        int to = (int) Math.min(timeout, Integer.MAX_VALUE);
-        boolean blocking = (to != 0);
-        boolean timedPoll = (to > 0);
-
         int numEntries;
         processUpdateQueue();
         processDeregisterQueue();
+
+        // epoll_wait timeout is int, and zero if keys are already ready
+        int to = (readyKeys.isEmpty()) ? (int) Math.min(timeout, Integer.MAX_VALUE) : 0;
+        boolean blocking = (to != 0);
+        boolean timedPoll = (to > 0);
+
         try {
             begin(blocking);
 
@@ -136,8 +188,21 @@ class EPollSelectorImpl extends SelectorImpl {
                 if (ski.isValid()) {
                     int fd = ski.getFDVal();
                     // add to fdToKey if needed
-                    SelectionKeyImpl previous = fdToKey.putIfAbsent(fd, ski);
+                    SelectionKeyImpl previous = getKey(fd);
                     assert (previous == null) || (previous == ski);
+                    if (previous == null)
+                        putKey(fd, ski);
+
+                    if (EDGE_TRIGGERED) {
+                        if (previous == null) {
+                            // add to epoll, once for all events
+                            EPoll.ctl(epfd, EPOLL_CTL_ADD, fd, EDGE_TRIGGERED_EVENTS);
+                        } else if (ski.registeredEvents() != 0) {
+                            // polled events may now be of interest
+                            readyKeys.addLast(ski);
+                        }
+                        continue;
+                    }
 
                     int newEvents = ski.translateInterestOps();
                     int registeredEvents = ski.registeredEvents();
@@ -178,14 +243,26 @@ class EPollSelectorImpl extends SelectorImpl {
             if (fd == eventfd.efd()) {
                 interrupted = true;
             } else {
-                SelectionKeyImpl ski = fdToKey.get(fd);
+                SelectionKeyImpl ski = getKey(fd);
                 if (ski != null) {
                     int rOps = EPoll.getEvents(event);
-                    numKeysUpdated += processReadyEvents(rOps, ski, action);
+                    if (EDGE_TRIGGERED) {
+                        ski.registeredEvents(ski.registeredEvents() | rOps);
+                        numKeysUpdated += processPolledEvents(ski, action);
+                    } else {
+                        numKeysUpdated += processReadyEvents(rOps, ski, action);
+                    }
                 }
             }
         }
 
+        SelectionKeyImpl ski;
+        while ((ski = readyKeys.pollFirst()) != null) {
+            if (ski.isValid()) {
+                numKeysUpdated += processPolledEvents(ski, action);
+            }
+        }
+
         if (interrupted) {
             clearInterrupt();
         }
@@ -193,6 +270,23 @@ class EPollSelectorImpl extends SelectorImpl {
         return numKeysUpdated;
     }
 
+    /**
+     * Edge-triggered mode: delivers the polled events of a key that are in
+     * its interest set, along with any error or hangup, and removes them
+     * from the key's polled events.
+     */
+    private int processPolledEvents(SelectionKeyImpl ski, Consumer<SelectionKey> action) {
+        int polledEvents = ski.registeredEvents();
+        int interestEvents = ski.translateInterestOps();
+        if (interestEvents == 0)
+            return 0;
+        int rOps = polledEvents & (interestEvents | EPOLLERR | EPOLLHUP);
+        if (rOps == 0)
+            return 0;
+        ski.registeredEvents(polledEvents & ~rOps);
+        return processReadyEvents(rOps, ski, action);
+    }
+
     @Override
     protected void implClose() throws IOException {
         assert Thread.holdsLock(this);
@@ -214,8 +308,8 @@ class EPollSelectorImpl extends SelectorImpl {
         assert Thread.holdsLock(this);
 
         int fd = ski.getFDVal();
-        if (fdToKey.remove(fd) != null) {
-            if (ski.registeredEvents() != 0) {
+        if (removeKey(fd) != null) {
+            if (EDGE_TRIGGERED || ski.registeredEvents() != 0) {
                 EPoll.ctl(epfd, EPOLL_CTL_DEL, fd, 0);
                 ski.registeredEvents(0);
             }
@@ -5,6 +5,7 @@
 package java.base.linux.classes.sun.nio.ch;
 
 import java.io.FileDescriptor;
+import java.io.IOException;
 
 /**
  * @since Pre Java 1
@@ -17,6 +18,64 @@ class FileDispatcherImpl extends UnixFileDispatcherImpl {
         super();
     }
 
+    // -- Reads and writes by virtual threads use io_uring if enabled --
+
+    int read(FileDescriptor fd, long address, int len) throws IOException {
+        IOUringFileIO io = IOUringFileIO.current();
+        if (io != null)
+            return io.read(IOUtil.fdVal(fd), address, len, -1L);
+        return super.read(fd, address, len);
+    }
+
+    int pread(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        IOUringFileIO io = IOUringFileIO.current();
+        if (io != null)
+            return io.read(IOUtil.fdVal(fd), address, len, position);
+        return super.pread(fd, address, len, position);
+    }
+
+    long readv(FileDescriptor fd, long address, int len) throws IOException {
+        IOUringFileIO io = IOUringFileIO.current();
+        if (io != null)
+            return io.readv(IOUtil.fdVal(fd), address, len);
+        return super.readv(fd, address, len);
+    }
+
+    int write(FileDescriptor fd, long address, int len) throws IOException {
+        IOUringFileIO io = IOUringFileIO.current();
+        if (io != null)
+            return io.write(IOUtil.fdVal(fd), address, len, -1L);
+        return super.write(fd, address, len);
+    }
+
+    int pwrite(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        IOUringFileIO io = IOUringFileIO.current();
+        if (io != null)
+            return io.write(IOUtil.fdVal(fd), address, len, position);
+        return super.pwrite(fd, address, len, position);
+    }
+
+    long writev(FileDescriptor fd, long address, int len)
+        throws IOException
+    {
+        IOUringFileIO io = IOUringFileIO.current();
+        if (io != null)
+            return io.writev(IOUtil.fdVal(fd), address, len);
+        return super.writev(fd, address, len);
+    }
+
+    boolean parksForIO() {
+        return IOUringFileIO.isEnabled();
+    }
+
+    void cancelIO(FileDescriptor fd) {
+        IOUringFileIO.cancelAll(IOUtil.fdVal(fd));
+    }
+
     int maxDirectTransferSize() {
         return 0x7ffff000; // 2,147,479,552 maximum for sendfile()
     }
@@ -0,0 +1,507 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.linux.classes.sun.nio.ch;
+
+import java.io.IOException;
+import jdk.internal.misc.Unsafe;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * Provides access to a Linux io_uring instance: a submission queue of
+ * operations for the kernel to perform and a completion queue of their
+ * results, both in memory shared with the kernel.
+ *
+ * <p> Entries are added to the submission queue with {@link #prepare}, and
+ * submitted to the kernel with {@link #submit}, which must be invoked by
+ * one thread at a time; callers serialize them with a lock of their own.
+ * Completions are consumed by a single thread with {@link #completions},
+ * {@link #userData}, {@link #result} and {@link #consumed}, and that thread
+ * may wait for them with {@link #await} concurrently with submissions.
+ *
+ * <p> io_uring is used only if enabled by setting the system property
+ * {@code jdk.useIOUring} to {@code true}, and if the kernel supports the
+ * features required (Linux 5.6 or newer).
+ *
+ * @since 21
+ */
+
+final class IOUring {
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+
+    /**
+     * struct io_uring_params {
+     *     __u32 sq_entries;
+     *     __u32 cq_entries;
+     *     __u32 flags;
+     *     __u32 sq_thread_cpu;
+     *     __u32 sq_thread_idle;
+     *     __u32 features;
+     *     __u32 wq_fd;
+     *     __u32 resv[3];
+     *     struct io_sqring_offsets sq_off;
+     *     struct io_cqring_offsets cq_off;
+     * };
+     *
+     * struct io_sqring_offsets {
+     *     __u32 head, tail, ring_mask, ring_entries, flags, dropped, array;
+     *     __u32 resv1;
+     *     __u64 resv2;
+     * };
+     *
+     * struct io_cqring_offsets {
+     *     __u32 head, tail, ring_mask, ring_entries, overflow, cqes, flags;
+     *     __u32 resv1;
+     *     __u64 resv2;
+     * };
+     */
+    private static final int SIZEOF_PARAMS         = 120;
+    private static final int OFFSETOF_SQ_ENTRIES   = 0;
+    private static final int OFFSETOF_CQ_ENTRIES   = 4;
+    private static final int OFFSETOF_FLAGS        = 8;
+    private static final int OFFSETOF_FEATURES     = 20;
+    private static final int OFFSETOF_SQ_OFF       = 40;
+    private static final int OFFSETOF_CQ_OFF       = 80;
+    private static final int OFFSETOF_RING_HEAD    = 0;
+    private static final int OFFSETOF_RING_TAIL    = 4;
+    private static final int OFFSETOF_RING_MASK    = 8;
+    private static final int OFFSETOF_SQ_ARRAY     = 24;
+    private static final int OFFSETOF_CQ_CQES      = 20;
+
+    /**
+     * struct io_uring_sqe {
+     *     __u8  opcode;
+     *     __u8  flags;
+     *     __u16 ioprio;
+     *     __s32 fd;
+     *     __u64 off;
+     *     __u64 addr;
+     *     __u32 len;
+     *     __u32 op_flags;     // poll32_events, rw_flags, ...
+     *     __u64 user_data;
+     *     __u16 buf_index;
+     *     ...                 // padded to 64 bytes
+     * };
+     *
+     * struct io_uring_cqe {
+     *     __u64 user_data;
+     *     __s32 res;
+     *     __u32 flags;
+     * };
+     */
+    private static final int SIZEOF_SQE            = 64;
+    private static final int OFFSETOF_SQE_OPCODE   = 0;
+    private static final int OFFSETOF_SQE_FLAGS    = 1;
+    private static final int OFFSETOF_SQE_FD       = 4;
+    private static final int OFFSETOF_SQE_OFF      = 8;
+    private static final int OFFSETOF_SQE_ADDR     = 16;
+    private static final int OFFSETOF_SQE_LEN      = 24;
+    private static final int OFFSETOF_SQE_OP_FLAGS = 28;
+    private static final int OFFSETOF_SQE_USER_DATA = 32;
+    private static final int OFFSETOF_SQE_BUF_INDEX = 40;
+    private static final int SIZEOF_CQE            = 16;
+    private static final int OFFSETOF_CQE_USER_DATA = 0;
+    private static final int OFFSETOF_CQE_RES      = 8;
+
+    // mmap offsets
+    private static final long IORING_OFF_SQ_RING   = 0L;
+    private static final long IORING_OFF_CQ_RING   = 0x8000000L;
+    private static final long IORING_OFF_SQES      = 0x10000000L;
+
+    // setup flags
+    private static final int IORING_SETUP_CQSIZE   = (1 << 3);
+
+    // features
+    private static final int IORING_FEAT_NODROP     = (1 << 1);
+    private static final int IORING_FEAT_RW_CUR_POS = (1 << 3);
+    private static final int REQUIRED_FEATURES =
+        IORING_FEAT_NODROP | IORING_FEAT_RW_CUR_POS;
+
+    // enter flags
+    private static final int IORING_ENTER_GETEVENTS = (1 << 0);
+
+    // register opcodes
+    private static final int IORING_REGISTER_BUFFERS      = 0;
+    private static final int IORING_REGISTER_FILES        = 2;
+    private static final int IORING_REGISTER_FILES_UPDATE = 6;
+
+    /**
+     * struct iovec {
+     *     void  *iov_base;
+     *     size_t iov_len;
+     * };
+     *
+     * struct io_uring_files_update {
+     *     __u32 offset;
+     *     __u32 resv;
+     *     __u64 fds;
+     * };
+     */
+    private static final int SIZEOF_IOVEC          = 16;
+    private static final int SIZEOF_FILES_UPDATE   = 16;
+
+    // sqe flags
+    static final int IOSQE_FIXED_FILE = (1 << 0);
+
+    // opcodes
+    static final int IORING_OP_READV        = 1;
+    static final int IORING_OP_WRITEV       = 2;
+    static final int IORING_OP_READ_FIXED   = 4;
+    static final int IORING_OP_WRITE_FIXED  = 5;
+    static final int IORING_OP_POLL_ADD     = 6;
+    static final int IORING_OP_POLL_REMOVE  = 7;
+    static final int IORING_OP_TIMEOUT      = 11;
+    static final int IORING_OP_ASYNC_CANCEL = 14;
+    static final int IORING_OP_READ         = 22;
+    static final int IORING_OP_WRITE        = 23;
+
+    // poll events
+    static final int POLLIN  = 0x1;
+    static final int POLLOUT = 0x4;
+
+    // errno values returned in the res field of completions
+    static final int EINTR     = 4;
+    static final int EAGAIN    = 11;
+    static final int ECANCELED = 125;
+
+    private final int fd;
+    private final int features;
+
+    // submission queue
+    private final long sqRing;
+    private final long sqRingSize;
+    private final long sqes;
+    private final long sqesSize;
+    private final long sqHead;
+    private final long sqTail;
+    private final long sqArray;
+    private final int sqMask;
+    private final int sqEntries;
+    private int sqLocalTail;      // guarded by the caller's lock
+    private int pending;          // prepared but not submitted
+
+    // completion queue
+    private final long cqRing;
+    private final long cqRingSize;
+    private final long cqHead;
+    private final long cqTail;
+    private final long cqes;
+    private final int cqMask;
+    private int cqLocalHead;      // accessed only by the consuming thread
+
+    /**
+     * Creates an io_uring instance with a submission queue of at least
+     * {@code entries} entries and a completion queue of at least
+     * {@code cqEntries} entries.
+     */
+    IOUring(int entries, int cqEntries) throws IOException {
+        long params = unsafe.allocateMemory(SIZEOF_PARAMS);
+        try {
+            unsafe.setMemory(params, SIZEOF_PARAMS, (byte) 0);
+            unsafe.putInt(params + OFFSETOF_FLAGS, IORING_SETUP_CQSIZE);
+            unsafe.putInt(params + OFFSETOF_CQ_ENTRIES, cqEntries);
+            int fd = setup0(entries, params);
+            long sqOff = params + OFFSETOF_SQ_OFF;
+            long cqOff = params + OFFSETOF_CQ_OFF;
+            int sqEntries = unsafe.getInt(params + OFFSETOF_SQ_ENTRIES);
+            long sqRingSize = unsafe.getInt(sqOff + OFFSETOF_SQ_ARRAY)
+                    + (long) sqEntries * Integer.BYTES;
+            long sqesSize = (long) sqEntries * SIZEOF_SQE;
+            long cqRingSize = unsafe.getInt(cqOff + OFFSETOF_CQ_CQES)
+                    + (long) unsafe.getInt(params + OFFSETOF_CQ_ENTRIES) * SIZEOF_CQE;
+            long sqRing = 0L, sqes = 0L, cqRing;
+            try {
+                sqRing = mmap0(fd, sqRingSize, IORING_OFF_SQ_RING);
+                sqes = mmap0(fd, sqesSize, IORING_OFF_SQES);
+                cqRing = mmap0(fd, cqRingSize, IORING_OFF_CQ_RING);
+            } catch (IOException e) {
+                if (sqes != 0L)
+                    munmap0(sqes, sqesSize);
+                if (sqRing != 0L)
+                    munmap0(sqRing, sqRingSize);
+                FileDispatcherImpl.closeIntFD(fd);
+                throw e;
+            }
+
+            this.fd = fd;
+            this.features = unsafe.getInt(params + OFFSETOF_FEATURES);
+            this.sqRing = sqRing;
+            this.sqRingSize = sqRingSize;
+            this.sqes = sqes;
+            this.sqesSize = sqesSize;
+            this.sqHead = sqRing + unsafe.getInt(sqOff + OFFSETOF_RING_HEAD);
+            this.sqTail = sqRing + unsafe.getInt(sqOff + OFFSETOF_RING_TAIL);
+            this.sqArray = sqRing + unsafe.getInt(sqOff + OFFSETOF_SQ_ARRAY);
+            this.sqMask = unsafe.getInt(sqRing + unsafe.getInt(sqOff + OFFSETOF_RING_MASK));
+            this.sqEntries = sqEntries;
+            this.sqLocalTail = unsafe.getInt(sqTail);
+            this.cqRing = cqRing;
+            this.cqRingSize = cqRingSize;
+            this.cqHead = cqRing + unsafe.getInt(cqOff + OFFSETOF_RING_HEAD);
+            this.cqTail = cqRing + unsafe.getInt(cqOff + OFFSETOF_RING_TAIL);
+            this.cqes = cqRing + unsafe.getInt(cqOff + OFFSETOF_CQ_CQES);
+            this.cqMask = unsafe.getInt(cqRing + unsafe.getInt(cqOff + OFFSETOF_RING_MASK));
+            this.cqLocalHead = unsafe.getInt(cqHead);
+        } finally {
+            unsafe.freeMemory(params);
+        }
+    }
+
+    /**
+     * Returns the io_uring file descriptor.
+     */
+    int fd() {
+        return fd;
+    }
+
+    /**
+     * Returns the IORING_FEAT_* flags reported by the kernel.
+     */
+    int features() {
+        return features;
+    }
+
+    /**
+     * Adds an entry to the submission queue, without submitting it.
+     *
+     * @return false if the submission queue is full
+     */
+    boolean prepare(int opcode, int fd, long address, int len, long offset,
+                    int opFlags, long userData) {
+        return prepare(opcode, 0, fd, address, len, offset, opFlags, 0, userData);
+    }
+
+    /**
+     * Adds an entry to the submission queue, without submitting it.
+     *
+     * @param sqeFlags the IOSQE_* flags
+     * @param bufIndex the index of the registered buffer, for the
+     *        IORING_OP_READ_FIXED and IORING_OP_WRITE_FIXED opcodes
+     * @return false if the submission queue is full
+     */
+    boolean prepare(int opcode, int sqeFlags, int fd, long address, int len,
+                    long offset, int opFlags, int bufIndex, long userData) {
+        int tail = sqLocalTail;
+        if (tail - unsafe.getIntAcquire(null, sqHead) == sqEntries)
+            return false;
+        int index = tail & sqMask;
+        long sqe = sqes + (long) index * SIZEOF_SQE;
+        unsafe.setMemory(sqe, SIZEOF_SQE, (byte) 0);
+        unsafe.putByte(sqe + OFFSETOF_SQE_OPCODE, (byte) opcode);
+        unsafe.putByte(sqe + OFFSETOF_SQE_FLAGS, (byte) sqeFlags);
+        unsafe.putInt(sqe + OFFSETOF_SQE_FD, fd);
+        unsafe.putLong(sqe + OFFSETOF_SQE_OFF, offset);
+        unsafe.putLong(sqe + OFFSETOF_SQE_ADDR, address);
+        unsafe.putInt(sqe + OFFSETOF_SQE_LEN, len);
+        unsafe.putInt(sqe + OFFSETOF_SQE_OP_FLAGS, opFlags);
+        unsafe.putLong(sqe + OFFSETOF_SQE_USER_DATA, userData);
+        unsafe.putShort(sqe + OFFSETOF_SQE_BUF_INDEX, (short) bufIndex);
+        unsafe.putInt(sqArray + (long) index * Integer.BYTES, index);
+        sqLocalTail = tail + 1;
+        unsafe.putIntRelease(null, sqTail, tail + 1);
+        pending++;
+        return true;
+    }
+
+    /**
+     * Removes the entries prepared but not yet submitted from the
+     * submission queue, after the kernel failed to accept them.
+     *
+     * @return the user_data of the removed entries
+     */
+    long[] discardPending() {
+        int n = pending;
+        int tail = sqLocalTail - n;
+        long[] userData = new long[n];
+        for (int i = 0; i < n; i++) {
+            long sqe = sqes + (long) ((tail + i) & sqMask) * SIZEOF_SQE;
+            userData[i] = unsafe.getLong(sqe + OFFSETOF_SQE_USER_DATA);
+        }
+        sqLocalTail = tail;
+        unsafe.putIntRelease(null, sqTail, tail);
+        pending = 0;
+        return userData;
+    }
+
+    /**
+     * Returns the number of entries prepared but not yet submitted.
+     */
+    int pending() {
+        return pending;
+    }
+
+    /**
+     * Submits the prepared entries to the kernel.
+     *
+     * @return the number of entries submitted, or IOStatus.INTERRUPTED or
+     *         IOStatus.UNAVAILABLE if the kernel did not accept them
+     */
+    int submit() throws IOException {
+        int n = pending;
+        if (n == 0)
+            return 0;
+        int res = enter0(fd, n, 0, 0);
+        if (res > 0)
+            pending -= res;
+        return res;
+    }
+
+    /**
+     * Waits for at least one entry in the completion queue.
+     */
+    int await() throws IOException {
+        return enter0(fd, 0, 1, IORING_ENTER_GETEVENTS);
+    }
+
+    /**
+     * Returns the number of entries in the completion queue.
+     */
+    int completions() {
+        return unsafe.getIntAcquire(null, cqTail) - cqLocalHead;
+    }
+
+    /**
+     * Returns cqe[i].user_data, relative to the head of the completion queue.
+     */
+    long userData(int i) {
+        return unsafe.getLong(cqe(i) + OFFSETOF_CQE_USER_DATA);
+    }
+
+    /**
+     * Returns cqe[i].res, relative to the head of the completion queue.
+     */
+    int result(int i) {
+        return unsafe.getInt(cqe(i) + OFFSETOF_CQE_RES);
+    }
+
+    private long cqe(int i) {
+        return cqes + (long) ((cqLocalHead + i) & cqMask) * SIZEOF_CQE;
+    }
+
+    /**
+     * Removes n entries from the head of the completion queue.
+     */
+    void consumed(int n) {
+        cqLocalHead += n;
+        unsafe.putIntRelease(null, cqHead, cqLocalHead);
+    }
+
+    /**
+     * Registers a table of {@code count} fixed files, initially empty.
+     * Entries are set with {@link #updateFile} and referenced by index
+     * in entries prepared with the IOSQE_FIXED_FILE flag.
+     */
+    void registerFiles(int count) throws IOException {
+        long fds = unsafe.allocateMemory((long) count * Integer.BYTES);
+        try {
+            for (int i = 0; i < count; i++) {
+                unsafe.putInt(fds + (long) i * Integer.BYTES, -1);
+            }
+            register0(fd, IORING_REGISTER_FILES, fds, count);
+        } finally {
+            unsafe.freeMemory(fds);
+        }
+    }
+
+    /**
+     * Sets an entry in the table of fixed files to the given file
+     * descriptor, or clears it if {@code fdVal} is -1.
+     */
+    void updateFile(int index, int fdVal) throws IOException {
+        long arg = unsafe.allocateMemory(SIZEOF_FILES_UPDATE + Integer.BYTES);
+        try {
+            long fds = arg + SIZEOF_FILES_UPDATE;
+            unsafe.putInt(fds, fdVal);
+            unsafe.putInt(arg, index);
+            unsafe.putInt(arg + 4, 0);
+            unsafe.putLong(arg + 8, fds);
+            register0(fd, IORING_REGISTER_FILES_UPDATE, arg, 1);
+        } finally {
+            unsafe.freeMemory(arg);
+        }
+    }
+
+    /**
+     * Registers {@code count} buffers of {@code size} bytes, contiguous
+     * from the given address. The memory is pinned until the ring is
+     * closed, and buffers are referenced by index in entries prepared
+     * with the IORING_OP_READ_FIXED and IORING_OP_WRITE_FIXED opcodes.
+     */
+    void registerBuffers(long address, int count, int size) throws IOException {
+        long iovecs = unsafe.allocateMemory((long) count * SIZEOF_IOVEC);
+        try {
+            for (int i = 0; i < count; i++) {
+                long iov = iovecs + (long) i * SIZEOF_IOVEC;
+                unsafe.putLong(iov, address + (long) i * size);
+                unsafe.putLong(iov + 8, size);
+            }
+            register0(fd, IORING_REGISTER_BUFFERS, iovecs, count);
+        } finally {
+            unsafe.freeMemory(iovecs);
+        }
+    }
+
+    /**
+     * Returns the message for the given errno value, as used by the
+     * exceptions thrown by native methods.
+     */
+    static String strerror(int errno) {
+        String s = strerror0(errno);
+        return (s != null) ? s : "errno " + errno;
+    }
+
+    void close() throws IOException {
+        munmap0(cqRing, cqRingSize);
+        munmap0(sqes, sqesSize);
+        munmap0(sqRing, sqRingSize);
+        FileDispatcherImpl.closeIntFD(fd);
+    }
+
+    /**
+     * Returns true if io_uring is enabled and supported by the kernel.
+     */
+    static boolean isEnabled() {
+        return Holder.ENABLED;
+    }
+
+    private static class Holder {
+        static final boolean ENABLED = probe();
+    }
+
+    private static boolean probe() {
+        String s = GetPropertyAction.privilegedGetProperty("jdk.useIOUring");
+        if (s == null || !("".equals(s) || Boolean.parseBoolean(s)))
+            return false;
+        try {
+            IOUring ring = new IOUring(2, 4);
+            boolean supported = (ring.features() & REQUIRED_FEATURES) == REQUIRED_FEATURES;
+            ring.close();
+            return supported;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // -- Native methods --
+
+    private static native int setup0(int entries, long paramsAddress)
+        throws IOException;
+
+    private static native long mmap0(int fd, long size, long offset)
+        throws IOException;
+
+    private static native void munmap0(long address, long size);
+
+    private static native int enter0(int fd, int toSubmit, int minComplete,
+                                     int flags) throws IOException;
+
+    private static native int register0(int fd, int opcode, long arg, int nrArgs)
+        throws IOException;
+
+    private static native String strerror0(int errno);
+
+    static {
+        IOUtil.load();
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.linux.classes.sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of AsynchronousFileChannel that reads and writes with
+ * io_uring, so that the number of transfers in progress is not limited by
+ * the number of threads in the thread pool. The thread pool is used only
+ * to invoke completion handlers, and for the operations that io_uring
+ * does not perform (locking, truncate, force).
+ *
+ * <p> Reads and writes are submitted by the initiating thread to a ring
+ * shared by all channels, see {@link IOUringFileRing}. Closing the channel
+ * cancels the transfers in progress, which then complete with
+ * {@code AsynchronousCloseException}, and waits for them to complete
+ * before the file is closed, as the kernel may access the buffers until
+ * then.
+ *
+ * @since 21
+ */
+
+public class IOUringAsynchronousFileChannelImpl
+    extends SimpleAsynchronousFileChannelImpl
+{
+    private final IOUringFileRing ring;
+    private final int fdVal;
+
+    // index of the file in the table of fixed files, or -1
+    private final int fileIndex;
+
+    // transfers in progress
+    private final Set<Transfer<?>> transfers = ConcurrentHashMap.newKeySet();
+
+    // signalled when the last transfer completes after the channel is closed
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final Condition drained = stateLock.newCondition();
+
+    IOUringAsynchronousFileChannelImpl(FileDescriptor fdObj,
+                                       boolean reading,
+                                       boolean writing,
+                                       ExecutorService executor,
+                                       IOUringFileRing ring)
+    {
+        super(fdObj, reading, writing, executor);
+        this.ring = ring;
+        this.fdVal = IOUtil.fdVal(fdObj);
+        this.fileIndex = ring.registerFile(fdVal);
+    }
+
+    /**
+     * Returns true if asynchronous file channels read and write with
+     * io_uring.
+     */
+    public static boolean isEnabled() {
+        return IOUringFileRing.instance() != null;
+    }
+
+    public static AsynchronousFileChannel open(FileDescriptor fdo,
+                                               boolean reading,
+                                               boolean writing,
+                                               ThreadPool pool)
+    {
+        IOUringFileRing ring = IOUringFileRing.instance();
+        if (ring == null)
+            return SimpleAsynchronousFileChannelImpl.open(fdo, reading, writing, pool);
+        return new IOUringAsynchronousFileChannelImpl(fdo, reading, writing,
+                                                      executor(pool), ring);
+    }
+
+    @Override
+    void implCloseAsynchronousIO() {
+        for (Transfer<?> transfer : transfers) {
+            ring.cancel(transfer);
+        }
+        stateLock.lock();
+        try {
+            while (!transfers.isEmpty()) {
+                drained.awaitUninterruptibly();
+            }
+        } finally {
+            stateLock.unlock();
+        }
+        if (fileIndex >= 0) {
+            ring.unregisterFile(fileIndex);
+        }
+    }
+
+    @Override
+    <A> Future<Integer> implRead(ByteBuffer dst,
+                                 long position,
+                                 A attachment,
+                                 CompletionHandler<Integer,? super A> handler)
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!reading)
+            throw new NonReadableChannelException();
+        if (dst.isReadOnly())
+            throw new IllegalArgumentException("Read-only buffer");
+        return initiate(true, dst, position, attachment, handler);
+    }
+
+    @Override
+    <A> Future<Integer> implWrite(ByteBuffer src,
+                                  long position,
+                                  A attachment,
+                                  CompletionHandler<Integer,? super A> handler)
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!writing)
+            throw new NonWritableChannelException();
+        return initiate(false, src, position, attachment, handler);
+    }
+
+    /**
+     * Initiates a read or write, completing immediately if the channel is
+     * closed or the buffer has no bytes remaining.
+     */
+    private <A> Future<Integer> initiate(boolean read,
+                                         ByteBuffer buf,
+                                         long position,
+                                         A attachment,
+                                         CompletionHandler<Integer,? super A> handler)
+    {
+        if (!isOpen() || (buf.remaining() == 0)) {
+            Throwable exc = (isOpen()) ? null : new ClosedChannelException();
+            if (handler == null)
+                return CompletedFuture.withResult(0, exc);
+            Invoker.invokeIndirectly(handler, attachment, 0, exc, executor);
+            return null;
+        }
+
+        PendingFuture<Integer,A> result = (handler == null) ?
+            new PendingFuture<Integer,A>(this) : null;
+        Transfer<A> transfer = new Transfer<>(read, buf, attachment, handler, result);
+        Throwable exc = null;
+        try {
+            begin();
+            transfer.acquireBuffer();
+            transfers.add(transfer);
+            try {
+                ring.submit(transfer, read, fdVal, fileIndex, transfer.address,
+                            transfer.len, position, transfer.bufIndex);
+            } catch (IOException x) {
+                transfers.remove(transfer);
+                transfer.releaseBuffer();
+                throw x;
+            }
+        } catch (IOException x) {
+            if (!isOpen())
+                x = new AsynchronousCloseException();
+            exc = x;
+        } finally {
+            end();
+        }
+        if (exc != null) {
+            if (handler == null)
+                return CompletedFuture.withFailure(exc);
+            Invoker.invokeIndirectly(handler, attachment, null, exc, executor);
+        }
+        return result;
+    }
+
+    /**
+     * A read or write in progress.
+     */
+    private class Transfer<A> extends IOUringFileRing.Request {
+        final boolean read;
+        final ByteBuffer buf;
+        final A attachment;
+        final CompletionHandler<Integer,? super A> handler;
+        final PendingFuture<Integer,A> result;
+
+        // the memory the kernel transfers from or to
+        long address;
+        int len;
+
+        // registered buffer index, temporary direct buffer, or scope releaser
+        int bufIndex = -1;
+        ByteBuffer bounce;
+        Runnable releaser;
+
+        Transfer(boolean read,
+                 ByteBuffer buf,
+                 A attachment,
+                 CompletionHandler<Integer,? super A> handler,
+                 PendingFuture<Integer,A> result)
+        {
+            this.read = read;
+            this.buf = buf;
+            this.attachment = attachment;
+            this.handler = handler;
+            this.result = result;
+        }
+
+        /**
+         * Sets the memory for the transfer: the buffer itself if direct, or
+         * else a registered buffer or temporary direct buffer that is
+         * copied from the buffer before a write, and to it after a read.
+         */
+        void acquireBuffer() {
+            int pos = buf.position();
+            int lim = buf.limit();
+            int rem = (pos <= lim ? lim - pos : 0);
+            len = rem;
+            if (buf instanceof DirectBuffer) {
+                releaser = IOUtil.acquireScopes(buf, null);
+                address = IOUtil.bufferAddress(buf) + pos;
+                return;
+            }
+            if (rem <= IOUringFileRing.fixedBufferSize())
+                bufIndex = ring.acquireBuffer();
+            ByteBuffer bb;
+            if (bufIndex >= 0) {
+                bb = ring.buffer(bufIndex);
+                address = ring.bufferAddress(bufIndex);
+            } else {
+                bb = bounce = Util.getTemporaryDirectBuffer(rem);
+                address = ((DirectBuffer) bb).address();
+            }
+            if (!read) {
+                bb.put(buf.duplicate());
+            }
+        }
+
+        void releaseBuffer() {
+            if (releaser != null) {
+                IOUtil.releaseScopes(releaser);
+            } else if (bufIndex >= 0) {
+                ring.releaseBuffer(bufIndex);
+            } else if (bounce != null) {
+                Util.releaseTemporaryDirectBuffer(bounce);
+            }
+        }
+
+        @Override
+        void completed(int res) {
+            int n = 0;
+            Throwable exc = null;
+            try {
+                if (res >= 0) {
+                    if (read && res > 0 && releaser == null) {
+                        ByteBuffer bb = (bufIndex >= 0) ? ring.buffer(bufIndex) : bounce;
+                        bb.limit(res);
+                        buf.put(bb);
+                    } else if (res > 0) {
+                        buf.position(buf.position() + res);
+                    }
+                    n = (read && res == 0) ? IOStatus.EOF : res;
+                } else if (!isOpen()) {
+                    exc = new AsynchronousCloseException();
+                } else {
+                    exc = new IOException(IOUring.strerror(-res));
+                }
+            } catch (Throwable x) {
+                exc = x;
+            }
+            finish(n, exc);
+        }
+
+        @Override
+        void failed(IOException exc) {
+            finish(0, isOpen() ? exc : new AsynchronousCloseException());
+        }
+
+        /**
+         * Releases the buffer and completes the future or invokes the
+         * handler.
+         */
+        private void finish(int n, Throwable exc) {
+            try {
+                releaseBuffer();
+            } finally {
+                transfers.remove(this);
+                if (!isOpen()) {
+                    stateLock.lock();
+                    try {
+                        drained.signalAll();
+                    } finally {
+                        stateLock.unlock();
+                    }
+                }
+            }
+
+            if (handler == null) {
+                result.setResult(n, exc);
+            } else {
+                try {
+                    Invoker.invokeIndirectly(handler, attachment, n, exc, executor);
+                } catch (ShutdownChannelGroupException ignore) {
+                    // executor shutdown
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.linux.classes.sun.nio.ch;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.internal.access.JavaLangAccess;
+import jdk.internal.access.SharedSecrets;
+import jdk.internal.misc.InnocuousThread;
+import static java.base.linux.classes.sun.nio.ch.IOUring.*;
+
+/**
+ * Performs file reads and writes for virtual threads with io_uring.
+ *
+ * <p> A virtual thread submits its operation and parks, releasing its
+ * carrier, until a completion thread reaps the result and unparks it.
+ * This avoids pinning the carrier in a blocking system call, or
+ * compensating for it with an additional carrier.
+ *
+ * <p> Closing a channel cancels the operations in progress on it. This
+ * includes closing an interruptible channel because the waiting thread is
+ * interrupted. An interrupt does not cancel an operation by itself, as an
+ * uninterruptible channel ignores it. A thread continues to wait for a
+ * cancelled operation to complete, as the kernel may still access the
+ * buffer until then.
+ *
+ * @since 21
+ */
+
+final class IOUringFileIO {
+    private static final JavaLangAccess JLA = SharedSecrets.getJavaLangAccess();
+
+    private static final int SQ_ENTRIES = 256;
+    private static final int CQ_ENTRIES = 4096;
+
+    // user_data of requests whose completions are ignored
+    private static final long IGNORED = -1L;
+
+    private final IOUring ring;
+
+    // serializes prepare and submit
+    private final ReentrantLock submitLock = new ReentrantLock();
+
+    // operations in progress, keyed by user_data
+    private final Map<Long, Op> ops = new ConcurrentHashMap<>();
+
+    // user_data of the last operation, guarded by submitLock
+    private long lastId;
+
+    /**
+     * An operation in progress.
+     */
+    private static final class Op {
+        final Thread thread;
+        final int fdVal;
+        int result;
+        volatile boolean done;
+
+        Op(Thread thread, int fdVal) {
+            this.thread = thread;
+            this.fdVal = fdVal;
+        }
+    }
+
+    private IOUringFileIO() throws IOException {
+        this.ring = new IOUring(SQ_ENTRIES, CQ_ENTRIES);
+    }
+
+    /**
+     * Returns true if virtual threads perform file I/O with io_uring.
+     */
+    static boolean isEnabled() {
+        return Holder.INSTANCE != null;
+    }
+
+    /**
+     * Returns the instance to perform I/O for the current thread, or null
+     * if the current thread should block in the system call.
+     */
+    static IOUringFileIO current() {
+        return (Thread.currentThread().isVirtual()) ? Holder.INSTANCE : null;
+    }
+
+    private static class Holder {
+        static final IOUringFileIO INSTANCE = create();
+    }
+
+    private static IOUringFileIO create() {
+        if (!IOUring.isEnabled())
+            return null;
+        try {
+            IOUringFileIO io = new IOUringFileIO();
+            io.start();
+            return io;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts the completion thread.
+     */
+    private void start() {
+        try {
+            Thread thread = JLA.executeOnCarrierThread(() ->
+                InnocuousThread.newSystemThread("IOUring-File-Completer", this::completionLoop)
+            );
+            thread.setDaemon(true);
+            thread.start();
+        } catch (Exception e) {
+            throw new InternalError(e);
+        }
+    }
+
+    int read(int fdVal, long address, int len, long position) throws IOException {
+        int n = execute(IORING_OP_READ, fdVal, address, len, position);
+        return (n == 0) ? IOStatus.EOF : n;
+    }
+
+    int write(int fdVal, long address, int len, long position) throws IOException {
+        return execute(IORING_OP_WRITE, fdVal, address, len, position);
+    }
+
+    long readv(int fdVal, long address, int len) throws IOException {
+        int n = execute(IORING_OP_READV, fdVal, address, len, -1L);
+        return (n == 0) ? IOStatus.EOF : n;
+    }
+
+    long writev(int fdVal, long address, int len) throws IOException {
+        return execute(IORING_OP_WRITEV, fdVal, address, len, -1L);
+    }
+
+    /**
+     * Submits an operation and parks until it completes.
+     *
+     * @param offset the file position, or -1 to use and update the
+     *        current position
+     * @return the result, or IOStatus.INTERRUPTED if cancelled
+     */
+    private int execute(int opcode, int fdVal, long address, int len, long offset)
+        throws IOException
+    {
+        Op op = new Op(Thread.currentThread(), fdVal);
+        long id;
+        submitLock.lock();
+        try {
+            id = ++lastId;
+            ops.put(id, op);
+            try {
+                prepare(opcode, fdVal, address, len, offset, id);
+                submit();
+            } catch (Throwable e) {
+                ops.remove(id);
+                throw e;
+            }
+        } finally {
+            submitLock.unlock();
+        }
+
+        // the interrupt is ignored while waiting, closing the channel
+        // cancels the operation
+        boolean interrupted = false;
+        while (!op.done) {
+            LockSupport.park(this);
+            if (Thread.interrupted())
+                interrupted = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        int res = op.result;
+        if (res >= 0)
+            return res;
+        if (res == -EINTR || res == -ECANCELED)
+            return IOStatus.INTERRUPTED;
+        if (res == -EAGAIN)
+            return IOStatus.UNAVAILABLE;
+        throw new IOException(strerror(-res));
+    }
+
+    /**
+     * Cancels all operations in progress on the given file descriptor.
+     */
+    static void cancelAll(int fdVal) {
+        IOUringFileIO io = Holder.INSTANCE;
+        if (io != null) {
+            io.cancelOps(fdVal);
+        }
+    }
+
+    private void cancelOps(int fdVal) {
+        for (Map.Entry<Long, Op> e : ops.entrySet()) {
+            if (e.getValue().fdVal == fdVal) {
+                cancel(e.getKey());
+            }
+        }
+    }
+
+    /**
+     * Cancels the operation with the given user_data, if still in progress.
+     */
+    private void cancel(long id) {
+        submitLock.lock();
+        try {
+            prepare(IORING_OP_ASYNC_CANCEL, -1, id, 0, 0L, IGNORED);
+            submit();
+        } catch (IOException ignore) {
+            // the operation completes normally
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /**
+     * Prepares a request, submitting pending requests first if the
+     * submission queue is full.
+     */
+    private void prepare(int opcode, int fdVal, long address, int len, long offset,
+                         long userData) throws IOException {
+        assert submitLock.isHeldByCurrentThread();
+        while (!ring.prepare(opcode, fdVal, address, len, offset, 0, userData)) {
+            submit();
+        }
+    }
+
+    /**
+     * Submits all pending requests.
+     */
+    private void submit() throws IOException {
+        assert submitLock.isHeldByCurrentThread();
+        while (ring.pending() > 0) {
+            int n = ring.submit();
+            if (n == IOStatus.UNAVAILABLE)
+                Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reaps completions and unparks the threads waiting for them.
+     */
+    private void completionLoop() {
+        try {
+            for (;;) {
+                if (ring.completions() == 0)
+                    ring.await();
+                int n = ring.completions();
+                for (int i = 0; i < n; i++) {
+                    long userData = ring.userData(i);
+                    if (userData != IGNORED) {
+                        Op op = ops.remove(userData);
+                        if (op != null) {
+                            op.result = ring.result(i);
+                            op.done = true;
+                            LockSupport.unpark(op.thread);
+                        }
+                    }
+                }
+                ring.consumed(n);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
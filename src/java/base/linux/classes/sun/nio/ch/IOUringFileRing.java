@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.linux.classes.sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.internal.access.JavaLangAccess;
+import jdk.internal.access.SharedSecrets;
+import jdk.internal.misc.InnocuousThread;
+import static java.base.linux.classes.sun.nio.ch.IOUring.*;
+
+/**
+ * An io_uring instance shared by asynchronous file channels.
+ *
+ * <p> Channels submit reads and writes with {@link #submit}, and a
+ * completion thread reaps the results and completes the requests. A
+ * thread submitting a request prepares it while holding a lock, then
+ * submits all requests prepared by threads up to that point, so that
+ * requests issued concurrently reach the kernel in one system call.
+ *
+ * <p> Channels register their file descriptor in a table of fixed files,
+ * which saves the kernel looking up the file for each request. Transfers
+ * from and to heap buffers are copied through a pool of registered
+ * buffers, which the kernel has pinned and mapped once, rather than
+ * through a temporary direct buffer. Both are optional: a channel uses
+ * its file descriptor when the table is full, and a temporary direct
+ * buffer when the pool is exhausted or the transfer is too large.
+ *
+ * @since 21
+ */
+
+final class IOUringFileRing {
+    private static final JavaLangAccess JLA = SharedSecrets.getJavaLangAccess();
+
+    private static final int SQ_ENTRIES = 1024;
+    private static final int CQ_ENTRIES = 16384;
+
+    // size of the table of fixed files
+    private static final int FIXED_FILES = 1024;
+
+    // number and size of registered buffers, at most 64
+    private static final int FIXED_BUFFERS = 64;
+    private static final int FIXED_BUFFER_SIZE = 64 * 1024;
+
+    // user_data of requests whose completions are ignored
+    private static final long IGNORED = -1L;
+
+    private final IOUring ring;
+
+    // serializes prepare and submit
+    private final ReentrantLock submitLock = new ReentrantLock();
+
+    // requests in progress, keyed by user_data
+    private final Map<Long, Request> requests = new ConcurrentHashMap<>();
+
+    // user_data of the last request, guarded by submitLock
+    private long lastId;
+
+    // entries in use in the table of fixed files, null if not registered
+    private final BitSet fixedFiles;
+    private final ReentrantLock fixedFilesLock = new ReentrantLock();
+
+    // registered buffers and the bit mask of those not in use
+    private final ByteBuffer fixedBuffers;
+    private final long fixedBuffersAddress;
+    private final AtomicLong freeBuffers;
+
+    /**
+     * A read or write in progress.
+     */
+    abstract static class Request {
+        private long id;
+
+        /**
+         * Invoked by the completion thread with the result of the request,
+         * a negative errno value if it failed.
+         */
+        abstract void completed(int res);
+
+        /**
+         * Invoked if the request was queued but the kernel failed to
+         * accept it.
+         */
+        abstract void failed(IOException exc);
+    }
+
+    private IOUringFileRing() throws IOException {
+        this.ring = new IOUring(SQ_ENTRIES, CQ_ENTRIES);
+
+        BitSet fixedFiles;
+        try {
+            ring.registerFiles(FIXED_FILES);
+            fixedFiles = new BitSet(FIXED_FILES);
+        } catch (IOException e) {
+            // RLIMIT_NOFILE too low
+            fixedFiles = null;
+        }
+        this.fixedFiles = fixedFiles;
+
+        ByteBuffer buffers = ByteBuffer.allocateDirect(FIXED_BUFFERS * FIXED_BUFFER_SIZE);
+        long address = ((DirectBuffer) buffers).address();
+        long free;
+        try {
+            ring.registerBuffers(address, FIXED_BUFFERS, FIXED_BUFFER_SIZE);
+            free = (FIXED_BUFFERS == 64) ? -1L : (1L << FIXED_BUFFERS) - 1;
+        } catch (IOException e) {
+            // RLIMIT_MEMLOCK too low
+            free = 0L;
+        }
+        this.fixedBuffers = buffers;
+        this.fixedBuffersAddress = address;
+        this.freeBuffers = new AtomicLong(free);
+    }
+
+    /**
+     * Returns the shared instance, or null if io_uring is not enabled or
+     * not supported.
+     */
+    static IOUringFileRing instance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        static final IOUringFileRing INSTANCE = create();
+    }
+
+    private static IOUringFileRing create() {
+        if (!IOUring.isEnabled())
+            return null;
+        try {
+            IOUringFileRing ring = new IOUringFileRing();
+            ring.start();
+            return ring;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts the completion thread.
+     */
+    private void start() {
+        try {
+            Thread thread = JLA.executeOnCarrierThread(() ->
+                InnocuousThread.newSystemThread("IOUring-AsyncFile-Completer", this::completionLoop)
+            );
+            thread.setDaemon(true);
+            thread.start();
+        } catch (Exception e) {
+            throw new InternalError(e);
+        }
+    }
+
+    // -- fixed files --
+
+    /**
+     * Adds a file descriptor to the table of fixed files.
+     *
+     * @return the index in the table, or -1 if the table is full or not
+     *         registered
+     */
+    int registerFile(int fdVal) {
+        if (fixedFiles == null)
+            return -1;
+        int index;
+        fixedFilesLock.lock();
+        try {
+            index = fixedFiles.nextClearBit(0);
+            if (index >= FIXED_FILES)
+                return -1;
+            fixedFiles.set(index);
+        } finally {
+            fixedFilesLock.unlock();
+        }
+        try {
+            ring.updateFile(index, fdVal);
+            return index;
+        } catch (IOException e) {
+            releaseFileIndex(index);
+            return -1;
+        }
+    }
+
+    /**
+     * Removes a file descriptor from the table of fixed files. The
+     * requests that referenced it must have completed.
+     */
+    void unregisterFile(int index) {
+        try {
+            ring.updateFile(index, -1);
+        } catch (IOException e) {
+            // the entry is replaced when reused
+        }
+        releaseFileIndex(index);
+    }
+
+    private void releaseFileIndex(int index) {
+        fixedFilesLock.lock();
+        try {
+            fixedFiles.clear(index);
+        } finally {
+            fixedFilesLock.unlock();
+        }
+    }
+
+    // -- registered buffers --
+
+    /**
+     * Returns the size of each registered buffer.
+     */
+    static int fixedBufferSize() {
+        return FIXED_BUFFER_SIZE;
+    }
+
+    /**
+     * Acquires a registered buffer.
+     *
+     * @return the index of the buffer, or -1 if none is available
+     */
+    int acquireBuffer() {
+        long free;
+        int index;
+        do {
+            free = freeBuffers.get();
+            if (free == 0L)
+                return -1;
+            index = Long.numberOfTrailingZeros(free);
+        } while (!freeBuffers.compareAndSet(free, free & ~(1L << index)));
+        return index;
+    }
+
+    /**
+     * Releases a registered buffer acquired with {@link #acquireBuffer}.
+     */
+    void releaseBuffer(int index) {
+        long free;
+        do {
+            free = freeBuffers.get();
+        } while (!freeBuffers.compareAndSet(free, free | (1L << index)));
+    }
+
+    /**
+     * Returns a view of the registered buffer with the given index, with
+     * its position at zero and its limit at its capacity.
+     */
+    ByteBuffer buffer(int index) {
+        return fixedBuffers.slice(index * FIXED_BUFFER_SIZE, FIXED_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the address of the registered buffer with the given index.
+     */
+    long bufferAddress(int index) {
+        return fixedBuffersAddress + (long) index * FIXED_BUFFER_SIZE;
+    }
+
+    // -- requests --
+
+    /**
+     * Submits a read or write.
+     *
+     * @param fileIndex the index in the table of fixed files, or -1 to
+     *        use {@code fdVal}
+     * @param bufIndex the index of the registered buffer containing
+     *        {@code address}, or -1
+     * @throws IOException if the request could not be queued
+     */
+    void submit(Request request, boolean read, int fdVal, int fileIndex,
+                long address, int len, long position, int bufIndex)
+        throws IOException
+    {
+        int opcode;
+        if (bufIndex >= 0) {
+            opcode = (read) ? IORING_OP_READ_FIXED : IORING_OP_WRITE_FIXED;
+        } else {
+            opcode = (read) ? IORING_OP_READ : IORING_OP_WRITE;
+            bufIndex = 0;
+        }
+        int sqeFlags = 0;
+        int fd = fdVal;
+        if (fileIndex >= 0) {
+            sqeFlags = IOSQE_FIXED_FILE;
+            fd = fileIndex;
+        }
+
+        submitLock.lock();
+        try {
+            long id = ++lastId;
+            request.id = id;
+            requests.put(id, request);
+            try {
+                prepare(opcode, sqeFlags, fd, address, len, position, bufIndex, id);
+            } catch (IOException e) {
+                requests.remove(id);
+                throw e;
+            }
+        } finally {
+            submitLock.unlock();
+        }
+        flush();
+    }
+
+    /**
+     * Cancels a request, if still in progress. The request completes with
+     * -ECANCELED if cancelled before the kernel started the transfer.
+     */
+    void cancel(Request request) {
+        submitLock.lock();
+        try {
+            prepare(IORING_OP_ASYNC_CANCEL, 0, -1, request.id, 0, 0L, 0, IGNORED);
+        } catch (IOException ignore) {
+            // the request completes normally
+        } finally {
+            submitLock.unlock();
+        }
+        flush();
+    }
+
+    /**
+     * Prepares a request, submitting pending requests first if the
+     * submission queue is full.
+     */
+    private void prepare(int opcode, int sqeFlags, int fd, long address, int len,
+                         long offset, int bufIndex, long userData) throws IOException {
+        assert submitLock.isHeldByCurrentThread();
+        while (!ring.prepare(opcode, sqeFlags, fd, address, len, offset, 0, bufIndex, userData)) {
+            int n = ring.submit();
+            if (n == IOStatus.UNAVAILABLE)
+                Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Submits pending requests, if not already submitted by another thread.
+     * Requests that the kernel does not accept for now remain pending, and
+     * are submitted by the completion thread if not by the next submitter.
+     * If submitting fails with an error, the pending requests are failed
+     * with it.
+     */
+    private void flush() {
+        long[] rejected = null;
+        IOException exc = null;
+        submitLock.lock();
+        try {
+            while (ring.pending() > 0) {
+                int n = ring.submit();
+                if (n == IOStatus.UNAVAILABLE)
+                    Thread.onSpinWait();
+            }
+        } catch (IOException e) {
+            exc = e;
+            rejected = ring.discardPending();
+        } finally {
+            submitLock.unlock();
+        }
+        if (rejected != null) {
+            for (long id : rejected) {
+                if (id != IGNORED) {
+                    Request request = requests.remove(id);
+                    if (request != null) {
+                        request.failed(exc);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reaps completions and completes the requests.
+     */
+    private void completionLoop() {
+        try {
+            for (;;) {
+                if (ring.completions() == 0) {
+                    if (ring.pending() > 0)
+                        flush();
+                    ring.await();
+                }
+                int n = ring.completions();
+                for (int i = 0; i < n; i++) {
+                    long userData = ring.userData(i);
+                    if (userData != IGNORED) {
+                        Request request = requests.remove(userData);
+                        if (request != null) {
+                            request.completed(ring.result(i));
+                        }
+                    }
+                }
+                ring.consumed(n);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
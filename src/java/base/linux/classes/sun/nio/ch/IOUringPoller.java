@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.linux.classes.sun.nio.ch;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.internal.misc.Unsafe;
+import static java.base.linux.classes.sun.nio.ch.IOUring.*;
+
+/**
+ * Poller implementation based on io_uring.
+ *
+ * <p> Each registration submits a one-shot IORING_OP_POLL_ADD request, so
+ * unlike the epoll poller there is no interest set to re-arm. Requests
+ * prepared by threads registering concurrently are submitted together by
+ * whichever of them reaches the kernel first, and the poller thread reaps
+ * the completions without a system call when they are already available.
+ *
+ * <p> A pending poll request holds a reference to the file, so a request
+ * is cancelled with IORING_OP_POLL_REMOVE whenever a thread stops polling
+ * without the request having completed, including when the file
+ * descriptor is about to be closed.
+ *
+ * @since 21
+ */
+
+class IOUringPoller extends Poller {
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+
+    private static final int SQ_ENTRIES = 256;
+    private static final int CQ_ENTRIES = 4096;
+
+    // user_data of requests whose completions are ignored
+    private static final long IGNORED = -1L;
+
+    private final IOUring ring;
+    private final int event;
+
+    // serializes prepare and submit
+    private final ReentrantLock submitLock = new ReentrantLock();
+
+    // user_data of the poll request armed for each file descriptor
+    private final Map<Integer, Long> armed = new ConcurrentHashMap<>();
+
+    // distinguishes successive poll requests for the same file descriptor
+    private int sequence;
+
+    // struct __kernel_timespec for timed polls, guarded by submitLock
+    private final long timespec;
+
+    IOUringPoller(boolean read) throws IOException {
+        super(read);
+        this.ring = new IOUring(SQ_ENTRIES, CQ_ENTRIES);
+        this.event = (read) ? POLLIN : POLLOUT;
+        this.timespec = unsafe.allocateMemory(16);
+    }
+
+    @Override
+    int fdVal() {
+        return ring.fd();
+    }
+
+    @Override
+    void implRegister(int fdVal) throws IOException {
+        submitLock.lock();
+        try {
+            long userData = ((long) (++sequence & 0x7fffffff) << 32) | (fdVal & 0xffffffffL);
+            Long previous = armed.put(fdVal, userData);
+            if (previous != null)
+                prepare(IORING_OP_POLL_REMOVE, -1, previous, 0, 0L, 0, IGNORED);
+            prepare(IORING_OP_POLL_ADD, fdVal, 0L, 0, 0L, event, userData);
+        } finally {
+            submitLock.unlock();
+        }
+        submit();
+    }
+
+    @Override
+    void implDeregister(int fdVal) {
+        Long userData = armed.remove(fdVal);
+        if (userData != null) {
+            submitLock.lock();
+            try {
+                prepare(IORING_OP_POLL_REMOVE, -1, userData, 0, 0L, 0, IGNORED);
+            } catch (IOException ignore) {
+                // the request is cancelled when the ring is closed
+            } finally {
+                submitLock.unlock();
+            }
+            try {
+                submit();
+            } catch (IOException ignore) { }
+        }
+    }
+
+    /**
+     * Prepares a request, submitting pending requests first if the
+     * submission queue is full.
+     */
+    private void prepare(int opcode, int fd, long address, int len, long offset,
+                         int opFlags, long userData) throws IOException {
+        assert submitLock.isHeldByCurrentThread();
+        while (!ring.prepare(opcode, fd, address, len, offset, opFlags, userData)) {
+            int n = ring.submit();
+            if (n == IOStatus.UNAVAILABLE)
+                Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Submits pending requests, if not already submitted by another thread.
+     */
+    private void submit() throws IOException {
+        submitLock.lock();
+        try {
+            while (ring.pending() > 0) {
+                int n = ring.submit();
+                if (n == IOStatus.UNAVAILABLE)
+                    Thread.onSpinWait();
+            }
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    @Override
+    int poll(int timeout) throws IOException {
+        if (timeout > 0) {
+            submitLock.lock();
+            try {
+                unsafe.putLong(timespec, timeout / 1000);
+                unsafe.putLong(timespec + 8, (timeout % 1000) * 1_000_000L);
+                prepare(IORING_OP_TIMEOUT, -1, timespec, 1, 0L, 0, IGNORED);
+            } finally {
+                submitLock.unlock();
+            }
+            submit();
+        }
+        if (timeout != 0 && ring.completions() == 0)
+            ring.await();
+
+        int n = ring.completions();
+        int polled = 0;
+        for (int i = 0; i < n; i++) {
+            long userData = ring.userData(i);
+            if (userData != IGNORED && ring.result(i) != -ECANCELED) {
+                int fdVal = (int) userData;
+                if (armed.remove(fdVal, userData)) {
+                    polled(fdVal);
+                    polled++;
+                }
+            }
+        }
+        ring.consumed(n);
+        return polled;
+    }
+}
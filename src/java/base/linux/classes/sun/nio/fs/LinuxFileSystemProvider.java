@@ -4,10 +4,14 @@
 
 package java.base.linux.classes.sun.nio.fs;
 
+import java.nio.channels.AsynchronousFileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.*;
 import java.nio.file.spi.FileTypeDetector;
+import java.io.FileDescriptor;
 import java.io.IOException;
+import sun.nio.ch.IOUringAsynchronousFileChannelImpl;
+import sun.nio.ch.ThreadPool;
 
 import java.base.share.classes.jdk.internal.util.StaticProperty;
 
@@ -34,6 +38,16 @@ class LinuxFileSystemProvider extends UnixFileSystemProvider {
         return new LinuxFileStore(path);
     }
 
+    @Override
+    AsynchronousFileChannel newAsynchronousFileChannel(FileDescriptor fdObj,
+                                                       boolean reading,
+                                                       boolean writing,
+                                                       ThreadPool pool)
+    {
+        // uses io_uring if enabled, otherwise the thread pool
+        return IOUringAsynchronousFileChannelImpl.open(fdObj, reading, writing, pool);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <V extends FileAttributeView> V getFileAttributeView(Path obj,
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+ #include <unistd.h>
+ #include <sys/mman.h>
+ #include <sys/syscall.h>
+ #include <sys/types.h>
+
+#include "jni.h"
+#include "jni_util.h"
+#include "jvm.h"
+#include "jlong.h"
+#include "nio.h"
+#include "nio_util.h"
+
+#include "sun_nio_ch_IOUring.h"
+
+/*
+ * io_uring has no wrappers in older C libraries, and the build may use
+ * kernel headers that predate it, so the system calls are made directly.
+ * The system call numbers are the same on all architectures supported.
+ */
+#ifndef __NR_io_uring_setup
+#define __NR_io_uring_setup 425
+#endif
+#ifndef __NR_io_uring_enter
+#define __NR_io_uring_enter 426
+#endif
+#ifndef __NR_io_uring_register
+#define __NR_io_uring_register 427
+#endif
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IOUring_setup0(JNIEnv *env, jclass clazz, jint entries,
+                               jlong paramsAddress)
+{
+    void *params = jlong_to_ptr(paramsAddress);
+    int fd = (int) syscall(__NR_io_uring_setup, (unsigned) entries, params);
+    if (fd < 0) {
+        JNU_ThrowIOExceptionWithLastError(env, "io_uring_setup failed");
+        return IOS_THROWN;
+    }
+    return fd;
+}
+
+JNIEXPORT jlong JNICALL
+Java_sun_nio_ch_IOUring_mmap0(JNIEnv *env, jclass clazz, jint fd,
+                              jlong size, jlong offset)
+{
+    void *addr = mmap(NULL, (size_t) size, PROT_READ | PROT_WRITE,
+                      MAP_SHARED | MAP_POPULATE, fd, (off_t) offset);
+    if (addr == MAP_FAILED) {
+        JNU_ThrowIOExceptionWithLastError(env, "mmap failed");
+        return 0;
+    }
+    return ptr_to_jlong(addr);
+}
+
+JNIEXPORT void JNICALL
+Java_sun_nio_ch_IOUring_munmap0(JNIEnv *env, jclass clazz, jlong address,
+                                jlong size)
+{
+    munmap(jlong_to_ptr(address), (size_t) size);
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IOUring_enter0(JNIEnv *env, jclass clazz, jint fd,
+                               jint toSubmit, jint minComplete, jint flags)
+{
+    int res = (int) syscall(__NR_io_uring_enter, fd, (unsigned) toSubmit,
+                            (unsigned) minComplete, (unsigned) flags,
+                            NULL, 0);
+    if (res < 0) {
+        if (errno == EINTR) {
+            return IOS_INTERRUPTED;
+        } else if (errno == EAGAIN || errno == EBUSY) {
+            return IOS_UNAVAILABLE;
+        } else {
+            JNU_ThrowIOExceptionWithLastError(env, "io_uring_enter failed");
+            return IOS_THROWN;
+        }
+    }
+    return res;
+}
+
+JNIEXPORT jstring JNICALL
+Java_sun_nio_ch_IOUring_strerror0(JNIEnv *env, jclass clazz, jint errnum)
+{
+    char buf[1024];
+    if (getErrorString((int) errnum, buf, sizeof(buf)) == 0) {
+        return NULL;
+    }
+    return JNU_NewStringPlatform(env, buf);
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IOUring_register0(JNIEnv *env, jclass clazz, jint fd,
+                                  jint opcode, jlong arg, jint nrArgs)
+{
+    int res;
+    do {
+        res = (int) syscall(__NR_io_uring_register, fd, (unsigned) opcode,
+                            jlong_to_ptr(arg), (unsigned) nrArgs);
+    } while (res < 0 && errno == EINTR);
+    if (res < 0) {
+        JNU_ThrowIOExceptionWithLastError(env, "io_uring_register failed");
+        return IOS_THROWN;
+    }
+    return res;
+}
@@ -5,6 +5,10 @@
 package java.base.share.classes.java.io;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+import java.base.share.classes.jdk.internal.misc.InternalLock;
 
 /**
  * A piped input stream should be connected
@@ -74,6 +78,11 @@ public class PipedInputStream extends InputStream {
      */
     protected int out = 0;
 
+    // use monitors when PipedInputStream is sub-classed
+    private final InternalLock lock = (getClass() == PipedInputStream.class)
+            ? InternalLock.newLockOrNull() : null;
+    private final Condition changed = (lock != null) ? lock.newCondition() : null;
+
     /**
      * Creates a {@code PipedInputStream} so
      * that it is connected to the piped output
@@ -179,7 +188,22 @@ public class PipedInputStream extends InputStream {
      *          closed, or if an I/O error occurs.
      * @since   1.1
      */
-    protected synchronized void receive(int b) throws IOException {
+    protected void receive(int b) throws IOException {
+        if (lock != null) {
+            lock.lock();
+            try {
+                implReceive(b);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                implReceive(b);
+            }
+        }
+    }
+
+    private void implReceive(int b) throws IOException {
         checkStateForReceive();
         writeSide = Thread.currentThread();
         if (in == out)
@@ -204,7 +228,22 @@ public class PipedInputStream extends InputStream {
      *           {@link #connect(java.base.share.classes.java.io.PipedOutputStream) unconnected},
      *           closed, or if an I/O error occurs.
      */
-    synchronized void receive(byte[] b, int off, int len)  throws IOException {
+    void receive(byte[] b, int off, int len)  throws IOException {
+        if (lock != null) {
+            lock.lock();
+            try {
+                implReceive(b, off, len);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                implReceive(b, off, len);
+            }
+        }
+    }
+
+    private void implReceive(byte[] b, int off, int len)  throws IOException {
         checkStateForReceive();
         writeSide = Thread.currentThread();
         int bytesToTransfer = len;
@@ -250,22 +289,77 @@ public class PipedInputStream extends InputStream {
             checkStateForReceive();
 
             /* full: kick any waiting readers */
-            notifyAll();
+            signalAll();
             try {
-                wait(1000);
+                await();
             } catch (InterruptedException ex) {
                 throw new java.base.share.classes.java.io.InterruptedIOException();
             }
         }
     }
 
+    /**
+     * Wakes up all threads waiting on this pipe. The lock or monitor must
+     * be held.
+     */
+    private void signalAll() {
+        if (lock != null) {
+            changed.signalAll();
+        } else {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits for a change to this pipe, or for one second to allow the
+     * liveness of the other side to be checked. The lock or monitor must
+     * be held.
+     */
+    private void await() throws InterruptedException {
+        if (lock != null) {
+            changed.await(1000, TimeUnit.MILLISECONDS);
+        } else {
+            wait(1000);
+        }
+    }
+
+    /**
+     * Notifies all waiting threads that bytes are waiting in the pipe.
+     */
+    void notifyReaders() {
+        if (lock != null) {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
     /**
      * Notifies all waiting threads that the last byte of data has been
      * received.
      */
-    synchronized void receivedLast() {
-        closedByWriter = true;
-        notifyAll();
+    void receivedLast() {
+        if (lock != null) {
+            lock.lock();
+            try {
+                closedByWriter = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                closedByWriter = true;
+                notifyAll();
+            }
+        }
     }
 
     /**
@@ -282,7 +376,22 @@ public class PipedInputStream extends InputStream {
      *           or if an I/O error occurs.
      */
     @Override
-    public synchronized int read()  throws IOException {
+    public int read()  throws IOException {
+        if (lock != null) {
+            lock.lock();
+            try {
+                return implRead();
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                return implRead();
+            }
+        }
+    }
+
+    private int implRead() throws IOException {
         if (!connected) {
             throw new IOException("Pipe not connected");
         } else if (closedByReader) {
@@ -303,9 +412,9 @@ public class PipedInputStream extends InputStream {
                 throw new IOException("Pipe broken");
             }
             /* might be a writer waiting */
-            notifyAll();
+            signalAll();
             try {
-                wait(1000);
+                await();
             } catch (InterruptedException ex) {
                 throw new java.base.share.classes.java.io.InterruptedIOException();
             }
@@ -343,7 +452,22 @@ public class PipedInputStream extends InputStream {
      *           closed, or if an I/O error occurs.
      */
     @Override
-    public synchronized int read(byte[] b, int off, int len)  throws IOException {
+    public int read(byte[] b, int off, int len)  throws IOException {
+        if (lock != null) {
+            lock.lock();
+            try {
+                return implRead(b, off, len);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                return implRead(b, off, len);
+            }
+        }
+    }
+
+    private int implRead(byte[] b, int off, int len) throws IOException {
         if (b == null) {
             throw new NullPointerException();
         }
@@ -403,7 +527,22 @@ public class PipedInputStream extends InputStream {
      * @since  1.0.2
      */
     @Override
-    public synchronized int available() throws IOException {
+    public int available() throws IOException {
+        if (lock != null) {
+            lock.lock();
+            try {
+                return implAvailable();
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                return implAvailable();
+            }
+        }
+    }
+
+    private int implAvailable() {
         if(in < 0)
             return 0;
         else if(in == out)
@@ -422,8 +561,17 @@ public class PipedInputStream extends InputStream {
     @Override
     public void close()  throws IOException {
         closedByReader = true;
-        synchronized (this) {
-            in = -1;
+        if (lock != null) {
+            lock.lock();
+            try {
+                in = -1;
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            synchronized (this) {
+                in = -1;
+            }
         }
     }
 }
@@ -142,9 +142,7 @@ public class PipedOutputStream extends OutputStream {
     @Override
     public synchronized void flush() throws IOException {
         if (sink != null) {
-            synchronized (sink) {
-                sink.notifyAll();
-            }
+            sink.notifyReaders();
         }
     }
 
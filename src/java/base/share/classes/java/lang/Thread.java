@@ -15,6 +15,7 @@ import java.time.Duration;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Predicate;
@@ -1091,6 +1092,32 @@ public class Thread implements Runnable {
             @Override OfVirtual allowSetThreadLocals(boolean allow);
             @Override OfVirtual inheritInheritableThreadLocals(boolean inherit);
             @Override OfVirtual uncaughtExceptionHandler(UncaughtExceptionHandler ueh);
+
+            /**
+             * Sets the scheduler used to mount virtual threads created by
+             * this builder. The scheduler is given a task to execute each
+             * time a virtual thread is started or continues after parking;
+             * it must execute the task on a platform thread, which becomes
+             * the <em>carrier</em> of the virtual thread until it parks
+             * or terminates. A scheduler that is a pool created by {@link
+             * java.util.concurrent.Executors#newVirtualThreadScheduler(int)}
+             * gives a set of virtual threads carrier threads of their own,
+             * isolating them from virtual threads scheduled elsewhere.
+             *
+             * <p> If a scheduler is not set, or this method is invoked with
+             * {@code null}, virtual threads created on a platform thread
+             * use the default scheduler and virtual threads created on a
+             * virtual thread use the scheduler of that thread.
+             *
+             * @param scheduler the scheduler, or {@code null} to use the
+             *        default scheduler
+             * @return this builder
+             * @throws UnsupportedOperationException if the scheduler is not
+             *         {@code null} and the Java virtual machine does not
+             *         support scheduling virtual threads on an executor
+             * @since 21
+             */
+            OfVirtual scheduler(Executor scheduler);
         }
     }
 
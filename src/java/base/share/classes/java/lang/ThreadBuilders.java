@@ -204,6 +204,14 @@ class ThreadBuilders {
             this.scheduler = Objects.requireNonNull(scheduler);
         }
 
+        @Override
+        public OfVirtual scheduler(Executor scheduler) {
+            if (scheduler != null && !ContinuationSupport.isSupported())
+                throw new UnsupportedOperationException();
+            this.scheduler = scheduler;
+            return this;
+        }
+
         @Override
         public Thread unstarted(Runnable task) {
             Objects.requireNonNull(task);
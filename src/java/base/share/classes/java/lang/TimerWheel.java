@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+package java.base.share.classes.java.lang;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.internal.misc.InnocuousThread;
+import jdk.internal.misc.TimingWheel;
+
+/**
+ * A sharded, hierarchical timing wheel used to run the tasks that unpark
+ * virtual threads at the end of a timed park or sleep.
+ *
+ * <p>Time is divided into ticks of {@code 1 << TICK_SHIFT} nanoseconds. Each
+ * shard keeps its timeouts in a {@link TimingWheel}, so scheduling and
+ * cancelling are constant time. A timeout never fires before its deadline,
+ * and fires at most one tick late (plus thread wakeup latency).
+ *
+ * <p>Each shard is driven by its own unparker thread, which is started on
+ * first use and sleeps until the next occupied bucket is due. Timeouts are
+ * scheduled on the shard selected by the carrier thread, so carriers do not
+ * contend on a single queue.
+ */
+final class TimerWheel {
+    private static final int TICK_SHIFT = 16;   // ~65us
+
+    private final Shard[] shards;
+    private final long origin;
+
+    /**
+     * Creates a timing wheel with the given number of shards, rounded up
+     * to a power of two.
+     */
+    TimerWheel(String name, int nshards) {
+        int n = (nshards <= 1) ? 1 : Integer.highestOneBit(nshards - 1) << 1;
+        this.origin = System.nanoTime();
+        this.shards = new Shard[n];
+        for (int i = 0; i < n; i++) {
+            String threadName = (n == 1) ? name : name + "-" + i;
+            shards[i] = new Shard(threadName);
+        }
+    }
+
+    /**
+     * Schedules the given task to run after the given delay. The task is
+     * run on an unparker thread and should not block.
+     */
+    Timeout schedule(Runnable task, long nanos) {
+        long now = System.nanoTime() - origin;
+        long deadline = now + nanos;
+        if (deadline < now)   // overflow
+            deadline = Long.MAX_VALUE;
+        // round up so that the timeout never fires early
+        long tick = (deadline >>> TICK_SHIFT) + (((deadline & ((1L << TICK_SHIFT) - 1)) != 0) ? 1 : 0);
+        Shard shard = shards[(int) Thread.currentCarrierThread().threadId() & (shards.length - 1)];
+        Timeout t = new Timeout(task, shard);
+        shard.add(t, tick);
+        return t;
+    }
+
+    /**
+     * Cancels the given timeout if it has not fired.
+     *
+     * @return true if cancelled, false if it already fired or was cancelled
+     */
+    boolean cancel(Timeout t) {
+        return (t.state == Timeout.PENDING) && t.shard.cancel(t);
+    }
+
+    /**
+     * A scheduled task.
+     */
+    static final class Timeout extends TimingWheel.Node {
+        static final int PENDING   = 0;
+        static final int FIRED     = 1;
+        static final int CANCELLED = 2;
+
+        final Runnable task;
+        final Shard shard;
+        volatile int state;
+
+        Timeout(Runnable task, Shard shard) {
+            this.task = task;
+            this.shard = shard;
+        }
+
+        /**
+         * Returns true if this timeout has fired or been cancelled.
+         */
+        boolean isDone() {
+            return state != PENDING;
+        }
+    }
+
+    /**
+     * A timing wheel and the thread that advances it.
+     */
+    private final class Shard implements Runnable {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String name;
+
+        // guarded by lock
+        private final TimingWheel wheel = new TimingWheel();
+        private long wakeTick = Long.MAX_VALUE; // MIN_VALUE while running
+        private Thread thread;
+
+        Shard(String name) {
+            this.name = name;
+        }
+
+        void add(Timeout t, long deadline) {
+            lock.lock();
+            try {
+                if (thread == null)
+                    wheel.reset((System.nanoTime() - origin) >>> TICK_SHIFT);
+                wheel.link(t, deadline);
+                if (thread == null) {
+                    thread = InnocuousThread.newThread(name, this);
+                    thread.setDaemon(true);
+                    thread.start();
+                } else if (deadline < wakeTick) {
+                    wakeTick = Long.MIN_VALUE;
+                    LockSupport.unpark(thread);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean cancel(Timeout t) {
+            lock.lock();
+            try {
+                if (t.state != Timeout.PENDING)
+                    return false;
+                wheel.unlink(t);
+                t.state = Timeout.CANCELLED;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            for (;;) {
+                Timeout expired;
+                long parkNanos = 0L;
+                lock.lock();
+                try {
+                    long nowTick = (System.nanoTime() - origin) >>> TICK_SHIFT;
+                    expired = (Timeout) wheel.advance(nowTick);
+                    if (expired != null) {
+                        for (TimingWheel.Node t = expired; t != null; t = t.next())
+                            ((Timeout) t).state = Timeout.FIRED;
+                        wakeTick = Long.MIN_VALUE;
+                    } else {
+                        long next = wheel.nextTick();
+                        wakeTick = next;
+                        if (next != Long.MAX_VALUE)
+                            parkNanos = Math.max((next << TICK_SHIFT) - (System.nanoTime() - origin), 1L);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                if (expired != null) {
+                    for (Timeout t = expired; t != null; ) {
+                        Timeout n = (Timeout) t.takeNext();
+                        try {
+                            t.task.run();
+                        } catch (Throwable ignore) { }
+                        t = n;
+                    }
+                } else if (parkNanos > 0L) {
+                    LockSupport.parkNanos(this, parkNanos);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+        }
+    }
+}
@@ -10,22 +10,17 @@ import java.util.Locale;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.ForkJoinWorkerThread;
-import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import jdk.internal.event.ThreadSleepEvent;
 import jdk.internal.event.VirtualThreadEndEvent;
 import jdk.internal.event.VirtualThreadPinnedEvent;
 import jdk.internal.event.VirtualThreadStartEvent;
 import jdk.internal.event.VirtualThreadSubmitFailedEvent;
 import jdk.internal.misc.CarrierThread;
-import jdk.internal.misc.InnocuousThread;
 import jdk.internal.misc.Unsafe;
 import jdk.internal.vm.Continuation;
 import jdk.internal.vm.ContinuationScope;
@@ -52,7 +47,7 @@ final class VirtualThread extends BaseVirtualThread {
     private static final Unsafe U = Unsafe.getUnsafe();
     private static final ContinuationScope VTHREAD_SCOPE = new ContinuationScope("VirtualThreads");
     private static final ForkJoinPool DEFAULT_SCHEDULER = createDefaultScheduler();
-    private static final ScheduledExecutorService UNPARKER = createDelayedTaskScheduler();
+    private static final TimerWheel UNPARKER = createDelayedTaskScheduler();
     private static final int TRACE_PINNING_MODE = tracePinningMode();
 
     private static final long STATE = U.objectFieldOffset(VirtualThread.class, "state");
@@ -434,7 +429,7 @@ final class VirtualThread extends BaseVirtualThread {
             // may have been unparked while parking
             if (parkPermit && compareAndSetState(PARKED, RUNNABLE)) {
                 // lazy submit to continue on the current thread as carrier if possible
-                if (currentThread() instanceof CarrierThread ct) {
+                if (currentThread() instanceof CarrierThread ct && ct.getPool() == scheduler) {
                     lazySubmitRunContinuation(ct.getPool());
                 } else {
                     submitRunContinuation();
@@ -448,7 +443,9 @@ final class VirtualThread extends BaseVirtualThread {
             if (notifyJvmtiEvents) notifyJvmtiUnmountEnd(false);
 
             // external submit if there are no tasks in the local task queue
-            if (currentThread() instanceof CarrierThread ct && ct.getQueuedTaskCount() == 0) {
+            if (currentThread() instanceof CarrierThread ct
+                    && ct.getPool() == scheduler
+                    && ct.getQueuedTaskCount() == 0) {
                 externalSubmitRunContinuation(ct.getPool());
             } else {
                 submitRunContinuation();
@@ -576,7 +573,7 @@ final class VirtualThread extends BaseVirtualThread {
             long startTime = System.nanoTime();
 
             boolean yielded;
-            Future<?> unparker = scheduleUnpark(this::unpark, nanos);
+            TimerWheel.Timeout unparker = scheduleUnpark(this::unpark, nanos);
             setState(PARKING);
             try {
                 yielded = yieldContinuation();
@@ -632,11 +629,11 @@ final class VirtualThread extends BaseVirtualThread {
      * Schedule an unpark task to run after a given delay.
      */
     @ChangesCurrentThread
-    private Future<?> scheduleUnpark(Runnable unparker, long nanos) {
+    private TimerWheel.Timeout scheduleUnpark(Runnable unparker, long nanos) {
         // need to switch to current carrier thread to avoid nested parking
         boolean notifyJvmti = switchToCarrierThread();
         try {
-            return UNPARKER.schedule(unparker, nanos, NANOSECONDS);
+            return UNPARKER.schedule(unparker, nanos);
         } finally {
             switchToVirtualThread(this, notifyJvmti);
         }
@@ -646,12 +643,12 @@ final class VirtualThread extends BaseVirtualThread {
      * Cancels a task if it has not completed.
      */
     @ChangesCurrentThread
-    private void cancel(Future<?> future) {
-        if (!future.isDone()) {
+    private void cancel(TimerWheel.Timeout timeout) {
+        if (!timeout.isDone()) {
             // need to switch to current carrier thread to avoid nested parking
             boolean notifyJvmti = switchToCarrierThread();
             try {
-                future.cancel(false);
+                UNPARKER.cancel(timeout);
             } finally {
                 switchToVirtualThread(this, notifyJvmti);
             }
@@ -1099,22 +1096,18 @@ final class VirtualThread extends BaseVirtualThread {
     }
 
     /**
-     * Creates the ScheduledThreadPoolExecutor used for timed unpark.
+     * Creates the timing wheel used for timed unpark. It has one shard per
+     * unparker thread.
      */
-    private static ScheduledExecutorService createDelayedTaskScheduler() {
+    private static TimerWheel createDelayedTaskScheduler() {
         String propValue = GetPropertyAction.privilegedGetProperty("jdk.unparker.maxPoolSize");
         int poolSize;
         if (propValue != null) {
             poolSize = Integer.parseInt(propValue);
         } else {
-            poolSize = 1;
+            poolSize = Runtime.getRuntime().availableProcessors();
         }
-        ScheduledThreadPoolExecutor stpe = (ScheduledThreadPoolExecutor)
-            Executors.newScheduledThreadPool(poolSize, task -> {
-                return InnocuousThread.newThread("VirtualThread-unparker", task);
-            });
-        stpe.setRemoveOnCancelPolicy(true);
-        return stpe;
+        return new TimerWheel("VirtualThread-unparker", poolSize);
     }
 
     /**
@@ -787,6 +787,11 @@ public abstract sealed class Buffer
                     return Bits.BUFFER_POOL;
                 }
 
+                @Override
+                public BufferPool getPooledDirectBufferPool() {
+                    return DirectBufferPool.BUFFER_POOL;
+                }
+
                 @Override
                 public ByteBuffer newDirectByteBuffer(long addr, int cap, Object obj, MemorySegment segment) {
                     return new DirectByteBuffer(addr, cap, obj, segment);
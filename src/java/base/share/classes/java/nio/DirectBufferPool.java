@@ -0,0 +1,609 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.nio;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Cleaner.Cleanable;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.internal.misc.TerminatingThreadLocal;
+import jdk.internal.misc.Unsafe;
+import jdk.internal.misc.VM.BufferPool;
+import jdk.internal.ref.CleanerFactory;
+
+/**
+ * A pool of direct byte buffers.
+ *
+ * <p> A buffer {@linkplain #allocate(int) allocated} from a pool is
+ * {@linkplain #release(ByteBuffer) released} back to it explicitly when no
+ * longer needed, so that its memory is reused by a later allocation, rather
+ * than freed when the garbage collector finds the buffer unreachable. Memory
+ * is reserved against the limit on direct buffer memory only when the pool
+ * grows, and not for each allocation.
+ *
+ * <p> Buffers are pooled in power-of-two size classes, from 64 bytes to the
+ * pool's maximum capacity. Each thread keeps a magazine of released buffers
+ * of each size class, from which it allocates without synchronization, and
+ * exchanges full and empty magazines with a depot shared by all threads.
+ * Virtual threads share the magazines of their carrier thread. The depot
+ * retains at most a given number of bytes; the memory of a buffer released
+ * when the depot is full is freed at once.
+ *
+ * <p> The buffers allocated by a pool have the requested capacity, a
+ * position of zero, a limit equal to their capacity, and
+ * {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN} byte order. Unlike the buffers
+ * allocated by {@link ByteBuffer#allocateDirect(int)}, their contents are
+ * not initialized. A buffer, and any buffer created from it with methods
+ * such as {@link ByteBuffer#slice() slice} or
+ * {@link ByteBuffer#duplicate() duplicate}, must not be accessed once it is
+ * released. A buffer may also be accessed as a memory segment with
+ * {@link java.lang.foreign.MemorySegment#ofBuffer(Buffer)
+ * MemorySegment.ofBuffer}, up to its release.
+ *
+ * <p> If a pool tracks leaks, it records where each buffer is allocated.
+ * When a buffer, and all buffers created from it, become unreachable
+ * without being released, the pool logs a warning with the allocation
+ * site, and takes the buffer's memory back. Tracking leaks makes
+ * allocation more costly, and is intended for diagnosis.
+ *
+ * <p> Pools are intended to be long lived: the buffers in the magazines of
+ * a thread are freed only when the thread terminates.
+ *
+ * <p> A pool is safe for use by multiple concurrent threads. The memory
+ * held by all pools, whether allocated or released, is included in the
+ * statistics of the buffer pool named {@code "direct"} of the
+ * {@code java.lang.management.BufferPoolMXBean} interface, as it counts
+ * against the same limit. The buffers allocated from all pools and not
+ * released are reported, without their memory being counted again, as the
+ * buffer pool named {@code "direct - pooled"}.
+ *
+ * @since 21
+ */
+
+public final class DirectBufferPool {
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+    // capacity of the smallest size class
+    private static final int MIN_CAPACITY_SHIFT = 6;
+    private static final int MIN_CAPACITY = 1 << MIN_CAPACITY_SHIFT;
+
+    // capacity of the largest size class
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // maximum number of buffers, and bytes, in a magazine
+    private static final int MAGAZINE_SIZE = 16;
+    private static final int MAGAZINE_BYTES = 256 * 1024;
+
+    // buffers of all pools allocated and not released; the memory of all
+    // pools, lent or not, is reported by Bits as part of the direct pool
+    private static final LongAdder LENT_COUNT = new LongAdder();
+    private static final LongAdder LENT_CAPACITY = new LongAdder();
+
+    private final String name;
+    private final int maxCapacity;
+    private final Depot[] depots;
+    private final TerminatingThreadLocal<Magazine[]> magazines;
+
+    // leak tracking, null if not tracking leaks
+    private final ReferenceQueue<Lease> queue;
+    private final Set<LeakTracker> trackers;
+
+    // statistics
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalCapacity = new AtomicLong();
+    private final LongAdder lentCount = new LongAdder();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    private DirectBufferPool(String name, int maxCapacity, long maxRetained, boolean trackLeaks) {
+        this.name = name;
+        this.maxCapacity = maxCapacity;
+        int sizeClasses = sizeClass(maxCapacity) + 1;
+        this.depots = new Depot[sizeClasses];
+        for (int i = 0; i < sizeClasses; i++) {
+            int capacity = MIN_CAPACITY << i;
+            int magazineSize = magazineSize(capacity);
+            long max = maxRetained / ((long) capacity * magazineSize);
+            depots[i] = new Depot((int) Math.min(max, Integer.MAX_VALUE));
+        }
+        this.magazines = new TerminatingThreadLocal<>() {
+            @Override
+            protected Magazine[] initialValue() {
+                return new Magazine[sizeClasses];
+            }
+            @Override
+            protected void threadTerminated(Magazine[] mags) {
+                for (Magazine m : mags) {
+                    if (m != null && m.size > 0) {
+                        Depot depot = depots[m.chunks[0].sizeClass];
+                        if (!depot.offerFull(m)) {
+                            m.freeAll();
+                        }
+                    }
+                }
+            }
+        };
+        if (trackLeaks) {
+            this.queue = new ReferenceQueue<>();
+            this.trackers = ConcurrentHashMap.newKeySet();
+        } else {
+            this.queue = null;
+            this.trackers = null;
+        }
+    }
+
+    /**
+     * Creates a pool of direct byte buffers.
+     *
+     * @param  name
+     *         The name of the pool
+     * @param  maxCapacity
+     *         The maximum capacity of the buffers allocated by the pool,
+     *         rounded up to a power of two
+     * @param  maxRetained
+     *         The maximum number of bytes of released buffers retained in
+     *         the depot shared by all threads
+     * @param  trackLeaks
+     *         {@code true} to track buffers that are not released
+     *
+     * @return  The new pool
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code maxCapacity} is not positive or greater than
+     *          2<sup>30</sup>, or {@code maxRetained} is negative
+     */
+    public static DirectBufferPool create(String name,
+                                          int maxCapacity,
+                                          long maxRetained,
+                                          boolean trackLeaks)
+    {
+        Objects.requireNonNull(name);
+        if (maxCapacity <= 0 || maxCapacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("maxCapacity: " + maxCapacity);
+        if (maxRetained < 0)
+            throw new IllegalArgumentException("maxRetained: " + maxRetained);
+        int max = Math.max(MIN_CAPACITY, Integer.highestOneBit(maxCapacity - 1) << 1);
+        return new DirectBufferPool(name, Math.min(max, MAX_CAPACITY), maxRetained, trackLeaks);
+    }
+
+    /**
+     * Allocates a direct byte buffer from this pool.
+     *
+     * @param  capacity
+     *         The new buffer's capacity, in bytes
+     *
+     * @return  The new byte buffer
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code capacity} is negative or greater than the maximum
+     *          capacity of this pool
+     *
+     * @throws  OutOfMemoryError
+     *          If the pool cannot grow without exceeding the limit on
+     *          direct buffer memory
+     */
+    public ByteBuffer allocate(int capacity) {
+        if (capacity < 0 || capacity > maxCapacity)
+            throw new IllegalArgumentException("capacity: " + capacity);
+        if (trackers != null)
+            reclaimLeaks();
+
+        int sizeClass = sizeClass(capacity);
+        Chunk chunk = take(sizeClass);
+        if (chunk == null)
+            chunk = newChunk(sizeClass);
+
+        Lease lease = new Lease(chunk, capacity);
+        if (trackers != null) {
+            LeakTracker tracker = new LeakTracker(lease, queue);
+            lease.tracker = tracker;
+            trackers.add(tracker);
+        }
+        lentCount.increment();
+        LENT_COUNT.increment();
+        LENT_CAPACITY.add(capacity);
+        return new DirectByteBuffer(chunk.address, capacity, lease, null);
+    }
+
+    /**
+     * Releases a buffer allocated from this pool. The buffer, and any
+     * buffer created from it, must not be accessed afterwards.
+     *
+     * @param  buf
+     *         The buffer, or a buffer created from it
+     *
+     * @throws  IllegalArgumentException
+     *          If the buffer was not allocated from this pool
+     *
+     * @throws  IllegalStateException
+     *          If the buffer has already been released
+     */
+    public void release(ByteBuffer buf) {
+        Lease lease = null;
+        if (buf instanceof DirectByteBuffer db && db.attachment() instanceof Lease l)
+            lease = l;
+        if (lease == null || lease.chunk.pool != this)
+            throw new IllegalArgumentException("Buffer not allocated from this pool");
+        if (!RELEASED.compareAndSet(lease, false, true))
+            throw new IllegalStateException("Buffer already released");
+
+        LeakTracker tracker = lease.tracker;
+        if (tracker != null) {
+            trackers.remove(tracker);
+            tracker.clear();
+        }
+        lentCount.decrement();
+        LENT_COUNT.decrement();
+        LENT_CAPACITY.add(-lease.capacity);
+        put(lease.chunk);
+    }
+
+    /**
+     * Returns the name of this pool.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of buffers whose memory is held by this pool,
+     * whether allocated or released.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the total capacity, in bytes, of the buffers whose memory is
+     * held by this pool. A buffer's capacity is rounded up to its size
+     * class.
+     */
+    public long getTotalCapacity() {
+        return totalCapacity.get();
+    }
+
+    /**
+     * Returns the memory, in bytes, held by this pool. This memory is also
+     * included in the memory used by the {@code "direct"} buffer pool.
+     */
+    public long getMemoryUsed() {
+        return totalCapacity.get();
+    }
+
+    /**
+     * Returns the number of buffers allocated and not released.
+     */
+    public long getLentCount() {
+        return lentCount.sum();
+    }
+
+    /**
+     * Returns the number of buffers that became unreachable without being
+     * released, and whose memory the pool took back. Always zero if this
+     * pool does not track leaks.
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DirectBufferPool[" + name + ", count=" + getCount()
+            + ", totalCapacity=" + getTotalCapacity()
+            + ", lent=" + getLentCount() + "]";
+    }
+
+    /**
+     * Returns the size class of a buffer of the given capacity.
+     */
+    private static int sizeClass(int capacity) {
+        if (capacity <= MIN_CAPACITY)
+            return 0;
+        return (32 - Integer.numberOfLeadingZeros(capacity - 1)) - MIN_CAPACITY_SHIFT;
+    }
+
+    /**
+     * Returns the number of buffers in a magazine of the size class with
+     * the given capacity.
+     */
+    private static int magazineSize(int capacity) {
+        return Math.max(1, Math.min(MAGAZINE_SIZE, MAGAZINE_BYTES / capacity));
+    }
+
+    /**
+     * Takes a released buffer of the given size class from the current
+     * thread's magazine, or from a full magazine in the depot.
+     *
+     * @return the buffer's memory, or null if none
+     */
+    private Chunk take(int sizeClass) {
+        // must not block, the magazine is shared by the virtual threads
+        // of the carrier thread
+        Magazine[] mags = magazines.get();
+        Magazine m = mags[sizeClass];
+        if (m == null || m.size == 0) {
+            Magazine full = depots[sizeClass].exchangeEmpty(m);
+            if (full == null)
+                return null;
+            mags[sizeClass] = m = full;
+        }
+        return m.remove();
+    }
+
+    /**
+     * Puts a released buffer in the current thread's magazine, exchanging
+     * it for an empty magazine if full, or frees it if the depot is full.
+     */
+    private void put(Chunk chunk) {
+        // must not block, the magazine is shared by the virtual threads
+        // of the carrier thread
+        int sizeClass = chunk.sizeClass;
+        Magazine[] mags = magazines.get();
+        Magazine m = mags[sizeClass];
+        if (m == null) {
+            mags[sizeClass] = m = new Magazine(magazineSize(MIN_CAPACITY << sizeClass));
+        } else if (m.isFull()) {
+            Magazine empty = depots[sizeClass].exchangeFull(m);
+            if (empty == null) {
+                chunk.free();
+                return;
+            }
+            mags[sizeClass] = m = empty;
+        }
+        m.add(chunk);
+    }
+
+    /**
+     * Allocates the memory of a buffer of the given size class.
+     */
+    private Chunk newChunk(int sizeClass) {
+        int capacity = MIN_CAPACITY << sizeClass;
+        Bits.reserveMemory(capacity, capacity);
+        long address;
+        try {
+            address = UNSAFE.allocateMemory(capacity);
+        } catch (OutOfMemoryError x) {
+            Bits.unreserveMemory(capacity, capacity);
+            throw x;
+        }
+        count.incrementAndGet();
+        totalCapacity.addAndGet(capacity);
+        Chunk chunk = new Chunk(this, address, sizeClass);
+        chunk.cleanable = CleanerFactory.cleaner()
+            .register(chunk, new Deallocator(this, address, capacity));
+        return chunk;
+    }
+
+    /**
+     * Takes back the memory of the buffers that became unreachable without
+     * being released.
+     */
+    private void reclaimLeaks() {
+        Reference<? extends Lease> ref;
+        while ((ref = queue.poll()) != null) {
+            LeakTracker tracker = (LeakTracker) ref;
+            if (trackers.remove(tracker)) {
+                lentCount.decrement();
+                LENT_COUNT.decrement();
+                LENT_CAPACITY.add(-tracker.capacity);
+                leakCount.incrementAndGet();
+                System.getLogger("java.nio").log(System.Logger.Level.WARNING,
+                    "DirectBufferPool " + name + ": buffer of capacity "
+                        + tracker.capacity + " not released", tracker.allocationSite);
+                put(tracker.chunk);
+            }
+        }
+    }
+
+    /**
+     * The memory of a buffer. The memory is freed when explicitly freed, or
+     * when the chunk becomes unreachable as a buffer using it was neither
+     * released nor tracked.
+     */
+    private static final class Chunk {
+        final DirectBufferPool pool;
+        final long address;
+        final int sizeClass;
+        Cleanable cleanable;
+
+        Chunk(DirectBufferPool pool, long address, int sizeClass) {
+            this.pool = pool;
+            this.address = address;
+            this.sizeClass = sizeClass;
+        }
+
+        void free() {
+            cleanable.clean();
+        }
+    }
+
+    private static class Deallocator implements Runnable {
+        private final DirectBufferPool pool;
+        private final long address;
+        private final int capacity;
+
+        Deallocator(DirectBufferPool pool, long address, int capacity) {
+            this.pool = pool;
+            this.address = address;
+            this.capacity = capacity;
+        }
+
+        public void run() {
+            UNSAFE.freeMemory(address);
+            Bits.unreserveMemory(capacity, capacity);
+            pool.count.decrementAndGet();
+            pool.totalCapacity.addAndGet(-capacity);
+        }
+    }
+
+    /**
+     * The attachment of an allocated buffer, and of the buffers created
+     * from it, which is unreachable once they all are.
+     */
+    private static final class Lease {
+        final Chunk chunk;
+        final int capacity;
+        volatile boolean released;
+        LeakTracker tracker;
+
+        Lease(Chunk chunk, int capacity) {
+            this.chunk = chunk;
+            this.capacity = capacity;
+        }
+    }
+
+    private static final VarHandle RELEASED;
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            RELEASED = l.findVarHandle(Lease.class, "released", boolean.class);
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Tracks an allocated buffer, keeping its memory for the pool to take
+     * back if the buffer is not released.
+     */
+    private static final class LeakTracker extends PhantomReference<Lease> {
+        final Chunk chunk;
+        final int capacity;
+        final Throwable allocationSite;
+
+        LeakTracker(Lease lease, ReferenceQueue<Lease> queue) {
+            super(lease, queue);
+            this.chunk = lease.chunk;
+            this.capacity = lease.capacity;
+            this.allocationSite = new Throwable("Buffer allocated");
+        }
+    }
+
+    /**
+     * A stack of released buffers of one size class.
+     */
+    private static final class Magazine {
+        final Chunk[] chunks;
+        int size;
+
+        Magazine(int capacity) {
+            this.chunks = new Chunk[capacity];
+        }
+
+        boolean isFull() {
+            return size == chunks.length;
+        }
+
+        void add(Chunk chunk) {
+            chunks[size++] = chunk;
+        }
+
+        Chunk remove() {
+            Chunk chunk = chunks[--size];
+            chunks[size] = null;
+            return chunk;
+        }
+
+        void freeAll() {
+            while (size > 0) {
+                remove().free();
+            }
+        }
+    }
+
+    /**
+     * The full and empty magazines of one size class shared by all threads.
+     * Uses synchronized rather than a j.u.c lock so that a virtual thread is
+     * not unmounted while it holds the magazines of its carrier thread.
+     */
+    private static final class Depot {
+        // grows on demand, maxFull may be large when maxRetained is
+        private final ArrayDeque<Magazine> full = new ArrayDeque<>();
+        private final int maxFull;
+        private final Magazine[] empty;
+        private int emptyCount;
+
+        Depot(int maxFull) {
+            this.maxFull = maxFull;
+            this.empty = new Magazine[Math.min(maxFull, MAGAZINE_SIZE)];
+        }
+
+        /**
+         * Exchanges an empty magazine, or null, for a full magazine.
+         *
+         * @return the full magazine, or null if none
+         */
+        synchronized Magazine exchangeEmpty(Magazine m) {
+            Magazine result = full.pollLast();
+            if (result == null)
+                return null;
+            if (m != null && emptyCount < empty.length)
+                empty[emptyCount++] = m;
+            return result;
+        }
+
+        /**
+         * Exchanges a full magazine for an empty magazine.
+         *
+         * @return the empty magazine, or null if the depot is full
+         */
+        synchronized Magazine exchangeFull(Magazine m) {
+            if (full.size() == maxFull)
+                return null;
+            full.addLast(m);
+            Magazine result;
+            if (emptyCount > 0) {
+                result = empty[--emptyCount];
+                empty[emptyCount] = null;
+            } else {
+                result = new Magazine(m.chunks.length);
+            }
+            return result;
+        }
+
+        /**
+         * Adds a magazine that is not empty, when its thread terminates.
+         *
+         * @return false if the depot is full
+         */
+        synchronized boolean offerFull(Magazine m) {
+            if (full.size() == maxFull)
+                return false;
+            full.addLast(m);
+            return true;
+        }
+    }
+
+    /**
+     * The buffers of all pools allocated and not released, as a buffer pool
+     * of the management interface. Their memory is already counted by the
+     * direct buffer pool of Bits, so the memory used is their capacity.
+     */
+    static final BufferPool BUFFER_POOL = new BufferPool() {
+        @Override
+        public String getName() {
+            return "direct - pooled";
+        }
+        @Override
+        public long getCount() {
+            return LENT_COUNT.sum();
+        }
+        @Override
+        public long getTotalCapacity() {
+            return LENT_CAPACITY.sum();
+        }
+        @Override
+        public long getMemoryUsed() {
+            return LENT_CAPACITY.sum();
+        }
+    };
+}
@@ -492,6 +492,171 @@ public abstract class DatagramChannel
     public abstract int send(ByteBuffer src, SocketAddress target)
         throws IOException;
 
+    /**
+     * Receives datagrams via this channel.
+     *
+     * <p> This method receives up to {@code dsts.length} datagrams, each into
+     * the next buffer of the given array, and stores the source address of
+     * each datagram into the element of {@code sources} at the same index.
+     * If this channel is in blocking mode then this method waits until at
+     * least one datagram is available, and then receives those datagrams
+     * that are immediately available without waiting for more. If this
+     * channel is in non-blocking mode then this method receives those
+     * datagrams that are immediately available, if any.
+     *
+     * <p> Each datagram is transferred into its buffer, and is subject to
+     * the same security checks, as if by the {@link #receive(ByteBuffer)
+     * receive} method. Where the platform supports it, datagrams are
+     * received from the underlying socket in batches, with a single system
+     * call for each batch, so that receiving many small datagrams is less
+     * costly than receiving them one by one.
+     *
+     * @implSpec
+     * The default implementation invokes the {@link #receive(ByteBuffer)
+     * receive} method for each buffer in turn, until it returns {@code
+     * null}. If this channel is in blocking mode then it returns after the
+     * first datagram.
+     *
+     * @param  dsts
+     *         The buffers into which the datagrams are to be transferred
+     *
+     * @param  sources
+     *         The array into which the source addresses of the datagrams
+     *         are to be stored
+     *
+     * @return  The number of datagrams received, possibly zero if this
+     *          channel is in non-blocking mode
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code sources} is shorter than {@code dsts}, or if any
+     *          of the buffers is read-only
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the read operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the read operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If unbound, and a security manager has been installed and
+     *          its {@link SecurityManager#checkListen checkListen} method
+     *          denies the operation
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 21
+     */
+    public int receive(ByteBuffer[] dsts, SocketAddress[] sources)
+        throws IOException
+    {
+        if (sources.length < dsts.length)
+            throw new IllegalArgumentException("Too few elements in sources");
+        for (ByteBuffer dst : dsts) {
+            if (dst.isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        int n = 0;
+        while (n < dsts.length) {
+            SocketAddress sender = receive(dsts[n]);
+            if (sender == null)
+                break;
+            sources[n++] = sender;
+            if (isBlocking())
+                break;
+        }
+        return n;
+    }
+
+    /**
+     * Sends datagrams via this channel.
+     *
+     * <p> This method sends the remaining bytes of each buffer of the given
+     * array, in turn, as a single datagram to the address in the element of
+     * {@code targets} at the same index. If this channel is in blocking mode
+     * then all datagrams are sent. If this channel is in non-blocking mode
+     * then datagrams are sent until there is insufficient room in the
+     * underlying output buffer for the next one.
+     *
+     * <p> Each datagram is transferred from its buffer, and is subject to
+     * the same security checks, as if by the {@link
+     * #send(ByteBuffer,SocketAddress) send} method. Where the platform
+     * supports it, datagrams are sent to the underlying socket in batches,
+     * with a single system call for each batch.
+     *
+     * @implSpec
+     * The default implementation invokes the {@link
+     * #send(ByteBuffer,SocketAddress) send} method for each buffer in turn,
+     * until it sends zero bytes from a buffer that has bytes remaining.
+     *
+     * @param  srcs
+     *         The buffers containing the datagrams to be sent
+     *
+     * @param  targets
+     *         The addresses to which the datagrams are to be sent
+     *
+     * @return  The number of datagrams sent, which will be {@code
+     *          srcs.length} unless this channel is in non-blocking mode
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code targets} is shorter than {@code srcs}
+     *
+     * @throws  AlreadyConnectedException
+     *          If this channel is connected to a different address
+     *          from that specified by one of the {@code targets}
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the write operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the write operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  UnresolvedAddressException
+     *          If one of the target addresses is not fully resolved
+     *
+     * @throws  UnsupportedAddressTypeException
+     *          If the type of one of the target addresses is not supported
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed and it does not permit
+     *          datagrams to be sent to one of the addresses, or if unbound,
+     *          and the security manager's {@link SecurityManager#checkListen
+     *          checkListen} method denies the operation
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 21
+     */
+    public int send(ByteBuffer[] srcs, SocketAddress[] targets)
+        throws IOException
+    {
+        if (targets.length < srcs.length)
+            throw new IllegalArgumentException("Too few elements in targets");
+        int n = 0;
+        while (n < srcs.length) {
+            ByteBuffer src = srcs[n];
+            if (send(src, targets[n]) == 0 && src.hasRemaining())
+                break;
+            n++;
+        }
+        return n;
+    }
+
 
     // -- ByteChannel operations --
 
@@ -830,13 +830,15 @@ public abstract class Charset
      * @return  A char buffer containing the decoded characters
      */
     public final CharBuffer decode(ByteBuffer bb) {
+        CharsetDecoder cd = ThreadLocalCoders.decoderFor(this);
         try {
-            return ThreadLocalCoders.decoderFor(this)
-                .onMalformedInput(CodingErrorAction.REPLACE)
+            return cd.onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE)
                 .decode(bb);
         } catch (CharacterCodingException x) {
             throw new Error(x);         // Can't happen
+        } finally {
+            ThreadLocalCoders.release(cd);
         }
     }
 
@@ -866,13 +868,15 @@ public abstract class Charset
      * @return  A byte buffer containing the encoded characters
      */
     public final ByteBuffer encode(CharBuffer cb) {
+        CharsetEncoder ce = ThreadLocalCoders.encoderFor(this);
         try {
-            return ThreadLocalCoders.encoderFor(this)
-                .onMalformedInput(CodingErrorAction.REPLACE)
+            return ce.onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE)
                 .encode(cb);
         } catch (CharacterCodingException x) {
             throw new Error(x);         // Can't happen
+        } finally {
+            ThreadLocalCoders.release(ce);
         }
     }
 
@@ -0,0 +1,834 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.base.share.classes.java.util.function.BiConsumer;
+import java.base.share.classes.java.util.function.BiFunction;
+import java.base.share.classes.java.util.function.Consumer;
+import jdk.internal.access.SharedSecrets;
+import jdk.internal.util.ArraysSupport;
+
+/**
+ * Hash table and array implementation of the {@code Map} interface, with
+ * predictable iteration order and a flat, cache-friendly memory layout.
+ *
+ * <p>Mappings are kept in three parallel arrays holding the hashes, keys
+ * and values, in the order in which keys were first inserted.  A separate
+ * open-addressing table of {@code int} indices into those arrays is used
+ * for lookup.  No object is allocated per mapping, so a mapping costs
+ * roughly half the memory of a {@link HashMap} or {@link LinkedHashMap}
+ * entry, and iterating the map is a sequential scan of the arrays.
+ *
+ * <p>Like {@code LinkedHashMap} with insertion ordering, the iteration
+ * order is the order in which keys were inserted into the map; it is not
+ * affected if a key is <i>re-inserted</i> into the map.  This class permits
+ * {@code null} keys and values.
+ *
+ * <p>Removing a mapping leaves a hole in the arrays, which is reclaimed
+ * when the arrays fill up: if enough mappings have been removed the arrays
+ * are compacted in place, otherwise they grow by the same policy as
+ * {@link ArrayList}.  Lookups therefore run in constant time, and insertions
+ * in amortized constant time.
+ *
+ * <p>The iterators returned by all of this class's collection view methods
+ * are <i>fail-fast</i>: if the map is structurally modified at any time
+ * after the iterator is created, in any way except through the iterator's
+ * own {@code remove} method, the iterator will throw a
+ * {@link ConcurrentModificationException}, on a best-effort basis.  A
+ * {@code Map.Entry} obtained from the entry set remains usable after the
+ * map has been modified for as long as its key is still mapped.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a compact hash map concurrently, and at least
+ * one of the threads modifies the map structurally, it <em>must</em> be
+ * synchronized externally.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @see HashMap
+ * @see LinkedHashMap
+ * @since 21
+ */
+public class CompactHashMap<K,V> extends AbstractMap<K,V>
+    implements Map<K,V>, Cloneable, Serializable {
+
+    @java.io.Serial
+    private static final long serialVersionUID = -4329917623516043826L;
+
+    /*
+     * Implementation notes.
+     *
+     * The entry arrays (hashes, keys, vals) are filled in insertion order
+     * from index 0 up to, but excluding, "used".  A removed entry has its
+     * key replaced by the REMOVED sentinel and its value cleared.
+     *
+     * The index table maps a hash to an entry: a slot holds 0 if it has
+     * never been used, -1 if the entry it referred to has been removed, or
+     * entry index + 1.  Collisions are resolved by linear probing.  Every
+     * entry index in [0, used) occupies exactly one slot, so the index
+     * table never holds more than "used" non-zero slots; its length is kept
+     * at least one and a half times the length of the entry arrays, which
+     * bounds its load factor at 2/3 without a separate threshold.
+     *
+     * The entry arrays are compacted, and the index table rebuilt, only
+     * when an insertion finds the entry arrays full.  Removal never moves
+     * entries, which is what lets iterators remove safely.
+     */
+
+    /** The default capacity of the entry arrays. */
+    static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * The maximum capacity of the entry arrays, chosen so that the index
+     * table never exceeds {@link HashMap#MAXIMUM_CAPACITY}.
+     */
+    static final int MAXIMUM_CAPACITY = HashMap.MAXIMUM_CAPACITY / 3 * 2;
+
+    /** Index slot value for a removed entry. */
+    private static final int DUMMY = -1;
+
+    /** Key placeholder for a removed entry. */
+    private static final Object REMOVED = new Object();
+
+    // shared by all empty maps and never written: an insertion into a map
+    // whose index is EMPTY_INDEX always makes room first
+    private static final int[] EMPTY_INDEX = new int[1];
+    private static final int[] EMPTY_HASHES = {};
+    private static final Object[] EMPTY_ELEMENTDATA = {};
+
+    /** The open-addressing lookup table of entry indices. */
+    transient int[] index;
+
+    /** The hashes of the entries, in insertion order. */
+    transient int[] hashes;
+
+    /** The keys of the entries, in insertion order. */
+    transient Object[] keys;
+
+    /** The values of the entries, in insertion order. */
+    transient Object[] vals;
+
+    /** The number of entry slots in use, including removed ones. */
+    transient int used;
+
+    /** The number of mappings in this map. */
+    transient int size;
+
+    /** The number of times this map has been structurally modified. */
+    transient int modCount;
+
+    /** The capacity to allocate on first insertion, for lazy allocation. */
+    private transient int initialCapacity;
+
+    // Views
+    private transient Set<Map.Entry<K,V>> entrySet;
+
+    /**
+     * Constructs an empty map with the default initial capacity.
+     */
+    public CompactHashMap() {
+        this.initialCapacity = DEFAULT_CAPACITY;
+        clearStorage();
+    }
+
+    /**
+     * Constructs an empty map that can hold {@code initialCapacity}
+     * mappings before it needs to grow.
+     *
+     * @param  initialCapacity the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public CompactHashMap(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal initial capacity: " +
+                                               initialCapacity);
+        this.initialCapacity = Math.max(1, Math.min(initialCapacity, MAXIMUM_CAPACITY));
+        clearStorage();
+    }
+
+    /**
+     * Constructs a map with the same mappings as the specified map, in the
+     * order returned by its entry set iterator.
+     *
+     * @param  m the map whose mappings are to be placed in this map
+     * @throws NullPointerException if the specified map is null
+     */
+    public CompactHashMap(Map<? extends K, ? extends V> m) {
+        this(Math.max(m.size(), DEFAULT_CAPACITY));
+        putAll(m);
+    }
+
+    private void clearStorage() {
+        index = EMPTY_INDEX;
+        hashes = EMPTY_HASHES;
+        keys = EMPTY_ELEMENTDATA;
+        vals = EMPTY_ELEMENTDATA;
+        used = 0;
+    }
+
+    /**
+     * Returns the index table length for entry arrays of the given
+     * capacity.
+     */
+    private static int indexSizeFor(int capacity) {
+        return HashMap.tableSizeFor(capacity + (capacity >> 1) + 1);
+    }
+
+    /* ---------------- Lookup -------------- */
+
+    /**
+     * Returns the index-table slot referring to the entry for the key, or
+     * -1 if the key is not mapped.
+     */
+    final int findSlot(int hash, Object key) {
+        final int[] idx = index, hs = hashes;
+        final Object[] ks = keys;
+        final int mask = idx.length - 1;
+        int i = hash & mask;
+        for (int e; (e = idx[i]) != 0; i = (i + 1) & mask) {
+            Object k;
+            if (e > 0 && hs[--e] == hash &&
+                ((k = ks[e]) == key || (key != null && key.equals(k))))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the entry index of the mapping for the key, or -1 if the key
+     * is not mapped.
+     */
+    final int findEntry(Object key) {
+        int slot = findSlot(HashMap.hash(key), key);
+        return (slot < 0) ? -1 : index[slot] - 1;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped,
+     * or {@code null} if this map contains no mapping for the key.
+     *
+     * @see #put(Object, Object)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int e = findEntry(key);
+        return (e < 0) ? null : (V) vals[e];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        int e = findEntry(key);
+        return (e < 0) ? defaultValue : (V) vals[e];
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the
+     * specified key.
+     *
+     * @param   key   The key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified
+     * key.
+     */
+    public boolean containsKey(Object key) {
+        return findEntry(key) >= 0;
+    }
+
+    /**
+     * Returns {@code true} if this map maps one or more keys to the
+     * specified value.  The entry arrays are scanned sequentially.
+     *
+     * @param value value whose presence in this map is to be tested
+     * @return {@code true} if this map maps one or more keys to the
+     *         specified value
+     */
+    public boolean containsValue(Object value) {
+        final Object[] ks = keys, vs = vals;
+        for (int e = 0, n = used; e < n; e++) {
+            Object v;
+            if (ks[e] != REMOVED &&
+                ((v = vs[e]) == value || (value != null && value.equals(v))))
+                return true;
+        }
+        return false;
+    }
+
+    /* ---------------- Modification -------------- */
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old
+     * value is replaced and the key keeps its position in the iteration
+     * order.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}.
+     */
+    public V put(K key, V value) {
+        return putVal(HashMap.hash(key), key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return putVal(HashMap.hash(key), key, value, true);
+    }
+
+    /**
+     * Implements Map.put and related methods.
+     *
+     * @param hash hash for key
+     * @param key the key
+     * @param value the value to put
+     * @param onlyIfAbsent if true, don't change an existing non-null value
+     * @return previous value, or null if none
+     */
+    @SuppressWarnings("unchecked")
+    final V putVal(int hash, K key, V value, boolean onlyIfAbsent) {
+        int[] idx = index;
+        int mask = idx.length - 1;
+        int free = -1;
+        int i = hash & mask;
+        for (int e; (e = idx[i]) != 0; i = (i + 1) & mask) {
+            if (e == DUMMY) {
+                if (free < 0)
+                    free = i;
+            } else {
+                Object k;
+                if (hashes[--e] == hash &&
+                    ((k = keys[e]) == key || (key != null && key.equals(k)))) {
+                    V oldValue = (V) vals[e];
+                    if (!onlyIfAbsent || oldValue == null)
+                        vals[e] = value;
+                    return oldValue;
+                }
+            }
+        }
+        if (used == keys.length || idx == EMPTY_INDEX) {
+            makeRoom();
+            // the index table was rebuilt; look for a free slot again
+            idx = index;
+            mask = idx.length - 1;
+            i = hash & mask;
+            while (idx[i] != 0)
+                i = (i + 1) & mask;
+        } else if (free >= 0) {
+            i = free;
+        }
+        int e = used++;
+        hashes[e] = hash;
+        keys[e] = key;
+        vals[e] = value;
+        idx[i] = e + 1;
+        ++size;
+        ++modCount;
+        return null;
+    }
+
+    /**
+     * Makes room for at least one more entry, either by compacting the
+     * entry arrays in place, if they have room or at least a quarter of
+     * them are removed entries, or by growing them.  Rebuilds the index
+     * table.
+     */
+    private void makeRoom() {
+        int oldCapacity = keys.length;
+        int removed = used - size;
+        int newCapacity;
+        if (oldCapacity == 0) {
+            newCapacity = initialCapacity;
+        } else if (used < oldCapacity ||
+                   (removed > 0 && removed >= (used >>> 2))) {
+            newCapacity = oldCapacity;
+        } else {
+            if (oldCapacity >= MAXIMUM_CAPACITY)
+                throw new OutOfMemoryError("Map capacity exceeded");
+            newCapacity = Math.min(MAXIMUM_CAPACITY,
+                ArraysSupport.newLength(oldCapacity, 1, oldCapacity >> 1));
+        }
+        rebuild(newCapacity);
+    }
+
+    /**
+     * Moves the live entries, in order, to the front of entry arrays of
+     * the given capacity and rebuilds the index table for them.
+     */
+    private void rebuild(int capacity) {
+        final int[] oldHashes = hashes;
+        final Object[] oldKeys = keys, oldVals = vals;
+        final int[] hs;
+        final Object[] ks, vs;
+        if (capacity == oldKeys.length) {
+            hs = oldHashes;
+            ks = oldKeys;
+            vs = oldVals;
+        } else {
+            hashes = hs = new int[capacity];
+            keys = ks = new Object[capacity];
+            vals = vs = new Object[capacity];
+        }
+        int n = 0;
+        for (int e = 0, end = used; e < end; e++) {
+            Object k = oldKeys[e];
+            if (k != REMOVED) {
+                hs[n] = oldHashes[e];
+                ks[n] = k;
+                vs[n] = oldVals[e];
+                n++;
+            }
+        }
+        if (ks == oldKeys) {
+            Arrays.fill(ks, n, used, null);
+            Arrays.fill(vs, n, used, null);
+        }
+        used = n;
+
+        int len = indexSizeFor(capacity);
+        int[] idx = (index.length == len && index != EMPTY_INDEX)
+            ? index : new int[len];
+        if (idx == index)
+            Arrays.fill(idx, 0);
+        final int mask = len - 1;
+        for (int e = 0; e < n; e++) {
+            int i = hs[e] & mask;
+            while (idx[i] != 0)
+                i = (i + 1) & mask;
+            idx[i] = e + 1;
+        }
+        index = idx;
+    }
+
+    /**
+     * Removes the entry referred to by the given index-table slot.
+     */
+    final void removeSlot(int slot) {
+        int e = index[slot] - 1;
+        index[slot] = DUMMY;
+        keys[e] = REMOVED;
+        vals[e] = null;
+        --size;
+        ++modCount;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param  key key whose mapping is to be removed from the map
+     * @return the previous value associated with {@code key}, or
+     *         {@code null} if there was no mapping for {@code key}.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int slot = findSlot(HashMap.hash(key), key);
+        if (slot < 0)
+            return null;
+        V oldValue = (V) vals[index[slot] - 1];
+        removeSlot(slot);
+        return oldValue;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The map will be empty
+     * after this call returns; its storage is released and reallocated on
+     * the next insertion.
+     */
+    public void clear() {
+        modCount++;
+        if (size > 0 || used > 0) {
+            size = 0;
+            clearStorage();
+        }
+    }
+
+    /* ---------------- Bulk operations -------------- */
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        final int mc = modCount;
+        final Object[] ks = keys, vs = vals;
+        for (int e = 0, n = used; e < n && modCount == mc; e++) {
+            Object k = ks[e];
+            if (k != REMOVED)
+                action.accept((K) k, (V) vs[e]);
+        }
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        final int mc = modCount;
+        final Object[] ks = keys, vs = vals;
+        for (int e = 0, n = used; e < n && modCount == mc; e++) {
+            Object k = ks[e];
+            if (k != REMOVED)
+                vs[e] = function.apply((K) k, (V) vs[e]);
+        }
+        if (modCount != mc)
+            throw new ConcurrentModificationException();
+    }
+
+    /* ---------------- Views -------------- */
+
+    /**
+     * Returns a {@link Set} view of the keys contained in this map, in
+     * insertion order.  The set is backed by the map, so changes to the
+     * map are reflected in the set, and vice-versa.  The set supports
+     * element removal but not addition.
+     *
+     * @return a set view of the keys contained in this map
+     */
+    public Set<K> keySet() {
+        Set<K> ks = keySet;
+        if (ks == null) {
+            ks = new KeySet();
+            keySet = ks;
+        }
+        return ks;
+    }
+
+    final class KeySet extends AbstractSet<K> {
+        public final int size()                 { return size; }
+        public final void clear()               { CompactHashMap.this.clear(); }
+        public final Iterator<K> iterator()     { return new KeyIterator(); }
+        public final boolean contains(Object o) { return containsKey(o); }
+        public final boolean remove(Object key) {
+            int slot = findSlot(HashMap.hash(key), key);
+            if (slot < 0)
+                return false;
+            removeSlot(slot);
+            return true;
+        }
+        public final Spliterator<K> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.SIZED |
+                                            Spliterator.ORDERED |
+                                            Spliterator.DISTINCT);
+        }
+    }
+
+    /**
+     * Returns a {@link Collection} view of the values contained in this
+     * map, in insertion order of their keys.  The collection is backed by
+     * the map, so changes to the map are reflected in the collection, and
+     * vice-versa.  The collection supports element removal but not
+     * addition.
+     *
+     * @return a view of the values contained in this map
+     */
+    public Collection<V> values() {
+        Collection<V> vs = values;
+        if (vs == null) {
+            vs = new Values();
+            values = vs;
+        }
+        return vs;
+    }
+
+    final class Values extends AbstractCollection<V> {
+        public final int size()                 { return size; }
+        public final void clear()               { CompactHashMap.this.clear(); }
+        public final Iterator<V> iterator()     { return new ValueIterator(); }
+        public final boolean contains(Object o) { return containsValue(o); }
+        public final Spliterator<V> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.SIZED |
+                                            Spliterator.ORDERED);
+        }
+    }
+
+    /**
+     * Returns a {@link Set} view of the mappings contained in this map, in
+     * insertion order.  The set is backed by the map, so changes to the
+     * map are reflected in the set, and vice-versa.  The set supports
+     * element removal but not addition.
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    public Set<Map.Entry<K,V>> entrySet() {
+        Set<Map.Entry<K,V>> es = entrySet;
+        if (es == null) {
+            es = new EntrySet();
+            entrySet = es;
+        }
+        return es;
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<K,V>> {
+        public final int size()                 { return size; }
+        public final void clear()               { CompactHashMap.this.clear(); }
+        public final Iterator<Map.Entry<K,V>> iterator() {
+            return new EntryIterator();
+        }
+        public final boolean contains(Object o) {
+            if (!(o instanceof Map.Entry<?, ?> e))
+                return false;
+            Object key = e.getKey();
+            int i = findEntry(key);
+            return i >= 0 && Objects.equals(vals[i], e.getValue());
+        }
+        public final boolean remove(Object o) {
+            if (!(o instanceof Map.Entry<?, ?> e))
+                return false;
+            Object key = e.getKey();
+            int slot = findSlot(HashMap.hash(key), key);
+            if (slot < 0 || !Objects.equals(vals[index[slot] - 1], e.getValue()))
+                return false;
+            removeSlot(slot);
+            return true;
+        }
+        public final Spliterator<Map.Entry<K,V>> spliterator() {
+            return Spliterators.spliterator(this, Spliterator.SIZED |
+                                            Spliterator.ORDERED |
+                                            Spliterator.DISTINCT);
+        }
+        public final void forEach(Consumer<? super Map.Entry<K,V>> action) {
+            Objects.requireNonNull(action);
+            final int mc = modCount;
+            for (int e = 0, n = used; e < n && modCount == mc; e++) {
+                if (keys[e] != REMOVED)
+                    action.accept(new Entry(e));
+            }
+            if (modCount != mc)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * A view of one mapping.  It remembers the entry index at which the
+     * mapping was found and falls back to a lookup by key if the entry
+     * arrays have since been compacted.
+     */
+    final class Entry implements Map.Entry<K,V> {
+        private final K key;
+        private int pos;
+
+        @SuppressWarnings("unchecked")
+        Entry(int pos) {
+            this.key = (K) keys[pos];
+            this.pos = pos;
+        }
+
+        /**
+         * Returns the current entry index of this mapping, or -1 if the
+         * key is no longer mapped.
+         */
+        private int locate() {
+            int e = pos;
+            if (e >= used || keys[e] != key || keys[e] == REMOVED)
+                pos = e = findEntry(key);
+            return e;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            int e = locate();
+            if (e < 0)
+                throw new IllegalStateException("Entry was removed");
+            return (V) vals[e];
+        }
+
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            int e = locate();
+            if (e < 0)
+                throw new IllegalStateException("Entry was removed");
+            V oldValue = (V) vals[e];
+            vals[e] = value;
+            return oldValue;
+        }
+
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e
+                    && Objects.equals(key, e.getKey())
+                    && Objects.equals(getValue(), e.getValue());
+        }
+
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    abstract class CompactIterator {
+        int next;               // next entry index to return
+        int current = -1;       // entry index of last returned, or -1
+        int expectedModCount;   // for fast-fail
+
+        CompactIterator() {
+            expectedModCount = modCount;
+            next = advance(0);
+        }
+
+        private int advance(int e) {
+            final Object[] ks = keys;
+            final int n = used;
+            while (e < n && ks[e] == REMOVED)
+                e++;
+            return e;
+        }
+
+        public final boolean hasNext() {
+            return next < used;
+        }
+
+        final int nextEntry() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            int e = next;
+            if (e >= used)
+                throw new NoSuchElementException();
+            next = advance(e + 1);
+            return current = e;
+        }
+
+        public final void remove() {
+            int e = current;
+            if (e < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            current = -1;
+            removeSlot(findSlot(hashes[e], keys[e]));
+            expectedModCount = modCount;
+        }
+    }
+
+    final class KeyIterator extends CompactIterator implements Iterator<K> {
+        @SuppressWarnings("unchecked")
+        public final K next() { return (K) keys[nextEntry()]; }
+    }
+
+    final class ValueIterator extends CompactIterator implements Iterator<V> {
+        @SuppressWarnings("unchecked")
+        public final V next() { return (V) vals[nextEntry()]; }
+    }
+
+    final class EntryIterator extends CompactIterator
+        implements Iterator<Map.Entry<K,V>> {
+        public final Map.Entry<K,V> next() { return new Entry(nextEntry()); }
+    }
+
+    /* ---------------- Cloning and serialization -------------- */
+
+    /**
+     * Returns a shallow copy of this {@code CompactHashMap} instance: the
+     * keys and values themselves are not cloned.  The copy's arrays are
+     * compacted.
+     *
+     * @return a shallow copy of this map
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object clone() {
+        CompactHashMap<K,V> result;
+        try {
+            result = (CompactHashMap<K,V>)super.clone();
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+        result.keySet = null;
+        result.values = null;
+        result.entrySet = null;
+        result.modCount = 0;
+        if (used > 0) {
+            result.index = EMPTY_INDEX;
+            result.hashes = hashes.clone();
+            result.keys = keys.clone();
+            result.vals = vals.clone();
+            result.rebuild(Math.max(size, 1));
+        } else {
+            // never share this map's entry arrays
+            result.clearStorage();
+        }
+        return result;
+    }
+
+    /**
+     * Saves this map to a stream (that is, serializes it).
+     *
+     * @param s the stream
+     * @throws IOException if an I/O error occurs
+     * @serialData The <i>size</i> of the map (the number of key-value
+     *             mappings) is emitted (int), followed by the key (Object)
+     *             and value (Object) for each key-value mapping, in
+     *             insertion order.
+     */
+    @java.io.Serial
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        final Object[] ks = keys, vs = vals;
+        for (int e = 0, n = used; e < n; e++) {
+            Object k = ks[e];
+            if (k != REMOVED) {
+                s.writeObject(k);
+                s.writeObject(vs[e]);
+            }
+        }
+    }
+
+    /**
+     * Reconstitutes this map from a stream (that is, deserializes it).
+     *
+     * @param s the stream
+     * @throws ClassNotFoundException if the class of a serialized object
+     *         could not be found
+     * @throws IOException if an I/O error occurs
+     */
+    @java.io.Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int mappings = s.readInt();
+        if (mappings < 0)
+            throw new InvalidObjectException("Illegal mappings count: " + mappings);
+        int cap = Math.max(DEFAULT_CAPACITY, Math.min(mappings, MAXIMUM_CAPACITY));
+        SharedSecrets.getJavaObjectInputStreamAccess().checkArray(s, Object[].class, cap);
+        initialCapacity = cap;
+        clearStorage();
+        for (int i = 0; i < mappings; i++) {
+            K key = (K) s.readObject();
+            V value = (V) s.readObject();
+            putVal(HashMap.hash(key), key, value, false);
+        }
+    }
+}
@@ -0,0 +1,1638 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.base.share.classes.java.util.function.IntConsumer;
+import java.base.share.classes.java.util.stream.IntStream;
+import java.base.share.classes.java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of non-negative {@code int} values, in the manner of a
+ * <em>Roaring bitmap</em>.  Like {@link BitSet}, it can be viewed as a
+ * vector of bits indexed by non-negative integers, but it is intended for
+ * sets that are sparse or clustered, for which a {@code BitSet}'s single
+ * dense array of words would be large and slow to combine.
+ *
+ * <p>The index space is split into chunks of 2<sup>16</sup> consecutive
+ * indices, identified by the high 16 bits of an index.  Only chunks that
+ * contain set bits are stored, each in one of three kinds of
+ * <em>container</em> holding the low 16 bits of its indices:
+ * <ul>
+ * <li>an <em>array</em> container, a sorted array of at most 4096
+ *     {@code char} values, for sparse chunks;
+ * <li>a <em>bitmap</em> container, a fixed array of 1024 {@code long}
+ *     words, for dense chunks; and
+ * <li>a <em>run</em> container, a sorted array of runs of consecutive
+ *     values, for chunks made up of long runs.
+ * </ul>
+ * Array and bitmap containers are converted into one another as their
+ * cardinality crosses 4096, the point at which the two are the same size.
+ * Run containers are created by range operations and by
+ * {@link #runOptimize runOptimize}; single-bit updates to a run container
+ * convert it back to an array or bitmap container.
+ *
+ * <p>The logical operations {@link #and and}, {@link #or or},
+ * {@link #xor xor} and {@link #andNot andNot} visit only the chunks present
+ * in either set, and combine each pair of containers with an algorithm
+ * chosen by their kinds, so their cost is proportional to the compressed
+ * size of the operands rather than to the largest index.
+ *
+ * <p>A set can be written to and read from a {@link ByteBuffer} with
+ * {@link #writeTo writeTo} and {@link #valueOf(ByteBuffer) valueOf}.  Both
+ * transfer each container with a single bulk operation on a view of the
+ * buffer, without an intermediate byte array.
+ *
+ * <p>Unless otherwise noted, passing a null parameter to any of the
+ * methods in a {@code CompressedBitSet} will result in a
+ * {@code NullPointerException}.
+ *
+ * <p>A {@code CompressedBitSet} is not safe for multithreaded use without
+ * external synchronization.
+ *
+ * @see BitSet
+ * @since 21
+ */
+public class CompressedBitSet implements Cloneable, java.io.Serializable {
+
+    /** The largest cardinality of an array container. */
+    static final int ARRAY_MAX = 4096;
+
+    /** The number of words in a bitmap container. */
+    static final int BITMAP_WORDS = 1 << 10;
+
+    /** The size in bytes of a bitmap container. */
+    static final int BITMAP_BYTES = BITMAP_WORDS * Long.BYTES;
+
+    /** Container kinds, as written to the serial form. */
+    static final int ARRAY = 0, BITMAP = 1, RUN = 2;
+
+    /** Identifies the serial form. */
+    private static final int COOKIE = 0x43425331;
+
+    /** The high 16 bits of the indices in each container, ascending. */
+    private transient char[] keys;
+
+    /** The containers, parallel to {@link #keys}. */
+    private transient Container[] containers;
+
+    /** The number of containers in use. */
+    private transient int size;
+
+    @java.io.Serial
+    private static final long serialVersionUID = -4168720411498471262L;
+
+    /**
+     * Creates a new, empty set.
+     */
+    public CompressedBitSet() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * Returns a new set containing the given indices.
+     *
+     * @param indices the indices of the bits to set
+     * @return a set containing the given indices
+     * @throws IndexOutOfBoundsException if any index is negative
+     */
+    public static CompressedBitSet of(int... indices) {
+        CompressedBitSet s = new CompressedBitSet();
+        for (int i : indices)
+            s.set(i);
+        return s;
+    }
+
+    private static void checkIndex(int bitIndex) {
+        if (bitIndex < 0)
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+    }
+
+    private static void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        if (toIndex < 0)
+            throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+        if (fromIndex > toIndex)
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex +
+                                                " > toIndex: " + toIndex);
+    }
+
+    /**
+     * Returns the position of the container for the key, or the one's
+     * complement of the position at which it would be inserted.
+     */
+    private int find(int key) {
+        return Arrays.binarySearch(keys, 0, size, (char) key);
+    }
+
+    private void insertAt(int i, int key, Container c) {
+        if (size == keys.length) {
+            int newLength = size << 1;
+            keys = Arrays.copyOf(keys, newLength);
+            containers = Arrays.copyOf(containers, newLength);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = (char) key;
+        containers[i] = c;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    /**
+     * Stores the container at position i, removing it if it is null.
+     */
+    private void replaceAt(int i, Container c) {
+        if (c == null)
+            removeAt(i);
+        else
+            containers[i] = c;
+    }
+
+    /**
+     * Returns the value of the bit with the specified index.
+     *
+     * @param  bitIndex the bit index
+     * @return the value of the bit with the specified index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public boolean get(int bitIndex) {
+        checkIndex(bitIndex);
+        int i = find(bitIndex >>> 16);
+        return i >= 0 && containers[i].contains(bitIndex & 0xFFFF);
+    }
+
+    /**
+     * Sets the bit at the specified index to {@code true}.
+     *
+     * @param  bitIndex a bit index
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void set(int bitIndex) {
+        checkIndex(bitIndex);
+        int i = find(bitIndex >>> 16);
+        if (i >= 0)
+            containers[i] = containers[i].add(bitIndex & 0xFFFF);
+        else
+            insertAt(~i, bitIndex >>> 16,
+                     new ArrayContainer().add(bitIndex & 0xFFFF));
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code true}.  Chunks that
+     * the range covers entirely are stored as single runs.
+     *
+     * @param  fromIndex index of the first bit to be set
+     * @param  toIndex index after the last bit to be set
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void set(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+        int firstKey = fromIndex >>> 16, lastKey = (toIndex - 1) >>> 16;
+        for (int key = firstKey; key <= lastKey; key++) {
+            int lo = (key == firstKey) ? fromIndex & 0xFFFF : 0;
+            int hi = (key == lastKey) ? (toIndex - 1) & 0xFFFF : 0xFFFF;
+            int i = find(key);
+            if (i < 0)
+                insertAt(~i, key, RunContainer.ofRange(lo, hi));
+            else
+                containers[i] = containers[i].toBitmap().setRange(lo, hi)
+                                             .optimize();
+        }
+    }
+
+    /**
+     * Sets the bit specified by the index to {@code false}.
+     *
+     * @param  bitIndex the index of the bit to be cleared
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public void clear(int bitIndex) {
+        checkIndex(bitIndex);
+        int i = find(bitIndex >>> 16);
+        if (i >= 0) {
+            Container c = containers[i].remove(bitIndex & 0xFFFF);
+            replaceAt(i, (c.cardinality() == 0) ? null : c);
+        }
+    }
+
+    /**
+     * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+     * specified {@code toIndex} (exclusive) to {@code false}.
+     *
+     * @param  fromIndex index of the first bit to be cleared
+     * @param  toIndex index after the last bit to be cleared
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *         or {@code toIndex} is negative, or {@code fromIndex} is
+     *         larger than {@code toIndex}
+     */
+    public void clear(int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex)
+            return;
+        int firstKey = fromIndex >>> 16, lastKey = (toIndex - 1) >>> 16;
+        int i = find(firstKey);
+        if (i < 0)
+            i = ~i;
+        while (i < size && keys[i] <= lastKey) {
+            int key = keys[i];
+            int lo = (key == firstKey) ? fromIndex & 0xFFFF : 0;
+            int hi = (key == lastKey) ? (toIndex - 1) & 0xFFFF : 0xFFFF;
+            Container c = (lo == 0 && hi == 0xFFFF) ? null :
+                containers[i].toBitmap().clearRange(lo, hi).optimize();
+            replaceAt(i, c);
+            if (c != null)
+                i++;
+        }
+    }
+
+    /**
+     * Sets all of the bits in this set to {@code false}.
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of bits set to {@code true} in this set.
+     *
+     * @return the number of bits set to {@code true} in this set
+     */
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < size; i++)
+            sum += containers[i].cardinality();
+        return sum;
+    }
+
+    /**
+     * Returns true if this set contains no bits that are set to
+     * {@code true}.
+     *
+     * @return boolean indicating whether this set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the "logical size" of this set: the index of the highest set
+     * bit plus one.  Returns zero if the set contains no set bits.
+     *
+     * @return the logical size of this set
+     */
+    public int length() {
+        return (size == 0) ? 0 :
+            ((keys[size - 1] << 16) | containers[size - 1].last()) + 1;
+    }
+
+    /**
+     * Returns the number of bits set to {@code true} at indices less than
+     * or equal to the given index.
+     *
+     * @param  bitIndex a bit index
+     * @return the number of set bits at or before {@code bitIndex}
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public int rank(int bitIndex) {
+        checkIndex(bitIndex);
+        int key = bitIndex >>> 16;
+        int rank = 0;
+        for (int i = 0; i < size && keys[i] <= key; i++) {
+            Container c = containers[i];
+            rank += (keys[i] < key) ? c.cardinality()
+                                    : c.rank(bitIndex & 0xFFFF);
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the index of the set bit of the given rank, counting from
+     * zero: {@code select(0)} is the lowest set bit.  For every {@code j}
+     * less than the cardinality, {@code rank(select(j)) == j + 1}.
+     *
+     * @param  j the rank of the set bit, counting from zero
+     * @return the index of the set bit of rank {@code j}
+     * @throws IndexOutOfBoundsException if {@code j} is negative or not
+     *         less than the cardinality of this set
+     */
+    public int select(int j) {
+        if (j >= 0) {
+            for (int i = 0, left = j; i < size; i++) {
+                Container c = containers[i];
+                int card = c.cardinality();
+                if (left < card)
+                    return (keys[i] << 16) | c.select(left);
+                left -= card;
+            }
+        }
+        throw new IndexOutOfBoundsException("rank: " + j);
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code true} that
+     * occurs on or after the specified starting index.  If no such bit
+     * exists then {@code -1} is returned.
+     *
+     * @param  fromIndex the index to start checking from (inclusive)
+     * @return the index of the next set bit, or {@code -1} if there is no
+     *         such bit
+     * @throws IndexOutOfBoundsException if the specified index is negative
+     */
+    public int nextSetBit(int fromIndex) {
+        checkIndex(fromIndex);
+        int key = fromIndex >>> 16;
+        int i = find(key);
+        if (i >= 0) {
+            int v = containers[i].nextValue(fromIndex & 0xFFFF);
+            if (v >= 0)
+                return (key << 16) | v;
+            i++;
+        } else {
+            i = ~i;
+        }
+        return (i < size) ? (keys[i] << 16) | containers[i].nextValue(0) : -1;
+    }
+
+    /**
+     * Performs a logical <b>AND</b> of this set with the argument set.
+     * This set is modified so that each bit in it has the value
+     * {@code true} if and only if it both initially had the value
+     * {@code true} and the corresponding bit in the argument set also had
+     * the value {@code true}.
+     *
+     * @param set a compressed bit set
+     */
+    public void and(CompressedBitSet set) {
+        if (this == set)
+            return;
+        int n = 0;
+        for (int i = 0, j = 0; i < size && j < set.size; ) {
+            int a = keys[i], b = set.keys[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                Container c = Container.and(containers[i++], set.containers[j++]);
+                if (c != null) {
+                    keys[n] = (char) a;
+                    containers[n++] = c;
+                }
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+    }
+
+    /**
+     * Performs a logical <b>OR</b> of this set with the argument set.
+     * This set is modified so that a bit in it has the value {@code true}
+     * if and only if it either already had the value {@code true} or the
+     * corresponding bit in the argument set has the value {@code true}.
+     *
+     * @param set a compressed bit set
+     */
+    public void or(CompressedBitSet set) {
+        if (this != set)
+            merge(set, Container.OR);
+    }
+
+    /**
+     * Performs a logical <b>XOR</b> of this set with the argument set.
+     * This set is modified so that a bit in it has the value {@code true}
+     * if and only if exactly one of the bit in this set and the
+     * corresponding bit in the argument set has the value {@code true}.
+     *
+     * @param set a compressed bit set
+     */
+    public void xor(CompressedBitSet set) {
+        if (this == set)
+            clear();
+        else
+            merge(set, Container.XOR);
+    }
+
+    /**
+     * Clears all of the bits in this set whose corresponding bit is set in
+     * the specified set.
+     *
+     * @param set the set with which to mask this set
+     */
+    public void andNot(CompressedBitSet set) {
+        if (this == set) {
+            clear();
+            return;
+        }
+        int n = 0;
+        for (int i = 0, j = 0; i < size; i++) {
+            int a = keys[i];
+            while (j < set.size && set.keys[j] < a)
+                j++;
+            Container c = containers[i];
+            if (j < set.size && set.keys[j] == a)
+                c = Container.andNot(c, set.containers[j++]);
+            if (c != null) {
+                keys[n] = (char) a;
+                containers[n++] = c;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+    }
+
+    /**
+     * Replaces this set's containers with those of the union or symmetric
+     * difference of the two sets.
+     */
+    private void merge(CompressedBitSet set, int op) {
+        int max = size + set.size;
+        char[] newKeys = new char[Math.max(max, 4)];
+        Container[] newContainers = new Container[newKeys.length];
+        int n = 0, i = 0, j = 0;
+        while (i < size || j < set.size) {
+            int a = (i < size) ? keys[i] : Integer.MAX_VALUE;
+            int b = (j < set.size) ? set.keys[j] : Integer.MAX_VALUE;
+            Container c;
+            int key;
+            if (a < b) {
+                key = a;
+                c = containers[i++];
+            } else if (a > b) {
+                key = b;
+                c = set.containers[j++].copy();
+            } else {
+                key = a;
+                c = Container.combine(containers[i++], set.containers[j++], op);
+            }
+            if (c != null) {
+                newKeys[n] = (char) key;
+                newContainers[n++] = c;
+            }
+        }
+        keys = newKeys;
+        containers = newContainers;
+        size = n;
+    }
+
+    /**
+     * Returns true if the specified set has any bits set to {@code true}
+     * that are also set to {@code true} in this set.
+     *
+     * @param  set the set to intersect with
+     * @return boolean indicating whether this set intersects the specified
+     *         set
+     */
+    public boolean intersects(CompressedBitSet set) {
+        for (int i = 0, j = 0; i < size && j < set.size; ) {
+            int a = keys[i], b = set.keys[j];
+            if (a < b)
+                i++;
+            else if (a > b)
+                j++;
+            else if (Container.intersects(containers[i++], set.containers[j++]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Converts each container to whichever of the array, bitmap and run
+     * representations is smallest.  This is worthwhile before storing or
+     * serializing a set built by single-bit updates whose set bits form
+     * long runs.
+     *
+     * @return {@code true} if any container was converted
+     */
+    public boolean runOptimize() {
+        boolean changed = false;
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i].optimize();
+            if (c != containers[i]) {
+                containers[i] = c;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Performs the given action for each set bit, in increasing order of
+     * index.
+     *
+     * @param action the action to perform
+     */
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < size; i++)
+            containers[i].forEach(keys[i] << 16, action);
+    }
+
+    /**
+     * Returns the indices of the set bits in increasing order, in a newly
+     * allocated array.
+     *
+     * @return the indices of the set bits
+     */
+    public int[] toArray() {
+        int[] a = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            int high = keys[i] << 16;
+            for (int v = c.nextValue(0); v >= 0; v = c.nextValue(v + 1))
+                a[n++] = high | v;
+        }
+        return a;
+    }
+
+    /**
+     * Returns a stream of indices for which this set contains a bit in the
+     * set state.  The indices are returned in order, from lowest to
+     * highest.  The size of the stream is the number of bits in the set
+     * state, equal to the value returned by the {@link #cardinality()}
+     * method.
+     *
+     * <p>The stream binds to this set when the terminal stream operation
+     * commences (specifically, the spliterator for the stream is
+     * <a href="Spliterator.html#binding"><em>late-binding</em></a>).  If
+     * the set is modified during that operation then the result is
+     * undefined.  The stream's spliterator splits at container
+     * boundaries.
+     *
+     * @return a stream of integers representing set indices
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(
+            () -> new ContainerSpliterator(0, size, 0, cardinality()),
+            ContainerSpliterator.CHARACTERISTICS, false);
+    }
+
+    /**
+     * A spliterator over the containers in [index, fence).  next is the
+     * lowest value of containers[index] not yet traversed, or -1 when that
+     * container is exhausted.
+     */
+    final class ContainerSpliterator implements Spliterator.OfInt {
+        static final int CHARACTERISTICS = Spliterator.ORDERED |
+            Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.SIZED |
+            Spliterator.SUBSIZED;
+
+        private int index;
+        private final int fence;
+        private int next;
+        private long est;
+
+        ContainerSpliterator(int index, int fence, int next, long est) {
+            this.index = index;
+            this.fence = fence;
+            this.next = (index < fence) ? containers[index].nextValue(next) : -1;
+            this.est = est;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            while (index < fence) {
+                int v = next;
+                if (v >= 0) {
+                    next = containers[index].nextValue(v + 1);
+                    est--;
+                    action.accept((keys[index] << 16) | v);
+                    return true;
+                }
+                if (++index < fence)
+                    next = containers[index].nextValue(0);
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            // next is -1 if tryAdvance exhausted the current container
+            int v = next;
+            next = -1;
+            for (; index < fence; index++) {
+                Container c = containers[index];
+                int high = keys[index] << 16;
+                for (; v >= 0; v = c.nextValue(v + 1))
+                    action.accept(high | v);
+                if (index + 1 < fence)
+                    v = containers[index + 1].nextValue(0);
+            }
+            est = 0;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int lo = index + 1, mid = (lo + fence) >>> 1;
+            if (lo >= mid)
+                return null;
+            long splitEst = 0;
+            for (int i = mid; i < fence; i++)
+                splitEst += containers[i].cardinality();
+            ContainerSpliterator prefix =
+                new ContainerSpliterator(index, mid, 0, est - splitEst);
+            prefix.next = next;
+            index = mid;
+            next = containers[mid].nextValue(0);
+            est = splitEst;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+    }
+
+    /* ---------------- Serialization to buffers -------------- */
+
+    /**
+     * Returns the number of bytes that {@link #writeTo writeTo} writes.
+     *
+     * @return the size in bytes of the serial form of this set
+     */
+    public int serializedSize() {
+        int bytes = 2 * Integer.BYTES;
+        for (int i = 0; i < size; i++)
+            bytes += 4 * Character.BYTES + containers[i].payloadSize();
+        return bytes;
+    }
+
+    /**
+     * Writes this set to the buffer at its current position, which is
+     * advanced by {@link #serializedSize()} bytes.  The set is written in
+     * little-endian order regardless of the buffer's byte order, which is
+     * left unchanged.  Each container is written with a single bulk
+     * transfer.
+     *
+     * @param bb the buffer to write to
+     * @throws java.nio.BufferOverflowException if fewer than
+     *         {@code serializedSize()} bytes remain in the buffer
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+     */
+    public void writeTo(ByteBuffer bb) {
+        int total = serializedSize();
+        if (bb.remaining() < total)
+            throw new java.nio.BufferOverflowException();
+        ByteBuffer out = bb.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(COOKIE).putInt(size);
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            out.putChar(keys[i]).putChar((char) c.kind())
+               .putInt(c.count());
+            c.writePayload(out);
+        }
+        bb.position(bb.position() + total);
+    }
+
+    /**
+     * Returns a new set read from the serial form written by
+     * {@link #writeTo writeTo}, starting at the buffer's position.  The
+     * buffer is not modified by this method, and no reference to it is
+     * retained.  Each container is read with a single bulk transfer from
+     * a view of the buffer.
+     *
+     * @param bb a byte buffer holding a serialized set, starting at its
+     *        position
+     * @return a set holding the bits read from the buffer
+     * @throws IllegalArgumentException if the buffer does not hold a valid
+     *         serialized set
+     */
+    public static CompressedBitSet valueOf(ByteBuffer bb) {
+        ByteBuffer in = bb.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (in.getInt() != COOKIE)
+                throw new IllegalArgumentException("Not a serialized set");
+            int n = in.getInt();
+            if (n < 0 || n > (1 << 15))
+                throw new IllegalArgumentException("Invalid container count: " + n);
+            CompressedBitSet s = new CompressedBitSet();
+            s.keys = new char[Math.max(n, 4)];
+            s.containers = new Container[s.keys.length];
+            for (int i = 0, prev = -1; i < n; i++) {
+                int key = in.getChar();
+                int kind = in.getChar();
+                int count = in.getInt();
+                if (key <= prev || key >= (1 << 15))
+                    throw new IllegalArgumentException("Invalid key: " + key);
+                Container c = switch (kind) {
+                    case ARRAY  -> ArrayContainer.read(in, count);
+                    case BITMAP -> BitmapContainer.read(in, count);
+                    case RUN    -> RunContainer.read(in, count);
+                    default -> throw new IllegalArgumentException(
+                        "Invalid container kind: " + kind);
+                };
+                s.keys[i] = (char) key;
+                s.containers[i] = c;
+                s.size = i + 1;
+                prev = key;
+            }
+            return s;
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated serialized set", e);
+        }
+    }
+
+    /* ---------------- Object methods -------------- */
+
+    /**
+     * Compares this set against the specified object.  The result is
+     * {@code true} if and only if the argument is a
+     * {@code CompressedBitSet} with exactly the same bits set, regardless
+     * of how either set represents them.
+     *
+     * @param  obj the object to compare with
+     * @return {@code true} if the objects are the same; {@code false}
+     *         otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof CompressedBitSet set) || size != set.size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != set.keys[i] ||
+                !Container.contentEquals(containers[i], set.containers[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code value for this set, which depends only on
+     * which bits are set.
+     *
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            h = 31 * h + keys[i];
+            for (int v = c.nextValue(0); v >= 0; v = c.nextValue(v + 1))
+                h = 31 * h + v;
+        }
+        return h;
+    }
+
+    /**
+     * Cloning this set produces a new set that is equal to it.
+     *
+     * @return a clone of this set
+     */
+    @Override
+    public CompressedBitSet clone() {
+        try {
+            CompressedBitSet s = (CompressedBitSet) super.clone();
+            s.keys = keys.clone();
+            s.containers = containers.clone();
+            for (int i = 0; i < size; i++)
+                s.containers[i] = containers[i].copy();
+            return s;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Returns a string representation of this set in the same format as
+     * {@link BitSet#toString}.
+     *
+     * @return a string representation of this set
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        forEach(i -> sj.add(String.valueOf(i)));
+        return sj.toString();
+    }
+
+    /**
+     * Saves the state of the set to a stream.
+     *
+     * @serialData The length of the serial form written by
+     *             {@link #writeTo writeTo} ({@code int}), followed by
+     *             that form.
+     */
+    @java.io.Serial
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        byte[] bytes = new byte[serializedSize()];
+        writeTo(ByteBuffer.wrap(bytes));
+        s.writeInt(bytes.length);
+        s.write(bytes);
+    }
+
+    /**
+     * Reconstitutes the set from a stream.
+     */
+    @java.io.Serial
+    private void readObject(ObjectInputStream s)
+        throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        int length = s.readInt();
+        if (length < 0)
+            throw new InvalidObjectException("Invalid length: " + length);
+        byte[] bytes = s.readNBytes(length);
+        if (bytes.length != length)
+            throw new EOFException();
+        try {
+            CompressedBitSet copy = valueOf(ByteBuffer.wrap(bytes));
+            keys = copy.keys;
+            containers = copy.containers;
+            size = copy.size;
+        } catch (IllegalArgumentException e) {
+            throw (InvalidObjectException)
+                new InvalidObjectException(e.getMessage()).initCause(e);
+        }
+    }
+
+    /* ---------------- Containers -------------- */
+
+    /**
+     * A set of 16-bit values.  Values are passed and returned as ints in
+     * [0, 0xFFFF].  Mutators return the container that holds the result,
+     * which is this one unless the representation changed.
+     */
+    abstract static sealed class Container
+        permits ArrayContainer, BitmapContainer, RunContainer {
+
+        static final int AND = 0, OR = 1, XOR = 2, ANDNOT = 3;
+
+        abstract int kind();
+
+        abstract int cardinality();
+
+        abstract boolean contains(int x);
+
+        abstract Container add(int x);
+
+        abstract Container remove(int x);
+
+        /** Returns the number of values less than or equal to x. */
+        abstract int rank(int x);
+
+        /** Returns the value of rank j + 1; j is less than cardinality. */
+        abstract int select(int j);
+
+        /**
+         * Returns the least value at least from, or -1 if none.  from may
+         * be 0x10000, for which -1 is returned.
+         */
+        abstract int nextValue(int from);
+
+        abstract int last();
+
+        abstract void forEach(int high, IntConsumer action);
+
+        /** Returns the values in a new bitmap container. */
+        abstract BitmapContainer toBitmap();
+
+        /** Stores the values in ascending order into dst. */
+        abstract void toChars(char[] dst);
+
+        abstract int numberOfRuns();
+
+        abstract Container copy();
+
+        /** Returns the count stored in the serial header. */
+        abstract int count();
+
+        abstract int payloadSize();
+
+        abstract void writePayload(ByteBuffer out);
+
+        /**
+         * Returns the smallest representation of this container's values,
+         * or null if it is empty.
+         */
+        final Container optimize() {
+            int card = cardinality();
+            if (card == 0)
+                return null;
+            int runBytes = 2 * Character.BYTES * numberOfRuns();
+            int arrayBytes = (card <= ARRAY_MAX) ? card * Character.BYTES
+                                                 : Integer.MAX_VALUE;
+            if (runBytes < Math.min(arrayBytes, BITMAP_BYTES))
+                return (this instanceof RunContainer) ? this : RunContainer.of(this);
+            if (card <= ARRAY_MAX)
+                return (this instanceof ArrayContainer) ? this : ArrayContainer.of(this);
+            return (this instanceof BitmapContainer) ? this : toBitmap();
+        }
+
+        /**
+         * Returns this container as an array or bitmap container.
+         */
+        final Container unrun() {
+            if (!(this instanceof RunContainer))
+                return this;
+            return (cardinality() <= ARRAY_MAX) ? ArrayContainer.of(this)
+                                                : toBitmap();
+        }
+
+        static Container and(Container a, Container b) {
+            return combine(a, b, AND);
+        }
+
+        static Container andNot(Container a, Container b) {
+            return combine(a, b, ANDNOT);
+        }
+
+        /**
+         * Returns the result of the operation on the two containers, as an
+         * array or bitmap container, or null if it is empty.  Neither
+         * argument is modified.
+         */
+        static Container combine(Container a, Container b, int op) {
+            a = a.unrun();
+            b = b.unrun();
+            if (a instanceof ArrayContainer x) {
+                if (b instanceof ArrayContainer y) {
+                    if ((op == OR || op == XOR) &&
+                        x.cardinality + y.cardinality > ARRAY_MAX)
+                        return shrink(x.toBitmap().apply(y, op));
+                    return ArrayContainer.merge(x, y, op);
+                }
+                BitmapContainer y = (BitmapContainer) b;
+                return switch (op) {
+                    case AND    -> x.filter(y, true);
+                    case ANDNOT -> x.filter(y, false);
+                    default     -> shrink(y.copy().apply(x, op));
+                };
+            }
+            BitmapContainer x = (BitmapContainer) a;
+            if (b instanceof ArrayContainer y) {
+                if (op == AND)
+                    return y.filter(x, true);
+                return shrink(x.copy().apply(y, op));
+            }
+            return shrink(x.copy().apply((BitmapContainer) b, op));
+        }
+
+        /**
+         * Converts a bitmap container with few values to an array container.
+         */
+        static Container shrink(BitmapContainer c) {
+            int card = c.cardinality;
+            if (card == 0)
+                return null;
+            return (card <= ARRAY_MAX) ? ArrayContainer.of(c) : c;
+        }
+
+        static boolean intersects(Container a, Container b) {
+            a = a.unrun();
+            b = b.unrun();
+            if (a instanceof BitmapContainer x && b instanceof BitmapContainer y) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    if ((x.words[i] & y.words[i]) != 0)
+                        return true;
+                }
+                return false;
+            }
+            if (a instanceof BitmapContainer) {
+                Container t = a; a = b; b = t;
+            }
+            ArrayContainer x = (ArrayContainer) a;
+            for (int i = 0; i < x.cardinality; i++) {
+                if (b.contains(x.content[i]))
+                    return true;
+            }
+            return false;
+        }
+
+        static boolean contentEquals(Container a, Container b) {
+            if (a.cardinality() != b.cardinality())
+                return false;
+            if (a instanceof ArrayContainer x && b instanceof ArrayContainer y)
+                return Arrays.equals(x.content, 0, x.cardinality,
+                                     y.content, 0, y.cardinality);
+            if (a instanceof RunContainer x && b instanceof RunContainer y)
+                return Arrays.equals(x.runs, 0, 2 * x.nbrRuns,
+                                     y.runs, 0, 2 * y.nbrRuns);
+            BitmapContainer x = (a instanceof BitmapContainer c) ? c : a.toBitmap();
+            BitmapContainer y = (b instanceof BitmapContainer c) ? c : b.toBitmap();
+            return Arrays.equals(x.words, y.words);
+        }
+    }
+
+    /**
+     * A sorted array of at most ARRAY_MAX values.
+     */
+    static final class ArrayContainer extends Container {
+        char[] content;
+        int cardinality;
+
+        ArrayContainer() {
+            content = new char[4];
+        }
+
+        ArrayContainer(char[] content, int cardinality) {
+            this.content = content;
+            this.cardinality = cardinality;
+        }
+
+        static ArrayContainer of(Container c) {
+            char[] a = new char[c.cardinality()];
+            c.toChars(a);
+            return new ArrayContainer(a, a.length);
+        }
+
+        static ArrayContainer read(ByteBuffer in, int count) {
+            if (count <= 0 || count > ARRAY_MAX)
+                throw new IllegalArgumentException("Invalid cardinality: " + count);
+            char[] a = new char[count];
+            in.asCharBuffer().get(a);
+            in.position(in.position() + count * Character.BYTES);
+            for (int i = 1; i < count; i++) {
+                if (a[i] <= a[i - 1])
+                    throw new IllegalArgumentException("Unsorted container");
+            }
+            return new ArrayContainer(a, count);
+        }
+
+        int kind() { return ARRAY; }
+
+        int cardinality() { return cardinality; }
+
+        int count() { return cardinality; }
+
+        int payloadSize() { return cardinality * Character.BYTES; }
+
+        void writePayload(ByteBuffer out) {
+            out.asCharBuffer().put(content, 0, cardinality);
+            out.position(out.position() + payloadSize());
+        }
+
+        private int search(int x) {
+            return Arrays.binarySearch(content, 0, cardinality, (char) x);
+        }
+
+        boolean contains(int x) {
+            return search(x) >= 0;
+        }
+
+        Container add(int x) {
+            int i = search(x);
+            if (i >= 0)
+                return this;
+            if (cardinality == ARRAY_MAX)
+                return toBitmap().add(x);
+            i = ~i;
+            if (cardinality == content.length)
+                content = Arrays.copyOf(content,
+                    Math.min(ARRAY_MAX, cardinality + (cardinality >> 1) + 1));
+            System.arraycopy(content, i, content, i + 1, cardinality - i);
+            content[i] = (char) x;
+            cardinality++;
+            return this;
+        }
+
+        Container remove(int x) {
+            int i = search(x);
+            if (i >= 0) {
+                System.arraycopy(content, i + 1, content, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        int rank(int x) {
+            int i = search(x);
+            return (i >= 0) ? i + 1 : ~i;
+        }
+
+        int select(int j) {
+            return content[j];
+        }
+
+        int nextValue(int from) {
+            if (from > 0xFFFF)
+                return -1;
+            int i = search(from);
+            if (i < 0)
+                i = ~i;
+            return (i < cardinality) ? content[i] : -1;
+        }
+
+        int last() {
+            return content[cardinality - 1];
+        }
+
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++)
+                action.accept(high | content[i]);
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer b = new BitmapContainer();
+            long[] w = b.words;
+            for (int i = 0; i < cardinality; i++) {
+                int v = content[i];
+                w[v >>> 6] |= 1L << v;
+            }
+            b.cardinality = cardinality;
+            return b;
+        }
+
+        void toChars(char[] dst) {
+            System.arraycopy(content, 0, dst, 0, cardinality);
+        }
+
+        int numberOfRuns() {
+            if (cardinality == 0)
+                return 0;
+            int runs = 1;
+            for (int i = 1; i < cardinality; i++) {
+                if (content[i] != content[i - 1] + 1)
+                    runs++;
+            }
+            return runs;
+        }
+
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, cardinality),
+                                      cardinality);
+        }
+
+        /**
+         * Returns the values that are (if keep) or are not contained in
+         * the bitmap.
+         */
+        Container filter(BitmapContainer b, boolean keep) {
+            char[] out = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                char v = content[i];
+                if (b.contains(v) == keep)
+                    out[n++] = v;
+            }
+            return (n == 0) ? null : new ArrayContainer(out, n);
+        }
+
+        /**
+         * Merges two arrays whose result fits in an array container.
+         */
+        static Container merge(ArrayContainer a, ArrayContainer b, int op) {
+            char[] x = a.content, y = b.content;
+            int m = a.cardinality, n = b.cardinality;
+            char[] out = new char[(op == AND) ? Math.min(m, n)
+                                  : (op == ANDNOT) ? m : m + n];
+            int i = 0, j = 0, k = 0;
+            while (i < m && j < n) {
+                char u = x[i], v = y[j];
+                if (u < v) {
+                    if (op != AND)
+                        out[k++] = u;
+                    i++;
+                } else if (u > v) {
+                    if (op == OR || op == XOR)
+                        out[k++] = v;
+                    j++;
+                } else {
+                    if (op == AND || op == OR)
+                        out[k++] = u;
+                    i++;
+                    j++;
+                }
+            }
+            if (op != AND) {
+                while (i < m)
+                    out[k++] = x[i++];
+            }
+            if (op == OR || op == XOR) {
+                while (j < n)
+                    out[k++] = y[j++];
+            }
+            return (k == 0) ? null : new ArrayContainer(out, k);
+        }
+    }
+
+    /**
+     * A bitmap of all 2^16 values.
+     */
+    static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer() {
+            words = new long[BITMAP_WORDS];
+        }
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitmapContainer read(ByteBuffer in, int count) {
+            if (count <= 0 || count > (1 << 16))
+                throw new IllegalArgumentException("Invalid cardinality: " + count);
+            long[] w = new long[BITMAP_WORDS];
+            in.asLongBuffer().get(w);
+            in.position(in.position() + BITMAP_BYTES);
+            BitmapContainer b = new BitmapContainer(w, 0);
+            b.recount();
+            if (b.cardinality != count)
+                throw new IllegalArgumentException("Cardinality mismatch");
+            return b;
+        }
+
+        int kind() { return BITMAP; }
+
+        int cardinality() { return cardinality; }
+
+        int count() { return cardinality; }
+
+        int payloadSize() { return BITMAP_BYTES; }
+
+        void writePayload(ByteBuffer out) {
+            out.asLongBuffer().put(words);
+            out.position(out.position() + BITMAP_BYTES);
+        }
+
+        void recount() {
+            int card = 0;
+            for (long w : words)
+                card += Long.bitCount(w);
+            cardinality = card;
+        }
+
+        boolean contains(int x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        Container add(int x) {
+            long w = words[x >>> 6];
+            long bit = 1L << x;
+            if ((w & bit) == 0) {
+                words[x >>> 6] = w | bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        Container remove(int x) {
+            long w = words[x >>> 6];
+            long bit = 1L << x;
+            if ((w & bit) != 0) {
+                words[x >>> 6] = w & ~bit;
+                if (--cardinality <= ARRAY_MAX)
+                    return ArrayContainer.of(this);
+            }
+            return this;
+        }
+
+        int rank(int x) {
+            int r = 0;
+            int u = x >>> 6;
+            for (int i = 0; i < u; i++)
+                r += Long.bitCount(words[i]);
+            return r + Long.bitCount(words[u] & (-1L >>> (63 - (x & 63))));
+        }
+
+        int select(int j) {
+            for (int i = 0; ; i++) {
+                long w = words[i];
+                int c = Long.bitCount(w);
+                if (j < c) {
+                    for (; j > 0; j--)
+                        w &= w - 1;
+                    return (i << 6) | Long.numberOfTrailingZeros(w);
+                }
+                j -= c;
+            }
+        }
+
+        int nextValue(int from) {
+            if (from > 0xFFFF)
+                return -1;
+            int u = from >>> 6;
+            long w = words[u] & (-1L << from);
+            while (true) {
+                if (w != 0)
+                    return (u << 6) | Long.numberOfTrailingZeros(w);
+                if (++u == BITMAP_WORDS)
+                    return -1;
+                w = words[u];
+            }
+        }
+
+        int last() {
+            for (int u = BITMAP_WORDS - 1; ; u--) {
+                long w = words[u];
+                if (w != 0)
+                    return (u << 6) | (63 - Long.numberOfLeadingZeros(w));
+            }
+        }
+
+        void forEach(int high, IntConsumer action) {
+            for (int u = 0; u < BITMAP_WORDS; u++) {
+                for (long w = words[u]; w != 0; w &= w - 1)
+                    action.accept(high | (u << 6) | Long.numberOfTrailingZeros(w));
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            return copy();
+        }
+
+        void toChars(char[] dst) {
+            int n = 0;
+            for (int u = 0; u < BITMAP_WORDS; u++) {
+                for (long w = words[u]; w != 0; w &= w - 1)
+                    dst[n++] = (char) ((u << 6) | Long.numberOfTrailingZeros(w));
+            }
+        }
+
+        int numberOfRuns() {
+            int runs = 0;
+            long carry = 0;
+            for (long w : words) {
+                // a run starts at each set bit whose predecessor is clear
+                runs += Long.bitCount(w & ~((w << 1) | carry));
+                carry = w >>> 63;
+            }
+            return runs;
+        }
+
+        BitmapContainer copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        /**
+         * Sets the values in [lo, hi].
+         */
+        BitmapContainer setRange(int lo, int hi) {
+            fill(lo, hi);
+            recount();
+            return this;
+        }
+
+        /**
+         * Sets the values in [lo, hi] without updating the cardinality.
+         */
+        void fill(int lo, int hi) {
+            int u = lo >>> 6, v = hi >>> 6;
+            long first = -1L << lo, last = -1L >>> (63 - (hi & 63));
+            if (u == v) {
+                words[u] |= first & last;
+            } else {
+                words[u] |= first;
+                Arrays.fill(words, u + 1, v, -1L);
+                words[v] |= last;
+            }
+        }
+
+        /**
+         * Clears the values in [lo, hi].
+         */
+        BitmapContainer clearRange(int lo, int hi) {
+            int u = lo >>> 6, v = hi >>> 6;
+            long first = -1L << lo, last = -1L >>> (63 - (hi & 63));
+            if (u == v) {
+                words[u] &= ~(first & last);
+            } else {
+                words[u] &= ~first;
+                Arrays.fill(words, u + 1, v, 0L);
+                words[v] &= ~last;
+            }
+            recount();
+            return this;
+        }
+
+        /**
+         * Applies the operation with the array's values to this bitmap in
+         * place.  AND is not supported.
+         */
+        BitmapContainer apply(ArrayContainer a, int op) {
+            char[] c = a.content;
+            for (int i = 0; i < a.cardinality; i++) {
+                int x = c[i];
+                long bit = 1L << x;
+                switch (op) {
+                    case OR     -> words[x >>> 6] |= bit;
+                    case XOR    -> words[x >>> 6] ^= bit;
+                    case ANDNOT -> words[x >>> 6] &= ~bit;
+                    default     -> throw new AssertionError(op);
+                }
+            }
+            recount();
+            return this;
+        }
+
+        /**
+         * Applies the operation with the other bitmap to this one in place.
+         */
+        BitmapContainer apply(BitmapContainer b, int op) {
+            long[] x = words, y = b.words;
+            int card = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long w = switch (op) {
+                    case AND    -> x[i] & y[i];
+                    case OR     -> x[i] | y[i];
+                    case XOR    -> x[i] ^ y[i];
+                    default     -> x[i] & ~y[i];
+                };
+                x[i] = w;
+                card += Long.bitCount(w);
+            }
+            cardinality = card;
+            return this;
+        }
+    }
+
+    /**
+     * A sorted array of disjoint, non-adjacent runs, each stored as a pair
+     * of its first value and its length minus one.
+     */
+    static final class RunContainer extends Container {
+        final char[] runs;
+        final int nbrRuns;
+        final int cardinality;
+
+        private RunContainer(char[] runs, int nbrRuns) {
+            this.runs = runs;
+            this.nbrRuns = nbrRuns;
+            int card = 0;
+            for (int i = 0; i < nbrRuns; i++)
+                card += runs[2 * i + 1] + 1;
+            this.cardinality = card;
+        }
+
+        static RunContainer ofRange(int lo, int hi) {
+            return new RunContainer(new char[] { (char) lo, (char) (hi - lo) }, 1);
+        }
+
+        static RunContainer of(Container c) {
+            char[] values = new char[c.cardinality()];
+            c.toChars(values);
+            char[] r = new char[2 * c.numberOfRuns()];
+            int n = 0;
+            for (int i = 0; i < values.length; ) {
+                int start = values[i], end = start;
+                while (++i < values.length && values[i] == end + 1)
+                    end++;
+                r[2 * n] = (char) start;
+                r[2 * n + 1] = (char) (end - start);
+                n++;
+            }
+            return new RunContainer(r, n);
+        }
+
+        static RunContainer read(ByteBuffer in, int count) {
+            if (count <= 0 || count > (1 << 15))
+                throw new IllegalArgumentException("Invalid run count: " + count);
+            char[] r = new char[2 * count];
+            in.asCharBuffer().get(r);
+            in.position(in.position() + r.length * Character.BYTES);
+            for (int i = 0, next = 0; i < count; i++) {
+                int start = r[2 * i], end = start + r[2 * i + 1];
+                if (start < next || end > 0xFFFF)
+                    throw new IllegalArgumentException("Invalid run");
+                next = end + 2;
+            }
+            return new RunContainer(r, count);
+        }
+
+        int kind() { return RUN; }
+
+        int cardinality() { return cardinality; }
+
+        int count() { return nbrRuns; }
+
+        int payloadSize() { return 2 * nbrRuns * Character.BYTES; }
+
+        void writePayload(ByteBuffer out) {
+            out.asCharBuffer().put(runs, 0, 2 * nbrRuns);
+            out.position(out.position() + payloadSize());
+        }
+
+        /**
+         * Returns the index of the last run starting at or before x, or -1.
+         */
+        private int runFor(int x) {
+            int lo = 0, hi = nbrRuns - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (runs[2 * mid] <= x)
+                    lo = mid + 1;
+                else
+                    hi = mid - 1;
+            }
+            return hi;
+        }
+
+        boolean contains(int x) {
+            int i = runFor(x);
+            return i >= 0 && x - runs[2 * i] <= runs[2 * i + 1];
+        }
+
+        Container add(int x) {
+            return contains(x) ? this : unrun().add(x);
+        }
+
+        Container remove(int x) {
+            return contains(x) ? unrun().remove(x) : this;
+        }
+
+        int rank(int x) {
+            int r = 0;
+            for (int i = 0; i < nbrRuns; i++) {
+                int start = runs[2 * i], len = runs[2 * i + 1];
+                if (x < start)
+                    break;
+                r += Math.min(x - start, len) + 1;
+            }
+            return r;
+        }
+
+        int select(int j) {
+            for (int i = 0; ; i++) {
+                int len = runs[2 * i + 1] + 1;
+                if (j < len)
+                    return runs[2 * i] + j;
+                j -= len;
+            }
+        }
+
+        int nextValue(int from) {
+            if (from > 0xFFFF)
+                return -1;
+            int i = runFor(from);
+            if (i >= 0 && from - runs[2 * i] <= runs[2 * i + 1])
+                return from;
+            return (i + 1 < nbrRuns) ? runs[2 * (i + 1)] : -1;
+        }
+
+        int last() {
+            return runs[2 * nbrRuns - 2] + runs[2 * nbrRuns - 1];
+        }
+
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < nbrRuns; i++) {
+                int start = runs[2 * i], end = start + runs[2 * i + 1];
+                for (int v = start; v <= end; v++)
+                    action.accept(high | v);
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer b = new BitmapContainer();
+            for (int i = 0; i < nbrRuns; i++) {
+                int start = runs[2 * i];
+                b.fill(start, start + runs[2 * i + 1]);
+            }
+            b.cardinality = cardinality;
+            return b;
+        }
+
+        void toChars(char[] dst) {
+            int n = 0;
+            for (int i = 0; i < nbrRuns; i++) {
+                int start = runs[2 * i], end = start + runs[2 * i + 1];
+                for (int v = start; v <= end; v++)
+                    dst[n++] = (char) v;
+            }
+        }
+
+        int numberOfRuns() {
+            return nbrRuns;
+        }
+
+        Container copy() {
+            // immutable, so may be shared
+            return this;
+        }
+    }
+}
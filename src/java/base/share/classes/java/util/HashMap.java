@@ -317,6 +317,25 @@ public class HashMap<K,V> extends AbstractMap<K,V>
         return (key == null) ? 0 : (h = key.hashCode()) ^ (h >>> 16);
     }
 
+    /**
+     * Spreads a primitive {@code int} key exactly as {@link #hash(Object)}
+     * would spread the corresponding boxed {@code Integer}.  Used by the
+     * primitive-specialized maps and sets, which index power-of-two tables
+     * the same way but never box their keys.
+     */
+    static final int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    /**
+     * Spreads a primitive {@code long} key exactly as {@link #hash(Object)}
+     * would spread the corresponding boxed {@code Long}.
+     */
+    static final int hash(long key) {
+        int h = Long.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
     /**
      * Returns x's Class if it is of the form "class C implements
      * Comparable<C>", else null.
@@ -0,0 +1,624 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util;
+
+import java.base.share.classes.java.util.function.IntConsumer;
+import java.base.share.classes.java.util.stream.IntStream;
+import java.base.share.classes.java.util.stream.StreamSupport;
+import jdk.internal.util.ArraysSupport;
+
+/**
+ * Resizable-array list of primitive {@code int} values.  This is the
+ * unboxed counterpart of {@code ArrayList<Integer>}: elements are stored
+ * directly in an {@code int[]}, so adding an element never allocates a
+ * wrapper object and traversal never chases a pointer.
+ *
+ * <p>The {@code size}, {@code isEmpty}, {@code get}, {@code set} and
+ * {@code iterator} operations run in constant time.  The {@code add}
+ * operation runs in amortized constant time, with the backing array grown
+ * by the same policy as {@link ArrayList}.  All of the other operations run
+ * in linear time.
+ *
+ * <p>{@link #sort()} sorts in place with the same Dual-Pivot Quicksort used
+ * by {@link Arrays#sort(int[])}, and {@link #parallelSort()} delegates to
+ * {@link Arrays#parallelSort(int[], int, int)}.  {@link #stream()} and
+ * {@link #spliterator()} traverse the backing array directly, without
+ * copying it.
+ *
+ * <p>The iterators returned by this class's {@link #iterator() iterator}
+ * method are <i>fail-fast</i> in the same best-effort sense as those of
+ * {@code ArrayList}, and do not support removal.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access an instance concurrently, and at least one of
+ * the threads modifies it structurally, it must be synchronized externally.
+ *
+ * @see ArrayList
+ * @see LongArrayList
+ * @see DoubleArrayList
+ * @since 21
+ */
+public class IntArrayList implements RandomAccess, Cloneable {
+
+    /**
+     * Default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Shared empty array instance used for empty instances.
+     */
+    private static final int[] EMPTY_ELEMENTDATA = {};
+
+    /**
+     * Shared empty array instance used for default sized empty instances.
+     * Distinguished from {@link #EMPTY_ELEMENTDATA} to know how much to
+     * inflate when the first element is added.
+     */
+    private static final int[] DEFAULTCAPACITY_EMPTY_ELEMENTDATA = {};
+
+    /**
+     * The array buffer into which the elements are stored.
+     */
+    private int[] elementData;
+
+    /**
+     * The number of elements in the list.
+     */
+    private int size;
+
+    /**
+     * Incremented on structural modification, for fail-fast iterators.
+     */
+    private transient int modCount;
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param  initialCapacity  the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     */
+    public IntArrayList(int initialCapacity) {
+        if (initialCapacity > 0) {
+            this.elementData = new int[initialCapacity];
+        } else if (initialCapacity == 0) {
+            this.elementData = EMPTY_ELEMENTDATA;
+        } else {
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                                               initialCapacity);
+        }
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public IntArrayList() {
+        this.elementData = DEFAULTCAPACITY_EMPTY_ELEMENTDATA;
+    }
+
+    /**
+     * Constructs a list containing a copy of the elements of the array.
+     *
+     * @param a the array whose elements are to be placed into this list
+     * @throws NullPointerException if the specified array is null
+     */
+    public IntArrayList(int[] a) {
+        if ((size = a.length) != 0) {
+            elementData = a.clone();
+        } else {
+            elementData = EMPTY_ELEMENTDATA;
+        }
+    }
+
+    /**
+     * Trims the capacity of this list to be the list's current size.  If
+     * the backing array is already exactly full, this method does nothing
+     * and allocates nothing.
+     */
+    public void trimToSize() {
+        if (size < elementData.length) {
+            modCount++;
+            elementData = (size == 0)
+              ? EMPTY_ELEMENTDATA
+              : Arrays.copyOf(elementData, size);
+        }
+    }
+
+    /**
+     * Increases the capacity of this list, if necessary, to ensure that it
+     * can hold at least the number of elements specified by the minimum
+     * capacity argument.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elementData.length
+            && !(elementData == DEFAULTCAPACITY_EMPTY_ELEMENTDATA
+                 && minCapacity <= DEFAULT_CAPACITY)) {
+            modCount++;
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Increases the capacity to ensure that it can hold at least the
+     * number of elements specified by the minimum capacity argument.
+     *
+     * @param minCapacity the desired minimum capacity
+     * @throws OutOfMemoryError if minCapacity is less than zero
+     */
+    private int[] grow(int minCapacity) {
+        int oldCapacity = elementData.length;
+        if (oldCapacity > 0 || elementData != DEFAULTCAPACITY_EMPTY_ELEMENTDATA) {
+            int newCapacity = ArraysSupport.newLength(oldCapacity,
+                    minCapacity - oldCapacity, /* minimum growth */
+                    oldCapacity >> 1           /* preferred growth */);
+            return elementData = Arrays.copyOf(elementData, newCapacity);
+        } else {
+            return elementData = new int[Math.max(DEFAULT_CAPACITY, minCapacity)];
+        }
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     *
+     * @return the number of elements in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param e element whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(int e) {
+        return indexOf(e) >= 0;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.
+     *
+     * @param e element to search for
+     * @return the index of the first occurrence, or -1
+     */
+    public int indexOf(int e) {
+        final int[] es = elementData;
+        for (int i = 0, end = size; i < end; i++) {
+            if (es[i] == e)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.
+     *
+     * @param e element to search for
+     * @return the index of the last occurrence, or -1
+     */
+    public int lastIndexOf(int e) {
+        final int[] es = elementData;
+        for (int i = size - 1; i >= 0; i--) {
+            if (es[i] == e)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the element at the specified position in this list.
+     *
+     * @param  index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int get(int index) {
+        Objects.checkIndex(index, size);
+        return elementData[index];
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with
+     * the specified element.
+     *
+     * @param index index of the element to replace
+     * @param element element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int set(int index, int element) {
+        Objects.checkIndex(index, size);
+        int oldValue = elementData[index];
+        elementData[index] = element;
+        return oldValue;
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     *
+     * @param e element to be appended to this list
+     */
+    public void add(int e) {
+        modCount++;
+        final int s = size;
+        int[] es = elementData;
+        if (s == es.length)
+            es = grow(s + 1);
+        es[s] = e;
+        size = s + 1;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this
+     * list, shifting subsequent elements to the right.
+     *
+     * @param index index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *         ({@code index < 0 || index > size()})
+     */
+    public void add(int index, int element) {
+        rangeCheckForAdd(index);
+        modCount++;
+        final int s = size;
+        int[] es = elementData;
+        if (s == es.length)
+            es = grow(s + 1);
+        System.arraycopy(es, index, es, index + 1, s - index);
+        es[index] = element;
+        size = s + 1;
+    }
+
+    /**
+     * Appends all of the elements in the array to the end of this list,
+     * growing the backing array at most once.
+     *
+     * @param a the elements to be appended
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the specified array is null
+     */
+    public boolean addAll(int[] a) {
+        return addAll(a, 0, a.length);
+    }
+
+    /**
+     * Appends the elements {@code a[offset]} through
+     * {@code a[offset + length - 1]} to the end of this list, growing the
+     * backing array at most once.
+     *
+     * @param a the array holding the elements to be appended
+     * @param offset the index of the first element to append
+     * @param length the number of elements to append
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the specified array is null
+     * @throws IndexOutOfBoundsException if {@code offset} and {@code length}
+     *         do not describe a range of the array
+     */
+    public boolean addAll(int[] a, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, a.length);
+        modCount++;
+        if (length == 0)
+            return false;
+        int[] es;
+        final int s;
+        if (length > (es = elementData).length - (s = size))
+            es = grow(s + length);
+        System.arraycopy(a, offset, es, s, length);
+        size = s + length;
+        return true;
+    }
+
+    /**
+     * Appends all of the elements of the specified list to the end of this
+     * list.
+     *
+     * @param other the list whose elements are to be appended
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the specified list is null
+     */
+    public boolean addAll(IntArrayList other) {
+        return addAll(other.elementData, 0, other.size);
+    }
+
+    /**
+     * Removes the element at the specified position in this list,
+     * shifting any subsequent elements to the left.
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int removeAt(int index) {
+        Objects.checkIndex(index, size);
+        final int[] es = elementData;
+        int oldValue = es[index];
+        modCount++;
+        final int newSize;
+        if ((newSize = size - 1) > index)
+            System.arraycopy(es, index + 1, es, index, newSize - index);
+        size = newSize;
+        return oldValue;
+    }
+
+    /**
+     * Removes all of the elements from this list.  The backing array keeps
+     * its current capacity.
+     */
+    public void clear() {
+        modCount++;
+        size = 0;
+    }
+
+    /**
+     * Sorts this list into ascending numerical order.
+     */
+    public void sort() {
+        DualPivotQuicksort.sort(elementData, 0, 0, size);
+        modCount++;
+    }
+
+    /**
+     * Sorts this list into ascending numerical order using the parallel
+     * sort-merge algorithm of {@link Arrays#parallelSort(int[], int, int)}.
+     */
+    public void parallelSort() {
+        Arrays.parallelSort(elementData, 0, size);
+        modCount++;
+    }
+
+    /**
+     * Returns an array containing all of the elements in this list in
+     * proper sequence.
+     *
+     * @return a newly allocated array holding the elements of this list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elementData, size);
+    }
+
+    /**
+     * Performs the given action for each element of this list, in order.
+     *
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the specified action is null
+     * @throws ConcurrentModificationException if the list is structurally
+     *         modified by the action
+     */
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final int[] es = elementData;
+        final int size = this.size;
+        for (int i = 0; modCount == expectedModCount && i < size; i++)
+            action.accept(es[i]);
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns an iterator over the elements in this list in proper sequence.
+     *
+     * @return an iterator over the elements in this list
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements PrimitiveIterator.OfInt {
+        int cursor;       // index of next element to return
+        int expectedModCount = modCount;
+
+        public boolean hasNext() {
+            return cursor != size;
+        }
+
+        public int nextInt() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            int i = cursor;
+            if (i >= size)
+                throw new NoSuchElementException();
+            cursor = i + 1;
+            return elementData[i];
+        }
+    }
+
+    /**
+     * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
+     * and <em>fail-fast</em> {@link Spliterator.OfInt} over the elements
+     * of this list, reading the backing array directly.
+     *
+     * <p>The spliterator reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED} and {@link Spliterator#ORDERED}.
+     *
+     * @return a spliterator over the elements of this list
+     */
+    public Spliterator.OfInt spliterator() {
+        return new IntListSpliterator(0, -1, 0);
+    }
+
+    /**
+     * Index-based split-by-two, lazily initialized Spliterator, checking
+     * for interference as {@code ArrayList}'s spliterator does.
+     */
+    final class IntListSpliterator implements Spliterator.OfInt {
+        private int index; // current index, modified on advance/split
+        private int fence; // -1 until used; then one past last index
+        private int expectedModCount; // initialized when fence set
+
+        /** Creates new spliterator covering the given range. */
+        IntListSpliterator(int origin, int fence, int expectedModCount) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() { // initialize fence to size on first use
+            int hi;
+            if ((hi = fence) < 0) {
+                expectedModCount = modCount;
+                hi = fence = size;
+            }
+            return hi;
+        }
+
+        public IntListSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null : // divide range in half unless too small
+                new IntListSpliterator(lo, index = mid, expectedModCount);
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            if (action == null)
+                throw new NullPointerException();
+            int hi = getFence(), i = index;
+            if (i < hi) {
+                index = i + 1;
+                action.accept(elementData[i]);
+                if (modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            int i, hi, mc; // hoist accesses and checks from loop
+            int[] a;
+            if (action == null)
+                throw new NullPointerException();
+            if ((a = elementData) != null) {
+                if ((hi = fence) < 0) {
+                    mc = modCount;
+                    hi = size;
+                }
+                else
+                    mc = expectedModCount;
+                if ((i = index) >= 0 && (index = hi) <= a.length) {
+                    for (; i < hi; ++i)
+                        action.accept(a[i]);
+                    if (modCount == mc)
+                        return;
+                }
+            }
+            throw new ConcurrentModificationException();
+        }
+
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Returns a sequential {@link IntStream} over the elements of this list,
+     * without copying them.  The list must not be structurally modified
+     * while the stream is in use.
+     *
+     * @return an {@code IntStream} over the elements of this list
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel {@link IntStream} over the elements of
+     * this list, without copying them.  The list must not be structurally
+     * modified while the stream is in use.
+     *
+     * @return a possibly parallel {@code IntStream} over this list
+     */
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    private void rangeCheckForAdd(int index) {
+        if (index > size || index < 0)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+    }
+
+    /**
+     * Returns a copy of this list.  The copy's backing array is trimmed to
+     * the list's size.
+     *
+     * @return a copy of this list
+     */
+    @Override
+    public IntArrayList clone() {
+        try {
+            IntArrayList v = (IntArrayList) super.clone();
+            v.elementData = Arrays.copyOf(elementData, size);
+            v.modCount = 0;
+            return v;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Compares the specified object with this list for equality.  Returns
+     * {@code true} if the object is also an {@code IntArrayList} holding
+     * the same elements in the same order.
+     *
+     * @param o the object to be compared for equality with this list
+     * @return {@code true} if the specified object is equal to this list
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        return o instanceof IntArrayList other
+                && Arrays.equals(elementData, 0, size,
+                                 other.elementData, 0, other.size);
+    }
+
+    /**
+     * Returns the hash code value for this list, defined as for
+     * {@link List#hashCode} with each element boxed.
+     *
+     * @return the hash code value for this list
+     */
+    @Override
+    public int hashCode() {
+        final int[] es = elementData;
+        int hashCode = 1;
+        for (int i = 0, end = size; i < end; i++)
+            hashCode = 31 * hashCode + Integer.hashCode(es[i]);
+        return hashCode;
+    }
+
+    /**
+     * Returns a string representation of this list in the same format as
+     * {@link AbstractCollection#toString}.
+     *
+     * @return a string representation of this list
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "[", "]");
+        final int[] es = elementData;
+        for (int i = 0, end = size; i < end; i++)
+            sj.add(String.valueOf(es[i]));
+        return sj.toString();
+    }
+}
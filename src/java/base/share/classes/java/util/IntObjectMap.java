@@ -0,0 +1,595 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util;
+
+import java.base.share.classes.java.util.function.BiFunction;
+import java.base.share.classes.java.util.function.IntFunction;
+
+/**
+ * Hash table mapping primitive {@code int} keys to object values.  Unlike a
+ * {@code HashMap<Integer,V>}, this class never boxes its keys and does not
+ * allocate a node per mapping: keys and values are held in two parallel
+ * arrays and collisions are resolved by linear probing (open addressing).
+ *
+ * <p>The API follows {@link Map}: {@code null} values are permitted, and
+ * methods such as {@link #get get}, {@link #put put} and
+ * {@link #remove remove} return {@code null} when there was no mapping, so
+ * {@link #containsKey containsKey} may be used to distinguish the two cases.
+ *
+ * <p>Keys are spread with the same function {@link HashMap} applies to
+ * {@code Integer} keys and the table is kept at a power-of-two size with a
+ * load factor of 0.75.  Removal uses backward-shift deletion, so the table
+ * never accumulates tombstones.
+ *
+ * <p>Iteration order is unspecified.  The iterators returned by
+ * {@link #keyIterator keyIterator} and {@link #valueIterator valueIterator}
+ * are <i>fail-fast</i> in the same best-effort sense as those of
+ * {@code HashMap}, and do not support removal.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access an instance concurrently, and at least one of
+ * the threads modifies it structurally, it must be synchronized externally.
+ *
+ * @param <V> the type of mapped values
+ *
+ * @see HashMap
+ * @see IntIntMap
+ * @since 21
+ */
+public class IntObjectMap<V> implements Cloneable {
+
+    /**
+     * Consumer of the mappings of an {@code IntObjectMap}.
+     *
+     * @param <V> the type of mapped values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(int key, V value);
+    }
+
+    /**
+     * The key slots.  A slot holding {@code 0} is free; a mapping for the
+     * key {@code 0} itself is kept out of line in {@link #zeroValue}.
+     */
+    private int[] keys;
+
+    /** The values, parallel to {@link #keys}. */
+    private Object[] values;
+
+    /** Whether the key {@code 0} is mapped. */
+    private boolean hasZeroKey;
+
+    /** The value mapped to the key {@code 0}, if {@link #hasZeroKey}. */
+    private Object zeroValue;
+
+    /** The number of mappings, including the one for the key {@code 0}. */
+    private int size;
+
+    /** The number of occupied table slots at which the table is grown. */
+    private int threshold;
+
+    /** Incremented on structural modification, for fail-fast iterators. */
+    private transient int modCount;
+
+    /**
+     * Constructs an empty map with the default initial capacity.
+     */
+    public IntObjectMap() {
+        allocate(IntIntMap.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty map able to hold {@code expectedSize} mappings
+     * without growing.
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal expected size: " +
+                                               expectedSize);
+        allocate(IntIntMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int cap) {
+        keys = new int[cap];
+        values = new Object[cap];
+        threshold = IntIntMap.thresholdFor(cap);
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return the number of mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no mappings.
+     *
+     * @return {@code true} if this map contains no mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or the one's complement of the
+     * free slot where it would be inserted.  {@code key} must be non-zero.
+     */
+    private int find(int key) {
+        final int[] ks = keys;
+        final int mask = ks.length - 1;
+        int i = HashMap.hash(key) & mask;
+        for (int k; (k = ks[i]) != 0; i = (i + 1) & mask) {
+            if (k == key)
+                return i;
+        }
+        return ~i;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the key.
+     *
+     * @param key the key
+     * @return {@code true} if this map contains a mapping for the key
+     */
+    public boolean containsKey(int key) {
+        return (key == 0) ? hasZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * Returns {@code true} if this map maps one or more keys to the value.
+     * This operation requires time linear in the capacity of the table.
+     *
+     * @param value the value
+     * @return {@code true} if some key maps to the value
+     */
+    public boolean containsValue(Object value) {
+        if (hasZeroKey && Objects.equals(zeroValue, value))
+            return true;
+        final int[] ks = keys;
+        final Object[] vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != 0 && Objects.equals(vs[i], value))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value mapped to the key, or {@code null} if this map
+     * contains no mapping for the key.
+     *
+     * @param key the key
+     * @return the mapped value, or {@code null}
+     */
+    public V get(int key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Returns the value mapped to the key, or {@code defaultValue} if this
+     * map contains no mapping for the key.
+     *
+     * @param key the key
+     * @param defaultValue the value to return if the key is not mapped
+     * @return the mapped value, or {@code defaultValue}
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int key, V defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? (V) zeroValue : defaultValue;
+        int i = find(key);
+        return (i >= 0) ? (V) values[i] : defaultValue;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value mapped to the key, or {@code null} if there
+     *         was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == 0) {
+            Object old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+                modCount++;
+            }
+            return (V) old;
+        }
+        int i = find(key);
+        if (i >= 0) {
+            Object old = values[i];
+            values[i] = value;
+            return (V) old;
+        }
+        insertAt(~i, key, value);
+        return null;
+    }
+
+    /**
+     * Associates the value with the key if the key is not already mapped
+     * (or is mapped to {@code null}).
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value mapped to the key, or {@code null} if there
+     *         was none
+     */
+    public V putIfAbsent(int key, V value) {
+        V v = get(key);
+        if (v == null)
+            put(key, value);
+        return v;
+    }
+
+    /**
+     * Returns the value mapped to the key, first computing and inserting it
+     * with the mapping function if the key is not mapped (or is mapped to
+     * {@code null}).  If the function returns {@code null} no mapping is
+     * recorded.
+     *
+     * @param key the key
+     * @param mappingFunction the function to compute a value from the key
+     * @return the current (existing or computed) value mapped to the key,
+     *         or {@code null} if the computed value is {@code null}
+     * @throws NullPointerException if the mapping function is null
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int key,
+                             IntFunction<? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        if (key == 0) {
+            if (zeroValue == null) {
+                V v = mappingFunction.apply(0);
+                if (v != null)
+                    put(0, v);
+            }
+            return (V) zeroValue;
+        }
+        int i = find(key);
+        if (i >= 0 && values[i] != null)
+            return (V) values[i];
+        int mc = modCount;
+        V v = mappingFunction.apply(key);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        if (v != null) {
+            if (i >= 0)
+                values[i] = v;
+            else
+                insertAt(~i, key, v);
+        }
+        return v;
+    }
+
+    /**
+     * If the key is not mapped (or is mapped to {@code null}), associates it
+     * with the given non-null value; otherwise replaces the mapped value with
+     * the result of the remapping function, or removes the mapping if that
+     * result is {@code null}.
+     *
+     * @param key the key
+     * @param value the non-null value to merge
+     * @param remappingFunction the function to combine old and new values
+     * @return the new value mapped to the key, or {@code null} if the mapping
+     *         was removed
+     * @throws NullPointerException if the value or remapping function is
+     *         null
+     */
+    public V merge(int key, V value,
+                   BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        V old = get(key);
+        if (old == null) {
+            put(key, value);
+            return value;
+        }
+        int mc = modCount;
+        V v = remappingFunction.apply(old, value);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        if (v == null)
+            remove(key);
+        else
+            put(key, v);
+        return v;
+    }
+
+    private void insertAt(int i, int key, Object value) {
+        keys[i] = key;
+        values[i] = value;
+        ++modCount;
+        if (++size - (hasZeroKey ? 1 : 0) > threshold)
+            resize();
+    }
+
+    /**
+     * Doubles the table and reinserts every mapping.
+     */
+    private void resize() {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        int oldCap = oldKeys.length;
+        if (oldCap >= HashMap.MAXIMUM_CAPACITY) {
+            if (size - (hasZeroKey ? 1 : 0) >= oldCap - 1)
+                throw new IllegalStateException("Map capacity exceeded");
+            threshold = oldCap - 1;
+            return;
+        }
+        allocate(oldCap << 1);
+        final int[] ks = keys;
+        final Object[] vs = values;
+        final int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; j++) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = HashMap.hash(k) & mask;
+                while (ks[i] != 0)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key
+     * @return the value that was mapped to the key, or {@code null} if there
+     *         was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return null;
+            Object old = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            modCount++;
+            return (V) old;
+        }
+        int i = find(key);
+        if (i < 0)
+            return null;
+        Object old = values[i];
+        removeAt(i);
+        return (V) old;
+    }
+
+    /**
+     * Empties slot {@code i} and shifts back any later entries of the same
+     * probe run that would otherwise become unreachable.
+     */
+    private void removeAt(int i) {
+        final int[] ks = keys;
+        final Object[] vs = values;
+        final int mask = ks.length - 1;
+        for (int last = i;;) {
+            int k;
+            i = (i + 1) & mask;
+            if ((k = ks[i]) == 0) {
+                ks[last] = 0;
+                vs[last] = null;
+                break;
+            }
+            int home = HashMap.hash(k) & mask;
+            // move k back unless its home lies cyclically in (last, i]
+            if (last <= i ? (home <= last || home > i)
+                          : (home <= last && home > i)) {
+                ks[last] = k;
+                vs[last] = vs[i];
+                last = i;
+            }
+        }
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            modCount++;
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, null);
+            hasZeroKey = false;
+            zeroValue = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs the given action for each mapping in this map.
+     *
+     * @param action the action to perform
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified by the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if (hasZeroKey)
+            action.accept(0, (V) zeroValue);
+        final int[] ks = keys;
+        final Object[] vs = values;
+        for (int i = 0; i < ks.length && mc == modCount; i++) {
+            if (ks[i] != 0)
+                action.accept(ks[i], (V) vs[i]);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns an iterator over the keys of this map.
+     *
+     * @return an iterator over the keys of this map
+     */
+    public PrimitiveIterator.OfInt keyIterator() {
+        return new KeyItr();
+    }
+
+    /**
+     * Returns an iterator over the values of this map, in the same order as
+     * {@link #keyIterator}.
+     *
+     * @return an iterator over the values of this map
+     */
+    public Iterator<V> valueIterator() {
+        return new ValueItr();
+    }
+
+    abstract class Itr {
+        int next;           // next slot to examine, -1 for zero key
+        int expectedModCount = modCount;
+
+        Itr() {
+            next = hasZeroKey ? -1 : advance(0);
+        }
+
+        private int advance(int i) {
+            final int[] ks = keys;
+            while (i < ks.length && ks[i] == 0)
+                i++;
+            return i;
+        }
+
+        public final boolean hasNext() {
+            return next < keys.length;
+        }
+
+        final int nextSlot() {
+            if (expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            int i = next;
+            if (i >= keys.length)
+                throw new NoSuchElementException();
+            next = advance(i + 1);
+            return i;
+        }
+    }
+
+    final class KeyItr extends Itr implements PrimitiveIterator.OfInt {
+        public int nextInt() {
+            int i = nextSlot();
+            return (i < 0) ? 0 : keys[i];
+        }
+    }
+
+    final class ValueItr extends Itr implements Iterator<V> {
+        @SuppressWarnings("unchecked")
+        public V next() {
+            int i = nextSlot();
+            return (V) ((i < 0) ? zeroValue : values[i]);
+        }
+    }
+
+    /**
+     * Returns a shallow copy of this map: the values themselves are not
+     * cloned.
+     *
+     * @return a copy of this map
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public IntObjectMap<V> clone() {
+        try {
+            IntObjectMap<V> m = (IntObjectMap<V>) super.clone();
+            m.keys = keys.clone();
+            m.values = values.clone();
+            m.modCount = 0;
+            return m;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Compares the specified object with this map for equality.  Returns
+     * {@code true} if the object is also an {@code IntObjectMap} holding the
+     * same mappings, with values compared by {@link Object#equals}.
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof IntObjectMap<?> m) || m.size != size)
+            return false;
+        if (hasZeroKey
+                && (!m.hasZeroKey || !Objects.equals(m.zeroValue, zeroValue)))
+            return false;
+        final int[] ks = keys;
+        final Object[] vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            int k = ks[i];
+            if (k != 0) {
+                int j = m.find(k);
+                if (j < 0 || !Objects.equals(m.values[j], vs[i]))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of this map, defined as for {@link Map#hashCode}
+     * with each key boxed.
+     *
+     * @return the hash code of this map
+     */
+    @Override
+    public int hashCode() {
+        int h = hasZeroKey ? Objects.hashCode(zeroValue) : 0;
+        final int[] ks = keys;
+        final Object[] vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != 0)
+                h += ks[i] ^ Objects.hashCode(vs[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this map in the same format as
+     * {@link AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        forEach((k, v) -> sj.add(k + "=" + (v == this ? "(this Map)" : v)));
+        return sj.toString();
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util;
+
+import java.base.share.classes.java.util.function.IntConsumer;
+import java.base.share.classes.java.util.stream.IntStream;
+import java.base.share.classes.java.util.stream.StreamSupport;
+
+/**
+ * Hash set of primitive {@code int} values.  Unlike a
+ * {@code HashSet<Integer>}, which is backed by a {@code HashMap} and
+ * allocates a boxed key and a node per element, this class keeps its
+ * elements in a single {@code int} array and resolves collisions by linear
+ * probing (open addressing).
+ *
+ * <p>Elements are spread with the same function {@link HashMap} applies to
+ * {@code Integer} keys and the table is kept at a power-of-two size with a
+ * load factor of 0.75.  Removal uses backward-shift deletion, so the table
+ * never accumulates tombstones.
+ *
+ * <p>Iteration order is unspecified.  The iterator returned by
+ * {@link #iterator iterator} is <i>fail-fast</i> in the same best-effort
+ * sense as that of {@code HashSet}, and does not support removal.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access an instance concurrently, and at least one of
+ * the threads modifies it structurally, it must be synchronized externally.
+ *
+ * @see HashSet
+ * @see IntIntMap
+ * @since 21
+ */
+public class IntSet implements Cloneable {
+
+    /**
+     * The element slots.  A slot holding {@code 0} is free; membership of
+     * {@code 0} itself is recorded in {@link #hasZero}.
+     */
+    private int[] elements;
+
+    /** Whether {@code 0} is a member of this set. */
+    private boolean hasZero;
+
+    /** The number of elements, including {@code 0}. */
+    private int size;
+
+    /** The number of occupied table slots at which the table is grown. */
+    private int threshold;
+
+    /** Incremented on structural modification, for fail-fast iterators. */
+    private transient int modCount;
+
+    /**
+     * Constructs an empty set with the default initial capacity.
+     */
+    public IntSet() {
+        allocate(IntIntMap.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty set able to hold {@code expectedSize} elements
+     * without growing.
+     *
+     * @param expectedSize the expected number of elements
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public IntSet(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal expected size: " +
+                                               expectedSize);
+        allocate(IntIntMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int cap) {
+        elements = new int[cap];
+        threshold = IntIntMap.thresholdFor(cap);
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this set contains no elements.
+     *
+     * @return {@code true} if this set contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot holding {@code e}, or the one's complement of the
+     * free slot where it would be inserted.  {@code e} must be non-zero.
+     */
+    private int find(int e) {
+        final int[] es = elements;
+        final int mask = es.length - 1;
+        int i = HashMap.hash(e) & mask;
+        for (int x; (x = es[i]) != 0; i = (i + 1) & mask) {
+            if (x == e)
+                return i;
+        }
+        return ~i;
+    }
+
+    /**
+     * Returns {@code true} if this set contains the value.
+     *
+     * @param e the value
+     * @return {@code true} if this set contains the value
+     */
+    public boolean contains(int e) {
+        return (e == 0) ? hasZero : find(e) >= 0;
+    }
+
+    /**
+     * Adds the value to this set if it is not already present.
+     *
+     * @param e the value
+     * @return {@code true} if this set did not already contain the value
+     */
+    public boolean add(int e) {
+        if (e == 0) {
+            if (hasZero)
+                return false;
+            hasZero = true;
+            size++;
+            modCount++;
+            return true;
+        }
+        int i = find(e);
+        if (i >= 0)
+            return false;
+        elements[~i] = e;
+        ++modCount;
+        if (++size - (hasZero ? 1 : 0) > threshold)
+            resize();
+        return true;
+    }
+
+    /**
+     * Adds all of the values in the array to this set, growing the table at
+     * most once beforehand.
+     *
+     * @param a the values to add
+     * @return {@code true} if this set changed as a result of the call
+     * @throws NullPointerException if the array is null
+     */
+    public boolean addAll(int[] a) {
+        int needed = IntIntMap.tableSizeFor(size + a.length);
+        if (needed > elements.length)
+            rehash(needed);
+        boolean modified = false;
+        for (int e : a)
+            modified |= add(e);
+        return modified;
+    }
+
+    /**
+     * Doubles the table.
+     */
+    private void resize() {
+        int oldCap = elements.length;
+        if (oldCap >= HashMap.MAXIMUM_CAPACITY) {
+            if (size - (hasZero ? 1 : 0) >= oldCap - 1)
+                throw new IllegalStateException("Set capacity exceeded");
+            threshold = oldCap - 1;
+            return;
+        }
+        rehash(oldCap << 1);
+    }
+
+    /**
+     * Moves every element into a new table of the given length.
+     */
+    private void rehash(int cap) {
+        final int[] old = elements;
+        allocate(cap);
+        final int[] es = elements;
+        final int mask = es.length - 1;
+        for (int e : old) {
+            if (e != 0) {
+                int i = HashMap.hash(e) & mask;
+                while (es[i] != 0)
+                    i = (i + 1) & mask;
+                es[i] = e;
+            }
+        }
+    }
+
+    /**
+     * Removes the value from this set if it is present.
+     *
+     * @param e the value
+     * @return {@code true} if this set contained the value
+     */
+    public boolean remove(int e) {
+        if (e == 0) {
+            if (!hasZero)
+                return false;
+            hasZero = false;
+            size--;
+            modCount++;
+            return true;
+        }
+        int i = find(e);
+        if (i < 0)
+            return false;
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Empties slot {@code i} and shifts back any later elements of the same
+     * probe run that would otherwise become unreachable.
+     */
+    private void removeAt(int i) {
+        final int[] es = elements;
+        final int mask = es.length - 1;
+        for (int last = i;;) {
+            int x;
+            i = (i + 1) & mask;
+            if ((x = es[i]) == 0) {
+                es[last] = 0;
+                break;
+            }
+            int home = HashMap.hash(x) & mask;
+            // move x back unless its home lies cyclically in (last, i]
+            if (last <= i ? (home <= last || home > i)
+                          : (home <= last && home > i)) {
+                es[last] = x;
+                last = i;
+            }
+        }
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Removes all of the elements from this set.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            modCount++;
+            Arrays.fill(elements, 0);
+            hasZero = false;
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs the given action for each element of this set.
+     *
+     * @param action the action to perform
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the set is structurally
+     *         modified by the action
+     */
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if (hasZero)
+            action.accept(0);
+        final int[] es = elements;
+        for (int i = 0; i < es.length && mc == modCount; i++) {
+            if (es[i] != 0)
+                action.accept(es[i]);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns an iterator over the elements of this set.
+     *
+     * @return an iterator over the elements of this set
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Returns a sequential {@code IntStream} over the elements of this set.
+     * The set must not be structurally modified while the stream is in use.
+     *
+     * @return a stream over the elements of this set
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(
+            Spliterators.spliterator(iterator(), size, Spliterator.DISTINCT),
+            false);
+    }
+
+    /**
+     * Returns the elements of this set in a newly allocated array.
+     *
+     * @return the elements of this set
+     */
+    public int[] toArray() {
+        int[] a = new int[size];
+        int n = 0;
+        if (hasZero)
+            n++;
+        for (int e : elements) {
+            if (e != 0)
+                a[n++] = e;
+        }
+        return a;
+    }
+
+    final class Itr implements PrimitiveIterator.OfInt {
+        private int next;           // next slot to examine, -1 for zero
+        private int expectedModCount = modCount;
+
+        Itr() {
+            next = hasZero ? -1 : advance(0);
+        }
+
+        private int advance(int i) {
+            final int[] es = elements;
+            while (i < es.length && es[i] == 0)
+                i++;
+            return i;
+        }
+
+        public boolean hasNext() {
+            return next < elements.length;
+        }
+
+        public int nextInt() {
+            if (expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            int i = next;
+            if (i >= elements.length)
+                throw new NoSuchElementException();
+            next = advance(i + 1);
+            return (i < 0) ? 0 : elements[i];
+        }
+    }
+
+    /**
+     * Returns a copy of this set.
+     *
+     * @return a copy of this set
+     */
+    @Override
+    public IntSet clone() {
+        try {
+            IntSet s = (IntSet) super.clone();
+            s.elements = elements.clone();
+            s.modCount = 0;
+            return s;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Compares the specified object with this set for equality.  Returns
+     * {@code true} if the object is also an {@code IntSet} holding the same
+     * elements.
+     *
+     * @param o object to be compared for equality with this set
+     * @return {@code true} if the specified object is equal to this set
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof IntSet s) || s.size != size || s.hasZero != hasZero)
+            return false;
+        for (int e : elements) {
+            if (e != 0 && s.find(e) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of this set, defined as for {@link Set#hashCode}
+     * with each element boxed.
+     *
+     * @return the hash code of this set
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int e : elements)
+            h += e;
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this set in the same format as
+     * {@link AbstractCollection#toString}.
+     *
+     * @return a string representation of this set
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "[", "]");
+        forEach(e -> sj.add(String.valueOf(e)));
+        return sj.toString();
+    }
+}
@@ -0,0 +1,597 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util;
+
+import java.base.share.classes.java.util.function.LongBinaryOperator;
+import java.base.share.classes.java.util.function.LongUnaryOperator;
+
+/**
+ * Hash table mapping primitive {@code long} keys to primitive {@code long}
+ * values.  Unlike a {@code HashMap<Long,Long>}, this class never boxes
+ * its keys or values and does not allocate a node per mapping: keys and
+ * values are held in two parallel arrays and collisions are resolved by
+ * linear probing (open addressing).  A mapping therefore costs roughly sixteen
+ * bytes divided by the fill ratio of the table, instead of the 48 to 64
+ * bytes of a boxed {@code HashMap} entry.
+ *
+ * <p>The API follows {@link Map} where it can.  Because there is no
+ * {@code null} to signal an absent mapping, methods such as {@link #put put}
+ * and {@link #remove remove} return {@code 0} when there was no previous
+ * mapping; use {@link #containsKey containsKey} or
+ * {@link #getOrDefault getOrDefault} when {@code 0} is a meaningful value.
+ *
+ * <p>Keys are spread with the same function {@link HashMap} applies to
+ * {@code Long} keys and the table is kept at a power-of-two size with a
+ * load factor of 0.75.  Removal uses backward-shift deletion, so the table
+ * never accumulates tombstones and lookups stay fast after heavy churn.
+ *
+ * <p>Iteration order is unspecified.  The iterators returned by
+ * {@link #keyIterator keyIterator} and {@link #valueIterator valueIterator}
+ * are <i>fail-fast</i> in the same best-effort sense as those of
+ * {@code HashMap}, and do not support removal.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access an instance concurrently, and at least one of
+ * the threads modifies it structurally, it must be synchronized externally.
+ *
+ * @see HashMap
+ * @see LongObjectMap
+ * @see LongSet
+ * @since 21
+ */
+public class LongLongMap implements Cloneable {
+
+    /**
+     * Consumer of the mappings of a {@code LongLongMap}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key the key
+         * @param value the value
+         */
+        void accept(long key, long value);
+    }
+
+    /**
+     * The key slots.  A slot holding {@code 0} is free; a mapping for the
+     * key {@code 0} itself is kept out of line in {@link #zeroValue}.
+     */
+    private long[] keys;
+
+    /** The values, parallel to {@link #keys}. */
+    private long[] values;
+
+    /** Whether the key {@code 0} is mapped. */
+    private boolean hasZeroKey;
+
+    /** The value mapped to the key {@code 0}, if {@link #hasZeroKey}. */
+    private long zeroValue;
+
+    /** The number of mappings, including the one for the key {@code 0}. */
+    private int size;
+
+    /** The number of occupied table slots at which the table is grown. */
+    private int threshold;
+
+    /** Incremented on structural modification, for fail-fast iterators. */
+    private transient int modCount;
+
+    /**
+     * Constructs an empty map with the default initial capacity.
+     */
+    public LongLongMap() {
+        allocate(IntIntMap.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty map able to hold {@code expectedSize} mappings
+     * without growing.
+     *
+     * @param expectedSize the expected number of mappings
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public LongLongMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Illegal expected size: " +
+                                               expectedSize);
+        allocate(IntIntMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        values = new long[cap];
+        threshold = IntIntMap.thresholdFor(cap);
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return the number of mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this map contains no mappings.
+     *
+     * @return {@code true} if this map contains no mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or the one's complement of the
+     * free slot where it would be inserted.  {@code key} must be non-zero.
+     */
+    private int find(long key) {
+        final long[] ks = keys;
+        final int mask = ks.length - 1;
+        int i = HashMap.hash(key) & mask;
+        for (long k; (k = ks[i]) != 0; i = (i + 1) & mask) {
+            if (k == key)
+                return i;
+        }
+        return ~i;
+    }
+
+    /**
+     * Returns {@code true} if this map contains a mapping for the key.
+     *
+     * @param key the key
+     * @return {@code true} if this map contains a mapping for the key
+     */
+    public boolean containsKey(long key) {
+        return (key == 0) ? hasZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * Returns {@code true} if this map maps one or more keys to the value.
+     * This operation requires time linear in the capacity of the table.
+     *
+     * @param value the value
+     * @return {@code true} if some key maps to the value
+     */
+    public boolean containsValue(long value) {
+        if (hasZeroKey && zeroValue == value)
+            return true;
+        final long[] ks = keys, vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != 0 && vs[i] == value)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value mapped to the key, or {@code defaultValue} if this
+     * map contains no mapping for the key.
+     *
+     * @param key the key
+     * @param defaultValue the value to return if the key is not mapped
+     * @return the mapped value, or {@code defaultValue}
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0)
+            return hasZeroKey ? zeroValue : defaultValue;
+        int i = find(key);
+        return (i >= 0) ? values[i] : defaultValue;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value mapped to the key, or {@code 0} if there
+     *         was none
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            long old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+                modCount++;
+                return 0;
+            }
+            return old;
+        }
+        int i = find(key);
+        if (i >= 0) {
+            long old = values[i];
+            values[i] = value;
+            return old;
+        }
+        insertAt(~i, key, value);
+        return 0;
+    }
+
+    /**
+     * Associates the value with the key if the key is not already mapped.
+     *
+     * @param key the key
+     * @param value the value
+     * @return {@code true} if a new mapping was added
+     */
+    public boolean putIfAbsent(long key, long value) {
+        if (key == 0) {
+            if (hasZeroKey)
+                return false;
+            hasZeroKey = true;
+            zeroValue = value;
+            size++;
+            modCount++;
+            return true;
+        }
+        int i = find(key);
+        if (i >= 0)
+            return false;
+        insertAt(~i, key, value);
+        return true;
+    }
+
+    /**
+     * Adds {@code delta} to the value mapped to the key, treating an absent
+     * mapping as {@code 0}.  This is the allocation-free counterpart of
+     * {@code map.merge(key, delta, Long::sum)}.
+     *
+     * @param key the key
+     * @param delta the amount to add
+     * @return the new value mapped to the key
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                zeroValue = 0;
+                size++;
+                modCount++;
+            }
+            return zeroValue += delta;
+        }
+        int i = find(key);
+        if (i >= 0)
+            return values[i] += delta;
+        insertAt(~i, key, delta);
+        return delta;
+    }
+
+    /**
+     * If the key is not mapped, associates it with {@code value}; otherwise
+     * replaces the mapped value with the result of applying the remapping
+     * function to the old value and {@code value}.
+     *
+     * @param key the key
+     * @param value the value to merge
+     * @param remappingFunction the function to combine old and new values
+     * @return the new value mapped to the key
+     * @throws NullPointerException if the remapping function is null
+     */
+    public long merge(long key, long value, LongBinaryOperator remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        if (key == 0) {
+            if (hasZeroKey)
+                return zeroValue =
+                    remappingFunction.applyAsLong(zeroValue, value);
+            putIfAbsent(0, value);
+            return value;
+        }
+        int i = find(key);
+        if (i >= 0) {
+            int mc = modCount;
+            long v = remappingFunction.applyAsLong(values[i], value);
+            if (mc != modCount)
+                throw new ConcurrentModificationException();
+            return values[i] = v;
+        }
+        insertAt(~i, key, value);
+        return value;
+    }
+
+    /**
+     * Returns the value mapped to the key, first computing and inserting it
+     * with the mapping function if the key is not mapped.
+     *
+     * @param key the key
+     * @param mappingFunction the function to compute a value from the key
+     * @return the current (existing or computed) value mapped to the key
+     * @throws NullPointerException if the mapping function is null
+     */
+    public long computeIfAbsent(long key, LongUnaryOperator mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        if (key == 0) {
+            if (!hasZeroKey)
+                putIfAbsent(0, mappingFunction.applyAsLong(0));
+            return zeroValue;
+        }
+        int i = find(key);
+        if (i >= 0)
+            return values[i];
+        int mc = modCount;
+        long v = mappingFunction.applyAsLong(key);
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+        insertAt(~i, key, v);
+        return v;
+    }
+
+    private void insertAt(int i, long key, long value) {
+        keys[i] = key;
+        values[i] = value;
+        ++modCount;
+        if (++size - (hasZeroKey ? 1 : 0) > threshold)
+            resize();
+    }
+
+    /**
+     * Doubles the table and reinserts every mapping.
+     */
+    private void resize() {
+        final long[] oldKeys = keys, oldValues = values;
+        int oldCap = oldKeys.length;
+        if (oldCap >= HashMap.MAXIMUM_CAPACITY) {
+            if (size - (hasZeroKey ? 1 : 0) >= oldCap - 1)
+                throw new IllegalStateException("Map capacity exceeded");
+            threshold = oldCap - 1;
+            return;
+        }
+        allocate(oldCap << 1);
+        final long[] ks = keys, vs = values;
+        final int mask = ks.length - 1;
+        for (int j = 0; j < oldCap; j++) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = HashMap.hash(k) & mask;
+                while (ks[i] != 0)
+                    i = (i + 1) & mask;
+                ks[i] = k;
+                vs[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key
+     * @return the value that was mapped to the key, or {@code 0} if there
+     *         was none
+     */
+    public long remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey)
+                return 0;
+            long old = zeroValue;
+            hasZeroKey = false;
+            zeroValue = 0;
+            size--;
+            modCount++;
+            return old;
+        }
+        int i = find(key);
+        if (i < 0)
+            return 0;
+        long old = values[i];
+        removeAt(i);
+        return old;
+    }
+
+    /**
+     * Empties slot {@code i} and shifts back any later entries of the same
+     * probe run that would otherwise become unreachable.
+     */
+    private void removeAt(int i) {
+        final long[] ks = keys, vs = values;
+        final int mask = ks.length - 1;
+        for (int last = i;;) {
+            long k;
+            i = (i + 1) & mask;
+            if ((k = ks[i]) == 0) {
+                ks[last] = 0;
+                vs[last] = 0;
+                break;
+            }
+            int home = HashMap.hash(k) & mask;
+            // move k back unless its home lies cyclically in (last, i]
+            if (last <= i ? (home <= last || home > i)
+                          : (home <= last && home > i)) {
+                ks[last] = k;
+                vs[last] = vs[i];
+                last = i;
+            }
+        }
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Removes all of the mappings from this map.  The table keeps its
+     * current capacity.
+     */
+    public void clear() {
+        if (size > 0) {
+            modCount++;
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, 0);
+            hasZeroKey = false;
+            zeroValue = 0;
+            size = 0;
+        }
+    }
+
+    /**
+     * Performs the given action for each mapping in this map.
+     *
+     * @param action the action to perform
+     * @throws NullPointerException if the action is null
+     * @throws ConcurrentModificationException if the map is structurally
+     *         modified by the action
+     */
+    public void forEach(EntryConsumer action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if (hasZeroKey)
+            action.accept(0, zeroValue);
+        final long[] ks = keys, vs = values;
+        for (int i = 0; i < ks.length && mc == modCount; i++) {
+            if (ks[i] != 0)
+                action.accept(ks[i], vs[i]);
+        }
+        if (mc != modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Returns an iterator over the keys of this map.
+     *
+     * @return an iterator over the keys of this map
+     */
+    public PrimitiveIterator.OfLong keyIterator() {
+        return new Itr(true);
+    }
+
+    /**
+     * Returns an iterator over the values of this map, in the same order as
+     * {@link #keyIterator}.
+     *
+     * @return an iterator over the values of this map
+     */
+    public PrimitiveIterator.OfLong valueIterator() {
+        return new Itr(false);
+    }
+
+    /**
+     * Returns the keys of this map in a newly allocated array.
+     *
+     * @return the keys of this map
+     */
+    public long[] keysToArray() {
+        long[] a = new long[size];
+        int n = 0;
+        if (hasZeroKey)
+            n++;
+        for (long k : keys) {
+            if (k != 0)
+                a[n++] = k;
+        }
+        return a;
+    }
+
+    final class Itr implements PrimitiveIterator.OfLong {
+        private final boolean keyed;
+        private int next;           // next slot to examine, -1 for zero key
+        private int expectedModCount = modCount;
+
+        Itr(boolean keyed) {
+            this.keyed = keyed;
+            next = hasZeroKey ? -1 : advance(0);
+        }
+
+        private int advance(int i) {
+            final long[] ks = keys;
+            while (i < ks.length && ks[i] == 0)
+                i++;
+            return i;
+        }
+
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        public long nextLong() {
+            if (expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            int i = next;
+            if (i >= keys.length)
+                throw new NoSuchElementException();
+            next = advance(i + 1);
+            if (i < 0)
+                return keyed ? 0 : zeroValue;
+            return keyed ? keys[i] : values[i];
+        }
+    }
+
+    /**
+     * Returns a shallow copy of this map.
+     *
+     * @return a copy of this map
+     */
+    @Override
+    public LongLongMap clone() {
+        try {
+            LongLongMap m = (LongLongMap) super.clone();
+            m.keys = keys.clone();
+            m.values = values.clone();
+            m.modCount = 0;
+            return m;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Compares the specified object with this map for equality.  Returns
+     * {@code true} if the object is also a {@code LongLongMap} holding the
+     * same mappings.
+     *
+     * @param o object to be compared for equality with this map
+     * @return {@code true} if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof LongLongMap m) || m.size != size)
+            return false;
+        if (hasZeroKey && (!m.hasZeroKey || m.zeroValue != zeroValue))
+            return false;
+        final long[] ks = keys, vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            long k = ks[i];
+            if (k != 0) {
+                int j = m.find(k);
+                if (j < 0 || m.values[j] != vs[i])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of this map, defined as for {@link Map#hashCode}
+     * with each key and value boxed.
+     *
+     * @return the hash code of this map
+     */
+    @Override
+    public int hashCode() {
+        int h = hasZeroKey ? Long.hashCode(zeroValue) : 0;
+        final long[] ks = keys, vs = values;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != 0)
+                h += Long.hashCode(ks[i]) ^ Long.hashCode(vs[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Returns a string representation of this map in the same format as
+     * {@link AbstractMap#toString}.
+     *
+     * @return a string representation of this map
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        forEach((k, v) -> sj.add(k + "=" + v));
+        return sj.toString();
+    }
+}
@@ -0,0 +1,664 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.base.share.classes.java.util.concurrent.locks.StampedLock;
+import jdk.internal.javac.PreviewFeature;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+/**
+ * A hash table of fixed-size binary keys and values whose storage lives
+ * entirely off the Java heap, in a {@link MemorySegment} owned by an
+ * {@link Arena}.  Because no mapping is ever represented by a Java object,
+ * a table holding hundreds of gigabytes adds nothing to the work of the
+ * garbage collector.
+ *
+ * <p>A table is created with a fixed key size, value size and capacity.
+ * Keys and values are passed as memory segments and copied in and out of
+ * the table; two keys are equal if their bytes are equal.  The capacity is
+ * rounded up to a power of two and never changes: {@link #put put} throws
+ * {@link IllegalStateException} if the part of the table a key hashes to is
+ * full.
+ *
+ * <p>A table is either {@linkplain #allocate allocated} in native memory,
+ * or {@linkplain #map mapped} from a file.  A mapped table persists its
+ * contents in the file, and mapping the same file again, for example after
+ * a restart, reopens the table with its mappings intact.  In both cases the
+ * memory is released deterministically when the arena is
+ * {@linkplain Arena#close closed}, after which every operation on the table
+ * fails with {@link IllegalStateException}.
+ *
+ * <p>The table is divided into independently locked stripes, each guarded
+ * by a {@link StampedLock}.  Lookups first try an optimistic read and only
+ * take the read lock if a writer to the same stripe interfered, so readers
+ * never block each other and rarely block on writers.  To be used by more
+ * than one thread, a table must be allocated or mapped with a
+ * {@linkplain Arena#openShared shared} arena.
+ *
+ * <p>Removal leaves a tombstone in the slot.  Tombstones are reused by later
+ * insertions, and a stripe whose free slots run low is rehashed in place to
+ * discard them.
+ *
+ * @since 21
+ */
+@PreviewFeature(feature=PreviewFeature.Feature.FOREIGN)
+public final class OffHeapHashTable {
+
+    /*
+     * Memory layout.  The segment starts with HEADER, followed by one
+     * STRIPE record per stripe, followed by the slots of all stripes.  Each
+     * slot is an int state, the low 32 bits of the key's hash, the key
+     * bytes and the value bytes, padded to a multiple of eight bytes.
+     * Multi-byte fields use the native byte order, so a mapped file can
+     * only be reopened on a platform with the same endianness.
+     */
+
+    private static final StructLayout HEADER = MemoryLayout.structLayout(
+            JAVA_LONG.withName("magic"),
+            JAVA_INT.withName("version"),
+            JAVA_INT.withName("keySize"),
+            JAVA_INT.withName("valueSize"),
+            JAVA_INT.withName("stripeCount"),
+            JAVA_LONG.withName("stripeCapacity"));
+
+    private static final StructLayout STRIPE = MemoryLayout.structLayout(
+            JAVA_LONG.withName("size"),
+            JAVA_LONG.withName("used"));
+
+    private static final VarHandle MAGIC_HANDLE =
+        HEADER.varHandle(groupElement("magic"));
+    private static final VarHandle VERSION_HANDLE =
+        HEADER.varHandle(groupElement("version"));
+    private static final VarHandle KEY_SIZE_HANDLE =
+        HEADER.varHandle(groupElement("keySize"));
+    private static final VarHandle VALUE_SIZE_HANDLE =
+        HEADER.varHandle(groupElement("valueSize"));
+    private static final VarHandle STRIPE_COUNT_HANDLE =
+        HEADER.varHandle(groupElement("stripeCount"));
+    private static final VarHandle STRIPE_CAPACITY_HANDLE =
+        HEADER.varHandle(groupElement("stripeCapacity"));
+
+    private static final long STRIPE_SIZE_OFFSET =
+        STRIPE.byteOffset(groupElement("size"));
+    private static final long STRIPE_USED_OFFSET =
+        STRIPE.byteOffset(groupElement("used"));
+
+    private static final long MAGIC = 0x4F48485441424C45L; // "OHHTABLE"
+    private static final int VERSION = 1;
+
+    /** Slot states.  A zero-filled slot is empty. */
+    private static final int EMPTY = 0, FULL = 1, DELETED = 2;
+
+    /** Bytes of slot header preceding the key: state and hash. */
+    private static final long SLOT_HEADER = 8;
+
+    /** The maximum number of stripes. */
+    private static final int MAX_STRIPES = 64;
+
+    /**
+     * The maximum capacity.  Keeps every stripe within 2^32 slots, so that
+     * the 32-bit hash stored in a slot is enough to recompute its home.
+     */
+    private static final long MAX_CAPACITY = 1L << 37;
+
+    /** The smallest stripe worth splitting the table for. */
+    private static final long MIN_STRIPE_CAPACITY = 1024;
+
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private final MemorySegment segment;
+    private final int keySize;
+    private final int valueSize;
+    private final long slotSize;
+    private final int stripeCount;
+    private final int stripeShift;
+    private final long stripeCapacity;
+    private final long slotMask;
+    private final long dataOffset;
+    /** Live mappings above which a stripe rejects insertions. */
+    private final long maxSize;
+    /**
+     * Occupied (live or deleted) slots above which a stripe holding enough
+     * tombstones is rehashed.
+     */
+    private final long maxUsed;
+    private final StampedLock[] locks;
+
+    private OffHeapHashTable(MemorySegment segment) {
+        this.segment = segment;
+        this.keySize = (int) KEY_SIZE_HANDLE.get(segment);
+        this.valueSize = (int) VALUE_SIZE_HANDLE.get(segment);
+        this.stripeCount = (int) STRIPE_COUNT_HANDLE.get(segment);
+        this.stripeCapacity = (long) STRIPE_CAPACITY_HANDLE.get(segment);
+        this.slotSize = slotSize(keySize, valueSize);
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+        this.slotMask = stripeCapacity - 1;
+        this.dataOffset = dataOffset(stripeCount);
+        this.maxSize = stripeCapacity - (stripeCapacity >>> 4);
+        this.maxUsed = stripeCapacity - (stripeCapacity >>> 3);
+        StampedLock[] locks = new StampedLock[stripeCount];
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new StampedLock();
+        this.locks = locks;
+    }
+
+    private static long slotSize(int keySize, int valueSize) {
+        return (SLOT_HEADER + keySize + valueSize + 7) & ~7L;
+    }
+
+    private static long dataOffset(int stripeCount) {
+        return HEADER.byteSize() + stripeCount * STRIPE.byteSize();
+    }
+
+    private static long byteSize(int stripeCount, long stripeCapacity,
+                                 int keySize, int valueSize) {
+        long slots = Math.multiplyExact(stripeCount, stripeCapacity);
+        return Math.addExact(dataOffset(stripeCount),
+                             Math.multiplyExact(slots, slotSize(keySize, valueSize)));
+    }
+
+    /**
+     * Returns the number of stripes for a table of the given capacity: as
+     * many as possible, up to {@link #MAX_STRIPES}, without making a stripe
+     * smaller than {@link #MIN_STRIPE_CAPACITY} slots.
+     */
+    private static int stripesFor(long capacity) {
+        long stripes = Math.max(1L, capacity / MIN_STRIPE_CAPACITY);
+        return (int) Math.min(MAX_STRIPES, Long.highestOneBit(stripes));
+    }
+
+    private static long roundCapacity(long capacity, int keySize, int valueSize) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        if (keySize <= 0)
+            throw new IllegalArgumentException("Illegal key size: " + keySize);
+        if (valueSize < 0)
+            throw new IllegalArgumentException("Illegal value size: " + valueSize);
+        if (capacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("Capacity too large: " + capacity);
+        // keep at least 1/16 of every stripe free
+        long cap = capacity + (capacity >>> 4) + 1;
+        return Math.max(16L, Long.highestOneBit(cap - 1) << 1);
+    }
+
+    private static void initialize(MemorySegment segment, int stripeCount,
+                                   long stripeCapacity, int keySize, int valueSize) {
+        VERSION_HANDLE.set(segment, VERSION);
+        KEY_SIZE_HANDLE.set(segment, keySize);
+        VALUE_SIZE_HANDLE.set(segment, valueSize);
+        STRIPE_COUNT_HANDLE.set(segment, stripeCount);
+        STRIPE_CAPACITY_HANDLE.set(segment, stripeCapacity);
+        // written last so that a torn initialization is never mistaken
+        // for a valid table when the file is mapped again
+        MAGIC_HANDLE.set(segment, MAGIC);
+    }
+
+    /**
+     * Allocates an empty table in native memory from the given arena.
+     *
+     * @param arena the arena that owns the table's memory
+     * @param capacity the number of mappings the table must be able to hold
+     * @param keySize the size of every key, in bytes
+     * @param valueSize the size of every value, in bytes
+     * @return a new, empty table
+     * @throws IllegalArgumentException if {@code capacity} or {@code keySize}
+     *         is not positive, or {@code valueSize} is negative
+     * @throws IllegalStateException if the arena has been closed
+     * @throws WrongThreadException if the arena cannot be accessed from the
+     *         current thread
+     */
+    public static OffHeapHashTable allocate(Arena arena, long capacity,
+                                            int keySize, int valueSize) {
+        Objects.requireNonNull(arena);
+        long cap = roundCapacity(capacity, keySize, valueSize);
+        int stripes = stripesFor(cap);
+        long stripeCapacity = cap / stripes;
+        MemorySegment segment = arena.allocate(
+            byteSize(stripes, stripeCapacity, keySize, valueSize),
+            JAVA_LONG.byteAlignment());
+        initialize(segment, stripes, stripeCapacity, keySize, valueSize);
+        return new OffHeapHashTable(segment);
+    }
+
+    /**
+     * Maps a table from a file, creating the file if it does not exist.
+     *
+     * <p>If the file is empty, it is sized and initialized as an empty table
+     * with the given geometry.  Otherwise the file must hold a table
+     * previously created by this method with the same key and value sizes;
+     * that table is reopened with all of its mappings, and with its original
+     * capacity.  Changes become durable once {@link #force} is called or the
+     * operating system writes the mapped pages back.
+     *
+     * @param file the file backing the table
+     * @param arena the arena whose scope bounds the lifetime of the mapping
+     * @param capacity the number of mappings a new table must be able to
+     *        hold
+     * @param keySize the size of every key, in bytes
+     * @param valueSize the size of every value, in bytes
+     * @return the mapped table
+     * @throws IllegalArgumentException if {@code capacity} or {@code keySize}
+     *         is not positive, or {@code valueSize} is negative
+     * @throws IOException if the file cannot be opened or mapped, does not
+     *         hold a table, or holds a table with different key or value
+     *         sizes
+     * @throws IllegalStateException if the arena has been closed
+     * @throws WrongThreadException if the arena cannot be accessed from the
+     *         current thread
+     */
+    public static OffHeapHashTable map(Path file, Arena arena, long capacity,
+                                       int keySize, int valueSize)
+        throws IOException
+    {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(arena);
+        long cap = roundCapacity(capacity, keySize, valueSize);
+        try (FileChannel fc = FileChannel.open(file,
+                                               StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE,
+                                               StandardOpenOption.CREATE)) {
+            long existing = fc.size();
+            if (existing == 0) {
+                int stripes = stripesFor(cap);
+                long stripeCapacity = cap / stripes;
+                long size = byteSize(stripes, stripeCapacity, keySize, valueSize);
+                MemorySegment segment =
+                    fc.map(FileChannel.MapMode.READ_WRITE, 0, size, arena.scope());
+                initialize(segment, stripes, stripeCapacity, keySize, valueSize);
+                return new OffHeapHashTable(segment);
+            }
+            if (existing < HEADER.byteSize())
+                throw new IOException("Not a hash table file: " + file);
+            MemorySegment segment =
+                fc.map(FileChannel.MapMode.READ_WRITE, 0, existing, arena.scope());
+            if ((long) MAGIC_HANDLE.get(segment) != MAGIC
+                    || (int) VERSION_HANDLE.get(segment) != VERSION)
+                throw new IOException("Not a hash table file: " + file);
+            if ((int) KEY_SIZE_HANDLE.get(segment) != keySize
+                    || (int) VALUE_SIZE_HANDLE.get(segment) != valueSize)
+                throw new IOException("Key or value size mismatch: " + file);
+            int stripes = (int) STRIPE_COUNT_HANDLE.get(segment);
+            long stripeCapacity = (long) STRIPE_CAPACITY_HANDLE.get(segment);
+            if (stripes <= 0 || Integer.bitCount(stripes) != 1
+                    || stripeCapacity <= 0 || Long.bitCount(stripeCapacity) != 1
+                    || byteSize(stripes, stripeCapacity, keySize, valueSize) != existing)
+                throw new IOException("Corrupt hash table file: " + file);
+            return new OffHeapHashTable(segment);
+        }
+    }
+
+    /**
+     * Returns the size of every key, in bytes.
+     *
+     * @return the key size
+     */
+    public int keySize() {
+        return keySize;
+    }
+
+    /**
+     * Returns the size of every value, in bytes.
+     *
+     * @return the value size
+     */
+    public int valueSize() {
+        return valueSize;
+    }
+
+    /**
+     * Returns the number of slots in the table.  Slightly fewer mappings
+     * than this can be stored, as every stripe keeps some slots free.
+     *
+     * @return the number of slots in the table
+     */
+    public long capacity() {
+        return stripeCount * stripeCapacity;
+    }
+
+    /**
+     * Returns the number of mappings in the table.  If the table is being
+     * modified concurrently the result is only an estimate.
+     *
+     * @return the number of mappings in the table
+     */
+    public long size() {
+        long n = 0;
+        for (int s = 0; s < stripeCount; s++)
+            n += segment.get(JAVA_LONG, stripeOffset(s) + STRIPE_SIZE_OFFSET);
+        return n;
+    }
+
+    /**
+     * Returns {@code true} if the table holds no mappings.
+     *
+     * @return {@code true} if the table holds no mappings
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Copies the value mapped to the key into {@code value}.
+     *
+     * @param key the key, of exactly {@link #keySize} bytes
+     * @param value the segment, of at least {@link #valueSize} bytes, that
+     *        receives the value
+     * @return {@code true} if the key was mapped; {@code false} if it was
+     *         not, in which case the contents of {@code value} are
+     *         unspecified
+     * @throws IllegalArgumentException if a segment has the wrong size
+     * @throws IllegalStateException if the arena has been closed
+     */
+    public boolean get(MemorySegment key, MemorySegment value) {
+        checkKey(key);
+        checkValue(value);
+        long h = hash(key);
+        int s = stripe(h);
+        StampedLock lock = locks[s];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            long slot = find(s, h, key);
+            if (slot >= 0)
+                MemorySegment.copy(segment, slot + SLOT_HEADER + keySize,
+                                   value, 0, valueSize);
+            if (lock.validate(stamp))
+                return slot >= 0;
+        }
+        stamp = lock.readLock();
+        try {
+            long slot = find(s, h, key);
+            if (slot < 0)
+                return false;
+            MemorySegment.copy(segment, slot + SLOT_HEADER + keySize,
+                               value, 0, valueSize);
+            return true;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the key is mapped.
+     *
+     * @param key the key, of exactly {@link #keySize} bytes
+     * @return {@code true} if the key is mapped
+     * @throws IllegalArgumentException if the key has the wrong size
+     * @throws IllegalStateException if the arena has been closed
+     */
+    public boolean containsKey(MemorySegment key) {
+        checkKey(key);
+        long h = hash(key);
+        int s = stripe(h);
+        StampedLock lock = locks[s];
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            boolean found = find(s, h, key) >= 0;
+            if (lock.validate(stamp))
+                return found;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(s, h, key) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Maps the key to the value, replacing any previous value.
+     *
+     * @param key the key, of exactly {@link #keySize} bytes
+     * @param value the value, of exactly {@link #valueSize} bytes
+     * @return {@code true} if the key was not previously mapped
+     * @throws IllegalArgumentException if a segment has the wrong size
+     * @throws IllegalStateException if the arena has been closed, or the
+     *         stripe the key hashes to is full
+     */
+    public boolean put(MemorySegment key, MemorySegment value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * Maps the key to the value if the key is not already mapped.
+     *
+     * @param key the key, of exactly {@link #keySize} bytes
+     * @param value the value, of exactly {@link #valueSize} bytes
+     * @return {@code true} if the mapping was added
+     * @throws IllegalArgumentException if a segment has the wrong size
+     * @throws IllegalStateException if the arena has been closed, or the
+     *         stripe the key hashes to is full
+     */
+    public boolean putIfAbsent(MemorySegment key, MemorySegment value) {
+        return put(key, value, true);
+    }
+
+    private boolean put(MemorySegment key, MemorySegment value, boolean onlyIfAbsent) {
+        checkKey(key);
+        if (value.byteSize() != valueSize)
+            throw new IllegalArgumentException("Value size " + value.byteSize() +
+                                               " != " + valueSize);
+        long h = hash(key);
+        int s = stripe(h);
+        StampedLock lock = locks[s];
+        long stamp = lock.writeLock();
+        try {
+            long base = stripeBase(s);
+            int tag = (int) h;
+            long free = -1L;
+            long i = h & slotMask;
+            for (long n = 0; n < stripeCapacity; n++, i = (i + 1) & slotMask) {
+                long slot = base + i * slotSize;
+                int state = segment.get(JAVA_INT, slot);
+                if (state == EMPTY) {
+                    if (free < 0)
+                        free = slot;
+                    break;
+                } else if (state == DELETED) {
+                    if (free < 0)
+                        free = slot;
+                } else if (segment.get(JAVA_INT, slot + 4) == tag
+                           && keyEquals(slot, key)) {
+                    if (!onlyIfAbsent)
+                        MemorySegment.copy(value, 0, segment,
+                                           slot + SLOT_HEADER + keySize, valueSize);
+                    return false;
+                }
+            }
+            long counts = stripeOffset(s);
+            long size = segment.get(JAVA_LONG, counts + STRIPE_SIZE_OFFSET);
+            if (free < 0 || size >= maxSize)
+                throw new IllegalStateException("Hash table stripe full");
+            boolean reused = segment.get(JAVA_INT, free) == DELETED;
+            MemorySegment.copy(key, 0, segment, free + SLOT_HEADER, keySize);
+            MemorySegment.copy(value, 0, segment, free + SLOT_HEADER + keySize, valueSize);
+            segment.set(JAVA_INT, free + 4, tag);
+            segment.set(JAVA_INT, free, FULL);
+            segment.set(JAVA_LONG, counts + STRIPE_SIZE_OFFSET, size + 1);
+            if (!reused) {
+                long used = segment.get(JAVA_LONG, counts + STRIPE_USED_OFFSET) + 1;
+                segment.set(JAVA_LONG, counts + STRIPE_USED_OFFSET, used);
+                if (used > maxUsed && used - (size + 1) >= (stripeCapacity >>> 5))
+                    purge(s);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the mapping for the key, if present.
+     *
+     * @param key the key, of exactly {@link #keySize} bytes
+     * @return {@code true} if the key was mapped
+     * @throws IllegalArgumentException if the key has the wrong size
+     * @throws IllegalStateException if the arena has been closed
+     */
+    public boolean remove(MemorySegment key) {
+        checkKey(key);
+        long h = hash(key);
+        int s = stripe(h);
+        StampedLock lock = locks[s];
+        long stamp = lock.writeLock();
+        try {
+            long slot = find(s, h, key);
+            if (slot < 0)
+                return false;
+            segment.set(JAVA_INT, slot, DELETED);
+            long counts = stripeOffset(s) + STRIPE_SIZE_OFFSET;
+            segment.set(JAVA_LONG, counts, segment.get(JAVA_LONG, counts) - 1);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes all of the mappings from the table.
+     *
+     * @throws IllegalStateException if the arena has been closed
+     */
+    public void clear() {
+        for (int s = 0; s < stripeCount; s++) {
+            StampedLock lock = locks[s];
+            long stamp = lock.writeLock();
+            try {
+                segment.asSlice(stripeBase(s), stripeCapacity * slotSize)
+                       .fill((byte) 0);
+                segment.asSlice(stripeOffset(s), STRIPE.byteSize())
+                       .fill((byte) 0);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Forces any changes to a {@linkplain #map mapped} table to be written
+     * to the storage device containing the file.  Does nothing for a table
+     * allocated in native memory.
+     *
+     * @throws IllegalStateException if the arena has been closed
+     * @throws java.io.UncheckedIOException if an I/O error occurs
+     */
+    public void force() {
+        if (segment.isMapped())
+            segment.force();
+    }
+
+    /**
+     * Rehashes stripe {@code s} in place to discard its tombstones.  The
+     * live mappings are copied to a temporary native segment, the stripe is
+     * cleared and the mappings are reinserted.  Called with the stripe's
+     * write lock held.
+     */
+    private void purge(int s) {
+        long counts = stripeOffset(s);
+        long size = segment.get(JAVA_LONG, counts + STRIPE_SIZE_OFFSET);
+        long base = stripeBase(s);
+        MemorySegment stripe = segment.asSlice(base, stripeCapacity * slotSize);
+        try (Arena arena = Arena.openConfined()) {
+            MemorySegment tmp = arena.allocate(Math.max(1L, size * slotSize),
+                                               JAVA_LONG.byteAlignment());
+            long n = 0;
+            for (long i = 0; i < stripeCapacity; i++) {
+                long slot = i * slotSize;
+                if (stripe.get(JAVA_INT, slot) == FULL)
+                    MemorySegment.copy(stripe, slot, tmp, (n++) * slotSize, slotSize);
+            }
+            stripe.fill((byte) 0);
+            for (long j = 0; j < n; j++) {
+                long src = j * slotSize;
+                long i = tmp.get(JAVA_INT, src + 4) & 0xFFFFFFFFL & slotMask;
+                while (stripe.get(JAVA_INT, i * slotSize) != EMPTY)
+                    i = (i + 1) & slotMask;
+                MemorySegment.copy(tmp, src, stripe, i * slotSize, slotSize);
+            }
+            segment.set(JAVA_LONG, counts + STRIPE_USED_OFFSET, n);
+        }
+    }
+
+    /**
+     * Returns the offset of the slot holding the key in stripe {@code s},
+     * or -1 if the key is not mapped.  May be called without holding the
+     * stripe's lock, in which case the result must be validated.
+     */
+    private long find(int s, long h, MemorySegment key) {
+        long base = stripeBase(s);
+        int tag = (int) h;
+        long i = h & slotMask;
+        for (long n = 0; n < stripeCapacity; n++, i = (i + 1) & slotMask) {
+            long slot = base + i * slotSize;
+            int state = segment.get(JAVA_INT, slot);
+            if (state == EMPTY)
+                return -1L;
+            if (state == FULL
+                    && segment.get(JAVA_INT, slot + 4) == tag
+                    && keyEquals(slot, key))
+                return slot;
+        }
+        return -1L;
+    }
+
+    private boolean keyEquals(long slot, MemorySegment key) {
+        long k = slot + SLOT_HEADER;
+        return MemorySegment.mismatch(segment, k, k + keySize, key, 0, keySize) < 0;
+    }
+
+    private int stripe(long h) {
+        return (stripeCount == 1) ? 0 : (int) (h >>> stripeShift);
+    }
+
+    private long stripeOffset(int s) {
+        return HEADER.byteSize() + s * STRIPE.byteSize();
+    }
+
+    private long stripeBase(int s) {
+        return dataOffset + s * stripeCapacity * slotSize;
+    }
+
+    private void checkKey(MemorySegment key) {
+        if (key.byteSize() != keySize)
+            throw new IllegalArgumentException("Key size " + key.byteSize() +
+                                               " != " + keySize);
+    }
+
+    private void checkValue(MemorySegment value) {
+        if (value.byteSize() < valueSize)
+            throw new IllegalArgumentException("Value segment size " + value.byteSize() +
+                                               " < " + valueSize);
+    }
+
+    /**
+     * Hashes the key bytes eight at a time.  The high bits select the
+     * stripe and the low bits the home slot within it.
+     */
+    private long hash(MemorySegment key) {
+        long h = PHI ^ keySize;
+        int i = 0;
+        for (; i + 8 <= keySize; i += 8)
+            h = Long.rotateLeft((h ^ key.get(JAVA_LONG_UNALIGNED, i)) * PHI, 31);
+        for (; i < keySize; i++)
+            h = (h ^ key.get(JAVA_BYTE, i)) * PHI;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
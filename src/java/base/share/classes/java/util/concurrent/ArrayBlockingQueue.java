@@ -115,6 +115,23 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
      */
     transient Itrs itrs;
 
+    /**
+     * Condition for batch drains waiting for enough elements, created
+     * on first use.  Batch drains wait here rather than on notEmpty so
+     * that they cannot absorb signals meant for takes.
+     */
+    private transient Condition enoughElements;
+
+    /** Number of batch drains waiting on enoughElements */
+    private transient int batchWaiters;
+
+    /**
+     * Least count awaited by a waiting batch drain, valid only while
+     * batchWaiters > 0.  May be lower than needed after the drain that
+     * set it has left, causing only spurious wakeups.
+     */
+    private transient int batchWaitMin;
+
     // Internal helper methods
 
     /**
@@ -165,6 +182,8 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         if (++putIndex == items.length) putIndex = 0;
         count++;
         notEmpty.signal();
+        if (batchWaiters != 0 && count >= batchWaitMin)
+            enoughElements.signalAll();
     }
 
     /**
@@ -728,6 +747,100 @@ public class ArrayBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Inserts as many of the elements as fit under a single acquisition
+     * of the lock, copying them into the array in at most two steps, and
+     * signals waiting takes once per element inserted.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 21
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        final Object[] es = c.toArray();
+        for (Object e : es)
+            Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        final Object[] items = this.items;
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int n = 0;
+            while (n < es.length) {
+                int k = Math.min(es.length - n, items.length - count);
+                if (k == 0) {
+                    if (nanos <= 0L)
+                        break;
+                    nanos = notFull.awaitNanos(nanos);
+                    continue;
+                }
+                int put = putIndex;
+                int first = Math.min(k, items.length - put);
+                System.arraycopy(es, n, items, put, first);
+                System.arraycopy(es, n + first, items, 0, k - first);
+                if ((put += k) >= items.length)
+                    put -= items.length;
+                putIndex = put;
+                count += k;
+                n += k;
+                for (int i = k; i > 0 && lock.hasWaiters(notEmpty); i--)
+                    notEmpty.signal();
+                if (batchWaiters != 0 && count >= batchWaitMin)
+                    enoughElements.signalAll();
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits, under the lock, until {@code minElements} elements (or, if
+     * fewer, the capacity of this queue) are present or the wait time
+     * elapses, then transfers the available elements as
+     * {@link #drainTo(Collection, int)} does, without releasing the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 21
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        Objects.requireNonNull(c);
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        int min = Math.min(minElements, items.length);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            if (count < min && nanos > 0L) {
+                Condition enough = enoughElements;
+                if (enough == null)
+                    enoughElements = enough = lock.newCondition();
+                if (batchWaiters++ == 0 || min < batchWaitMin)
+                    batchWaitMin = min;
+                try {
+                    while (count < min && nanos > 0L)
+                        nanos = enough.awaitNanos(nanos);
+                } finally {
+                    --batchWaiters;
+                }
+            }
+            return drainTo(c, maxElements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Returns an iterator over the elements in this queue in proper sequence.
      * The elements will be returned in order from first (head) to last (tail).
@@ -16,6 +16,7 @@
 package java.base.share.classes.java.util.concurrent;
 
 import java.util.Collection;
+import java.util.Objects;
 import java.util.Queue;
 
 /**
@@ -352,4 +353,126 @@ public interface BlockingQueue<E> extends Queue<E> {
      *         it from being added to the specified collection
      */
     int drainTo(Collection<? super E> c, int maxElements);
+
+    /**
+     * Inserts the elements of the specified collection into this queue,
+     * in the order returned by the collection's iterator, waiting up to
+     * the specified wait time if necessary for space to become available.
+     * Returns the number of elements inserted, which is less than the
+     * size of the collection only if the wait time elapsed first.
+     *
+     * <p>The collection is copied to an array before any element is
+     * inserted, so a null element causes no elements to be inserted.
+     * Implementations may insert the elements in fewer, larger steps than
+     * a sequence of {@link #offer(Object, long, TimeUnit) offer} calls
+     * would; bounded queues may insert some of the elements before
+     * waiting for space for the rest.  A zero wait time inserts as many
+     * elements as fit without waiting.
+     *
+     * @implSpec
+     * The default implementation inserts each element with
+     * {@code offer(e, timeout, unit)}, passing the time remaining until
+     * the overall deadline.
+     *
+     * @param c the elements to insert
+     * @param timeout how long to wait before giving up, in units of
+     *        {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @return the number of elements inserted
+     * @throws InterruptedException if interrupted while waiting, in which
+     *         case some elements may have been inserted
+     * @throws ClassCastException if the class of an element of the
+     *         collection prevents it from being added to this queue
+     * @throws NullPointerException if the collection or any of its
+     *         elements is null
+     * @throws IllegalArgumentException if the collection is this queue, or
+     *         some property of an element prevents it from being added to
+     *         this queue
+     * @since 21
+     */
+    default int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        Object[] es = c.toArray();
+        for (Object e : es)
+            Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        int n = 0;
+        for (Object e : es) {
+            @SuppressWarnings("unchecked") E x = (E) e;
+            if (!offer(x, nanos, TimeUnit.NANOSECONDS))
+                break;
+            n++;
+            nanos = deadline - System.nanoTime();
+        }
+        return n;
+    }
+
+    /**
+     * Removes at most the given number of elements from this queue and
+     * adds them to the given collection, first waiting up to the specified
+     * wait time if necessary for at least {@code minElements} elements to
+     * become available.  If the wait time elapses first, the elements
+     * available at that point, if any, are transferred.  This lets a
+     * consumer collect batches of a useful size without spinning on
+     * {@link #drainTo(Collection, int) drainTo} or blocking on each
+     * element.
+     *
+     * <p>The other properties of this method, including the effects of a
+     * failure to add an element to {@code c}, are those of
+     * {@link #drainTo(Collection, int)}.
+     *
+     * @implSpec
+     * The default implementation drains the available elements, then
+     * waits for each further element with
+     * {@link #poll(long, TimeUnit) poll} until {@code minElements} have
+     * been transferred or the deadline passes, draining any others that
+     * have become available after each.  Elements are therefore
+     * transferred while it waits rather than all at once.
+     *
+     * @param c the collection to transfer elements into
+     * @param minElements the number of elements to wait for
+     * @param maxElements the maximum number of elements to transfer
+     * @param timeout how long to wait before giving up, in units of
+     *        {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     *        {@code timeout} parameter
+     * @return the number of elements transferred
+     * @throws InterruptedException if interrupted while waiting, in which
+     *         case some elements may have been transferred
+     * @throws UnsupportedOperationException if addition of elements
+     *         is not supported by the specified collection
+     * @throws ClassCastException if the class of an element of this queue
+     *         prevents it from being added to the specified collection
+     * @throws NullPointerException if the specified collection is null
+     * @throws IllegalArgumentException if the specified collection is this
+     *         queue, or {@code minElements} is greater than
+     *         {@code maxElements}, or some property of an element of this
+     *         queue prevents it from being added to the specified
+     *         collection
+     * @since 21
+     */
+    default int drainTo(Collection<? super E> c, int minElements,
+                        int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        Objects.requireNonNull(c);
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        int n = drainTo(c, maxElements);
+        while (n < minElements) {
+            E e = poll(nanos, TimeUnit.NANOSECONDS);
+            if (e == null)
+                break;
+            c.add(e);
+            n++;
+            n += drainTo(c, maxElements - n);
+            nanos = deadline - System.nanoTime();
+        }
+        return n;
+    }
 }
@@ -0,0 +1,941 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.base.share.classes.java.util.concurrent.atomic.LongAdder;
+import java.base.share.classes.java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A concurrent cache that holds at most a fixed number of entries,
+ * evicting entries according to a {@linkplain Policy policy} when it grows
+ * beyond that size, and optionally expiring entries a fixed time after
+ * they were written or last accessed.
+ *
+ * <p>Lookups are served by a {@link ConcurrentHashMap} and never block.
+ * The bookkeeping that eviction needs is deferred: a successful read only
+ * records the entry in one of several lossy, lock-free ring buffers, chosen
+ * by the same per-thread probe that {@link LongAdder} uses
+ * to spread contention, and writes append a task to a lock-free queue.  The
+ * buffers are drained, and eviction and expiration performed, in batches
+ * by whichever thread next acquires a single eviction lock with
+ * {@code tryLock}, so no reader or writer ever waits for another to finish
+ * its bookkeeping.  Because reads may be dropped when a buffer is full, the
+ * access order is approximate, and the cache may briefly hold more entries
+ * than its maximum size.
+ *
+ * <p>Two eviction policies are available.  {@link Policy#LRU} evicts the
+ * least recently used entry.  {@link Policy#TINY_LFU} implements
+ * <em>W-TinyLFU</em>: new entries enter a small LRU admission window, and
+ * an entry leaving the window is admitted to the main, segmented LRU space
+ * only if a compact frequency sketch estimates that it is used more often
+ * than the entry it would displace.  This protects the cache against scans
+ * and one-hit wonders while still adapting to recency.
+ *
+ * <p>The cache keeps {@linkplain #hitCount hit}, {@linkplain #missCount
+ * miss} and {@linkplain #evictionCount eviction} counters in
+ * {@link LongAdder}s so that they can be sampled in production at little
+ * cost.
+ *
+ * <p>Like {@code ConcurrentHashMap}, this class does not allow {@code null}
+ * to be used as a key or value.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @since 21
+ */
+public class BoundedConcurrentCache<K,V> {
+
+    /**
+     * The eviction policy of a {@link BoundedConcurrentCache}.
+     *
+     * @since 21
+     */
+    public enum Policy {
+        /** Evict the least recently used entry. */
+        LRU,
+        /** Admit and evict entries by estimated frequency and recency. */
+        TINY_LFU
+    }
+
+    /*
+     * Overview:
+     *
+     * Each mapping is a Node held in the ConcurrentHashMap "data".  A node
+     * is "alive" while it is mapped there; whoever removes it from data
+     * (explicit removal, replacement of an expired node, or eviction)
+     * retires it.  All policy state -- the access-order deques, the
+     * write-order deque, the frequency sketch and the counts -- is guarded
+     * by evictionLock and only changed while draining buffers.
+     *
+     * Reads are recorded in readBuffers, an array of small bounded ring
+     * buffers indexed by the thread's probe, in the manner of Striped64's
+     * cells.  A buffer that is full or contended drops the record.  Writes
+     * are recorded as tasks in writeBuffer, which never drops.  A writer
+     * always attempts to drain; a reader does so only once its buffer is
+     * half full.  A drainer that releases the lock re-checks writeBuffer so
+     * that a task added by a writer whose tryLock failed is never stranded.
+     *
+     * Under TINY_LFU the access order is kept in three deques: window (1%
+     * of the maximum), probation and protected (80% of the main space).  An
+     * entry read while on probation is promoted to protected, demoting the
+     * eldest protected entry when that segment is full.  Entries overflowing
+     * the window move to the tail of probation; while the cache is over
+     * capacity, the head of probation (the victim) and its tail (the newest
+     * candidate) are compared by frequency and the loser is evicted.  Under
+     * LRU only the probation deque is used.
+     */
+
+    /** Number of slots in each read buffer.  Must be a power of two. */
+    static final int READ_BUFFER_SIZE = 16;
+
+    /** Pending reads in a buffer at which a reader attempts a drain. */
+    static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+    /** Maximum number of read buffers. */
+    static final int MAX_READ_BUFFERS = Math.min(64,
+        Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    /** Queue identifiers of a node's access-order deque. */
+    static final int NONE = 0, WINDOW = 1, PROBATION = 2, PROTECTED = 3;
+
+    /**
+     * A cache entry.  The value and timestamps are written without the
+     * eviction lock; the links and queue identifiers are guarded by it.
+     */
+    static final class Node<K,V> {
+        final K key;
+        volatile V value;
+        volatile long writeTime;
+        volatile long accessTime;
+        volatile boolean retired;
+
+        // guarded by evictionLock
+        int queue;
+        Node<K,V> prev, next;
+        Node<K,V> writePrev, writeNext;
+        boolean inWriteOrder;
+
+        Node(K key, V value, long now) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    /**
+     * An access-order deque linked through Node.prev and Node.next.
+     */
+    static final class AccessDeque<K,V> {
+        Node<K,V> head, tail;
+
+        void linkLast(Node<K,V> n) {
+            Node<K,V> t = tail;
+            n.prev = t;
+            n.next = null;
+            tail = n;
+            if (t == null)
+                head = n;
+            else
+                t.next = n;
+        }
+
+        void unlink(Node<K,V> n) {
+            Node<K,V> p = n.prev, x = n.next;
+            if (p == null)
+                head = x;
+            else
+                p.next = x;
+            if (x == null)
+                tail = p;
+            else
+                x.prev = p;
+            n.prev = n.next = null;
+        }
+
+        void moveToLast(Node<K,V> n) {
+            if (n != tail) {
+                unlink(n);
+                linkLast(n);
+            }
+        }
+    }
+
+    /**
+     * A write-order deque linked through Node.writePrev and Node.writeNext.
+     */
+    static final class WriteDeque<K,V> {
+        Node<K,V> head, tail;
+
+        void linkLast(Node<K,V> n) {
+            Node<K,V> t = tail;
+            n.writePrev = t;
+            n.writeNext = null;
+            n.inWriteOrder = true;
+            tail = n;
+            if (t == null)
+                head = n;
+            else
+                t.writeNext = n;
+        }
+
+        void unlink(Node<K,V> n) {
+            if (!n.inWriteOrder)
+                return;
+            Node<K,V> p = n.writePrev, x = n.writeNext;
+            if (p == null)
+                head = x;
+            else
+                p.writeNext = x;
+            if (x == null)
+                tail = p;
+            else
+                x.writePrev = p;
+            n.writePrev = n.writeNext = null;
+            n.inWriteOrder = false;
+        }
+
+        void moveToLast(Node<K,V> n) {
+            if (n.inWriteOrder && n != tail) {
+                unlink(n);
+                linkLast(n);
+            }
+        }
+    }
+
+    /**
+     * A bounded, lossy, multiple-producer single-consumer ring buffer of
+     * read records.  Producers claim a slot by CAS on writeCount and drop
+     * the record if the buffer is full or the CAS fails; the drainer, which
+     * holds the eviction lock, advances readCount.  Padded to reduce
+     * false sharing between buffers, like Striped64.Cell.
+     */
+    @jdk.internal.vm.annotation.Contended
+    static final class ReadBuffer<K,V> {
+        final Node<?,?>[] slots = new Node<?,?>[READ_BUFFER_SIZE];
+        volatile long readCount;
+        volatile long writeCount;
+
+        /**
+         * Records a read.  Returns the number of pending records if it was
+         * recorded, 0 if the buffer was full, or -1 if the CAS failed.
+         */
+        int offer(Node<K,V> n) {
+            long head = readCount;
+            long tail = writeCount;
+            long pending = tail - head;
+            if (pending >= READ_BUFFER_SIZE)
+                return 0;
+            if (!WRITE_COUNT.compareAndSet(this, tail, tail + 1))
+                return -1;
+            SLOTS.setRelease(slots, (int) (tail & (READ_BUFFER_SIZE - 1)), n);
+            return (int) pending + 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        void drainTo(BoundedConcurrentCache<K,V> cache) {
+            long head = readCount;
+            long tail = writeCount;
+            for (; head != tail; head++) {
+                int i = (int) (head & (READ_BUFFER_SIZE - 1));
+                Node<K,V> n = (Node<K,V>) SLOTS.getAcquire(slots, i);
+                if (n == null)
+                    break;      // claimed but not yet published
+                SLOTS.setRelease(slots, i, null);
+                cache.onAccess(n);
+            }
+            readCount = head;
+        }
+    }
+
+    /**
+     * A Count-Min sketch of access frequencies with four 4-bit counters per
+     * key, halved periodically so that old popularity decays.  Guarded by
+     * the eviction lock.
+     */
+    static final class FrequencySketch {
+        static final long[] SEED = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        static final long RESET_MASK = 0x7777777777777777L;
+        static final long ONE_MASK = 0x1111111111111111L;
+
+        final long[] table;
+        final int tableMask;
+        final int sampleSize;
+        int size;
+
+        FrequencySketch(long maximumSize) {
+            int n = (int) Math.min(Math.max(maximumSize, 16L), 1L << 26);
+            int len = Integer.highestOneBit(n - 1) << 1;
+            table = new long[len];
+            tableMask = len - 1;
+            sampleSize = (int) Math.min(10L * n, Integer.MAX_VALUE);
+        }
+
+        int frequency(Object e) {
+            int hash = spread(e.hashCode());
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(Object e) {
+            int hash = spread(e.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++)
+                added |= incrementAt(indexOf(hash, i), start + i);
+            if (added && ++size >= sampleSize)
+                reset();
+        }
+
+        private boolean incrementAt(int i, int j) {
+            int offset = j << 2;
+            long mask = 0xfL << offset;
+            if ((table[i] & mask) != mask) {
+                table[i] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        private void reset() {
+            int odd = 0;
+            for (int i = 0; i < table.length; i++) {
+                odd += Long.bitCount(table[i] & ONE_MASK);
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size = (size >>> 1) - (odd >>> 2);
+        }
+
+        private int indexOf(int item, int i) {
+            long hash = (item + SEED[i]) * SEED[i];
+            hash += hash >>> 32;
+            return ((int) hash) & tableMask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+
+    final ConcurrentHashMap<K,Node<K,V>> data;
+    final long maximumSize;
+    final Policy policy;
+    final long expireAfterWriteNanos;
+    final long expireAfterAccessNanos;
+
+    final ReadBuffer<K,V>[] readBuffers;
+    final ConcurrentLinkedQueue<Runnable> writeBuffer;
+    final ReentrantLock evictionLock;
+
+    // Statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Policy state, guarded by evictionLock
+    final AccessDeque<K,V> window = new AccessDeque<>();
+    final AccessDeque<K,V> probation = new AccessDeque<>();
+    final AccessDeque<K,V> protectedDeque = new AccessDeque<>();
+    final WriteDeque<K,V> writeOrder = new WriteDeque<>();
+    final FrequencySketch sketch;
+    final long windowMaximum;
+    final long protectedMaximum;
+    long linkedSize;
+    long windowSize;
+    long protectedSize;
+
+    /**
+     * Creates a least-recently-used cache holding at most the given number
+     * of entries, without expiration.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is negative
+     */
+    public BoundedConcurrentCache(long maximumSize) {
+        this(maximumSize, Policy.LRU, 0L, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of entries, evicted
+     * by the given policy, and optionally expiring entries.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param policy the eviction policy
+     * @param expireAfterWrite the time after an entry was created or last
+     *        replaced at which it expires, or zero if entries do not expire
+     *        after write
+     * @param expireAfterAccess the time after an entry was last read or
+     *        written at which it expires, or zero if entries do not expire
+     *        after access
+     * @param unit the time unit of the expiration arguments
+     * @throws IllegalArgumentException if {@code maximumSize},
+     *         {@code expireAfterWrite} or {@code expireAfterAccess} is
+     *         negative
+     * @throws NullPointerException if {@code policy} or {@code unit} is null
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedConcurrentCache(long maximumSize, Policy policy,
+                                  long expireAfterWrite, long expireAfterAccess,
+                                  TimeUnit unit) {
+        if (maximumSize < 0 || expireAfterWrite < 0 || expireAfterAccess < 0)
+            throw new IllegalArgumentException();
+        Objects.requireNonNull(policy);
+        Objects.requireNonNull(unit);
+        this.maximumSize = maximumSize;
+        this.policy = policy;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        this.data = new ConcurrentHashMap<>(
+            (int) Math.min(maximumSize, 1 << 16));
+        ReadBuffer<K,V>[] rb = (ReadBuffer<K,V>[]) new ReadBuffer<?,?>[MAX_READ_BUFFERS];
+        for (int i = 0; i < rb.length; i++)
+            rb[i] = new ReadBuffer<>();
+        this.readBuffers = rb;
+        this.writeBuffer = new ConcurrentLinkedQueue<>();
+        this.evictionLock = new ReentrantLock();
+        if (policy == Policy.TINY_LFU) {
+            long w = Math.max(1L, maximumSize / 100);
+            this.windowMaximum = Math.min(w, maximumSize);
+            this.protectedMaximum = (maximumSize - windowMaximum) * 4 / 5;
+            this.sketch = new FrequencySketch(maximumSize);
+        } else {
+            this.windowMaximum = 0L;
+            this.protectedMaximum = 0L;
+            this.sketch = null;
+        }
+    }
+
+    /* ---------------- Public operations -------------- */
+
+    /**
+     * Returns the value cached for the key, or {@code null} if there is
+     * none or it has expired.  Records a hit or a miss.
+     *
+     * @param key the key
+     * @return the cached value, or {@code null}
+     * @throws NullPointerException if the key is null
+     */
+    public V get(Object key) {
+        Node<K,V> n = data.get(key);
+        if (n != null) {
+            long now = expires() ? System.nanoTime() : 0L;
+            if (!hasExpired(n, now)) {
+                V v = n.value;
+                if (expireAfterAccessNanos != 0L)
+                    n.accessTime = now;
+                afterRead(n);
+                hits.increment();
+                return v;
+            }
+            scheduleDrain();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the value cached for the key, first computing and caching it
+     * with the mapping function if there is none or it has expired.  The
+     * function is invoked at most once per absent key, atomically with
+     * respect to other updates of the same key.  Records a hit if a cached
+     * value is returned and a miss otherwise.
+     *
+     * @param key the key
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value, or {@code null} if
+     *         the computed value is {@code null}
+     * @throws NullPointerException if the key or mapping function is null
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        V v = getIfPresentQuietly(key);
+        if (v != null) {
+            hits.increment();
+            return v;
+        }
+        misses.increment();
+        long now = System.nanoTime();
+        @SuppressWarnings("unchecked")
+        Node<K,V>[] added = (Node<K,V>[]) new Node<?,?>[2];
+        Node<K,V> n = data.compute(key, (k, prior) -> {
+            if (prior != null && !hasExpired(prior, now))
+                return prior;
+            V value = mappingFunction.apply(k);
+            if (prior != null) {
+                prior.retired = true;
+                added[1] = prior;
+            }
+            if (value == null)
+                return null;
+            return added[0] = new Node<>(k, value, now);
+        });
+        if (added[1] != null)
+            afterWrite(removalTask(added[1]));
+        if (added[0] != null)
+            afterWrite(addTask(added[0]));
+        else if (n != null)
+            afterRead(n);
+        return (n == null) ? null : n.value;
+    }
+
+    /**
+     * Caches the value for the key, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value, or {@code null} if there was none or it
+     *         had expired
+     * @throws NullPointerException if the key or value is null
+     */
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * Caches the value for the key if no unexpired value is cached for it.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the current value, or {@code null} if the value was cached
+     * @throws NullPointerException if the key or value is null
+     */
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(value);
+        long now = System.nanoTime();
+        @SuppressWarnings("unchecked")
+        Node<K,V>[] nodes = (Node<K,V>[]) new Node<?,?>[2];
+        Object[] old = new Object[1];
+        data.compute(key, (k, prior) -> {
+            if (prior == null || hasExpired(prior, now)) {
+                if (prior != null) {
+                    prior.retired = true;
+                    nodes[1] = prior;
+                }
+                return nodes[0] = new Node<>(k, value, now);
+            }
+            old[0] = prior.value;
+            if (!onlyIfAbsent) {
+                prior.value = value;
+                prior.writeTime = now;
+                prior.accessTime = now;
+                nodes[0] = prior;
+            }
+            return prior;
+        });
+        if (nodes[1] != null)
+            afterWrite(removalTask(nodes[1]));
+        Node<K,V> n = nodes[0];
+        if (n != null)
+            afterWrite((old[0] == null) ? addTask(n) : updateTask(n));
+        @SuppressWarnings("unchecked") V v = (V) old[0];
+        return v;
+    }
+
+    /**
+     * Removes the entry for the key, if present.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if there was none or it
+     *         had expired
+     * @throws NullPointerException if the key is null
+     */
+    public V remove(Object key) {
+        Node<K,V> n = data.remove(key);
+        if (n == null)
+            return null;
+        n.retired = true;
+        afterWrite(removalTask(n));
+        return hasExpired(n, expires() ? System.nanoTime() : 0L) ? null : n.value;
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            for (Node<K,V> n : data.values()) {
+                if (data.remove(n.key, n)) {
+                    n.retired = true;
+                    unlinkNode(n);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Returns the approximate number of entries in the cache, which may
+     * include entries that have expired but not yet been removed.
+     *
+     * @return the approximate number of entries
+     */
+    public long estimatedSize() {
+        return data.mappingCount();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return the maximum number of entries
+     */
+    public long maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the eviction policy.
+     *
+     * @return the eviction policy
+     */
+    public Policy policy() {
+        return policy;
+    }
+
+    /**
+     * Performs any pending maintenance: applies recorded reads and writes
+     * to the policy, evicts entries beyond the maximum size and removes
+     * expired entries.  Maintenance is otherwise performed incrementally
+     * during other operations, so calling this method is never required.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a cached value.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no cached value.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted because the cache exceeded its
+     * maximum size or because they expired.
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the ratio of hits to lookups, or {@code 1.0} if there have
+     * been no lookups.
+     *
+     * @return the hit rate
+     */
+    public double hitRate() {
+        long h = hits.sum(), m = misses.sum();
+        long total = h + m;
+        return (total == 0L) ? 1.0 : (double) h / total;
+    }
+
+    /**
+     * Returns a string identifying this cache, as well as its size,
+     * maximum size and statistics.
+     *
+     * @return a string identifying this cache and its state
+     */
+    @Override
+    public String toString() {
+        return super.toString() +
+            "[size = " + estimatedSize() +
+            ", maximumSize = " + maximumSize +
+            ", policy = " + policy +
+            ", hits = " + hitCount() +
+            ", misses = " + missCount() +
+            ", evictions = " + evictionCount() + "]";
+    }
+
+    /* ---------------- Recording -------------- */
+
+    private boolean expires() {
+        return (expireAfterWriteNanos | expireAfterAccessNanos) != 0L;
+    }
+
+    final boolean hasExpired(Node<K,V> n, long now) {
+        return (expireAfterWriteNanos != 0L &&
+                now - n.writeTime >= expireAfterWriteNanos) ||
+               (expireAfterAccessNanos != 0L &&
+                now - n.accessTime >= expireAfterAccessNanos);
+    }
+
+    private V getIfPresentQuietly(Object key) {
+        Node<K,V> n = data.get(key);
+        if (n == null)
+            return null;
+        long now = expires() ? System.nanoTime() : 0L;
+        if (hasExpired(n, now))
+            return null;
+        if (expireAfterAccessNanos != 0L)
+            n.accessTime = now;
+        afterRead(n);
+        return n.value;
+    }
+
+    /**
+     * Records a read in the calling thread's read buffer, and attempts a
+     * drain once that buffer is half full.
+     */
+    final void afterRead(Node<K,V> n) {
+        int probe;
+        if ((probe = ThreadLocalRandom.getProbe()) == 0) {
+            ThreadLocalRandom.current(); // force initialization
+            probe = ThreadLocalRandom.getProbe();
+        }
+        ReadBuffer<K,V> buffer = readBuffers[probe & (readBuffers.length - 1)];
+        int pending = buffer.offer(n);
+        if (pending < 0)
+            ThreadLocalRandom.advanceProbe(probe);
+        else if (pending == 0 || pending >= READ_BUFFER_DRAIN_THRESHOLD)
+            tryDrain();
+    }
+
+    /**
+     * Records a write task and attempts a drain.
+     */
+    final void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        scheduleDrain();
+    }
+
+    private Runnable addTask(Node<K,V> n) {
+        return () -> onAdd(n);
+    }
+
+    private Runnable updateTask(Node<K,V> n) {
+        return () -> onUpdate(n);
+    }
+
+    private Runnable removalTask(Node<K,V> n) {
+        return () -> unlinkNode(n);
+    }
+
+    /**
+     * Drains if the eviction lock is free, once.
+     */
+    private void tryDrain() {
+        if (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drains if the eviction lock is free, and repeats while write tasks
+     * remain, so that a task recorded by a thread whose tryLock failed is
+     * picked up by the thread that held the lock.
+     */
+    final void scheduleDrain() {
+        do {
+            if (!evictionLock.tryLock())
+                return;
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    /* ---------------- Maintenance (under evictionLock) -------------- */
+
+    private void maintenance() {
+        drainBuffers();
+        expire();
+        evict();
+    }
+
+    private void drainBuffers() {
+        for (ReadBuffer<K,V> b : readBuffers)
+            b.drainTo(this);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null)
+            task.run();
+    }
+
+    private void onAdd(Node<K,V> n) {
+        if (n.retired || n.queue != NONE)
+            return;
+        if (expireAfterWriteNanos != 0L)
+            writeOrder.linkLast(n);
+        linkedSize++;
+        if (policy == Policy.TINY_LFU) {
+            sketch.increment(n.key);
+            window.linkLast(n);
+            n.queue = WINDOW;
+            windowSize++;
+        } else {
+            probation.linkLast(n);
+            n.queue = PROBATION;
+        }
+    }
+
+    private void onUpdate(Node<K,V> n) {
+        if (n.retired)
+            return;
+        writeOrder.moveToLast(n);
+        onAccess(n);
+    }
+
+    final void onAccess(Node<K,V> n) {
+        int q = n.queue;
+        if (q == NONE)
+            return;
+        if (policy == Policy.LRU) {
+            probation.moveToLast(n);
+            return;
+        }
+        sketch.increment(n.key);
+        if (q == WINDOW) {
+            window.moveToLast(n);
+        } else if (q == PROTECTED) {
+            protectedDeque.moveToLast(n);
+        } else {
+            // promote from probation, demoting the eldest protected entry
+            probation.unlink(n);
+            protectedDeque.linkLast(n);
+            n.queue = PROTECTED;
+            protectedSize++;
+            while (protectedSize > protectedMaximum) {
+                Node<K,V> d = protectedDeque.head;
+                protectedDeque.unlink(d);
+                protectedSize--;
+                probation.linkLast(d);
+                d.queue = PROBATION;
+            }
+        }
+    }
+
+    /**
+     * Removes the node from the policy's deques.  Idempotent.
+     */
+    final void unlinkNode(Node<K,V> n) {
+        writeOrder.unlink(n);
+        switch (n.queue) {
+            case WINDOW    -> { window.unlink(n); windowSize--; }
+            case PROBATION -> probation.unlink(n);
+            case PROTECTED -> { protectedDeque.unlink(n); protectedSize--; }
+            default        -> { return; }
+        }
+        n.queue = NONE;
+        linkedSize--;
+    }
+
+    /**
+     * Removes the node from the map, if it is still mapped there, and
+     * from the policy.
+     */
+    private void evictNode(Node<K,V> n) {
+        if (data.remove(n.key, n)) {
+            n.retired = true;
+            evictions.increment();
+        }
+        unlinkNode(n);
+    }
+
+    private void expire() {
+        if (!expires())
+            return;
+        long now = System.nanoTime();
+        if (expireAfterAccessNanos != 0L) {
+            expireAccessOrder(window, now);
+            expireAccessOrder(probation, now);
+            expireAccessOrder(protectedDeque, now);
+        }
+        if (expireAfterWriteNanos != 0L) {
+            Node<K,V> n;
+            while ((n = writeOrder.head) != null &&
+                   now - n.writeTime >= expireAfterWriteNanos)
+                evictNode(n);
+        }
+    }
+
+    private void expireAccessOrder(AccessDeque<K,V> deque, long now) {
+        Node<K,V> n;
+        while ((n = deque.head) != null &&
+               now - n.accessTime >= expireAfterAccessNanos)
+            evictNode(n);
+    }
+
+    private void evict() {
+        if (policy == Policy.TINY_LFU) {
+            while (windowSize > windowMaximum) {
+                Node<K,V> c = window.head;
+                window.unlink(c);
+                windowSize--;
+                probation.linkLast(c);
+                c.queue = PROBATION;
+            }
+        }
+        while (linkedSize > maximumSize) {
+            Node<K,V> victim = probation.head;
+            if (victim == null) {
+                victim = (protectedDeque.head != null) ? protectedDeque.head
+                                                       : window.head;
+            } else if (policy == Policy.TINY_LFU) {
+                Node<K,V> candidate = probation.tail;
+                if (candidate != victim &&
+                    sketch.frequency(candidate.key) <= sketch.frequency(victim.key))
+                    victim = candidate;
+            }
+            evictNode(victim);
+        }
+    }
+
+    // VarHandle mechanics
+    private static final VarHandle WRITE_COUNT;
+    private static final VarHandle SLOTS;
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            WRITE_COUNT = l.findVarHandle(ReadBuffer.class, "writeCount", long.class);
+            SLOTS = MethodHandles.arrayElementVarHandle(Node[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,586 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.base.share.classes.java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free {@linkplain BlockingQueue blocking queue} backed by
+ * an array.  This queue orders elements FIFO (first-in-first-out).
+ *
+ * <p>Unlike {@link ArrayBlockingQueue}, which guards both ends of the
+ * queue with a single lock, and {@link LinkedBlockingQueue}, which
+ * allocates a node per element, this queue never locks and never
+ * allocates on insertion or removal.  Each array slot carries a sequence
+ * number that tells producers and consumers whether the slot is free for
+ * the current lap around the array or holds an element ready to be taken.
+ * A producer claims a slot by advancing the tail index with a single
+ * compare-and-set, writes its element, and publishes the slot with a
+ * release store of its sequence number; consumers proceed symmetrically at
+ * the head.  The head and tail indices are kept on separate cache lines.
+ *
+ * <p>Blocking operations park the calling thread with {@link LockSupport}
+ * only when the queue is empty (for consumers) or full (for producers).
+ * Once a thread has been parked, the operation that makes progress
+ * possible for it unparks it, so non-blocking operations pay only a memory
+ * fence and a check for parked threads.
+ *
+ * <p>Queues that are known to have a single producer thread or a single
+ * consumer thread may be created with {@link #newSingleProducerQueue},
+ * {@link #newSingleConsumerQueue} or {@link
+ * #newSingleProducerSingleConsumerQueue}; these replace the
+ * compare-and-set at the corresponding end with a plain store.  Using such
+ * a queue from more than one producer (or consumer) thread at a time has
+ * unspecified results.
+ *
+ * <p>The {@link #iterator() iterator} and {@link #toArray() toArray}
+ * methods operate on a snapshot of the elements that were present
+ * at some point during the call.  Removal of arbitrary elements, whether
+ * through {@link #remove(Object)} or an iterator, is not supported and
+ * throws {@link UnsupportedOperationException}.
+ *
+ * <p>This class and its iterator implement all of the <em>optional</em>
+ * methods of the {@link Collection} and {@link Iterator} interfaces
+ * except for removal of arbitrary elements.
+ *
+ * @since 21
+ * @param <E> the type of elements held in this queue
+ */
+public class ConcurrentArrayBlockingQueue<E> extends AbstractQueue<E>
+        implements BlockingQueue<E> {
+
+    /*
+     * The algorithm is the bounded MPMC queue of Dmitry Vyukov.  Slot i
+     * is associated with every index n with index(n) == i.  Its sequence
+     * number is 2n when the slot is free for the producer of index n, and
+     * 2n + 1 once that producer has published its element.  The consumer
+     * of index n takes the element and sets the sequence to
+     * 2(n + capacity), freeing the slot for the producer of the next lap.
+     * (Vyukov's original uses n and n + 1, which coincide with the next
+     * lap's n + capacity when the capacity is one.)
+     *
+     * A producer reading sequence s for tail t finds the slot free if
+     * s == 2t, finds the queue full if s < 2t (the slot still holds the
+     * element of the previous lap), and otherwise has raced with another
+     * producer and retries.  Consumers likewise compare the sequence with
+     * 2 * head + 1.
+     *
+     * Parked threads are kept in two ConcurrentLinkedQueues.  A thread
+     * that finds the queue empty (full) enqueues itself, re-checks the
+     * head (tail) slot, and parks only if that still shows no progress is
+     * possible.  A thread that makes progress possible publishes its
+     * slot, issues a full fence, and unparks one waiter if there are any.
+     * Enqueuing a waiter is a volatile CAS, so either the waiter's
+     * re-check sees the published slot or the signaller sees the waiter.
+     * A signalled waiter always retries the operation before giving up on
+     * timeout or interrupt, so a signal is never lost: if the retry fails,
+     * another thread has consumed what the signal announced.
+     */
+
+    /** The queued items. */
+    final Object[] items;
+
+    /** Slot sequence numbers, as described above. */
+    final long[] sequences;
+
+    /** The capacity of the queue. */
+    final int capacity;
+
+    /** capacity - 1 if capacity is a power of two, else -1. */
+    final int mask;
+
+    /** Index of the next slot to fill. */
+    @jdk.internal.vm.annotation.Contended("tail")
+    volatile long tail;
+
+    /** Index of the next slot to take. */
+    @jdk.internal.vm.annotation.Contended("head")
+    volatile long head;
+
+    /** Consumers parked while the queue is empty. */
+    final ConcurrentLinkedQueue<Thread> takers = new ConcurrentLinkedQueue<>();
+
+    /** Producers parked while the queue is full. */
+    final ConcurrentLinkedQueue<Thread> putters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a {@code ConcurrentArrayBlockingQueue} with the given
+     * (fixed) capacity, for any number of producer and consumer threads.
+     *
+     * @param capacity the capacity of this queue
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public ConcurrentArrayBlockingQueue(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException();
+        this.capacity = capacity;
+        this.mask = ((capacity & (capacity - 1)) == 0) ? capacity - 1 : -1;
+        this.items = new Object[capacity];
+        long[] seqs = new long[capacity];
+        for (int i = 0; i < capacity; i++)
+            seqs[i] = 2L * i;
+        this.sequences = seqs;
+    }
+
+    /**
+     * Creates a queue with the given capacity that may be used by a single
+     * producer thread and any number of consumer threads.
+     *
+     * @param capacity the capacity of the queue
+     * @param <E> the type of elements held in the queue
+     * @return a new queue
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public static <E> ConcurrentArrayBlockingQueue<E> newSingleProducerQueue(int capacity) {
+        return new SingleProducer<>(capacity);
+    }
+
+    /**
+     * Creates a queue with the given capacity that may be used by any
+     * number of producer threads and a single consumer thread.
+     *
+     * @param capacity the capacity of the queue
+     * @param <E> the type of elements held in the queue
+     * @return a new queue
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public static <E> ConcurrentArrayBlockingQueue<E> newSingleConsumerQueue(int capacity) {
+        return new SingleConsumer<>(capacity);
+    }
+
+    /**
+     * Creates a queue with the given capacity that may be used by a single
+     * producer thread and a single consumer thread.
+     *
+     * @param capacity the capacity of the queue
+     * @param <E> the type of elements held in the queue
+     * @return a new queue
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public static <E> ConcurrentArrayBlockingQueue<E> newSingleProducerSingleConsumerQueue(int capacity) {
+        return new SingleProducerSingleConsumer<>(capacity);
+    }
+
+    final int index(long n) {
+        int m = mask;
+        return (m >= 0) ? (int) n & m : (int) (n % capacity);
+    }
+
+    /* ---------------- Slot protocol -------------- */
+
+    /**
+     * Inserts the element if there is room, for any number of producers.
+     */
+    boolean enqueue(E e) {
+        final long[] seqs = sequences;
+        long t = (long) TAIL.getOpaque(this);
+        for (;;) {
+            int i = index(t);
+            long d = (long) SEQUENCE.getAcquire(seqs, i) - 2 * t;
+            if (d == 0) {
+                if (TAIL.compareAndSet(this, t, t + 1)) {
+                    items[i] = e;
+                    SEQUENCE.setRelease(seqs, i, 2 * t + 1);
+                    return true;
+                }
+            } else if (d < 0) {
+                return false;
+            }
+            t = (long) TAIL.getOpaque(this);
+        }
+    }
+
+    /**
+     * Removes an element if there is one, for any number of consumers.
+     */
+    E dequeue() {
+        final long[] seqs = sequences;
+        long h = (long) HEAD.getOpaque(this);
+        for (;;) {
+            int i = index(h);
+            long d = (long) SEQUENCE.getAcquire(seqs, i) - (2 * h + 1);
+            if (d == 0) {
+                if (HEAD.compareAndSet(this, h, h + 1))
+                    return take(i, h);
+            } else if (d < 0) {
+                return null;
+            }
+            h = (long) HEAD.getOpaque(this);
+        }
+    }
+
+    /**
+     * Inserts the element if there is room; only the single producer may
+     * call this method.
+     */
+    final boolean enqueueSingle(E e) {
+        long t = (long) TAIL.getOpaque(this);
+        int i = index(t);
+        if ((long) SEQUENCE.getAcquire(sequences, i) != 2 * t)
+            return false;
+        items[i] = e;
+        SEQUENCE.setRelease(sequences, i, 2 * t + 1);
+        TAIL.setOpaque(this, t + 1);
+        return true;
+    }
+
+    /**
+     * Removes an element if there is one; only the single consumer may
+     * call this method.
+     */
+    final E dequeueSingle() {
+        long h = (long) HEAD.getOpaque(this);
+        int i = index(h);
+        if ((long) SEQUENCE.getAcquire(sequences, i) != 2 * h + 1)
+            return null;
+        HEAD.setOpaque(this, h + 1);
+        return take(i, h);
+    }
+
+    /**
+     * Takes the element from claimed slot i for head index h and frees
+     * the slot for the next lap.
+     */
+    @SuppressWarnings("unchecked")
+    private E take(int i, long h) {
+        E e = (E) items[i];
+        items[i] = null;
+        SEQUENCE.setRelease(sequences, i, 2 * (h + capacity));
+        return e;
+    }
+
+    /** Returns true if a dequeue might succeed. */
+    private boolean mayDequeue() {
+        long h = head;
+        return (long) SEQUENCE.getAcquire(sequences, index(h)) - (2 * h + 1) >= 0;
+    }
+
+    /** Returns true if an enqueue might succeed. */
+    private boolean mayEnqueue() {
+        long t = tail;
+        return (long) SEQUENCE.getAcquire(sequences, index(t)) - 2 * t >= 0;
+    }
+
+    /* ---------------- Parking -------------- */
+
+    /**
+     * Unparks up to n threads of the given waiters.
+     */
+    private static void signal(ConcurrentLinkedQueue<Thread> waiters, int n) {
+        VarHandle.fullFence();
+        Thread w;
+        while (n-- > 0 && !waiters.isEmpty() && (w = waiters.poll()) != null)
+            LockSupport.unpark(w);
+    }
+
+    private void signalNotEmpty() {
+        signal(takers, 1);
+    }
+
+    private void signalNotFull() {
+        signal(putters, 1);
+    }
+
+    /**
+     * Parks the current thread among the given waiters unless progress
+     * has become possible, for at most nanos if timed.
+     */
+    private void await(ConcurrentLinkedQueue<Thread> waiters, boolean forItem,
+                       boolean timed, long nanos) {
+        Thread w = Thread.currentThread();
+        waiters.add(w);
+        if (!(forItem ? mayDequeue() : mayEnqueue())) {
+            if (timed)
+                LockSupport.parkNanos(this, nanos);
+            else
+                LockSupport.park(this);
+        }
+        waiters.remove(w);
+    }
+
+    /* ---------------- Queue operations -------------- */
+
+    /**
+     * Inserts the specified element at the tail of this queue if it is
+     * possible to do so immediately without exceeding the queue's capacity,
+     * returning {@code true} upon success and {@code false} if this queue
+     * is full.  This method is generally preferable to method {@link #add},
+     * which can fail to insert an element only by throwing an exception.
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        if (!enqueue(e))
+            return false;
+        signalNotEmpty();
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * for space to become available if the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public void put(E e) throws InterruptedException {
+        Objects.requireNonNull(e);
+        while (!enqueue(e)) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            await(putters, false, false, 0L);
+        }
+        signalNotEmpty();
+    }
+
+    /**
+     * Inserts the specified element at the tail of this queue, waiting
+     * up to the specified wait time for space to become available if
+     * the queue is full.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        while (!enqueue(e)) {
+            if (nanos <= 0L)
+                return false;
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            await(putters, false, true, nanos);
+            nanos = deadline - System.nanoTime();
+        }
+        signalNotEmpty();
+        return true;
+    }
+
+    public E poll() {
+        E e = dequeue();
+        if (e != null)
+            signalNotFull();
+        return e;
+    }
+
+    public E take() throws InterruptedException {
+        E e;
+        while ((e = dequeue()) == null) {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            await(takers, true, false, 0L);
+        }
+        signalNotFull();
+        return e;
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanos;
+        E e;
+        while ((e = dequeue()) == null) {
+            if (nanos <= 0L)
+                return null;
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            await(takers, true, true, nanos);
+            nanos = deadline - System.nanoTime();
+        }
+        signalNotFull();
+        return e;
+    }
+
+    /**
+     * Returns the element at the head of this queue without removing it,
+     * or {@code null} if the queue is empty.  In the presence of concurrent
+     * consumers the element returned may already have been removed.
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        for (;;) {
+            long h = head;
+            int i = index(h);
+            long d = (long) SEQUENCE.getAcquire(sequences, i) - (2 * h + 1);
+            if (d < 0)
+                return null;
+            if (d == 0) {
+                E e = (E) items[i];
+                // valid only if no consumer claimed the slot meanwhile
+                if (e != null && head == h)
+                    return e;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements in this queue.  The value is only a
+     * snapshot in the presence of concurrent updates.
+     *
+     * @return the number of elements in this queue
+     */
+    public int size() {
+        for (;;) {
+            long h = head;
+            long t = tail;
+            if (h == head) {
+                long n = t - h;
+                return (n <= 0L) ? 0 : (int) Math.min(n, capacity);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of additional elements that this queue can ideally
+     * (in the absence of memory or resource constraints) accept without
+     * blocking.  This is always equal to the initial capacity of this queue
+     * less the current {@code size} of this queue.
+     */
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    /**
+     * Always throws {@code UnsupportedOperationException}; this queue does
+     * not support removal of arbitrary elements.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this)
+            throw new IllegalArgumentException();
+        int n = 0;
+        E e;
+        try {
+            while (n < maxElements && (e = dequeue()) != null) {
+                n++;
+                c.add(e);
+            }
+        } finally {
+            if (n > 0)
+                signal(putters, n);
+        }
+        return n;
+    }
+
+    /**
+     * Removes all of the elements from this queue.
+     */
+    public void clear() {
+        int n = 0;
+        while (dequeue() != null)
+            n++;
+        if (n > 0)
+            signal(putters, n);
+    }
+
+    /**
+     * Returns an array containing the elements that were in this queue, in
+     * proper sequence, at some point during the call.
+     *
+     * @return an array containing the elements in this queue
+     */
+    public Object[] toArray() {
+        final long[] seqs = sequences;
+        Object[] a = new Object[size()];
+        int n = 0;
+        long t = tail;
+        for (long h = head; h < t; h++) {
+            int i = index(h);
+            Object e = items[i];
+            if ((long) SEQUENCE.getAcquire(seqs, i) == 2 * h + 1 && e != null) {
+                if (n == a.length)
+                    a = Arrays.copyOf(a, Math.min(capacity, n + 1 + (n >> 1)));
+                a[n++] = e;
+                if (n == capacity)
+                    break;
+            }
+        }
+        return (n == a.length) ? a : Arrays.copyOf(a, n);
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the elements in this queue,
+     * in proper sequence.  The iterator does not support removal.
+     *
+     * @return an iterator over the elements in this queue
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        return (Iterator<E>) Arrays.asList(toArray()).iterator();
+    }
+
+    public String toString() {
+        return Helpers.collectionToString(this);
+    }
+
+    /* ---------------- Specialised variants -------------- */
+
+    static final class SingleProducer<E> extends ConcurrentArrayBlockingQueue<E> {
+        SingleProducer(int capacity) { super(capacity); }
+        boolean enqueue(E e) { return enqueueSingle(e); }
+    }
+
+    static final class SingleConsumer<E> extends ConcurrentArrayBlockingQueue<E> {
+        SingleConsumer(int capacity) { super(capacity); }
+        E dequeue() { return dequeueSingle(); }
+    }
+
+    static final class SingleProducerSingleConsumer<E>
+            extends ConcurrentArrayBlockingQueue<E> {
+        SingleProducerSingleConsumer(int capacity) { super(capacity); }
+        boolean enqueue(E e) { return enqueueSingle(e); }
+        E dequeue() { return dequeueSingle(); }
+    }
+
+    // VarHandle mechanics
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle SEQUENCE;
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            HEAD = l.findVarHandle(ConcurrentArrayBlockingQueue.class, "head", long.class);
+            TAIL = l.findVarHandle(ConcurrentArrayBlockingQueue.class, "tail", long.class);
+            SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -2093,6 +2093,230 @@ public class ConcurrentHashMap<K,V> extends AbstractMap<K,V>
         return val;
     }
 
+    /**
+     * Performs {@link #merge merge(keys[i], values[i], remappingFunction)}
+     * for each index {@code i} of the given arrays, in order for any one
+     * key.  The keys are grouped by the bin of the table they hash to, and
+     * each bin is locked once per group rather than once per key, which
+     * reduces synchronization when many keys share a bin or a batch holds
+     * repeated keys, as in counting or other aggregation.
+     *
+     * <p>Each individual merge is performed atomically, but the batch as a
+     * whole is not: other threads may observe the effects of some merges
+     * and not others, and merges of different keys may take effect in an
+     * order different from that of the arrays.  Some attempted update
+     * operations on this map by other threads may be blocked while a group
+     * is in progress, so the function should be short and simple, and must
+     * not attempt to update any mappings of this map.
+     *
+     * @param keys the keys
+     * @param values the values to use for keys that are absent, in the
+     *        same order as the keys
+     * @param remappingFunction the function to recompute a value if present
+     * @throws NullPointerException if either array, any key or value, or
+     *         the remappingFunction is null
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @throws RuntimeException or Error if the remappingFunction does so,
+     *         in which case the mapping for that key is unchanged, merges
+     *         already performed remain in effect, and later ones are not
+     *         performed
+     * @since 21
+     */
+    public void mergeAll(K[] keys, V[] values,
+                         BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (keys == null || values == null || remappingFunction == null)
+            throw new NullPointerException();
+        if (keys.length != values.length)
+            throw new IllegalArgumentException("Length mismatch");
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] == null || values[i] == null)
+                throw new NullPointerException();
+        }
+        batchUpdate(keys, values, remappingFunction, null);
+    }
+
+    /**
+     * Performs {@link #compute compute(key, remappingFunction)} for each
+     * of the given keys, in order for any one key.  As with {@link
+     * #mergeAll mergeAll}, keys are grouped by bin so that each bin is
+     * locked once per group rather than once per key.
+     *
+     * <p>Each individual computation is performed atomically, but the
+     * batch as a whole is not.  The remappingFunction must not modify this
+     * map during computation.
+     *
+     * @param keys the keys
+     * @param remappingFunction the function to compute a value
+     * @throws NullPointerException if the array, any key, or the
+     *         remappingFunction is null
+     * @throws IllegalStateException if a computation detectably
+     *         attempts a recursive update to this map that would
+     *         otherwise never complete
+     * @throws RuntimeException or Error if the remappingFunction does so,
+     *         in which case the mapping for that key is unchanged,
+     *         computations already performed remain in effect, and later
+     *         ones are not performed
+     * @since 21
+     */
+    public void computeAll(K[] keys,
+                           BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (keys == null || remappingFunction == null)
+            throw new NullPointerException();
+        for (K key : keys) {
+            if (key == null)
+                throw new NullPointerException();
+        }
+        batchUpdate(keys, null, null, remappingFunction);
+    }
+
+    /**
+     * Implementation of mergeAll (if mergeFunction is non-null) and
+     * computeAll.  Each round sorts the pending indices by bin of the
+     * current table, keeping their original order within a bin, and
+     * walks the groups.  A group whose bin is empty first falls back to a
+     * single merge or compute for its first key, which installs a node to
+     * lock.  The remainder of a group is deferred to the next round if
+     * the bin is being transferred or if its first node changes while
+     * applying the group (removal of the first node, untreeification),
+     * since the lock held is then no longer the bin's lock.  Counts are
+     * added once per group, so a resize may be triggered midway through
+     * a round; the remaining groups then find forwarding nodes and are
+     * deferred to the new table.
+     */
+    private void batchUpdate(K[] keys, V[] values,
+                             BiFunction<? super V, ? super V, ? extends V> mergeFunction,
+                             BiFunction<? super K, ? super V, ? extends V> computeFunction) {
+        int count = keys.length;
+        if (count == 0)
+            return;
+        int[] hashes = new int[count];
+        int[] pending = new int[count];
+        for (int k = 0; k < count; ++k) {
+            hashes[k] = spread(keys[k].hashCode());
+            pending[k] = k;
+        }
+        long[] order = new long[count];
+        for (Node<K,V>[] tab = table; count > 0; tab = table) {
+            if (tab == null || tab.length == 0)
+                tab = initTable();
+            int n = tab.length;
+            for (int k = 0; k < count; ++k) {
+                int x = pending[k];
+                order[k] = ((long)((n - 1) & hashes[x]) << 32) | x;
+            }
+            Arrays.sort(order, 0, count);
+            int deferred = 0;
+            for (int g = 0, end; g < count; g = end) {
+                int i = (int)(order[g] >>> 32);
+                for (end = g + 1; end < count && (int)(order[end] >>> 32) == i; ++end)
+                    ;
+                Node<K,V> f; int fh;
+                if ((f = tabAt(tab, i)) == null) {
+                    int x = (int)order[g++];
+                    if (mergeFunction != null)
+                        merge(keys[x], values[x], mergeFunction);
+                    else
+                        compute(keys[x], computeFunction);
+                    if (g == end || (f = tabAt(tab, i)) == null) {
+                        while (g < end)
+                            pending[deferred++] = (int)order[g++];
+                        continue;
+                    }
+                }
+                if ((fh = f.hash) == MOVED) {
+                    helpTransfer(tab, f);
+                    while (g < end)
+                        pending[deferred++] = (int)order[g++];
+                    continue;
+                }
+                int delta = 0;
+                int binCount = 0;
+                try {
+                    synchronized (f) {
+                        while (g < end && tabAt(tab, i) == f) {
+                            int x = (int)order[g];
+                            int h = hashes[x];
+                            K key = keys[x];
+                            if (fh >= 0) {
+                                binCount = 1;
+                                for (Node<K,V> e = f, pred = null;; ++binCount) {
+                                    K ek;
+                                    if (e.hash == h &&
+                                        ((ek = e.key) == key ||
+                                         (ek != null && key.equals(ek)))) {
+                                        V val = (mergeFunction != null)
+                                            ? mergeFunction.apply(e.val, values[x])
+                                            : computeFunction.apply(key, e.val);
+                                        if (val != null)
+                                            e.val = val;
+                                        else {
+                                            --delta;
+                                            Node<K,V> en = e.next;
+                                            if (pred != null)
+                                                pred.next = en;
+                                            else
+                                                setTabAt(tab, i, en);
+                                        }
+                                        break;
+                                    }
+                                    pred = e;
+                                    if ((e = e.next) == null) {
+                                        V val = (mergeFunction != null)
+                                            ? values[x]
+                                            : computeFunction.apply(key, null);
+                                        if (val != null) {
+                                            if (pred.next != null)
+                                                throw new IllegalStateException("Recursive update");
+                                            ++delta;
+                                            pred.next = new Node<K,V>(h, key, val);
+                                        }
+                                        break;
+                                    }
+                                }
+                            }
+                            else if (f instanceof TreeBin) {
+                                binCount = 2;
+                                TreeBin<K,V> t = (TreeBin<K,V>)f;
+                                TreeNode<K,V> r = t.root;
+                                TreeNode<K,V> p = (r == null) ? null :
+                                    r.findTreeNode(h, key, null);
+                                V pv = (p == null) ? null : p.val;
+                                V val = (mergeFunction == null)
+                                    ? computeFunction.apply(key, pv)
+                                    : (p == null) ? values[x]
+                                    : mergeFunction.apply(pv, values[x]);
+                                if (val != null) {
+                                    if (p != null)
+                                        p.val = val;
+                                    else {
+                                        ++delta;
+                                        t.putTreeVal(h, key, val);
+                                    }
+                                }
+                                else if (p != null) {
+                                    --delta;
+                                    if (t.removeTreeNode(p))
+                                        setTabAt(tab, i, untreeify(t.first));
+                                }
+                            }
+                            else if (f instanceof ReservationNode)
+                                throw new IllegalStateException("Recursive update");
+                            ++g;
+                        }
+                    }
+                } finally {
+                    if (delta != 0)
+                        addCount((long)delta, binCount);
+                }
+                while (g < end)
+                    pending[deferred++] = (int)order[g++];
+                if (binCount >= TREEIFY_THRESHOLD)
+                    treeifyBin(tab, i);
+            }
+            count = deferred;
+        }
+    }
+
     // Hashtable legacy methods
 
     /**
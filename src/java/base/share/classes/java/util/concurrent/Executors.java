@@ -27,6 +27,8 @@ import java.util.Collection;
 import java.util.List;
 import java.base.share.classes.java.util.concurrent.atomic.AtomicInteger;
 import jdk.internal.javac.PreviewFeature;
+import jdk.internal.misc.CarrierThread;
+import jdk.internal.misc.PreviewFeatures;
 import jdk.internal.ref.CleanerFactory;
 import sun.security.util.SecurityConstants;
 
@@ -115,6 +117,39 @@ public class Executors {
              null, true);
     }
 
+    /**
+     * Creates an executor that runs tasks submitted with equal keys in
+     * first-in-first-out order, one at a time, while running tasks for
+     * different keys in parallel on a work-stealing pool with the given
+     * parallelism level.  Keys are hashed onto a number of independently
+     * scheduled stripes several times the parallelism level.
+     *
+     * @param parallelism the targeted parallelism level
+     * @return the newly created keyed executor
+     * @throws IllegalArgumentException if {@code parallelism <= 0}
+     * @see KeyedExecutor
+     * @since 21
+     */
+    public static KeyedExecutor newKeyedExecutor(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException();
+        return new KeyedExecutor(parallelism,
+                                 Math.max(64, parallelism * 16));
+    }
+
+    /**
+     * Creates a keyed executor using the number of
+     * {@linkplain Runtime#availableProcessors available processors}
+     * as its target parallelism level.
+     *
+     * @return the newly created keyed executor
+     * @see #newKeyedExecutor(int)
+     * @since 21
+     */
+    public static KeyedExecutor newKeyedExecutor() {
+        return newKeyedExecutor(Runtime.getRuntime().availableProcessors());
+    }
+
     /**
      * Creates a thread pool that reuses a fixed number of threads
      * operating off a shared unbounded queue, using the provided
@@ -254,6 +289,45 @@ public class Executors {
         return newThreadPerTaskExecutor(factory);
     }
 
+    /**
+     * Creates a pool of carrier threads to use as the scheduler of virtual
+     * threads.  The pool is configured in the same way as the default virtual
+     * thread scheduler: its carrier threads process tasks in FIFO order, it
+     * maintains {@code parallelism} carrier threads for mounting virtual
+     * threads, and it may temporarily add carrier threads, up to a maximum of
+     * {@code max(parallelism, 256)}, to compensate when a virtual thread
+     * pins its carrier.  Virtual threads created with a {@link
+     * Thread.Builder.OfVirtual#scheduler(Executor) Thread.Builder} using the
+     * returned pool are only ever mounted on its carrier threads, so that
+     * virtual threads in different pools do not compete for carriers.
+     *
+     * <p>The pool is not shut down automatically; it should be shut down
+     * once the virtual threads scheduled by it have terminated.
+     *
+     * @param parallelism the number of carrier threads
+     * @return a new virtual thread scheduler
+     * @throws IllegalArgumentException if {@code parallelism <= 0}
+     * @throws UnsupportedOperationException if preview features are not enabled
+     * @since 21
+     */
+    @SuppressWarnings("removal")
+    @PreviewFeature(feature = PreviewFeature.Feature.VIRTUAL_THREADS)
+    public static ExecutorService newVirtualThreadScheduler(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException();
+        PreviewFeatures.ensureEnabled();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            PrivilegedAction<ForkJoinWorkerThread> pa = () -> new CarrierThread(pool);
+            return AccessController.doPrivileged(pa);
+        };
+        Thread.UncaughtExceptionHandler handler = (t, e) -> { };
+        int maxPoolSize = Math.max(parallelism, 256);
+        int minRunnable = Math.max(parallelism / 2, 1);
+        return new ForkJoinPool(parallelism, factory, handler, true,
+                                0, maxPoolSize, minRunnable, pool -> true,
+                                30, TimeUnit.SECONDS);
+    }
+
     /**
      * Creates a single-threaded executor that can schedule commands
      * to run after a given delay, or to execute periodically.
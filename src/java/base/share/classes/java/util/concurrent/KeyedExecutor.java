@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link ExecutorService} that executes tasks submitted with a key in
+ * first-in-first-out order with respect to other tasks submitted with an
+ * equal key, while running tasks for different keys in parallel.  This
+ * suits workloads such as per-session or per-connection message
+ * processing, where messages for one session must be handled in order but
+ * sessions are independent.
+ *
+ * <p>Keys are hashed onto a fixed number of <em>stripes</em>.  Each stripe
+ * has its own lock-free task queue and is drained by at most one thread
+ * at a time, so tasks of a stripe never overlap and the effects of each
+ * task <i>happen-before</i> those of the next.  Stripes are run as tasks
+ * of a work-stealing {@link ForkJoinPool} in asynchronous (FIFO) mode: a
+ * stripe becoming non-empty is submitted to the pool, and is resubmitted
+ * after running a batch of tasks so that busy stripes cannot starve
+ * others.  There is no queue shared by all submitters.  Keys that hash to
+ * the same stripe are executed sequentially with respect to each other,
+ * so the number of stripes should comfortably exceed the parallelism.
+ *
+ * <p>Tasks submitted without a key, by {@link #execute(Runnable)} or the
+ * inherited {@code submit} and {@code invoke} methods, are run directly in
+ * the pool with no ordering guarantee.
+ *
+ * <p>An exception thrown by a keyed task submitted with
+ * {@link #execute(Object, Runnable)} is passed to the uncaught exception
+ * handler of the thread running it, and does not prevent later tasks for
+ * the key from running.
+ *
+ * @see Executors#newKeyedExecutor(int)
+ * @since 21
+ */
+public final class KeyedExecutor extends AbstractExecutorService {
+    /** Maximum number of tasks run by a stripe before it is resubmitted */
+    private static final int BATCH = 64;
+
+    /** Maximum number of stripes */
+    private static final int MAX_STRIPES = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final Stripe[] stripes;
+
+    /**
+     * Creates a keyed executor with the given parallelism and at least the
+     * given number of stripes, rounded up to a power of two.
+     */
+    KeyedExecutor(int parallelism, int minStripes) {
+        if (parallelism <= 0 || minStripes <= 0)
+            throw new IllegalArgumentException();
+        int n = Math.min(MAX_STRIPES, minStripes);
+        n = (n <= 1) ? 1 : Integer.highestOneBit(n - 1) << 1;
+        this.pool = new ForkJoinPool(parallelism,
+                                     ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                                     null, true);
+        Stripe[] ss = new Stripe[n];
+        for (int i = 0; i < n; i++)
+            ss[i] = new Stripe(pool);
+        this.stripes = ss;
+    }
+
+    /**
+     * A queue of tasks for the keys that hash to it, together with the
+     * state that ensures it is drained by one thread at a time.
+     */
+    static final class Stripe extends ForkJoinTask<Void>
+        implements Runnable, CompletableFuture.AsynchronousCompletionTask {
+        final ForkJoinPool pool;
+        final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        /** 1 if submitted to the pool or running, else 0 */
+        volatile int scheduled;
+
+        Stripe(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+
+        public final Void getRawResult() { return null; }
+        public final void setRawResult(Void v) {}
+        public final boolean exec() { drain(); return false; }
+        public final void run() { drain(); }
+
+        /**
+         * Queues a task, submitting this stripe to the pool if it is not
+         * already scheduled.
+         */
+        void enqueue(Runnable task) {
+            tasks.offer(task);
+            if (scheduled == 0 && SCHEDULED.compareAndSet(this, 0, 1)) {
+                try {
+                    pool.execute((ForkJoinTask<?>) this);
+                } catch (RejectedExecutionException ex) {
+                    scheduled = 0;
+                    if (tasks.remove(task))
+                        throw ex;
+                }
+            }
+        }
+
+        /**
+         * Runs queued tasks until the queue is empty or a batch has been
+         * run, in which case this stripe is resubmitted.
+         */
+        void drain() {
+            for (int n = 0;;) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    scheduled = 0;
+                    // recheck for a task queued before the reset
+                    if (tasks.isEmpty() || !SCHEDULED.compareAndSet(this, 0, 1))
+                        return;
+                    continue;
+                }
+                try {
+                    task.run();
+                } catch (Throwable ex) {
+                    Thread t = Thread.currentThread();
+                    Thread.UncaughtExceptionHandler h = t.getUncaughtExceptionHandler();
+                    if (h != null) {
+                        try {
+                            h.uncaughtException(t, ex);
+                        } catch (Throwable ignore) { }
+                    }
+                }
+                if (++n >= BATCH && !tasks.isEmpty() && !pool.isShutdown()) {
+                    try {
+                        pool.execute((ForkJoinTask<?>) this);
+                        return;
+                    } catch (RejectedExecutionException ignore) {
+                        n = 0;  // keep draining on this thread
+                    }
+                }
+            }
+        }
+
+        private static final VarHandle SCHEDULED;
+        static {
+            try {
+                MethodHandles.Lookup l = MethodHandles.lookup();
+                SCHEDULED = l.findVarHandle(Stripe.class, "scheduled", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the stripe for the given key.
+     */
+    private Stripe stripeFor(Object key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Executes the given task after all tasks previously submitted with a
+     * key equal to the given key have completed, and before any tasks
+     * subsequently submitted with such a key.
+     *
+     * @param key the key
+     * @param command the task to execute
+     * @throws RejectedExecutionException if this executor has been
+     *         shut down
+     * @throws NullPointerException if {@code key} or {@code command}
+     *         is null
+     */
+    public void execute(Object key, Runnable command) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(command);
+        if (pool.isShutdown())
+            throw new RejectedExecutionException();
+        stripeFor(key).enqueue(command);
+    }
+
+    /**
+     * Submits a value-returning task to be executed in order with other
+     * tasks submitted with an equal key, as by
+     * {@link #execute(Object, Runnable)}.
+     *
+     * @param key the key
+     * @param task the task to submit
+     * @param <T> the type of the task's result
+     * @return a Future representing pending completion of the task
+     * @throws RejectedExecutionException if this executor has been
+     *         shut down
+     * @throws NullPointerException if {@code key} or {@code task}
+     *         is null
+     */
+    public <T> Future<T> submit(Object key, Callable<T> task) {
+        RunnableFuture<T> f = newTaskFor(Objects.requireNonNull(task));
+        execute(key, f);
+        return f;
+    }
+
+    /**
+     * Submits a Runnable task to be executed in order with other tasks
+     * submitted with an equal key, as by {@link #execute(Object, Runnable)}.
+     *
+     * @param key the key
+     * @param task the task to submit
+     * @return a Future representing pending completion of the task,
+     *         whose {@code get()} method will return {@code null} upon
+     *         successful completion
+     * @throws RejectedExecutionException if this executor has been
+     *         shut down
+     * @throws NullPointerException if {@code key} or {@code task}
+     *         is null
+     */
+    public Future<?> submit(Object key, Runnable task) {
+        RunnableFuture<Void> f = newTaskFor(Objects.requireNonNull(task), null);
+        execute(key, f);
+        return f;
+    }
+
+    /**
+     * Executes the given task with no ordering guarantee.
+     *
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public void execute(Runnable command) {
+        pool.execute(command);
+    }
+
+    /**
+     * Initiates an orderly shutdown in which previously submitted tasks,
+     * keyed or not, are executed, but no new tasks will be accepted.
+     * Invocation has no additional effect if already shut down.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Attempts to stop all actively executing tasks and returns the keyed
+     * tasks that were awaiting execution.  Unkeyed tasks awaiting
+     * execution are cancelled but not returned.
+     *
+     * @return list of keyed tasks that never commenced execution
+     */
+    public List<Runnable> shutdownNow() {
+        pool.shutdownNow();
+        List<Runnable> tasks = new ArrayList<>();
+        for (Stripe s : stripes) {
+            Runnable r;
+            while ((r = s.tasks.poll()) != null)
+                tasks.add(r);
+        }
+        return tasks;
+    }
+
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    public boolean isTerminated() {
+        return pool.isTerminated();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Returns the targeted parallelism level of this executor.
+     *
+     * @return the targeted parallelism level
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the number of stripes that keys are hashed onto.
+     *
+     * @return the number of stripes
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns a string identifying this executor, as well as its state
+     * and that of its pool.
+     *
+     * @return a string identifying this executor, as well as its state
+     */
+    public String toString() {
+        return super.toString() + "[stripes = " + stripes.length +
+            ", pool = " + pool + "]";
+    }
+}
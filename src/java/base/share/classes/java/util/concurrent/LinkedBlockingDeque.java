@@ -146,6 +146,22 @@ public class LinkedBlockingDeque<E>
     @SuppressWarnings("serial") // Classes implementing Condition may be serializable.
     private final Condition notFull = lock.newCondition();
 
+    /**
+     * Condition for batch drains waiting for enough elements, created
+     * on first use.  Batch drains wait here rather than on notEmpty so
+     * that they cannot absorb signals meant for takes.
+     */
+    private transient Condition enoughElements;
+
+    /** Number of batch drains waiting on enoughElements */
+    private transient int batchWaiters;
+
+    /**
+     * Least count awaited by a waiting batch drain, valid only while
+     * batchWaiters > 0.
+     */
+    private transient int batchWaitMin;
+
     /**
      * Creates a {@code LinkedBlockingDeque} with a capacity of
      * {@link Integer#MAX_VALUE}.
@@ -183,6 +199,16 @@ public class LinkedBlockingDeque<E>
 
     // Basic linking and unlinking operations, called only while holding lock
 
+    /**
+     * Signals waiting batch drains if the count is one they are waiting
+     * for.
+     */
+    private void signalEnoughElements() {
+        // assert lock.isHeldByCurrentThread();
+        if (batchWaiters != 0 && count >= batchWaitMin)
+            enoughElements.signalAll();
+    }
+
     /**
      * Links node as first element, or returns false if full.
      */
@@ -199,6 +225,7 @@ public class LinkedBlockingDeque<E>
             f.prev = node;
         ++count;
         notEmpty.signal();
+        signalEnoughElements();
         return true;
     }
 
@@ -218,6 +245,7 @@ public class LinkedBlockingDeque<E>
             l.next = node;
         ++count;
         notEmpty.signal();
+        signalEnoughElements();
         return true;
     }
 
@@ -732,6 +760,102 @@ public class LinkedBlockingDeque<E>
         }
     }
 
+    /**
+     * Links as many of the elements as fit at the tail of this deque under
+     * a single acquisition of the lock, signalling waiting takes once per
+     * element inserted.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 21
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        final Object[] es = c.toArray();
+        for (Object e : es)
+            Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            int n = 0;
+            while (n < es.length) {
+                int k = Math.min(es.length - n, capacity - count);
+                if (k == 0) {
+                    if (nanos <= 0L)
+                        break;
+                    nanos = notFull.awaitNanos(nanos);
+                    continue;
+                }
+                Node<E> l = last;
+                for (int end = n + k; n < end; n++) {
+                    @SuppressWarnings("unchecked")
+                    Node<E> node = new Node<E>((E) es[n]);
+                    node.prev = l;
+                    if (l == null)
+                        first = node;
+                    else
+                        l.next = node;
+                    l = node;
+                }
+                last = l;
+                count += k;
+                for (int i = k; i > 0 && lock.hasWaiters(notEmpty); i--)
+                    notEmpty.signal();
+                signalEnoughElements();
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits, under the lock, until {@code minElements} elements (or, if
+     * fewer, the capacity of this deque) are present or the wait time
+     * elapses, then transfers the available elements as
+     * {@link #drainTo(Collection, int)} does, without releasing the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 21
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        Objects.requireNonNull(c);
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        int min = Math.min(minElements, capacity);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            if (count < min && nanos > 0L) {
+                Condition enough = enoughElements;
+                if (enough == null)
+                    enoughElements = enough = lock.newCondition();
+                if (batchWaiters++ == 0 || min < batchWaitMin)
+                    batchWaitMin = min;
+                try {
+                    while (count < min && nanos > 0L)
+                        nanos = enough.awaitNanos(nanos);
+                } finally {
+                    --batchWaiters;
+                }
+            }
+            return drainTo(c, maxElements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     // Stack methods
 
     /**
@@ -146,6 +146,22 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
     @SuppressWarnings("serial") // Classes implementing Condition may be serializable.
     private final Condition notFull = putLock.newCondition();
 
+    /**
+     * Wait queue for batch drains waiting for enough elements, created
+     * under takeLock on first use.  Batch drains wait here rather than on
+     * notEmpty so that they cannot absorb signals meant for takes.
+     */
+    private transient Condition enoughElements;
+
+    /** Number of batch drains waiting on enoughElements; guarded by takeLock */
+    private transient int batchWaiters;
+
+    /**
+     * Least count awaited by a waiting batch drain, or 0 if none is
+     * waiting.  Read by puts without holding takeLock.
+     */
+    private transient volatile int batchWaitMin;
+
     /**
      * Signals a waiting take. Called only from put/offer (which do not
      * otherwise ordinarily lock takeLock.)
@@ -160,6 +176,24 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Signals waiting batch drains if the count, just raised to the
+     * given value by a put, is one they are waiting for.
+     */
+    private void signalEnoughElements(int newCount) {
+        int m = batchWaitMin;
+        if (m != 0 && newCount >= m) {
+            final ReentrantLock takeLock = this.takeLock;
+            takeLock.lock();
+            try {
+                if (enoughElements != null)
+                    enoughElements.signalAll();
+            } finally {
+                takeLock.unlock();
+            }
+        }
+    }
+
     /**
      * Signals a waiting put. Called only from take/poll.
      */
@@ -331,6 +365,7 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
         if (c == 0)
             signalNotEmpty();
+        signalEnoughElements(c + 1);
     }
 
     /**
@@ -366,6 +401,7 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
         if (c == 0)
             signalNotEmpty();
+        signalEnoughElements(c + 1);
         return true;
     }
 
@@ -401,6 +437,7 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
         if (c == 0)
             signalNotEmpty();
+        signalEnoughElements(c + 1);
         return true;
     }
 
@@ -714,6 +751,106 @@ public class LinkedBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Links as many of the elements as fit under a single acquisition of
+     * the put lock, updating the count and signalling waiting takes once
+     * per group of elements inserted rather than once per element.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 21
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        if (c == this)
+            throw new IllegalArgumentException();
+        final Object[] es = c.toArray();
+        for (Object e : es)
+            Objects.requireNonNull(e);
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock putLock = this.putLock;
+        final AtomicInteger count = this.count;
+        putLock.lockInterruptibly();
+        try {
+            int n = 0;
+            while (n < es.length) {
+                int k = Math.min(es.length - n, capacity - count.get());
+                if (k == 0) {
+                    if (nanos <= 0L)
+                        break;
+                    nanos = notFull.awaitNanos(nanos);
+                    continue;
+                }
+                Node<E> l = last;
+                for (int end = n + k; n < end; n++) {
+                    @SuppressWarnings("unchecked") E e = (E) es[n];
+                    l = l.next = new Node<E>(e);
+                }
+                last = l;
+                int before = count.getAndAdd(k);
+                if (before + k < capacity)
+                    notFull.signal();
+                // Signal while still holding putLock (acquiring takeLock
+                // second, as fullyLock does), since a take that is waiting
+                // must not stay parked while this thread waits for space.
+                if (before == 0)
+                    signalNotEmpty();
+                signalEnoughElements(before + k);
+            }
+            return n;
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    /**
+     * Waits, holding the take lock, until {@code minElements} elements
+     * (or, if fewer, the capacity of this queue) are present or the wait
+     * time elapses, then transfers the available elements as
+     * {@link #drainTo(Collection, int)} does.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 21
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        Objects.requireNonNull(c);
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        int min = Math.min(minElements, capacity);
+        final AtomicInteger count = this.count;
+        final ReentrantLock takeLock = this.takeLock;
+        takeLock.lockInterruptibly();
+        try {
+            if (count.get() < min && nanos > 0L) {
+                Condition enough = enoughElements;
+                if (enough == null)
+                    enoughElements = enough = takeLock.newCondition();
+                if (batchWaiters++ == 0 || min < batchWaitMin)
+                    batchWaitMin = min;
+                try {
+                    while (count.get() < min && nanos > 0L)
+                        nanos = enough.awaitNanos(nanos);
+                } finally {
+                    if (--batchWaiters == 0)
+                        batchWaitMin = 0;
+                }
+            }
+        } finally {
+            takeLock.unlock();
+        }
+        // drainTo signals puts after releasing takeLock, so it must not be
+        // called while holding it
+        return drainTo(c, maxElements);
+    }
+
     /**
      * Used for any element traversal that is not entirely under lock.
      * Such traversals must handle both:
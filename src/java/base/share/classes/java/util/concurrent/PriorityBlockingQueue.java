@@ -154,6 +154,13 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
      */
     private transient volatile int allocationSpinLock;
 
+    /**
+     * Number of batch drains waiting on notEmpty for enough elements.
+     * While nonzero, insertions signal all waiters, so that a batch
+     * drain cannot absorb a signal meant for a take.
+     */
+    private transient int batchWaiters;
+
     /**
      * A plain PriorityQueue used only for serialization,
      * to maintain compatibility with previous versions
@@ -456,7 +463,10 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
             else
                 siftUpUsingComparator(n, e, es, cmp);
             size = n + 1;
-            notEmpty.signal();
+            if (batchWaiters != 0)
+                notEmpty.signalAll();
+            else
+                notEmpty.signal();
         } finally {
             lock.unlock();
         }
@@ -715,6 +725,100 @@ public class PriorityBlockingQueue<E> extends AbstractQueue<E>
         }
     }
 
+    /**
+     * Inserts all of the elements under a single acquisition of the lock,
+     * growing the array at most once and sifting each element up, and
+     * signals waiting takes once.  As the queue is unbounded, this method
+     * never blocks, and inserts all of the elements unless one of them
+     * cannot be compared with the elements of the queue.
+     *
+     * @param timeout This parameter is ignored as the method never blocks
+     * @param unit This parameter is ignored as the method never blocks
+     * @throws ClassCastException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @since 21
+     */
+    public int offerAll(Collection<? extends E> c, long timeout, TimeUnit unit) {
+        if (c == this)
+            throw new IllegalArgumentException();
+        final Object[] xs = c.toArray();
+        for (Object x : xs)
+            Objects.requireNonNull(x);
+        if (xs.length == 0)
+            return 0;
+        final ReentrantLock lock = this.lock;
+        lock.lock();
+        int inserted = 0;
+        try {
+            int n = size;
+            Object[] es = queue;
+            if (es.length - n < xs.length) {
+                // grow under the lock rather than with tryGrow, which
+                // releases it
+                int newCap = ArraysSupport.newLength(es.length,
+                    n + xs.length - es.length, es.length >> 1);
+                queue = es = Arrays.copyOf(es, newCap);
+            }
+            final Comparator<? super E> cmp = comparator;
+            for (Object x : xs) {
+                if (cmp == null)
+                    siftUpComparable(n, x, es);
+                else
+                    siftUpUsingComparator(n, (E) x, es, cmp);
+                size = ++n;
+                inserted++;
+            }
+            return inserted;
+        } finally {
+            if (inserted > 0) {
+                if (batchWaiters != 0 || inserted > 1)
+                    notEmpty.signalAll();
+                else
+                    notEmpty.signal();
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits on notEmpty, under the lock, until {@code minElements}
+     * elements are present or the wait time elapses, then transfers the
+     * available elements as {@link #drainTo(Collection, int)} does,
+     * without releasing the lock.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     * @since 21
+     */
+    public int drainTo(Collection<? super E> c, int minElements,
+                       int maxElements, long timeout, TimeUnit unit)
+        throws InterruptedException {
+        Objects.requireNonNull(c);
+        if (c == this || minElements > maxElements)
+            throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = this.lock;
+        lock.lockInterruptibly();
+        try {
+            if (size < minElements && nanos > 0L) {
+                batchWaiters++;
+                try {
+                    while (size < minElements && nanos > 0L)
+                        nanos = notEmpty.awaitNanos(nanos);
+                } finally {
+                    --batchWaiters;
+                }
+            }
+            return drainTo(c, maxElements);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Atomically removes all of the elements from this queue.
      * The queue will be empty after this call returns.
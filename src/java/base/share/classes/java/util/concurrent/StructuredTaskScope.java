@@ -0,0 +1,965 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util.concurrent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.base.share.classes.java.util.concurrent.locks.ReentrantLock;
+import jdk.internal.javac.PreviewFeature;
+import jdk.internal.misc.ThreadFlock;
+
+/**
+ * A basic API for <em>structured concurrency</em>.  A
+ * {@code StructuredTaskScope} splits a task into concurrent subtasks, each
+ * run in its own thread, and joins them as a unit: the subtasks cannot
+ * outlive the scope, and an exception or result in one subtask can cause
+ * the others to be cancelled.
+ *
+ * <p>A scope is opened by creating it, typically in a try-with-resources
+ * statement, by a thread known as the <em>owner</em>.  The owner forks
+ * subtasks with the {@link #fork(Callable) fork} method, waits for them
+ * with {@link #join() join} or {@link #joinUntil(Instant) joinUntil}, and
+ * then closes the scope.  Any subtask, or the owner, may
+ * {@link #shutdown() shut down} the scope, which interrupts the threads
+ * of unfinished subtasks, cancels their futures, and causes
+ * {@code join} to return.  Closing the scope shuts it down and waits for
+ * all of its threads to finish.
+ *
+ * {@snippet lang=java :
+ *     try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+ *         Future<String> user = scope.fork(() -> findUser());
+ *         Future<Integer> order = scope.fork(() -> fetchOrder());
+ *
+ *         scope.join();           // join both forks
+ *         scope.throwIfFailed();  // ... and propagate errors
+ *
+ *         return new Response(user.resultNow(), order.resultNow());
+ *     }
+ * }
+ *
+ * <h2><a id="Bounded">Bounded parallelism</a></h2>
+ *
+ * <p>A scope may be created with a maximum number of subtasks that run
+ * concurrently.  When that many subtasks are running, {@code fork} waits
+ * for one of them to complete before starting another thread, so that a
+ * scope can fan out over a large number of inputs without overwhelming a
+ * downstream resource.  If the scope is shut down while {@code fork} is
+ * waiting, the subtask is not started and the returned future is
+ * cancelled.
+ *
+ * <h2><a id="Deadlines">Deadlines</a></h2>
+ *
+ * <p>A scope may be created with a deadline.  A scope opened by a thread
+ * that is a subtask or the owner of a scope with a deadline inherits that
+ * deadline, or keeps its own if earlier, so a deadline set at the top of
+ * a tree of scopes bounds every scope beneath it.  When the deadline
+ * expires, {@code join} shuts the scope down and returns, and
+ * {@link #isDeadlineExpired()} returns {@code true}.  The
+ * {@link ShutdownOnSuccess} and {@link ShutdownOnFailure} policies report
+ * an expired deadline as a {@link TimeoutException}.
+ *
+ * <h2><a id="Policies">Policies</a></h2>
+ *
+ * <p>A subtask that completes, successfully or otherwise, before the scope
+ * is shut down is passed to the {@link #handleComplete(Future)
+ * handleComplete} method.  Subclasses implement policies by overriding
+ * it.  {@link ShutdownOnSuccess} captures the first result and shuts down
+ * the scope to cancel the remaining subtasks; {@link ShutdownOnFailure}
+ * captures the first exception and shuts down the scope.
+ *
+ * <p>The futures returned by {@code fork} are plain {@link Future}s; no
+ * {@link CompletableFuture} is created per subtask, and collecting the
+ * results after {@code join} needs no further synchronization.
+ *
+ * <p>Unless otherwise specified, passing a {@code null} argument to a
+ * method in this class will cause a {@link NullPointerException} to be
+ * thrown.
+ *
+ * @param <T> the result type of tasks executed in the scope
+ * @since 21
+ */
+@PreviewFeature(feature = PreviewFeature.Feature.VIRTUAL_THREADS)
+public class StructuredTaskScope<T> implements AutoCloseable {
+    private final ThreadFactory factory;
+    private final ThreadFlock flock;
+    private final ReentrantLock shutdownLock = new ReentrantLock();
+
+    // futures of forked subtasks that have not completed, cancelled on shutdown
+    private final Set<SubtaskFuture<?>> unfinished = ConcurrentHashMap.newKeySet();
+
+    /** Permits for running subtasks, or null if unbounded */
+    private final Semaphore permits;
+
+    /** The deadline, or null if none */
+    private final Instant deadline;
+
+    // fields that are only accessed by owner thread
+    private int forkRound;         // incremented when owner forks after join
+    private int lastJoinAttempted; // set by owner when it attempts to join
+    private int lastJoinCompleted; // set by owner when it joins
+
+    private volatile boolean deadlineExpired;
+    private volatile boolean closed;
+
+    /**
+     * Creates a structured task scope with the given name, thread factory,
+     * maximum number of concurrently running subtasks, and deadline.  The
+     * scope is owned by the current thread.
+     *
+     * @param name the name of the scope, can be null
+     * @param factory the thread factory
+     * @param maxConcurrency the maximum number of subtasks that run at
+     *        the same time, or {@code Integer.MAX_VALUE} for no limit
+     * @param deadline the deadline, or {@code null} to inherit the
+     *        deadline of the enclosing scope, if any
+     * @throws IllegalArgumentException if {@code maxConcurrency <= 0}
+     */
+    public StructuredTaskScope(String name, ThreadFactory factory,
+                               int maxConcurrency, Instant deadline) {
+        if (maxConcurrency <= 0)
+            throw new IllegalArgumentException();
+        this.factory = Objects.requireNonNull(factory, "'factory' is null");
+        this.permits = (maxConcurrency == Integer.MAX_VALUE)
+            ? null : new Semaphore(maxConcurrency);
+        this.flock = ThreadFlock.open(name, this);
+        StructuredTaskScope<?> enclosing = enclosingScope(flock);
+        if (enclosing != null && enclosing.deadline != null
+            && (deadline == null || enclosing.deadline.isBefore(deadline)))
+            deadline = enclosing.deadline;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Creates a structured task scope with the given name and thread
+     * factory, with no limit on the number of concurrently running
+     * subtasks and the deadline of the enclosing scope, if any.
+     *
+     * @param name the name of the scope, can be null
+     * @param factory the thread factory
+     */
+    public StructuredTaskScope(String name, ThreadFactory factory) {
+        this(name, factory, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Creates an unnamed structured task scope that creates virtual
+     * threads, with no limit on the number of concurrently running
+     * subtasks and the deadline of the enclosing scope, if any.
+     */
+    public StructuredTaskScope() {
+        this(null, Thread.ofVirtual().factory());
+    }
+
+    /**
+     * Returns the innermost scope that the owner of the given flock owns,
+     * or runs a subtask of, found through the enclosing thread flocks.
+     */
+    private static StructuredTaskScope<?> enclosingScope(ThreadFlock flock) {
+        for (ThreadFlock f = flock.enclosingFlock(); f != null; f = f.enclosingFlock()) {
+            if (f.attachment() instanceof StructuredTaskScope<?> scope)
+                return scope;
+        }
+        return null;
+    }
+
+    private void ensureOwner() {
+        if (Thread.currentThread() != flock.owner())
+            throw new WrongThreadException("Current thread not owner");
+    }
+
+    private void ensureOwnerOrContainsThread() {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread != flock.owner() && !flock.containsThread(currentThread))
+            throw new WrongThreadException("Current thread not owner or thread in the tree");
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Task scope is closed");
+    }
+
+    /**
+     * Throws IllegalStateException if the owner has not joined since the
+     * last fork.
+     */
+    private void ensureJoinedIfOwner() {
+        if (Thread.currentThread() == flock.owner() && forkRound > lastJoinCompleted)
+            throw new IllegalStateException("Owner did not invoke join or joinUntil after fork");
+    }
+
+    /**
+     * Invoked when a task completes before the scope is shut down.
+     *
+     * <p> The {@code handleComplete} method should be thread safe.  It may
+     * be invoked by several threads concurrently.
+     *
+     * @implSpec The default implementation does nothing.
+     *
+     * @param future the completed task
+     * @throws IllegalArgumentException if the task has not completed
+     */
+    protected void handleComplete(Future<? extends T> future) {
+        if (future.state() == Future.State.RUNNING)
+            throw new IllegalArgumentException("Task is not completed");
+    }
+
+    /**
+     * Returns the deadline of this scope, if any.
+     *
+     * @return the deadline, or an empty optional if this scope has none
+     */
+    public final Optional<Instant> deadline() {
+        return Optional.ofNullable(deadline);
+    }
+
+    /**
+     * Returns {@code true} if {@link #join() join} or
+     * {@link #joinUntil(Instant) joinUntil} shut down this scope because its
+     * deadline expired.
+     *
+     * @return {@code true} if the deadline of this scope expired
+     */
+    public final boolean isDeadlineExpired() {
+        return deadlineExpired;
+    }
+
+    /**
+     * Starts a new thread to run the given task.
+     *
+     * <p> The new thread is created with the task scope's {@link
+     * ThreadFactory}.  If this scope has a limit on the number of running
+     * subtasks and the limit has been reached, this method first waits
+     * for a running subtask to complete.
+     *
+     * <p> If the task completes before the task scope is {@link #shutdown()
+     * shutdown} then the {@link #handleComplete(Future) handleComplete}
+     * method is invoked to consume the completed task.
+     *
+     * <p> If this task scope is {@linkplain #shutdown() shutdown} (or in
+     * the process of shutting down), or the current thread is interrupted
+     * while waiting to start the subtask, then {@code fork} returns a
+     * future representing a {@link Future.State#CANCELLED cancelled} task
+     * that was not run.  In the latter case the interrupt status is set.
+     *
+     * <p> This method may only be invoked by the task scope owner or
+     * threads contained in the task scope.
+     *
+     * @param task the task to run
+     * @param <U> the result type
+     * @return a future
+     * @throws IllegalStateException if this task scope is closed
+     * @throws WrongThreadException if the current thread is not the owner
+     *         or a thread contained in the task scope
+     * @throws RejectedExecutionException if the thread factory rejected
+     *         creating a thread to run the task
+     */
+    public <U extends T> Future<U> fork(Callable<? extends U> task) {
+        Objects.requireNonNull(task, "'task' is null");
+        ensureOwnerOrContainsThread();
+        ensureOpen();
+
+        // owner must join after forking
+        if (Thread.currentThread() == flock.owner() && forkRound == lastJoinAttempted)
+            forkRound++;
+
+        SubtaskFuture<U> future = new SubtaskFuture<>(this, task);
+        if (flock.isShutdown() || !acquirePermit()) {
+            future.cancel(false);
+            return future;
+        }
+
+        boolean started = false;
+        try {
+            Thread thread = factory.newThread(future);
+            if (thread == null)
+                throw new RejectedExecutionException("Rejected by thread factory");
+            unfinished.add(future);
+            future.forked = true;
+            try {
+                flock.start(thread);
+                started = true;
+            } catch (IllegalStateException e) {
+                // shutdown or in the process of shutting down
+                future.forked = false;
+                future.cancel(false);
+            }
+        } finally {
+            if (!started) {
+                unfinished.remove(future);
+                if (permits != null)
+                    permits.release();
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Acquires a permit to run a subtask, waiting if necessary.
+     *
+     * @return false if interrupted or shut down while waiting
+     */
+    private boolean acquirePermit() {
+        Semaphore permits = this.permits;
+        if (permits == null || permits.tryAcquire())
+            return true;
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (flock.isShutdown()) {
+            permits.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Wait for all threads to finish or the task scope to shut down.
+     */
+    private void implJoin(Duration timeout)
+        throws InterruptedException, TimeoutException
+    {
+        ensureOwner();
+        lastJoinAttempted = forkRound;
+        int s = forkRound;
+        if (timeout != null) {
+            flock.awaitAll(timeout);
+        } else {
+            flock.awaitAll();
+        }
+        lastJoinCompleted = s;
+    }
+
+    /**
+     * Waits for all threads started in this task scope to finish or the
+     * task scope to shut down.  If this scope has a
+     * <a href="#Deadlines">deadline</a> and it expires first, the scope is
+     * shut down and this method returns.
+     *
+     * <p> This method waits for all threads started in this task scope to
+     * finish execution, for the {@link #shutdown() shutdown} method to be
+     * invoked, the deadline to expire, or for the current thread to be
+     * interrupted.
+     *
+     * <p> This method may only be invoked by the task scope owner.
+     *
+     * @return this task scope
+     * @throws IllegalStateException if this task scope is closed
+     * @throws WrongThreadException if the current thread is not the owner
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public StructuredTaskScope<T> join() throws InterruptedException {
+        ensureOpen();
+        if (deadline == null) {
+            try {
+                implJoin(null);
+            } catch (TimeoutException e) {
+                throw new InternalError();
+            }
+        } else {
+            try {
+                implJoin(Duration.between(Instant.now(), deadline));
+            } catch (TimeoutException e) {
+                expireDeadline();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Waits for all threads started in this task scope to finish or the
+     * task scope to shut down, up to the given deadline.  If this scope
+     * has an earlier <a href="#Deadlines">deadline</a> and it expires
+     * first, the scope is shut down and this method returns, as for
+     * {@link #join()}.
+     *
+     * <p> This method may only be invoked by the task scope owner.
+     *
+     * @param deadline the deadline
+     * @return this task scope
+     * @throws IllegalStateException if this task scope is closed
+     * @throws WrongThreadException if the current thread is not the owner
+     * @throws InterruptedException if interrupted while waiting
+     * @throws TimeoutException if the given deadline is reached while
+     *         waiting
+     */
+    public StructuredTaskScope<T> joinUntil(Instant deadline)
+        throws InterruptedException, TimeoutException
+    {
+        Objects.requireNonNull(deadline);
+        ensureOpen();
+        boolean scopeDeadline = (this.deadline != null && !deadline.isBefore(this.deadline));
+        Instant d = scopeDeadline ? this.deadline : deadline;
+        try {
+            implJoin(Duration.between(Instant.now(), d));
+        } catch (TimeoutException e) {
+            if (!scopeDeadline)
+                throw e;
+            expireDeadline();
+        }
+        return this;
+    }
+
+    /**
+     * Shuts down this scope because its deadline expired.
+     */
+    private void expireDeadline() {
+        deadlineExpired = true;
+        if (implShutdown())
+            flock.wakeup();
+        lastJoinCompleted = lastJoinAttempted;
+    }
+
+    /**
+     * Interrupt all unfinished threads.
+     */
+    private void implInterruptAll() {
+        flock.threads().forEach(t -> {
+            if (t != Thread.currentThread())
+                t.interrupt();
+        });
+    }
+
+    /**
+     * Shutdown the task scope if not already shutdown.  Return true if this
+     * method shutdowns the task scope, false if already shutdown.
+     */
+    private boolean implShutdown() {
+        if (!flock.isShutdown()) {
+            shutdownLock.lock();
+            try {
+                if (!flock.isShutdown()) {
+                    flock.shutdown();
+                    // release waiters in fork
+                    if (permits != null)
+                        permits.release(Math.max(1, permits.getQueueLength()));
+                    // wakeup threads waiting on the results of subtasks
+                    unfinished.forEach(SubtaskFuture::cancelOnShutdown);
+                    implInterruptAll();
+                    return true;
+                }
+            } finally {
+                shutdownLock.unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shut down the task scope without closing it.  Shutting down a task
+     * scope prevents new threads from starting, interrupts all unfinished
+     * threads, and causes the {@link #join() join} method to wakeup.
+     * Shutdown is useful for cases where the results of unfinished
+     * subtasks are no longer needed.
+     *
+     * <p> More specifically, this method:
+     * <ul>
+     * <li> {@linkplain Future#cancel(boolean) Cancels} the futures of the
+     * unfinished tasks, so that threads {@linkplain Future#get() waiting}
+     * on a result wakeup, even if the task does not respond to interrupt.
+     * <li> {@linkplain Thread#interrupt() Interrupts} all unfinished
+     * threads in the task scope (except the current thread).
+     * <li> Wakes up the owner if it is waiting in {@link #join()} or
+     * {@link #joinUntil(Instant)}.  If the owner is not waiting then its
+     * next call to {@code join} or {@code joinUntil} will return
+     * immediately.
+     * </ul>
+     *
+     * <p> This method may only be invoked by the task scope owner or
+     * threads contained in the task scope.
+     *
+     * @throws IllegalStateException if this task scope is closed
+     * @throws WrongThreadException if the current thread is not the owner
+     *         or a thread contained in the task scope
+     */
+    public void shutdown() {
+        ensureOwnerOrContainsThread();
+        ensureOpen();
+        if (implShutdown())
+            flock.wakeup();
+    }
+
+    /**
+     * {@return true if this task scope is shutdown, otherwise false}
+     * @see #shutdown()
+     */
+    public final boolean isShutdown() {
+        return flock.isShutdown();
+    }
+
+    /**
+     * Closes this task scope.
+     *
+     * <p> This method first shuts down the task scope (as if by invoking
+     * the {@link #shutdown() shutdown} method).  It then waits for the
+     * threads executing any unfinished tasks to finish.  If interrupted
+     * then this method will continue to wait for the threads to finish
+     * before completing with the interrupt status set.
+     *
+     * <p> This method may only be invoked by the task scope owner.  If
+     * the task scope is already closed then the task scope owner
+     * invoking this method has no effect.
+     *
+     * @throws IllegalStateException thrown after closing the task scope
+     *         if the owner did not invoke join after forking
+     * @throws WrongThreadException if the current thread is not the owner
+     */
+    @Override
+    public void close() {
+        ensureOwner();
+        if (closed)
+            return;
+
+        try {
+            implShutdown();
+            flock.close();
+        } finally {
+            closed = true;
+        }
+
+        ensureJoinedIfOwner();
+    }
+
+    @Override
+    public String toString() {
+        String name = flock.name();
+        return (name != null) ? name : super.toString();
+    }
+
+    /**
+     * The Future returned by the fork methods.
+     */
+    private static final class SubtaskFuture<V> extends FutureTask<V> {
+        private final StructuredTaskScope<? super V> scope;
+
+        // set when handed to a thread, the subtasks that were never
+        // started are not passed to handleComplete
+        volatile boolean forked;
+
+        @SuppressWarnings("unchecked")
+        SubtaskFuture(StructuredTaskScope<? super V> scope, Callable<? extends V> task) {
+            super((Callable<V>) task);
+            this.scope = scope;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                if (scope.permits != null)
+                    scope.permits.release();
+            }
+        }
+
+        @Override
+        protected void done() {
+            scope.unfinished.remove(this);
+            if (forked && !scope.isShutdown())
+                scope.handleComplete(this);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            scope.ensureOwnerOrContainsThread();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        /**
+         * Cancels this future, without interrupting, when the scope shuts
+         * down.  The thread is interrupted separately.
+         */
+        void cancelOnShutdown() {
+            super.cancel(false);
+        }
+    }
+
+    /**
+     * A {@code StructuredTaskScope} that captures the result of the first
+     * subtask to complete successfully.  Once captured, it invokes the
+     * {@linkplain #shutdown() shutdown} method to interrupt unfinished
+     * threads and wakeup the owner.  The policy implemented by this class
+     * is intended for cases where the result of any subtask will do ("invoke
+     * any") and where the results of other unfinished subtasks are no
+     * longer needed.
+     *
+     * @param <T> the result type
+     * @since 21
+     */
+    @PreviewFeature(feature = PreviewFeature.Feature.VIRTUAL_THREADS)
+    public static final class ShutdownOnSuccess<T> extends StructuredTaskScope<T> {
+        private static final Object RESULT_NULL = new Object();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Object firstResult;
+        private volatile Throwable firstException;
+        private volatile boolean sawCancelled;
+
+        /**
+         * Constructs a new {@code ShutdownOnSuccess} with the given name,
+         * thread factory, maximum number of concurrently running subtasks,
+         * and deadline.
+         *
+         * @param name the name of the task scope, can be null
+         * @param factory the thread factory
+         * @param maxConcurrency the maximum number of subtasks that run at
+         *        the same time, or {@code Integer.MAX_VALUE} for no limit
+         * @param deadline the deadline, or {@code null} to inherit the
+         *        deadline of the enclosing scope, if any
+         * @throws IllegalArgumentException if {@code maxConcurrency <= 0}
+         */
+        public ShutdownOnSuccess(String name, ThreadFactory factory,
+                                 int maxConcurrency, Instant deadline) {
+            super(name, factory, maxConcurrency, deadline);
+        }
+
+        /**
+         * Constructs a new {@code ShutdownOnSuccess} with the given name
+         * and thread factory.
+         *
+         * @param name the name of the task scope, can be null
+         * @param factory the thread factory
+         */
+        public ShutdownOnSuccess(String name, ThreadFactory factory) {
+            super(name, factory);
+        }
+
+        /**
+         * Constructs a new unnamed {@code ShutdownOnSuccess} that creates
+         * virtual threads.
+         */
+        public ShutdownOnSuccess() {
+            super();
+        }
+
+        /**
+         * Shut down the given task scope when invoked for the first time
+         * with a task that completed with a result.
+         *
+         * @param future the completed task
+         * @see #shutdown()
+         * @see Future.State#SUCCESS
+         */
+        @Override
+        protected void handleComplete(Future<? extends T> future) {
+            super.handleComplete(future);
+            if (firstResult != null)
+                return;
+            switch (future.state()) {
+                case SUCCESS -> {
+                    T result = future.resultNow();
+                    boolean won;
+                    lock.lock();
+                    try {
+                        won = (firstResult == null);
+                        if (won)
+                            firstResult = (result != null) ? result : RESULT_NULL;
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (won)
+                        shutdown();
+                }
+                case FAILED -> {
+                    if (firstException == null)
+                        firstException = future.exceptionNow();
+                }
+                case CANCELLED -> sawCancelled = true;
+                default -> { }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return this task scope
+         * @throws IllegalStateException {@inheritDoc}
+         * @throws WrongThreadException {@inheritDoc}
+         */
+        @Override
+        public ShutdownOnSuccess<T> join() throws InterruptedException {
+            super.join();
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return this task scope
+         * @throws IllegalStateException {@inheritDoc}
+         * @throws WrongThreadException {@inheritDoc}
+         */
+        @Override
+        public ShutdownOnSuccess<T> joinUntil(Instant deadline)
+            throws InterruptedException, TimeoutException
+        {
+            super.joinUntil(deadline);
+            return this;
+        }
+
+        /**
+         * {@return the result of the first subtask that completed with a
+         * result}
+         *
+         * <p> When no subtask completed with a result but a task completed
+         * with an exception then {@code ExecutionException} is thrown with
+         * the exception as the {@linkplain Throwable#getCause() cause}.
+         * If the deadline of this scope expired first, the cause is a
+         * {@link TimeoutException}.  If only cancelled subtasks were
+         * notified to the {@code handleComplete} method then {@code
+         * CancellationException} is thrown.
+         *
+         * @throws ExecutionException if no subtasks completed with a result
+         *         but a subtask completed with an exception, or the
+         *         deadline expired
+         * @throws CancellationException if all subtasks were cancelled
+         * @throws IllegalStateException if the handle method was not
+         *         invoked with a completed subtask
+         * @throws WrongThreadException if the current thread is not the owner
+         */
+        public T result() throws ExecutionException {
+            return result(ExecutionException::new);
+        }
+
+        /**
+         * Returns the result of the first subtask that completed with a
+         * result, otherwise throws an exception produced by the given
+         * exception supplying function.
+         *
+         * @param esf the exception supplying function
+         * @param <X> type of the exception to be thrown
+         * @return the result of the first subtask that completed with a
+         *         result
+         * @throws X if no subtask completed with a result
+         * @throws CancellationException if all subtasks were cancelled
+         * @throws IllegalStateException if the handle method was not
+         *         invoked with a completed subtask
+         * @throws WrongThreadException if the current thread is not the owner
+         */
+        public <X extends Throwable> T result(Function<Throwable, ? extends X> esf) throws X {
+            Objects.requireNonNull(esf);
+            super.ensureOwner();
+            super.ensureJoinedIfOwner();
+
+            Object result = firstResult;
+            if (result == RESULT_NULL) {
+                return null;
+            } else if (result != null) {
+                @SuppressWarnings("unchecked")
+                T r = (T) result;
+                return r;
+            }
+
+            Throwable exception = firstException;
+            if (exception == null && isDeadlineExpired())
+                exception = new TimeoutException("Deadline expired");
+            if (exception != null) {
+                X ex = esf.apply(exception);
+                Objects.requireNonNull(ex, "esf returned null");
+                throw ex;
+            }
+
+            if (sawCancelled)
+                throw new CancellationException();
+
+            throw new IllegalStateException("No completed subtasks");
+        }
+    }
+
+    /**
+     * A {@code StructuredTaskScope} that captures the exception of the
+     * first subtask to complete abnormally.  Once captured, it invokes the
+     * {@linkplain #shutdown() shutdown} method to interrupt unfinished
+     * threads and wakeup the owner.  The policy implemented by this class
+     * is intended for cases where the results for all subtasks are
+     * required ("invoke all"); if any subtask fails then the results of
+     * other unfinished subtasks are no longer needed.
+     *
+     * @since 21
+     */
+    @PreviewFeature(feature = PreviewFeature.Feature.VIRTUAL_THREADS)
+    public static final class ShutdownOnFailure extends StructuredTaskScope<Object> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Throwable firstException;
+
+        /**
+         * Constructs a new {@code ShutdownOnFailure} with the given name,
+         * thread factory, maximum number of concurrently running subtasks,
+         * and deadline.
+         *
+         * @param name the name of the task scope, can be null
+         * @param factory the thread factory
+         * @param maxConcurrency the maximum number of subtasks that run at
+         *        the same time, or {@code Integer.MAX_VALUE} for no limit
+         * @param deadline the deadline, or {@code null} to inherit the
+         *        deadline of the enclosing scope, if any
+         * @throws IllegalArgumentException if {@code maxConcurrency <= 0}
+         */
+        public ShutdownOnFailure(String name, ThreadFactory factory,
+                                 int maxConcurrency, Instant deadline) {
+            super(name, factory, maxConcurrency, deadline);
+        }
+
+        /**
+         * Constructs a new {@code ShutdownOnFailure} with the given name
+         * and thread factory.
+         *
+         * @param name the name of the task scope, can be null
+         * @param factory the thread factory
+         */
+        public ShutdownOnFailure(String name, ThreadFactory factory) {
+            super(name, factory);
+        }
+
+        /**
+         * Constructs a new unnamed {@code ShutdownOnFailure} that creates
+         * virtual threads.
+         */
+        public ShutdownOnFailure() {
+            super();
+        }
+
+        /**
+         * Shut down the given task scope when invoked for the first time
+         * with a task that completed abnormally (exception or cancelled).
+         *
+         * @param future the completed task
+         * @see #shutdown()
+         * @see Future.State#FAILED
+         * @see Future.State#CANCELLED
+         */
+        @Override
+        protected void handleComplete(Future<?> future) {
+            super.handleComplete(future);
+            if (firstException != null)
+                return;
+            Throwable exception = switch (future.state()) {
+                case FAILED -> future.exceptionNow();
+                case CANCELLED -> new CancellationException();
+                default -> null;
+            };
+            if (exception != null) {
+                boolean won;
+                lock.lock();
+                try {
+                    won = (firstException == null);
+                    if (won)
+                        firstException = exception;
+                } finally {
+                    lock.unlock();
+                }
+                if (won)
+                    shutdown();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return this task scope
+         * @throws IllegalStateException {@inheritDoc}
+         * @throws WrongThreadException {@inheritDoc}
+         */
+        @Override
+        public ShutdownOnFailure join() throws InterruptedException {
+            super.join();
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @return this task scope
+         * @throws IllegalStateException {@inheritDoc}
+         * @throws WrongThreadException {@inheritDoc}
+         */
+        @Override
+        public ShutdownOnFailure joinUntil(Instant deadline)
+            throws InterruptedException, TimeoutException
+        {
+            super.joinUntil(deadline);
+            return this;
+        }
+
+        /**
+         * Returns the exception for the first subtask that completed with
+         * an exception.  If no subtask failed but the deadline of this
+         * scope expired, returns a {@link TimeoutException}.  If no
+         * subtask completed with an exception but cancelled subtasks were
+         * notified to the {@code handleComplete} method then a {@code
+         * CancellationException} is returned.  If no subtasks completed
+         * abnormally then an empty {@code Optional} is returned.
+         *
+         * @return the exception for a subtask that completed abnormally or
+         *         an empty optional if no subtasks completed abnormally
+         * @throws WrongThreadException if the current thread is not the owner
+         * @throws IllegalStateException if the owner did not invoke join
+         *         after forking
+         */
+        public Optional<Throwable> exception() {
+            super.ensureOwner();
+            super.ensureJoinedIfOwner();
+            Throwable exception = firstException;
+            if (exception == null && isDeadlineExpired())
+                exception = new TimeoutException("Deadline expired");
+            return Optional.ofNullable(exception);
+        }
+
+        /**
+         * Throws if a subtask completed abnormally or the deadline of this
+         * scope expired.  If any subtask completed with an exception then
+         * {@code ExecutionException} is thrown with the exception of the
+         * first subtask to fail as the {@linkplain Throwable#getCause()
+         * cause}.  If the deadline expired first, the cause is a
+         * {@link TimeoutException}.  If no subtasks completed with an
+         * exception but cancelled subtasks were notified to the {@code
+         * handleComplete} method then {@code CancellationException} is
+         * thrown.  This method does nothing if no subtasks completed
+         * abnormally.
+         *
+         * @throws ExecutionException if a subtask completed with an
+         *         exception or the deadline expired
+         * @throws CancellationException if no subtasks completed with an
+         *         exception but subtasks were cancelled
+         * @throws WrongThreadException if the current thread is not the owner
+         * @throws IllegalStateException if the owner did not invoke join
+         *         after forking
+         */
+        public void throwIfFailed() throws ExecutionException {
+            throwIfFailed(ExecutionException::new);
+        }
+
+        /**
+         * Throws the exception produced by the given exception supplying
+         * function if a subtask completed abnormally or the deadline of
+         * this scope expired.  If any subtask completed with an exception
+         * then the function is invoked with the exception of the first
+         * subtask to fail.  If no subtasks completed with an exception but
+         * cancelled subtasks were notified to the {@code handleComplete}
+         * method then {@code CancellationException} is thrown.  This
+         * method does nothing if no subtasks completed abnormally.
+         *
+         * @param esf the exception supplying function
+         * @param <X> type of the exception to be thrown
+         * @throws X produced by the exception supplying function
+         * @throws WrongThreadException if the current thread is not the owner
+         * @throws IllegalStateException if the owner did not invoke join
+         *         after forking
+         */
+        public <X extends Throwable>
+        void throwIfFailed(Function<Throwable, ? extends X> esf) throws X {
+            Objects.requireNonNull(esf);
+            Throwable exception = exception().orElse(null);
+            if (exception != null) {
+                if (exception instanceof CancellationException ce)
+                    throw ce;
+                X ex = esf.apply(exception);
+                Objects.requireNonNull(ex, "esf returned null");
+                throw ex;
+            }
+        }
+    }
+}
@@ -17,11 +17,12 @@ package java.base.share.classes.java.util.concurrent;
 
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.base.share.classes.java.util.concurrent.atomic.AtomicInteger;
+import java.base.share.classes.java.util.concurrent.atomic.LongAdder;
 import java.base.share.classes.java.util.concurrent.locks.AbstractQueuedSynchronizer;
 import java.base.share.classes.java.util.concurrent.locks.Condition;
 import java.base.share.classes.java.util.concurrent.locks.ReentrantLock;
@@ -434,25 +435,28 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     private final BlockingQueue<Runnable> workQueue;
 
     /**
-     * Lock held on access to workers set and related bookkeeping.
-     * While we could use a concurrent set of some sort, it turns out
-     * to be generally preferable to use a lock. Among the reasons is
-     * that this serializes interruptIdleWorkers, which avoids
-     * unnecessary interrupt storms, especially during shutdown.
-     * Otherwise exiting threads would concurrently interrupt those
-     * that have not yet interrupted. It also simplifies some of the
-     * associated statistics bookkeeping of largestPoolSize etc. We
-     * also hold mainLock on shutdown and shutdownNow, for the sake of
-     * ensuring workers set is stable while separately checking
-     * permission to interrupt and actually interrupting.
+     * Lock held when interrupting workers and on termination.  This
+     * serializes interruptIdleWorkers, which avoids unnecessary
+     * interrupt storms, especially during shutdown.  Otherwise exiting
+     * threads would concurrently interrupt those that have not yet
+     * interrupted. We also hold mainLock on shutdown and shutdownNow,
+     * for the sake of separately checking permission to interrupt and
+     * actually interrupting.  Adding and removing workers, and the
+     * statistics methods, do not take mainLock, so that thread churn
+     * under load does not contend on it.
      */
     private final ReentrantLock mainLock = new ReentrantLock();
 
     /**
-     * Set containing all worker threads in pool. Accessed only when
-     * holding mainLock.
+     * Set containing all worker threads in pool.  Workers are added
+     * before their thread is started, and addWorker rechecks the run
+     * state after adding so that a concurrent shutdownNow either
+     * observes the new worker when interrupting workers or causes
+     * addWorker to back out.  Iteration is weakly consistent; workers
+     * missed by interruptIdleWorkers during shutdown are reached by
+     * the interrupt propagation in tryTerminate.
      */
-    private final HashSet<Worker> workers = new HashSet<>();
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
 
     /**
      * Wait condition to support awaitTermination.
@@ -465,16 +469,15 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     private final SharedThreadContainer container;
 
     /**
-     * Tracks largest attained pool size. Accessed only under
-     * mainLock.
+     * Tracks largest attained pool size.
      */
-    private int largestPoolSize;
+    private final AtomicInteger largestPoolSize = new AtomicInteger();
 
     /**
-     * Counter for completed tasks. Updated only on termination of
-     * worker threads. Accessed only under mainLock.
+     * Counter for completed tasks, incremented by workers after each
+     * task.
      */
-    private long completedTaskCount;
+    private final LongAdder completedTaskCount = new LongAdder();
 
     /*
      * All user control parameters are declared as volatiles so that
@@ -601,12 +604,6 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         /** Initial task to run.  Possibly null. */
         @SuppressWarnings("serial") // Not statically typed as Serializable
         Runnable firstTask;
-        /** Per-thread task counter */
-        volatile long completedTasks;
-
-        // TODO: switch to AbstractQueuedLongSynchronizer and move
-        // completedTasks into the lock word.
-
         /**
          * Creates with given first task and thread from ThreadFactory.
          * @param firstTask the first task (null if none)
@@ -908,26 +905,18 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             w = new Worker(firstTask);
             final Thread t = w.thread;
             if (t != null) {
-                final ReentrantLock mainLock = this.mainLock;
-                mainLock.lock();
-                try {
-                    // Recheck while holding lock.
-                    // Back out on ThreadFactory failure or if
-                    // shut down before lock acquired.
-                    int c = ctl.get();
-
-                    if (isRunning(c) ||
-                        (runStateLessThan(c, STOP) && firstTask == null)) {
-                        if (t.getState() != Thread.State.NEW)
-                            throw new IllegalThreadStateException();
-                        workers.add(w);
-                        workerAdded = true;
-                        int s = workers.size();
-                        if (s > largestPoolSize)
-                            largestPoolSize = s;
-                    }
-                } finally {
-                    mainLock.unlock();
+                if (t.getState() != Thread.State.NEW)
+                    throw new IllegalThreadStateException();
+                workers.add(w);
+                // Recheck after publishing the worker.
+                // Back out if shut down concurrently.
+                int c = ctl.get();
+                if (isRunning(c) ||
+                    (runStateLessThan(c, STOP) && firstTask == null)) {
+                    workerAdded = true;
+                    int s = workerCountOf(c);
+                    if (s > largestPoolSize.get())
+                        largestPoolSize.accumulateAndGet(s, Math::max);
                 }
                 if (workerAdded) {
                     container.start(t);
@@ -949,16 +938,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      *   worker was holding up termination
      */
     private void addWorkerFailed(Worker w) {
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            if (w != null)
-                workers.remove(w);
-            decrementWorkerCount();
-            tryTerminate();
-        } finally {
-            mainLock.unlock();
-        }
+        if (w != null)
+            workers.remove(w);
+        decrementWorkerCount();
+        tryTerminate();
     }
 
     /**
@@ -978,14 +961,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         if (completedAbruptly) // If abrupt, then workerCount wasn't adjusted
             decrementWorkerCount();
 
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            completedTaskCount += w.completedTasks;
-            workers.remove(w);
-        } finally {
-            mainLock.unlock();
-        }
+        workers.remove(w);
 
         tryTerminate();
 
@@ -1129,7 +1105,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
                     }
                 } finally {
                     task = null;
-                    w.completedTasks++;
+                    completedTaskCount.increment();
                     w.unlock();
                 }
             }
@@ -1798,16 +1774,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * @return the number of threads
      */
     public int getPoolSize() {
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            // Remove rare and surprising possibility of
-            // isTerminated() && getPoolSize() > 0
-            return runStateAtLeast(ctl.get(), TIDYING) ? 0
-                : workers.size();
-        } finally {
-            mainLock.unlock();
-        }
+        // Remove rare and surprising possibility of
+        // isTerminated() && getPoolSize() > 0
+        return runStateAtLeast(ctl.get(), TIDYING) ? 0
+            : workers.size();
     }
 
     /**
@@ -1817,17 +1787,11 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * @return the number of threads
      */
     public int getActiveCount() {
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            int n = 0;
-            for (Worker w : workers)
-                if (w.isLocked())
-                    ++n;
-            return n;
-        } finally {
-            mainLock.unlock();
-        }
+        int n = 0;
+        for (Worker w : workers)
+            if (w.isLocked())
+                ++n;
+        return n;
     }
 
     /**
@@ -1837,13 +1801,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * @return the number of threads
      */
     public int getLargestPoolSize() {
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            return largestPoolSize;
-        } finally {
-            mainLock.unlock();
-        }
+        return largestPoolSize.get();
     }
 
     /**
@@ -1855,19 +1813,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * @return the number of tasks
      */
     public long getTaskCount() {
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            long n = completedTaskCount;
-            for (Worker w : workers) {
-                n += w.completedTasks;
-                if (w.isLocked())
-                    ++n;
-            }
-            return n + workQueue.size();
-        } finally {
-            mainLock.unlock();
-        }
+        return completedTaskCount.sum() + getActiveCount() + workQueue.size();
     }
 
     /**
@@ -1880,16 +1826,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * @return the number of tasks
      */
     public long getCompletedTaskCount() {
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            long n = completedTaskCount;
-            for (Worker w : workers)
-                n += w.completedTasks;
-            return n;
-        } finally {
-            mainLock.unlock();
-        }
+        return completedTaskCount.sum();
     }
 
     /**
@@ -1900,21 +1837,12 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
      * @return a string identifying this pool, as well as its state
      */
     public String toString() {
-        long ncompleted;
-        int nworkers, nactive;
-        final ReentrantLock mainLock = this.mainLock;
-        mainLock.lock();
-        try {
-            ncompleted = completedTaskCount;
-            nactive = 0;
-            nworkers = workers.size();
-            for (Worker w : workers) {
-                ncompleted += w.completedTasks;
-                if (w.isLocked())
-                    ++nactive;
-            }
-        } finally {
-            mainLock.unlock();
+        long ncompleted = completedTaskCount.sum();
+        int nworkers = 0, nactive = 0;
+        for (Worker w : workers) {
+            ++nworkers;
+            if (w.isLocked())
+                ++nactive;
         }
         int c = ctl.get();
         String runState =
@@ -0,0 +1,738 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util.concurrent;
+
+import static java.base.share.classes.java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.base.share.classes.java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.base.share.classes.java.util.concurrent.atomic.AtomicLong;
+import java.base.share.classes.java.util.concurrent.locks.LockSupport;
+import java.base.share.classes.java.util.concurrent.locks.ReentrantLock;
+import jdk.internal.misc.TimingWheel;
+
+/**
+ * A {@link ScheduledExecutorService} that keeps delayed tasks in a
+ * hierarchical hashed timing wheel rather than a priority queue.
+ *
+ * <p>Time is divided into <em>ticks</em> of a fixed duration, given when
+ * the executor is constructed.  The wheel has several levels of 64
+ * buckets; a bucket of the lowest level holds the tasks due in one tick,
+ * and each bucket of the next level spans the whole of the level below
+ * it.  A task is placed in the lowest-level bucket that covers its
+ * trigger time, so scheduling and cancelling a task take constant time
+ * regardless of how many tasks are pending.  As time advances, the tasks
+ * of a higher-level bucket are redistributed into the levels below.  This
+ * makes the executor well suited to workloads that schedule many
+ * timeouts, most of which are cancelled before they fire.
+ *
+ * <p>Tasks are submitted through a lock-free queue and cancelled tasks are
+ * removed from the wheel by the timer thread, so neither scheduling nor
+ * cancellation contends with the timer thread.  Cancelled tasks are
+ * removed promptly rather than retained until their delay elapses.
+ *
+ * <p>All tasks are run by a single timer thread, created on first use
+ * with the {@link ThreadFactory} given at construction (by default
+ * {@link Executors#defaultThreadFactory}).  Tasks should therefore be
+ * short, or hand off their work to another executor.  Delayed tasks
+ * execute no sooner than they are enabled, and at most about one tick
+ * after, subject to the time taken by other tasks.  Tasks enabled in the
+ * same tick are executed in first-in-first-out (FIFO) order of
+ * submission.  Successive executions of a periodic task do not overlap.
+ *
+ * <p>After {@link #shutdown}, delayed tasks that have already been
+ * scheduled still execute, but periodic tasks are cancelled.  New tasks
+ * are rejected with {@link RejectedExecutionException}.
+ *
+ * @since 21
+ */
+public class TimingWheelScheduledExecutor extends AbstractExecutorService
+        implements ScheduledExecutorService {
+
+    // runState values
+    private static final int RUNNING    = 0;
+    private static final int SHUTDOWN   = 1;
+    private static final int STOP       = 2;
+    private static final int TERMINATED = 3;
+
+    /** Sequence number to break scheduling ties */
+    private static final AtomicLong sequencer = new AtomicLong();
+
+    /** The duration of a tick, in nanoseconds */
+    private final long tickNanos;
+
+    /** The nanoTime from which ticks are counted */
+    private final long origin;
+
+    private final ThreadFactory threadFactory;
+
+    /** Newly scheduled tasks, not yet linked into the wheel */
+    private final ConcurrentLinkedQueue<WheelTask<?>> submissions =
+        new ConcurrentLinkedQueue<>();
+
+    /** Cancelled tasks, to be unlinked from the wheel */
+    private final ConcurrentLinkedQueue<WheelTask<?>> cancellations =
+        new ConcurrentLinkedQueue<>();
+
+    /**
+     * Guards the wheel, runState transitions and creation of the timer
+     * thread.  Held by the timer thread while it advances the wheel, but
+     * not while it runs tasks or waits.
+     */
+    private final ReentrantLock mainLock = new ReentrantLock();
+
+    private final CountDownLatch termination = new CountDownLatch(1);
+
+    private volatile int runState;
+
+    /** The timer thread, null until the first task is scheduled */
+    private volatile Thread ticker;
+
+    /**
+     * The nanoTime until which the timer thread is waiting, or
+     * Long.MAX_VALUE if it is waiting for a task to be scheduled, or
+     * Long.MIN_VALUE if it is not waiting.
+     */
+    private volatile long wakeTime = Long.MIN_VALUE;
+
+    // The wheel, guarded by mainLock
+    private final TimingWheel wheel = new TimingWheel();
+    private boolean periodicCancelled;
+
+    /**
+     * The node linking a task into the wheel.
+     */
+    private static final class TaskNode extends TimingWheel.Node {
+        final WheelTask<?> task;
+
+        TaskNode(WheelTask<?> task) {
+            this.task = task;
+        }
+    }
+
+    private class WheelTask<V>
+            extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        /** Sequence number to break ties FIFO */
+        private final long sequenceNumber;
+
+        /** The nanoTime-based time when the task is enabled to execute. */
+        private volatile long time;
+
+        /**
+         * Period for repeating tasks, in nanoseconds.
+         * A positive value indicates fixed-rate execution.
+         * A negative value indicates fixed-delay execution.
+         * A value of 0 indicates a non-repeating (one-shot) task.
+         */
+        private final long period;
+
+        /** Linkage in the wheel, guarded by mainLock */
+        final TaskNode node = new TaskNode(this);
+
+        /**
+         * Creates a one-shot or periodic action with given nanoTime-based
+         * trigger time.
+         */
+        WheelTask(Runnable r, V result, long triggerTime, long period) {
+            super(r, result);
+            this.time = triggerTime;
+            this.period = period;
+            this.sequenceNumber = sequencer.getAndIncrement();
+        }
+
+        /**
+         * Creates a one-shot action with given nanoTime-based trigger time.
+         */
+        WheelTask(Callable<V> callable, long triggerTime) {
+            super(callable);
+            this.time = triggerTime;
+            this.period = 0;
+            this.sequenceNumber = sequencer.getAndIncrement();
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), NANOSECONDS);
+        }
+
+        public int compareTo(Delayed other) {
+            if (other == this) // compare zero if same object
+                return 0;
+            if (other instanceof WheelTask<?> x) {
+                long diff = time - x.time;
+                if (diff < 0)
+                    return -1;
+                else if (diff > 0)
+                    return 1;
+                else if (sequenceNumber < x.sequenceNumber)
+                    return -1;
+                else
+                    return 1;
+            }
+            long diff = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
+            return (diff < 0) ? -1 : (diff > 0) ? 1 : 0;
+        }
+
+        /**
+         * Returns {@code true} if this is a periodic (not a one-shot) action.
+         *
+         * @return {@code true} if periodic
+         */
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        /**
+         * Sets the next time to run for a periodic task.
+         */
+        private void setNextRunTime() {
+            long p = period;
+            if (p > 0)
+                time += p;
+            else
+                time = triggerTime(-p);
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            // The racy read of the node below is benign: a task that is
+            // still queued for submission is dropped when it is drained,
+            // and if it is linked concurrently it is dropped when it
+            // expires instead
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && node.isLinked()) {
+                cancellations.offer(this);
+                // wakeup the timer thread if waiting so that the task is
+                // unlinked now rather than when it would have expired
+                if (wakeTime != Long.MIN_VALUE)
+                    LockSupport.unpark(ticker);
+            }
+            return cancelled;
+        }
+
+        /**
+         * Overrides FutureTask version so as to reschedule if periodic.
+         */
+        public void run() {
+            if (!isPeriodic())
+                super.run();
+            else if (super.runAndReset()) {
+                setNextRunTime();
+                reschedulePeriodic(this);
+            }
+        }
+    }
+
+    /**
+     * Creates a new {@code TimingWheelScheduledExecutor} with a tick of one
+     * millisecond and the default thread factory.
+     */
+    public TimingWheelScheduledExecutor() {
+        this(1, MILLISECONDS, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Creates a new {@code TimingWheelScheduledExecutor} with the given
+     * tick duration and the default thread factory.
+     *
+     * @param tickDuration the duration of a tick, which bounds how late a
+     *        task may be enabled
+     * @param unit the time unit of the {@code tickDuration} argument
+     * @throws IllegalArgumentException if {@code tickDuration} is not
+     *         positive
+     * @throws NullPointerException if {@code unit} is null
+     */
+    public TimingWheelScheduledExecutor(long tickDuration, TimeUnit unit) {
+        this(tickDuration, unit, Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Creates a new {@code TimingWheelScheduledExecutor} with the given
+     * tick duration and thread factory.
+     *
+     * @param tickDuration the duration of a tick, which bounds how late a
+     *        task may be enabled
+     * @param unit the time unit of the {@code tickDuration} argument
+     * @param threadFactory the factory to use to create the timer thread
+     * @throws IllegalArgumentException if {@code tickDuration} is not
+     *         positive
+     * @throws NullPointerException if {@code unit} or
+     *         {@code threadFactory} is null
+     */
+    public TimingWheelScheduledExecutor(long tickDuration, TimeUnit unit,
+                                        ThreadFactory threadFactory) {
+        long nanos = unit.toNanos(tickDuration);
+        if (nanos <= 0L)
+            throw new IllegalArgumentException();
+        this.tickNanos = nanos;
+        this.threadFactory = Objects.requireNonNull(threadFactory);
+        this.origin = System.nanoTime();
+    }
+
+    /**
+     * Returns the nanoTime-based trigger time of a delayed action.
+     */
+    private long triggerTime(long delay, TimeUnit unit) {
+        return triggerTime(unit.toNanos((delay < 0) ? 0 : delay));
+    }
+
+    /**
+     * Returns the nanoTime-based trigger time of a delayed action.  Delays
+     * are capped at Long.MAX_VALUE / 2 so that trigger times remain within
+     * Long.MAX_VALUE of each other.
+     */
+    long triggerTime(long delay) {
+        return System.nanoTime() + Math.min(delay, Long.MAX_VALUE >> 1);
+    }
+
+    /**
+     * Returns the tick at or after the given nanoTime.
+     */
+    private long tickAfter(long time) {
+        long elapsed = time - origin;
+        if (elapsed <= 0L)
+            return 0L;
+        long tick = elapsed / tickNanos;
+        return (tick * tickNanos < elapsed) ? tick + 1 : tick;
+    }
+
+    /**
+     * Queues a task for the timer thread to link into the wheel.
+     */
+    private void delayedExecute(WheelTask<?> task) {
+        if (runState != RUNNING)
+            throw new RejectedExecutionException();
+        submissions.offer(task);
+        if (!startTicker()) {
+            // terminated before the task could be linked
+            if (submissions.remove(task))
+                throw new RejectedExecutionException();
+            return;
+        }
+        long w = wakeTime;
+        if (w != Long.MIN_VALUE && (w == Long.MAX_VALUE || task.time - w < 0L))
+            LockSupport.unpark(ticker);
+    }
+
+    /**
+     * Starts the timer thread if not already started.
+     *
+     * @return false if the executor has terminated
+     */
+    private boolean startTicker() {
+        if (ticker != null)
+            return runState != TERMINATED;
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (runState == TERMINATED)
+                return false;
+            if (ticker == null) {
+                Thread t = threadFactory.newThread(this::runTicker);
+                if (t == null)
+                    throw new RejectedExecutionException();
+                t.start();
+                ticker = t;
+            }
+            return true;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    /**
+     * Requeues a periodic task after it has run, or cancels it if the
+     * executor has been shut down.
+     */
+    private void reschedulePeriodic(WheelTask<?> task) {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (runState == RUNNING) {
+                wheel.link(task.node, tickAfter(task.time));
+                return;
+            }
+        } finally {
+            mainLock.unlock();
+        }
+        task.cancel(false);
+    }
+
+    /**
+     * Links newly submitted tasks into the wheel.
+     */
+    private void drainSubmissions() {
+        WheelTask<?> t;
+        while ((t = submissions.poll()) != null) {
+            if (!t.isCancelled())
+                wheel.link(t.node, tickAfter(t.time));
+        }
+    }
+
+    /**
+     * Unlinks cancelled tasks from the wheel.
+     */
+    private void drainCancellations() {
+        WheelTask<?> t;
+        while ((t = cancellations.poll()) != null) {
+            if (t.node.isLinked())
+                wheel.unlink(t.node);
+        }
+    }
+
+    /**
+     * Unlinks and cancels periodic tasks, after shutdown.
+     */
+    private void cancelPeriodicTasks() {
+        for (TimingWheel.Node n = wheel.takeAll(), next; n != null; n = next) {
+            next = n.takeNext();
+            WheelTask<?> t = ((TaskNode) n).task;
+            if (t.isPeriodic())
+                t.cancel(false);
+            else
+                wheel.link(n, n.deadline());
+        }
+    }
+
+    /**
+     * Unlinks all tasks from the wheel and the submission queue, adding
+     * those not cancelled to the given list.
+     */
+    private void drainAll(List<Runnable> tasks) {
+        drainSubmissions();
+        for (TimingWheel.Node n = wheel.takeAll(), next; n != null; n = next) {
+            next = n.takeNext();
+            WheelTask<?> t = ((TaskNode) n).task;
+            if (!t.isCancelled())
+                tasks.add(t);
+        }
+        cancellations.clear();
+    }
+
+    /**
+     * Main loop of the timer thread.
+     */
+    private void runTicker() {
+        final ReentrantLock mainLock = this.mainLock;
+        try {
+            for (;;) {
+                TimingWheel.Node expired;
+                long w = Long.MIN_VALUE;
+                mainLock.lock();
+                try {
+                    int rs = runState;
+                    if (rs >= STOP)
+                        break;
+                    wakeTime = Long.MIN_VALUE;
+                    drainSubmissions();
+                    drainCancellations();
+                    if (rs == SHUTDOWN && !periodicCancelled) {
+                        periodicCancelled = true;
+                        cancelPeriodicTasks();
+                    }
+                    long nowTick = (System.nanoTime() - origin) / tickNanos;
+                    expired = wheel.advance(nowTick);
+                    if (expired == null) {
+                        if (rs == SHUTDOWN && wheel.size() == 0 && submissions.isEmpty())
+                            break;
+                        long next = wheel.nextTick();
+                        if (next != Long.MAX_VALUE && next <= (Long.MAX_VALUE >> 1) / tickNanos)
+                            w = origin + next * tickNanos;
+                        else
+                            w = Long.MAX_VALUE;
+                        wakeTime = w;
+                    }
+                } finally {
+                    mainLock.unlock();
+                }
+
+                if (expired != null) {
+                    for (TimingWheel.Node n = expired, next; n != null; n = next) {
+                        next = n.takeNext();
+                        WheelTask<?> t = ((TaskNode) n).task;
+                        if (t.isCancelled())
+                            continue;
+                        if (runState >= STOP)
+                            t.cancel(false);
+                        else
+                            t.run();
+                    }
+                    // clear interrupts from cancel(true) while running
+                    if (runState < STOP)
+                        Thread.interrupted();
+                } else if (submissions.isEmpty() && cancellations.isEmpty()
+                           && runState < STOP) {
+                    if (w == Long.MAX_VALUE)
+                        LockSupport.park(this);
+                    else
+                        LockSupport.parkNanos(this, w - System.nanoTime());
+                    if (runState < STOP)
+                        Thread.interrupted();
+                }
+            }
+        } finally {
+            terminate(true);
+        }
+    }
+
+    /**
+     * Transitions to TERMINATED, cancelling tasks that were submitted but
+     * never linked into the wheel.  Unless invoked by the timer thread as
+     * it exits, does nothing if the timer thread has been started.
+     */
+    private void terminate(boolean fromTicker) {
+        List<Runnable> orphans = new ArrayList<>();
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (!fromTicker && (ticker != null || runState == TERMINATED))
+                return;
+            runState = TERMINATED;
+            wakeTime = Long.MIN_VALUE;
+            drainAll(orphans);
+        } finally {
+            mainLock.unlock();
+        }
+        // tasks submitted concurrently with termination
+        for (Runnable r : orphans)
+            ((Future<?>) r).cancel(false);
+        for (WheelTask<?> t; (t = submissions.poll()) != null; )
+            t.cancel(false);
+        termination.countDown();
+    }
+
+    /**
+     * Executes {@code command} with zero required delay.
+     * This has effect equivalent to
+     * {@link #schedule(Runnable,long,TimeUnit) schedule(command, 0, anyUnit)}.
+     *
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public void execute(Runnable command) {
+        schedule(command, 0, NANOSECONDS);
+    }
+
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public ScheduledFuture<?> schedule(Runnable command,
+                                       long delay,
+                                       TimeUnit unit) {
+        if (command == null || unit == null)
+            throw new NullPointerException();
+        WheelTask<Void> t = new WheelTask<>(command, null,
+                                            triggerTime(delay, unit), 0);
+        delayedExecute(t);
+        return t;
+    }
+
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable,
+                                           long delay,
+                                           TimeUnit unit) {
+        if (callable == null || unit == null)
+            throw new NullPointerException();
+        WheelTask<V> t = new WheelTask<>(callable, triggerTime(delay, unit));
+        delayedExecute(t);
+        return t;
+    }
+
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     * @throws IllegalArgumentException   {@inheritDoc}
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command,
+                                                  long initialDelay,
+                                                  long period,
+                                                  TimeUnit unit) {
+        if (command == null || unit == null)
+            throw new NullPointerException();
+        if (period <= 0L)
+            throw new IllegalArgumentException();
+        WheelTask<Void> t = new WheelTask<>(command, null,
+                                            triggerTime(initialDelay, unit),
+                                            unit.toNanos(period));
+        delayedExecute(t);
+        return t;
+    }
+
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     * @throws IllegalArgumentException   {@inheritDoc}
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
+                                                     long initialDelay,
+                                                     long delay,
+                                                     TimeUnit unit) {
+        if (command == null || unit == null)
+            throw new NullPointerException();
+        if (delay <= 0L)
+            throw new IllegalArgumentException();
+        WheelTask<Void> t = new WheelTask<>(command, null,
+                                            triggerTime(initialDelay, unit),
+                                            -unit.toNanos(delay));
+        delayedExecute(t);
+        return t;
+    }
+
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public Future<?> submit(Runnable task) {
+        return schedule(task, 0, NANOSECONDS);
+    }
+
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public <T> Future<T> submit(Runnable task, T result) {
+        return schedule(Executors.callable(task, result), 0, NANOSECONDS);
+    }
+
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return schedule(task, 0, NANOSECONDS);
+    }
+
+    /**
+     * Initiates an orderly shutdown in which previously submitted delayed
+     * tasks are executed, but periodic tasks are cancelled and no new
+     * tasks will be accepted.  Invocation has no additional effect if
+     * already shut down.
+     *
+     * <p>This method does not wait for previously submitted tasks to
+     * complete execution.  Use {@link #awaitTermination awaitTermination}
+     * to do that.
+     */
+    public void shutdown() {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (runState != RUNNING)
+                return;
+            runState = SHUTDOWN;
+        } finally {
+            mainLock.unlock();
+        }
+        Thread t = ticker;
+        if (t != null)
+            LockSupport.unpark(t);
+        else
+            terminate(false);
+    }
+
+    /**
+     * Attempts to stop all actively executing tasks, halts the
+     * processing of waiting tasks, and returns a list of the tasks
+     * that were awaiting execution.  These tasks are drained (removed)
+     * from the timing wheel upon return from this method.
+     *
+     * <p>This method does not wait for actively executing tasks to
+     * terminate.  Use {@link #awaitTermination awaitTermination} to
+     * do that.
+     *
+     * <p>There are no guarantees beyond best-effort attempts to stop
+     * processing actively executing tasks.  This implementation
+     * interrupts the timer thread via {@link Thread#interrupt}; any
+     * task that fails to respond to interrupts may never terminate.
+     *
+     * @return list of tasks that never commenced execution.
+     *         Each element of this list is a {@link ScheduledFuture}.
+     *         For tasks submitted via one of the {@code schedule}
+     *         methods, the element will be identical to the returned
+     *         {@code ScheduledFuture}.  For tasks submitted using
+     *         {@link #execute execute}, the element will be a
+     *         zero-delay {@code ScheduledFuture}.
+     */
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = new ArrayList<>();
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (runState < STOP)
+                runState = STOP;
+            drainAll(tasks);
+        } finally {
+            mainLock.unlock();
+        }
+        Thread t = ticker;
+        if (t != null)
+            t.interrupt();
+        else
+            terminate(false);
+        return tasks;
+    }
+
+    public boolean isShutdown() {
+        return runState != RUNNING;
+    }
+
+    public boolean isTerminated() {
+        return runState == TERMINATED;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+        throws InterruptedException {
+        return termination.await(timeout, unit);
+    }
+
+    /**
+     * Returns the duration of a tick in the given time unit.
+     *
+     * @param unit the time unit of the result
+     * @return the tick duration
+     */
+    public long getTickDuration(TimeUnit unit) {
+        return unit.convert(tickNanos, NANOSECONDS);
+    }
+
+    /**
+     * Returns the approximate number of tasks that are scheduled but not
+     * yet enabled.  Cancelled tasks may be counted until the timer thread
+     * removes them.
+     *
+     * @return the number of pending tasks
+     */
+    public int getPendingTaskCount() {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            return wheel.size() + submissions.size();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a string identifying this executor, as well as its state,
+     * including indications of run state and the number of pending tasks.
+     *
+     * @return a string identifying this executor, as well as its state
+     */
+    public String toString() {
+        int rs = runState;
+        String runStateString =
+            (rs == RUNNING) ? "Running" :
+            (rs == TERMINATED) ? "Terminated" :
+            "Shutting down";
+        return super.toString() +
+            "[" + runStateString +
+            ", tick = " + tickNanos + "ns" +
+            ", pending tasks = " + getPendingTaskCount() + "]";
+    }
+}
@@ -272,7 +272,8 @@ public abstract class AbstractQueuedLongSynchronizer
                       boolean interruptible, boolean timed, long time) {
         Thread current = Thread.currentThread();
         byte spins = 0, postSpins = 0;   // retries upon unpark of first thread
-        boolean interrupted = false, first = false;
+        long spinUntil = 0L;            // end of adaptive spin, if started
+        boolean interrupted = false, first = false, adaptive = true;
         Node pred = null;                // predecessor of node when enqueued
 
         /*
@@ -286,6 +287,7 @@ public abstract class AbstractQueuedLongSynchronizer
          *     resort to spinwait on OOME trying to create node
          *  else if not yet enqueued, try once to enqueue
          *  else if woken from park, retry (up to postSpins times)
+         *  else if first, retry for the adaptive spin time (once)
          *  else if WAITING status not set, set and retry
          *  else park and clear WAITING status, and check cancellation
          */
@@ -346,6 +348,20 @@ public abstract class AbstractQueuedLongSynchronizer
             } else if (first && spins != 0) {
                 --spins;                        // reduce unfairness on rewaits
                 Thread.onSpinWait();
+            } else if (first && adaptive) {     // spin before enabling signal
+                if (spinUntil == 0L) {
+                    long s = spinNanos();
+                    if (s <= 0L)
+                        adaptive = false;
+                    else {
+                        spinUntil = System.nanoTime() + s;
+                        if (timed && time - spinUntil < 0L)
+                            spinUntil = time;
+                    }
+                } else if (spinUntil - System.nanoTime() > 0L)
+                    Thread.onSpinWait();
+                else
+                    adaptive = false;
             } else if (node.status == 0) {
                 node.status = WAITING;          // enable signal and recheck
             } else {
@@ -365,6 +381,17 @@ public abstract class AbstractQueuedLongSynchronizer
         return cancelAcquire(node, interrupted, interruptible);
     }
 
+    /**
+     * Returns the time, in nanoseconds, that the current thread, having
+     * become the first queued thread, retries acquiring before it parks,
+     * or zero to park without spinning. Invoked at most once per call to
+     * acquire. Synchronizers in this package constructed with an adaptive
+     * spin policy override this; the default does not spin.
+     */
+    long spinNanos() {
+        return 0L;
+    }
+
     /**
      * Spin-waits with backoff; used only upon OOME failures during acquire.
      */
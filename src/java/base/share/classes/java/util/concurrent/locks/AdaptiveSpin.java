@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util.concurrent.locks;
+
+/**
+ * An adaptive spin-then-park policy for the exclusive mode of the
+ * synchronizers in this package.  It keeps a moving average of how long
+ * the synchronizer is held, sampled from every few acquisitions, and lets
+ * the first queued thread spin for a small multiple of that average before
+ * parking.  If the synchronizer is typically released within about the
+ * time a park and unpark would take, a waiter that spins is handed the
+ * synchronizer without either side making a system call; if it is
+ * typically held longer, waiters park immediately as usual.
+ *
+ * <p>Spinning is never used by virtual threads, as it would occupy a
+ * carrier that could run other virtual threads, nor on uniprocessors.
+ *
+ * <p>The owner-side methods are invoked only by the thread that holds the
+ * synchronizer exclusively, so the sampling state needs no atomics.  The
+ * average is read racily by waiters, which is harmless for a heuristic.
+ */
+final class AdaptiveSpin implements java.io.Serializable {
+    private static final long serialVersionUID = -1398823450135629071L;
+
+    /** Whether spinning can make progress at all */
+    private static final boolean MP =
+        Runtime.getRuntime().availableProcessors() > 1;
+
+    /**
+     * Hold times above which waiters do not spin, roughly the cost of a
+     * park/unpark round trip.
+     */
+    static final long MAX_SPIN_NANOS = 1L << 14;   // ~16us
+
+    /** Minimum spin, covering the latency of the release hand-off */
+    static final long MIN_SPIN_NANOS = 1L << 10;   // ~1us
+
+    /** One in SAMPLE_MASK + 1 acquisitions is timed */
+    private static final int SAMPLE_MASK = 7;
+
+    /** Moving average of sampled hold times, in nanoseconds */
+    private transient volatile long avgHoldNanos;
+
+    // owner-only state
+    private transient int acquisitions;
+    private transient long acquiredAt;   // 0 if this hold is not sampled
+
+    /**
+     * Invoked by the owner when it acquires the synchronizer (not
+     * reentrantly).
+     */
+    void acquired() {
+        if ((++acquisitions & SAMPLE_MASK) == 0)
+            acquiredAt = System.nanoTime();
+    }
+
+    /**
+     * Invoked by the owner when it fully releases the synchronizer.
+     */
+    void released() {
+        long t = acquiredAt;
+        if (t != 0L) {
+            acquiredAt = 0L;
+            long held = System.nanoTime() - t;
+            long avg = avgHoldNanos;
+            avgHoldNanos = avg + ((held - avg) >> 2);
+        }
+    }
+
+    /**
+     * Returns how long the current thread, the first queued waiter, should
+     * spin before parking, or zero if it should park immediately.
+     */
+    long spinNanos() {
+        long avg;
+        if (!MP || (avg = avgHoldNanos) > MAX_SPIN_NANOS
+            || Thread.currentThread().isVirtual())
+            return 0L;
+        return Math.min(Math.max(avg << 2, MIN_SPIN_NANOS), MAX_SPIN_NANOS);
+    }
+}
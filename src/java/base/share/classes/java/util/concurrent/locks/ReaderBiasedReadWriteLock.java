@@ -0,0 +1,729 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.java.util.concurrent.locks;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ReadWriteLock} biased towards readers, for data that is read
+ * far more often than it is written.
+ *
+ * <p>In {@link ReentrantReadWriteLock} and {@link StampedLock} every
+ * acquisition of the read lock updates a single word of synchronization
+ * state, so when many threads read concurrently on different processors
+ * that word's cache line moves between them on every acquisition and
+ * release, even though readers never exclude each other.  This class
+ * instead records the presence of readers in a table of counters, each in
+ * its own cache line, with the counter used by a thread selected by the
+ * same per-thread hash as {@link java.util.concurrent.atomic.LongAdder}.
+ * While the lock is <em>reader-biased</em>, readers only update their own
+ * counter and do not touch any state shared with readers on other
+ * processors.
+ *
+ * <p>Writers pay for this.  A writer first acquires the write lock of an
+ * underlying {@link ReentrantReadWriteLock}, which excludes other writers
+ * and readers not using the counters, then revokes the bias and waits for
+ * all counters to drain to zero.  Readers arriving while the bias is
+ * revoked acquire the read lock of the underlying lock instead, and the
+ * first of them to do so after the last writer has released the lock
+ * restores the bias, unless writers have recently been frequent enough
+ * that the cost of revoking would exceed the savings, in which case the
+ * bias stays revoked for a while and the lock behaves much like the
+ * underlying one.
+ *
+ * <p>This class has the following properties:
+ *
+ * <ul>
+ * <li><b>Reentrancy</b>
+ *
+ * <p>Both locks are reentrant, and a writer may acquire the read lock and
+ * then release the write lock to downgrade, as with {@link
+ * ReentrantReadWriteLock}.  Upgrading from a read lock to the write lock
+ * is not possible.
+ *
+ * <li><b>Acquisition order</b>
+ *
+ * <p>The fairness policy chosen at construction applies to threads
+ * acquiring the underlying lock.  While the lock is reader-biased readers
+ * do not queue, so a writer waits for all readers that have already
+ * acquired the read lock, but not for readers arriving after it.
+ *
+ * <li><b>Condition support</b>
+ *
+ * <p>The write lock provides a {@link Condition} implementation that
+ * behaves in the same way as that provided by {@link
+ * ReentrantReadWriteLock.WriteLock#newCondition}.  The read lock does not
+ * support a {@code Condition}.
+ * </ul>
+ *
+ * <p>A thread that holds the read lock keeps a reference to its counter
+ * in a {@link ThreadLocal}, so each thread that has read through a lock of
+ * this class costs a small amount of memory until the lock is
+ * reclaimed.  This class is not serializable.  On a uniprocessor the lock
+ * is never reader-biased.
+ *
+ * @since 21
+ */
+public class ReaderBiasedReadWriteLock implements ReadWriteLock {
+
+    /** Number of CPUS, to place bound on table size */
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /** Maximum number of reader counters */
+    private static final int MAX_CELLS = 1 << 8;
+
+    /** Number of times a writer rechecks the counters before parking */
+    private static final int DRAIN_SPINS = (NCPU > 1) ? 1 << 6 : 0;
+
+    /**
+     * After revoking the bias, it is not restored for this many times the
+     * time taken to drain readers, bounding the time spent revoking to a
+     * small fraction of the time the lock is in use.
+     */
+    private static final int INHIBIT_FACTOR = 9;
+
+    /**
+     * Padded counter of the readers holding the read lock through it,
+     * adapted from class Striped64.
+     */
+    @jdk.internal.vm.annotation.Contended static final class Cell {
+        volatile long readers;
+
+        final boolean cas(long cmp, long val) {
+            return READERS.weakCompareAndSet(this, cmp, val);
+        }
+        final void add(long x) {
+            READERS.getAndAdd(this, x);
+        }
+
+        // VarHandle mechanics
+        private static final VarHandle READERS;
+        static {
+            try {
+                MethodHandles.Lookup l = MethodHandles.lookup();
+                READERS = l.findVarHandle(Cell.class, "readers", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    /**
+     * The read holds of a thread that acquired the read lock through a
+     * counter, and that counter.
+     */
+    static final class ReadHolds {
+        Cell cell;
+        int count;
+    }
+
+    /**
+     * ThreadLocal subclass supplying an empty ReadHolds per thread.
+     */
+    static final class ThreadLocalReadHolds extends ThreadLocal<ReadHolds> {
+        public ReadHolds initialValue() {
+            return new ReadHolds();
+        }
+    }
+
+    /** The lock used by writers and by readers while the bias is revoked */
+    private final ReentrantReadWriteLock rwl;
+    private final ReentrantReadWriteLock.ReadLock slowReadLock;
+    private final ReentrantReadWriteLock.WriteLock slowWriteLock;
+
+    /** Inner class providing readlock */
+    private final ReadLock readerLock;
+    /** Inner class providing writelock */
+    private final WriteLock writerLock;
+
+    /** Table of reader counters, created lazily; size is a power of 2 */
+    private final Cell[] cells;
+
+    /** Read holds taken through the counters, per thread */
+    private final ThreadLocalReadHolds readHolds;
+
+    /**
+     * Whether readers may acquire the read lock through the counters.
+     * Set to false only by a thread holding the write lock of rwl, and to
+     * true only by a thread holding its read lock, so never changes while
+     * a writer holds the lock.
+     */
+    private volatile boolean readerBias;
+
+    /** System.nanoTime before which the bias is not restored */
+    private volatile long inhibitUntil;
+
+    /** The writer waiting for counters to drain, or null */
+    private volatile Thread drainer;
+
+    /**
+     * Creates a new {@code ReaderBiasedReadWriteLock} with a nonfair
+     * ordering policy for the underlying lock.
+     */
+    public ReaderBiasedReadWriteLock() {
+        this(false);
+    }
+
+    /**
+     * Creates a new {@code ReaderBiasedReadWriteLock} with the given
+     * fairness policy for the underlying lock.
+     *
+     * @param fair {@code true} if the underlying lock should use a fair
+     *        ordering policy
+     */
+    public ReaderBiasedReadWriteLock(boolean fair) {
+        rwl = new ReentrantReadWriteLock(fair);
+        slowReadLock = rwl.readLock();
+        slowWriteLock = rwl.writeLock();
+        readerLock = new ReadLock();
+        writerLock = new WriteLock();
+        int n = (NCPU >= MAX_CELLS) ? MAX_CELLS :
+            (NCPU <= 1) ? 1 : Integer.highestOneBit(NCPU - 1) << 1;
+        cells = new Cell[n];
+        readHolds = new ThreadLocalReadHolds();
+        readerBias = NCPU > 1;
+    }
+
+    public Lock writeLock() { return writerLock; }
+    public Lock readLock()  { return readerLock; }
+
+    /**
+     * Returns the counter for the given probe, creating it if needed.
+     */
+    private Cell cellAt(int probe) {
+        Cell[] cs = cells;
+        int i = probe & (cs.length - 1);
+        Cell c = cs[i];
+        if (c == null) {
+            Cell w = (Cell) CELLS.compareAndExchange(cs, i, null, c = new Cell());
+            if (w != null)
+                c = w;
+        }
+        return c;
+    }
+
+    /**
+     * Returns the number of readers holding the read lock through the
+     * counters.
+     */
+    private long biasedReaders() {
+        long sum = 0L;
+        Cell[] cs = cells;
+        for (int i = 0; i < cs.length; i++) {
+            Cell c = (Cell) CELLS.getVolatile(cs, i);
+            if (c != null)
+                sum += c.readers;
+        }
+        return sum;
+    }
+
+    /**
+     * Tries to acquire the read lock through the counters.
+     *
+     * @return true if acquired
+     */
+    private boolean tryBiasedRead() {
+        ReadHolds h = readHolds.get();
+        if (h.count > 0) {
+            // Reentrant. A writer revoking the bias waits for this
+            // thread's counter regardless, so must not be waited for.
+            h.cell.add(1L);
+            h.count++;
+            return true;
+        }
+        if (!readerBias)
+            return false;
+        int probe = getProbe();
+        if (probe == 0) {
+            ThreadLocalRandom.current(); // force initialization
+            probe = getProbe();
+        }
+        Cell c = cellAt(probe);
+        long v = c.readers;
+        if (!c.cas(v, v + 1L)) {
+            // contended; move this thread to another counter
+            c = cellAt(advanceProbe(probe));
+            c.add(1L);
+        }
+        // recheck, pairing with the write of readerBias in revokeBias
+        if (readerBias) {
+            h.cell = c;
+            h.count = 1;
+            return true;
+        }
+        c.add(-1L);
+        signalDrainer();
+        return false;
+    }
+
+    /**
+     * Invoked after acquiring the read lock of rwl.  Restores the bias if
+     * no writer holds the write lock and it has not recently been
+     * revoked.  On uniprocessors readers cannot contend for a cache line,
+     * so the bias is never set.
+     */
+    private void afterSlowRead() {
+        if (!readerBias && NCPU > 1 && !rwl.isWriteLocked()
+            && System.nanoTime() - inhibitUntil >= 0L)
+            readerBias = true;
+    }
+
+    /**
+     * Unparks the writer waiting for the counters to drain, if any.
+     */
+    private void signalDrainer() {
+        Thread w = drainer;
+        if (w != null)
+            LockSupport.unpark(w);
+    }
+
+    /**
+     * Revokes the bias, if set, and waits for the readers holding the
+     * read lock through the counters to release it.  Invoked only by a
+     * thread holding the write lock of rwl.  If the wait is abandoned the
+     * bias is restored and false is returned, leaving the interrupt status
+     * set if abandoned due to interruption.
+     *
+     * @param interruptible whether to abandon the wait on interrupt
+     * @param timed whether to abandon the wait after nanos
+     * @param nanos the maximum time to wait, if timed
+     * @return true if there are no readers holding the read lock
+     */
+    private boolean revokeBias(boolean interruptible, boolean timed, long nanos) {
+        if (!readerBias)
+            return true;
+        long start = System.nanoTime();
+        long deadline = start + nanos;
+        boolean interrupted = false, drained = false;
+        readerBias = false;
+        try {
+            for (int spins = DRAIN_SPINS;;) {
+                if (biasedReaders() == 0L) {
+                    drained = true;
+                    break;
+                }
+                if (timed && (nanos = deadline - System.nanoTime()) <= 0L)
+                    break;
+                if (spins > 0) {
+                    --spins;
+                    Thread.onSpinWait();
+                } else if (drainer == null) {
+                    drainer = Thread.currentThread(); // recheck before parking
+                } else {
+                    if (timed)
+                        LockSupport.parkNanos(this, nanos);
+                    else
+                        LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        interrupted = true;
+                        if (interruptible)
+                            break;
+                    }
+                }
+            }
+        } finally {
+            drainer = null;
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+        if (drained) {
+            long now = System.nanoTime();
+            inhibitUntil = now + (now - start) * INHIBIT_FACTOR;
+        } else {
+            readerBias = true;
+        }
+        return drained;
+    }
+
+    /**
+     * The lock returned by method {@link ReaderBiasedReadWriteLock#readLock}.
+     */
+    final class ReadLock implements Lock {
+        /**
+         * Acquires the read lock, through this thread's counter if the
+         * lock is reader-biased, otherwise as by {@link
+         * ReentrantReadWriteLock.ReadLock#lock}.
+         */
+        public void lock() {
+            if (!tryBiasedRead()) {
+                slowReadLock.lock();
+                afterSlowRead();
+            }
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (!tryBiasedRead()) {
+                slowReadLock.lockInterruptibly();
+                afterSlowRead();
+            }
+        }
+
+        public boolean tryLock() {
+            if (tryBiasedRead())
+                return true;
+            if (!slowReadLock.tryLock())
+                return false;
+            afterSlowRead();
+            return true;
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+            throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (tryBiasedRead())
+                return true;
+            if (!slowReadLock.tryLock(timeout, unit))
+                return false;
+            afterSlowRead();
+            return true;
+        }
+
+        /**
+         * Releases one hold of the read lock.
+         *
+         * @throws IllegalMonitorStateException if the current thread
+         *         does not hold the read lock
+         */
+        public void unlock() {
+            ReadHolds h = readHolds.get();
+            if (h.count > 0) {
+                h.count--;
+                h.cell.add(-1L);
+                if (!readerBias)
+                    signalDrainer();
+            } else {
+                slowReadLock.unlock();
+            }
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * {@code ReadLocks} do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Returns a string identifying this lock, as well as its lock state.
+         * The state, in brackets, includes the String {@code "Read locks ="}
+         * followed by the number of held read locks.
+         *
+         * @return a string identifying this lock, as well as its lock state
+         */
+        public String toString() {
+            return super.toString() +
+                "[Read locks = " + getReadLockCount() + "]";
+        }
+    }
+
+    /**
+     * The lock returned by method {@link ReaderBiasedReadWriteLock#writeLock}.
+     */
+    final class WriteLock implements Lock {
+        /**
+         * Acquires the write lock as by {@link
+         * ReentrantReadWriteLock.WriteLock#lock}, then waits for all
+         * readers to release the read lock.
+         */
+        public void lock() {
+            slowWriteLock.lock();
+            revokeBias(false, false, 0L);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            slowWriteLock.lockInterruptibly();
+            if (!revokeBias(true, false, 0L)) {
+                slowWriteLock.unlock();
+                Thread.interrupted();
+                throw new InterruptedException();
+            }
+        }
+
+        /**
+         * Acquires the write lock only if it is not held by another thread
+         * and no thread holds the read lock at the time of invocation.
+         *
+         * @return {@code true} if the lock was free and was acquired
+         *         by the current thread, or the write lock was already held
+         *         by the current thread; and {@code false} otherwise
+         */
+        public boolean tryLock() {
+            if (!slowWriteLock.tryLock())
+                return false;
+            if (!revokeBias(false, true, 0L)) {
+                slowWriteLock.unlock();
+                return false;
+            }
+            return true;
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+            throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            long deadline = System.nanoTime() + nanos;
+            if (!slowWriteLock.tryLock(nanos, TimeUnit.NANOSECONDS))
+                return false;
+            if (!revokeBias(true, true, deadline - System.nanoTime())) {
+                slowWriteLock.unlock();
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Releases one hold of the write lock, as by {@link
+         * ReentrantReadWriteLock.WriteLock#unlock}.
+         *
+         * @throws IllegalMonitorStateException if the current thread does
+         *         not hold this lock
+         */
+        public void unlock() {
+            slowWriteLock.unlock();
+        }
+
+        /**
+         * Returns a {@link Condition} instance for use with this
+         * {@link Lock} instance, with the same properties as one returned
+         * by {@link ReentrantReadWriteLock.WriteLock#newCondition}.
+         *
+         * @return the Condition object
+         */
+        public Condition newCondition() {
+            return new WriterCondition(slowWriteLock.newCondition());
+        }
+
+        /**
+         * Returns a string identifying this lock, as well as its lock
+         * state.  The state, in brackets, includes either the String
+         * {@code "Unlocked"} or the String {@code "Locked"}.
+         *
+         * @return a string identifying this lock, as well as its lock state
+         */
+        public String toString() {
+            return super.toString() +
+                (rwl.isWriteLocked() ? "[Locked]" : "[Unlocked]");
+        }
+    }
+
+    /**
+     * A condition of the write lock.  Waiting fully releases the write
+     * lock, during which readers may restore the bias, so it is revoked
+     * again once the write lock has been reacquired.
+     */
+    final class WriterCondition implements Condition {
+        private final Condition condition;
+
+        WriterCondition(Condition condition) {
+            this.condition = condition;
+        }
+
+        public void await() throws InterruptedException {
+            try {
+                condition.await();
+            } finally {
+                reacquired();
+            }
+        }
+
+        public void awaitUninterruptibly() {
+            try {
+                condition.awaitUninterruptibly();
+            } finally {
+                reacquired();
+            }
+        }
+
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            try {
+                return condition.awaitNanos(nanosTimeout);
+            } finally {
+                reacquired();
+            }
+        }
+
+        public boolean await(long time, TimeUnit unit)
+            throws InterruptedException {
+            try {
+                return condition.await(time, unit);
+            } finally {
+                reacquired();
+            }
+        }
+
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            try {
+                return condition.awaitUntil(deadline);
+            } finally {
+                reacquired();
+            }
+        }
+
+        /**
+         * Revokes the bias after the write lock is reacquired.  Does nothing
+         * if the wait failed because the write lock was not held.
+         */
+        private void reacquired() {
+            if (rwl.isWriteLockedByCurrentThread())
+                revokeBias(false, false, 0L);
+        }
+
+        public void signal() {
+            condition.signal();
+        }
+
+        public void signalAll() {
+            condition.signalAll();
+        }
+    }
+
+    /**
+     * Returns {@code true} if readers currently acquire the read lock
+     * without updating state shared with other readers.  This method is
+     * designed for use in monitoring system state, not for
+     * synchronization control.
+     *
+     * @return {@code true} if the lock is currently reader-biased
+     */
+    public boolean isReaderBiased() {
+        return readerBias;
+    }
+
+    /**
+     * Returns {@code true} if the underlying lock has fairness set true.
+     *
+     * @return {@code true} if the underlying lock has fairness set true
+     */
+    public final boolean isFair() {
+        return rwl.isFair();
+    }
+
+    /**
+     * Queries the number of read locks held for this lock. This
+     * method is designed for use in monitoring system state, not for
+     * synchronization control.  The result is an estimate if the read
+     * lock is concurrently acquired or released.
+     *
+     * @return the number of read locks held
+     */
+    public int getReadLockCount() {
+        return (int) biasedReaders() + rwl.getReadLockCount();
+    }
+
+    /**
+     * Queries if the write lock is held by any thread. This method is
+     * designed for use in monitoring system state, not for
+     * synchronization control.
+     *
+     * @return {@code true} if any thread holds the write lock and
+     *         {@code false} otherwise
+     */
+    public boolean isWriteLocked() {
+        return rwl.isWriteLocked();
+    }
+
+    /**
+     * Queries if the write lock is held by the current thread.
+     *
+     * @return {@code true} if the current thread holds the write lock and
+     *         {@code false} otherwise
+     */
+    public boolean isWriteLockedByCurrentThread() {
+        return rwl.isWriteLockedByCurrentThread();
+    }
+
+    /**
+     * Queries the number of reentrant write holds on this lock by the
+     * current thread.
+     *
+     * @return the number of holds on the write lock by the current thread,
+     *         or zero if the write lock is not held by the current thread
+     */
+    public int getWriteHoldCount() {
+        return rwl.getWriteHoldCount();
+    }
+
+    /**
+     * Queries the number of reentrant read holds on this lock by the
+     * current thread.
+     *
+     * @return the number of holds on the read lock by the current thread,
+     *         or zero if the read lock is not held by the current thread
+     */
+    public int getReadHoldCount() {
+        return readHolds.get().count + rwl.getReadHoldCount();
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     * The state, in brackets, includes the String {@code "Write locked ="}
+     * followed by whether the write lock is held, the String
+     * {@code "Read locks ="} followed by the number of held read locks,
+     * and the String {@code "Biased"} if the lock is reader-biased.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        return super.toString() +
+            "[Write locked = " + rwl.isWriteLocked() +
+            ", Read locks = " + getReadLockCount() +
+            (readerBias ? ", Biased]" : "]");
+    }
+
+    /**
+     * Returns the probe value for the current thread.
+     * Duplicated from ThreadLocalRandom because of packaging restrictions.
+     */
+    static final int getProbe() {
+        return (int) THREAD_PROBE.get(Thread.currentThread());
+    }
+
+    /**
+     * Pseudo-randomly advances and records the given probe value for the
+     * given thread.
+     * Duplicated from ThreadLocalRandom because of packaging restrictions.
+     */
+    static final int advanceProbe(int probe) {
+        probe ^= probe << 13;   // xorshift
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        THREAD_PROBE.set(Thread.currentThread(), probe);
+        return probe;
+    }
+
+    // VarHandle mechanics
+    private static final VarHandle CELLS;
+    private static final VarHandle THREAD_PROBE;
+    static {
+        try {
+            CELLS = MethodHandles.arrayElementVarHandle(Cell[].class);
+            @SuppressWarnings("removal")
+            MethodHandles.Lookup l = java.security.AccessController.doPrivileged(
+                    new java.security.PrivilegedAction<>() {
+                        public MethodHandles.Lookup run() {
+                            try {
+                                return MethodHandles.privateLookupIn(Thread.class, MethodHandles.lookup());
+                            } catch (ReflectiveOperationException e) {
+                                throw new ExceptionInInitializerError(e);
+                            }
+                        }});
+            THREAD_PROBE = l.findVarHandle(Thread.class,
+                    "threadLocalRandomProbe", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -98,6 +98,13 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     abstract static class Sync extends AbstractQueuedSynchronizer {
         private static final long serialVersionUID = -5179523762034025860L;
 
+        /** The adaptive spin policy, or null if waiters park immediately */
+        final AdaptiveSpin spin;
+
+        Sync(boolean spin) {
+            this.spin = spin ? new AdaptiveSpin() : null;
+        }
+
         /**
          * Performs non-fair tryLock.
          */
@@ -108,6 +115,8 @@ public class ReentrantLock implements Lock, java.io.Serializable {
             if (c == 0) {
                 if (compareAndSetState(0, 1)) {
                     setExclusiveOwnerThread(current);
+                    if (spin != null)
+                        spin.acquired();
                     return true;
                 }
             } else if (getExclusiveOwnerThread() == current) {
@@ -154,12 +163,20 @@ public class ReentrantLock implements Lock, java.io.Serializable {
             if (getExclusiveOwnerThread() != Thread.currentThread())
                 throw new IllegalMonitorStateException();
             boolean free = (c == 0);
-            if (free)
+            if (free) {
+                if (spin != null)
+                    spin.released();
                 setExclusiveOwnerThread(null);
+            }
             setState(c);
             return free;
         }
 
+        final long spinNanos() {
+            AdaptiveSpin spin = this.spin;
+            return (spin == null) ? 0L : spin.spinNanos();
+        }
+
         protected final boolean isHeldExclusively() {
             // While we must in general read state before owner,
             // we don't need to do so to check if current thread is owner
@@ -200,10 +217,16 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     static final class NonfairSync extends Sync {
         private static final long serialVersionUID = 7316153563782823691L;
 
+        NonfairSync(boolean spin) {
+            super(spin);
+        }
+
         final boolean initialTryLock() {
             Thread current = Thread.currentThread();
             if (compareAndSetState(0, 1)) { // first attempt is unguarded
                 setExclusiveOwnerThread(current);
+                if (spin != null)
+                    spin.acquired();
                 return true;
             } else if (getExclusiveOwnerThread() == current) {
                 int c = getState() + 1;
@@ -221,6 +244,8 @@ public class ReentrantLock implements Lock, java.io.Serializable {
         protected final boolean tryAcquire(int acquires) {
             if (getState() == 0 && compareAndSetState(0, acquires)) {
                 setExclusiveOwnerThread(Thread.currentThread());
+                if (spin != null)
+                    spin.acquired();
                 return true;
             }
             return false;
@@ -233,6 +258,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     static final class FairSync extends Sync {
         private static final long serialVersionUID = -3000897897090466540L;
 
+        FairSync(boolean spin) {
+            super(spin);
+        }
+
         /**
          * Acquires only if reentrant or queue is empty.
          */
@@ -242,6 +271,8 @@ public class ReentrantLock implements Lock, java.io.Serializable {
             if (c == 0) {
                 if (!hasQueuedThreads() && compareAndSetState(0, 1)) {
                     setExclusiveOwnerThread(current);
+                    if (spin != null)
+                        spin.acquired();
                     return true;
                 }
             } else if (getExclusiveOwnerThread() == current) {
@@ -260,6 +291,8 @@ public class ReentrantLock implements Lock, java.io.Serializable {
             if (getState() == 0 && !hasQueuedPredecessors() &&
                 compareAndSetState(0, acquires)) {
                 setExclusiveOwnerThread(Thread.currentThread());
+                if (spin != null)
+                    spin.acquired();
                 return true;
             }
             return false;
@@ -271,7 +304,7 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      * This is equivalent to using {@code ReentrantLock(false)}.
      */
     public ReentrantLock() {
-        sync = new NonfairSync();
+        sync = new NonfairSync(false);
     }
 
     /**
@@ -281,7 +314,30 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      * @param fair {@code true} if this lock should use a fair ordering policy
      */
     public ReentrantLock(boolean fair) {
-        sync = fair ? new FairSync() : new NonfairSync();
+        sync = fair ? new FairSync(false) : new NonfairSync(false);
+    }
+
+    /**
+     * Creates an instance of {@code ReentrantLock} with the given
+     * fairness and spinning policies.
+     *
+     * <p>If {@code spin} is {@code true}, a thread that is next in line
+     * to acquire the lock may spin for a short time before blocking. The
+     * time is adapted to how long the lock has recently been held, so
+     * that when critical sections are very short the lock can be handed
+     * to the waiter without the cost of blocking and unblocking it, while
+     * waiters for locks held longer block immediately. Spinning uses
+     * processor time that other threads could use, and is never done by
+     * virtual threads, so it is only beneficial for locks that are held
+     * briefly and contended by platform threads on a multiprocessor.
+     *
+     * @param fair {@code true} if this lock should use a fair ordering policy
+     * @param spin {@code true} if waiters should spin adaptively before
+     *        blocking
+     * @since 21
+     */
+    public ReentrantLock(boolean fair, boolean spin) {
+        sync = fair ? new FairSync(spin) : new NonfairSync(spin);
     }
 
     /**
@@ -218,7 +218,28 @@ public class ReentrantReadWriteLock
      * @param fair {@code true} if this lock should use a fair ordering policy
      */
     public ReentrantReadWriteLock(boolean fair) {
-        sync = fair ? new FairSync() : new NonfairSync();
+        this(fair, false);
+    }
+
+    /**
+     * Creates a new {@code ReentrantReadWriteLock} with the given
+     * fairness and spinning policies.
+     *
+     * <p>If {@code spin} is {@code true}, a thread that is next in line
+     * to acquire the lock may spin for a short time before blocking. The
+     * time is adapted to how long the write lock has recently been held,
+     * so that when write critical sections are very short the lock can be
+     * handed to the waiter without the cost of blocking and unblocking
+     * it. Spinning is never done by virtual threads.
+     *
+     * @param fair {@code true} if this lock should use a fair ordering policy
+     * @param spin {@code true} if waiters should spin adaptively before
+     *        blocking
+     * @see ReentrantLock#ReentrantLock(boolean, boolean)
+     * @since 21
+     */
+    public ReentrantReadWriteLock(boolean fair, boolean spin) {
+        sync = fair ? new FairSync(spin) : new NonfairSync(spin);
         readerLock = new ReadLock(this);
         writerLock = new WriteLock(this);
     }
@@ -315,11 +336,20 @@ public class ReentrantReadWriteLock
         private transient Thread firstReader;
         private transient int firstReaderHoldCount;
 
-        Sync() {
+        /** The adaptive spin policy, or null if waiters park immediately */
+        final AdaptiveSpin spin;
+
+        Sync(boolean spin) {
+            this.spin = spin ? new AdaptiveSpin() : null;
             readHolds = new ThreadLocalHoldCounter();
             setState(getState()); // ensures visibility of readHolds
         }
 
+        final long spinNanos() {
+            AdaptiveSpin spin = this.spin;
+            return (spin == null) ? 0L : spin.spinNanos();
+        }
+
         /*
          * Acquires and releases use the same code for fair and
          * nonfair locks, but differ in whether/how they allow barging
@@ -352,8 +382,11 @@ public class ReentrantReadWriteLock
                 throw new IllegalMonitorStateException();
             int nextc = getState() - releases;
             boolean free = exclusiveCount(nextc) == 0;
-            if (free)
+            if (free) {
+                if (spin != null)
+                    spin.released();
                 setExclusiveOwnerThread(null);
+            }
             setState(nextc);
             return free;
         }
@@ -388,6 +421,8 @@ public class ReentrantReadWriteLock
                 !compareAndSetState(c, c + acquires))
                 return false;
             setExclusiveOwnerThread(current);
+            if (spin != null)
+                spin.acquired();
             return true;
         }
 
@@ -554,6 +589,8 @@ public class ReentrantReadWriteLock
             if (!compareAndSetState(c, c + 1))
                 return false;
             setExclusiveOwnerThread(current);
+            if (c == 0 && spin != null)
+                spin.acquired();
             return true;
         }
 
@@ -659,6 +696,9 @@ public class ReentrantReadWriteLock
      */
     static final class NonfairSync extends Sync {
         private static final long serialVersionUID = -8159625535654395037L;
+        NonfairSync(boolean spin) {
+            super(spin);
+        }
         final boolean writerShouldBlock() {
             return false; // writers can always barge
         }
@@ -679,6 +719,9 @@ public class ReentrantReadWriteLock
      */
     static final class FairSync extends Sync {
         private static final long serialVersionUID = -2274990926593161451L;
+        FairSync(boolean spin) {
+            super(spin);
+        }
         final boolean writerShouldBlock() {
             return hasQueuedPredecessors();
         }
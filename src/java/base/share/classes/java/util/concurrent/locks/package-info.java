@@ -27,10 +27,13 @@
  *
  * <p>The {@link java.base.share.classes.java.util.concurrent.locks.ReadWriteLock} interface
  * similarly defines locks that may be shared among readers but are
- * exclusive to writers.  Only a single implementation, {@link
- * java.base.share.classes.java.util.concurrent.locks.ReentrantReadWriteLock}, is provided, since
- * it covers most standard usage contexts.  But programmers may create
- * their own implementations to cover nonstandard requirements.
+ * exclusive to writers.  The main implementation is {@link
+ * java.base.share.classes.java.util.concurrent.locks.ReentrantReadWriteLock}, since
+ * it covers most standard usage contexts.  {@link
+ * java.base.share.classes.java.util.concurrent.locks.ReaderBiasedReadWriteLock} trades slower
+ * writers for readers that do not contend with each other, for data that
+ * is rarely written.  Programmers may also create their own
+ * implementations to cover nonstandard requirements.
  *
  * <p>The {@link java.base.share.classes.java.util.concurrent.locks.Condition} interface
  * describes condition variables that may be associated with Locks.
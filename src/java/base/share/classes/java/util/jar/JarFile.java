@@ -21,6 +21,7 @@ import java.security.cert.Certificate;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
@@ -140,6 +141,11 @@ public class JarFile extends ZipFile {
     // true if manifest checked for special attributes
     private volatile boolean hasCheckedSpecialAttributes;
 
+    // guards verifier initialization and the special attributes check,
+    // which read the JAR file, instead of the JarFile monitor so that
+    // virtual threads are not pinned while reading
+    private final ReentrantLock jarLock = new ReentrantLock();
+
     private static final JavaUtilZipFileAccess JUZFA;
 
     static {
@@ -814,37 +820,41 @@ public class JarFile extends ZipFile {
      * @throws IllegalStateException
      *         may be thrown if the jar file has been closed
      */
-    public synchronized InputStream getInputStream(ZipEntry ze)
+    public InputStream getInputStream(ZipEntry ze)
         throws IOException
     {
         Objects.requireNonNull(ze, "ze");
 
-        maybeInstantiateVerifier();
-        if (jv == null) {
-            return super.getInputStream(ze);
-        }
-        if (!jvInitialized) {
-            initializeVerifier();
-            jvInitialized = true;
-            // could be set to null after a call to
-            // initializeVerifier if we have nothing to
-            // verify
-            if (jv == null)
+        jarLock.lock();
+        try {
+            maybeInstantiateVerifier();
+            if (jv == null) {
                 return super.getInputStream(ze);
+            }
+            if (!jvInitialized) {
+                initializeVerifier();
+                jvInitialized = true;
+                // could be set to null after a call to
+                // initializeVerifier if we have nothing to
+                // verify
+                if (jv == null)
+                    return super.getInputStream(ze);
+            }
+            // Return null InputStream when the specified entry is not found in the
+            // Jar
+            var je = verifiableEntry(ze);
+            if (je == null) {
+                return null;
+            }
+            // wrap a verifier stream around the real stream
+            return new JarVerifier.VerifierStream(
+                    getManifestFromReference(),
+                    je,
+                    super.getInputStream(ze),
+                    jv);
+        } finally {
+            jarLock.unlock();
         }
-        // Return null InputStream when the specified entry is not found in the
-        // Jar
-        var je = verifiableEntry(ze);
-        if (je == null) {
-            return null;
-        }
-        // wrap a verifier stream around the real stream
-        return new JarVerifier.VerifierStream(
-                getManifestFromReference(),
-                je,
-                super.getInputStream(ze),
-                jv);
-
     }
 
     private JarEntry verifiableEntry(ZipEntry ze) throws ZipException {
@@ -987,7 +997,8 @@ public class JarFile extends ZipFile {
         if (hasCheckedSpecialAttributes) {
             return;
         }
-        synchronized (this) {
+        jarLock.lock();
+        try {
             if (hasCheckedSpecialAttributes) {
                 return;
             }
@@ -1012,6 +1023,8 @@ public class JarFile extends ZipFile {
                 }
             }
             hasCheckedSpecialAttributes = true;
+        } finally {
+            jarLock.unlock();
         }
     }
 
@@ -1027,20 +1040,25 @@ public class JarFile extends ZipFile {
         ThreadTrackHolder.TRACKER.end(key);
     }
 
-    synchronized void ensureInitialization() {
+    void ensureInitialization() {
+        jarLock.lock();
         try {
-            maybeInstantiateVerifier();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        if (jv != null && !jvInitialized) {
-            Object key = beginInit();
             try {
-                initializeVerifier();
-                jvInitialized = true;
-            } finally {
-                endInit(key);
+                maybeInstantiateVerifier();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (jv != null && !jvInitialized) {
+                Object key = beginInit();
+                try {
+                    initializeVerifier();
+                    jvInitialized = true;
+                } finally {
+                    endInit(key);
+                }
             }
+        } finally {
+            jarLock.unlock();
         }
     }
 
@@ -8,6 +8,7 @@ import java.lang.ref.Cleaner.Cleanable;
 import java.nio.ByteBuffer;
 import java.nio.ReadOnlyBufferException;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jdk.internal.ref.CleanerFactory;
 import jdk.internal.util.Preconditions;
@@ -78,6 +79,7 @@ import static java.base.share.classes.java.util.zip.ZipUtils.NIO_ACCESS;
 public class Deflater {
 
     private final DeflaterZStreamRef zsRef;
+    private final ReentrantLock lock = new ReentrantLock();
     private ByteBuffer input = ZipUtils.defaultBuf;
     private byte[] inputArray;
     private int inputPos, inputLim;
@@ -212,11 +214,14 @@ public class Deflater {
      */
     public void setInput(byte[] input, int off, int len) {
         Preconditions.checkFromIndexSize(off, len, input.length, Preconditions.AIOOBE_FORMATTER);
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             this.input = null;
             this.inputArray = input;
             this.inputPos = off;
             this.inputLim = off + len;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -257,9 +262,12 @@ public class Deflater {
      */
     public void setInput(ByteBuffer input) {
         Objects.requireNonNull(input);
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             this.input = input;
             this.inputArray = null;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -277,9 +285,12 @@ public class Deflater {
      */
     public void setDictionary(byte[] dictionary, int off, int len) {
         Preconditions.checkFromIndexSize(off, len, dictionary.length, Preconditions.AIOOBE_FORMATTER);
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             setDictionary(zsRef.address(), dictionary, off, len);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -312,7 +323,8 @@ public class Deflater {
      * @see Inflater#getAdler()
      */
     public void setDictionary(ByteBuffer dictionary) {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             int position = dictionary.position();
             int remaining = Math.max(dictionary.limit() - position, 0);
             ensureOpen();
@@ -330,6 +342,8 @@ public class Deflater {
                 setDictionary(zsRef.address(), array, offset + position, remaining);
             }
             dictionary.position(position + remaining);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -354,11 +368,14 @@ public class Deflater {
           default:
             throw new IllegalArgumentException();
         }
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             if (this.strategy != strategy) {
                 this.strategy = strategy;
                 setParams = true;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -377,11 +394,14 @@ public class Deflater {
         if ((level < 0 || level > 9) && level != DEFAULT_COMPRESSION) {
             throw new IllegalArgumentException("invalid compression level");
         }
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             if (this.level != level) {
                 this.level = level;
                 setParams = true;
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -394,9 +414,12 @@ public class Deflater {
      * should be called in order to provide more input
      */
     public boolean needsInput() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ByteBuffer input = this.input;
             return input == null ? inputLim == inputPos : ! input.hasRemaining();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -405,8 +428,11 @@ public class Deflater {
      * contents of the input buffer.
      */
     public void finish() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             finish = true;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -417,8 +443,11 @@ public class Deflater {
      * been reached
      */
     public boolean finished() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             return finished;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -539,7 +568,8 @@ public class Deflater {
         if (flush != NO_FLUSH && flush != SYNC_FLUSH && flush != FULL_FLUSH) {
             throw new IllegalArgumentException();
         }
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
 
             ByteBuffer input = this.input;
@@ -603,6 +633,8 @@ public class Deflater {
             bytesWritten += written;
             bytesRead += read;
             return written;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -667,7 +699,8 @@ public class Deflater {
         if (flush != NO_FLUSH && flush != SYNC_FLUSH && flush != FULL_FLUSH) {
             throw new IllegalArgumentException();
         }
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
 
             ByteBuffer input = this.input;
@@ -779,6 +812,8 @@ public class Deflater {
             bytesWritten += written;
             bytesRead += read;
             return written;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -787,9 +822,12 @@ public class Deflater {
      * @return the ADLER-32 value of the uncompressed data
      */
     public int getAdler() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             return getAdler(zsRef.address());
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -813,9 +851,12 @@ public class Deflater {
      * @since 1.5
      */
     public long getBytesRead() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             return bytesRead;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -839,9 +880,12 @@ public class Deflater {
      * @since 1.5
      */
     public long getBytesWritten() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             return bytesWritten;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -850,7 +894,8 @@ public class Deflater {
      * Keeps current compression level and strategy settings.
      */
     public void reset() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             reset(zsRef.address());
             finish = false;
@@ -858,6 +903,8 @@ public class Deflater {
             input = ZipUtils.defaultBuf;
             inputArray = null;
             bytesRead = bytesWritten = 0;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -869,14 +916,17 @@ public class Deflater {
      * Deflater object is undefined.
      */
     public void end() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             zsRef.clean();
             input = ZipUtils.defaultBuf;
+        } finally {
+            lock.unlock();
         }
     }
 
     private void ensureOpen() {
-        assert Thread.holdsLock(zsRef);
+        assert lock.isHeldByCurrentThread();
         if (zsRef.address() == 0)
             throw new NullPointerException("Deflater has been closed");
     }
@@ -886,8 +936,11 @@ public class Deflater {
      * 'finish' will be set to true if def.finish() method is called.
      */
     boolean shouldFinish() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             return finish;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -8,6 +8,7 @@ import java.lang.ref.Cleaner.Cleanable;
 import java.nio.ByteBuffer;
 import java.nio.ReadOnlyBufferException;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jdk.internal.ref.CleanerFactory;
 import jdk.internal.util.Preconditions;
@@ -77,6 +78,7 @@ import static java.base.share.classes.java.util.zip.ZipUtils.NIO_ACCESS;
 public class Inflater {
 
     private final InflaterZStreamRef zsRef;
+    private final ReentrantLock lock = new ReentrantLock();
     private ByteBuffer input = ZipUtils.defaultBuf;
     private byte[] inputArray;
     private int inputPos, inputLim;
@@ -134,11 +136,14 @@ public class Inflater {
      */
     public void setInput(byte[] input, int off, int len) {
         Preconditions.checkFromIndexSize(off, len, input.length, Preconditions.AIOOBE_FORMATTER);
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             this.input = null;
             this.inputArray = input;
             this.inputPos = off;
             this.inputLim = off + len;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -180,9 +185,12 @@ public class Inflater {
      */
     public void setInput(ByteBuffer input) {
         Objects.requireNonNull(input);
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             this.input = input;
             this.inputArray = null;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -199,10 +207,13 @@ public class Inflater {
      */
     public void setDictionary(byte[] dictionary, int off, int len) {
         Preconditions.checkFromIndexSize(off, len, dictionary.length, Preconditions.AIOOBE_FORMATTER);
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             setDictionary(zsRef.address(), dictionary, off, len);
             needDict = false;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -234,7 +245,8 @@ public class Inflater {
      * @since 11
      */
     public void setDictionary(ByteBuffer dictionary) {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             int position = dictionary.position();
             int remaining = Math.max(dictionary.limit() - position, 0);
             ensureOpen();
@@ -253,6 +265,8 @@ public class Inflater {
             }
             dictionary.position(position + remaining);
             needDict = false;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -263,9 +277,12 @@ public class Inflater {
      * @return the total number of bytes remaining in the input buffer
      */
     public int getRemaining() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ByteBuffer input = this.input;
             return input == null ? inputLim - inputPos : input.remaining();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -277,9 +294,12 @@ public class Inflater {
      * @return true if no data remains in the input buffer
      */
     public boolean needsInput() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ByteBuffer input = this.input;
             return input == null ? inputLim == inputPos : ! input.hasRemaining();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -289,8 +309,11 @@ public class Inflater {
      * @see Inflater#setDictionary
      */
     public boolean needsDictionary() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             return needDict;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -301,8 +324,11 @@ public class Inflater {
      * reached
      */
     public boolean finished() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             return finished;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -343,7 +369,8 @@ public class Inflater {
         throws DataFormatException
     {
         Preconditions.checkFromIndexSize(off, len, output.length, Preconditions.AIOOBE_FORMATTER);
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             ByteBuffer input = this.input;
             long result;
@@ -416,6 +443,8 @@ public class Inflater {
             bytesWritten += written;
             bytesRead += read;
             return written;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -487,7 +516,8 @@ public class Inflater {
         if (output.isReadOnly()) {
             throw new ReadOnlyBufferException();
         }
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             ByteBuffer input = this.input;
             long result;
@@ -600,6 +630,8 @@ public class Inflater {
             bytesWritten += written;
             bytesRead += read;
             return written;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -608,9 +640,12 @@ public class Inflater {
      * @return the ADLER-32 value of the uncompressed data
      */
     public int getAdler() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             return getAdler(zsRef.address());
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -634,9 +669,12 @@ public class Inflater {
      * @since 1.5
      */
     public long getBytesRead() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             return bytesRead;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -660,9 +698,12 @@ public class Inflater {
      * @since 1.5
      */
     public long getBytesWritten() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             return bytesWritten;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -670,7 +711,8 @@ public class Inflater {
      * Resets inflater so that a new set of input data can be processed.
      */
     public void reset() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             ensureOpen();
             reset(zsRef.address());
             input = ZipUtils.defaultBuf;
@@ -678,6 +720,8 @@ public class Inflater {
             finished = false;
             needDict = false;
             bytesRead = bytesWritten = 0;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -689,16 +733,19 @@ public class Inflater {
      * Inflater object is undefined.
      */
     public void end() {
-        synchronized (zsRef) {
+        lock.lock();
+        try {
             zsRef.clean();
             input = ZipUtils.defaultBuf;
             inputArray = null;
+        } finally {
+            lock.unlock();
         }
     }
 
 
     private void ensureOpen () {
-        assert Thread.holdsLock(zsRef);
+        assert lock.isHeldByCurrentThread();
         if (zsRef.address() == 0)
             throw new NullPointerException("Inflater has been closed");
     }
@@ -33,6 +33,7 @@ import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.TreeSet;
 import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 import java.util.jar.JarEntry;
@@ -76,6 +77,11 @@ public class ZipFile implements ZipConstants, Closeable {
     private final String name;     // zip file name
     private volatile boolean closeRequested;
 
+    // Guards access to the source and the last entry looked up. Not a
+    // monitor so that virtual threads reading entries do not pin their
+    // carrier while blocked on file I/O.
+    private final ReentrantLock lock = new ReentrantLock();
+
     // The "resource" used by this zip file that needs to be
     // cleaned after use.
     // a) the input streams that need to be closed
@@ -285,12 +291,15 @@ public class ZipFile implements ZipConstants, Closeable {
      * @since 1.7
      */
     public String getComment() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             if (res.zsrc.comment == null) {
                 return null;
             }
             return res.zsrc.zc.toString(res.zsrc.comment);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -305,12 +314,15 @@ public class ZipFile implements ZipConstants, Closeable {
     public ZipEntry getEntry(String name) {
         Objects.requireNonNull(name, "name");
         ZipEntry entry = null;
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             int pos = res.zsrc.getEntryPos(name, true);
             if (pos != -1) {
                 entry = getZipEntry(name, pos);
             }
+        } finally {
+            lock.unlock();
         }
         return entry;
     }
@@ -342,7 +354,8 @@ public class ZipFile implements ZipConstants, Closeable {
         ZipFileInputStream in;
         Source zsrc = res.zsrc;
         Set<InputStream> istreams = res.istreams;
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             if (Objects.equals(lastEntryName, entry.name)) {
                 pos = lastEntryPos;
@@ -355,8 +368,11 @@ public class ZipFile implements ZipConstants, Closeable {
             in = new ZipFileInputStream(zsrc.cen, pos);
             switch (CENHOW(zsrc.cen, pos)) {
                 case STORED:
-                    synchronized (istreams) {
+                    res.istreamsLock.lock();
+                    try {
                         istreams.add(in);
+                    } finally {
+                        res.istreamsLock.unlock();
                     }
                     return in;
                 case DEFLATED:
@@ -370,13 +386,18 @@ public class ZipFile implements ZipConstants, Closeable {
                         size = 4096;
                     }
                     InputStream is = new ZipFileInflaterInputStream(in, res, (int) size);
-                    synchronized (istreams) {
+                    res.istreamsLock.lock();
+                    try {
                         istreams.add(is);
+                    } finally {
+                        res.istreamsLock.unlock();
                     }
                     return is;
                 default:
                     throw new ZipException("invalid compression method");
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -418,8 +439,11 @@ public class ZipFile implements ZipConstants, Closeable {
                 return;
             closeRequested = true;
             super.close();
-            synchronized (res.istreams) {
+            res.istreamsLock.lock();
+            try {
                 res.istreams.remove(this);
+            } finally {
+                res.istreamsLock.unlock();
             }
             cleanable.clean();
         }
@@ -485,13 +509,16 @@ public class ZipFile implements ZipConstants, Closeable {
         @Override
         @SuppressWarnings("unchecked")
         public T next() {
-            synchronized (ZipFile.this) {
+            lock.lock();
+            try {
                 ensureOpen();
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
                 // each "entry" has 3 ints in table entries
                 return (T)getZipEntry(null, res.zsrc.getEntryPos(i++ * 3));
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -507,16 +534,22 @@ public class ZipFile implements ZipConstants, Closeable {
      * @throws IllegalStateException if the zip file has been closed
      */
     public Enumeration<? extends ZipEntry> entries() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return new ZipEntryIterator<ZipEntry>(res.zsrc.total);
+        } finally {
+            lock.unlock();
         }
     }
 
     private Enumeration<JarEntry> jarEntries() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return new ZipEntryIterator<JarEntry>(res.zsrc.total);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -539,9 +572,12 @@ public class ZipFile implements ZipConstants, Closeable {
             if (action == null)
                 throw new NullPointerException();
             if (index >= 0 && index < fence) {
-                synchronized (ZipFile.this) {
+                lock.lock();
+                try {
                     ensureOpen();
                     action.accept(gen.apply(res.zsrc.getEntryPos(index++ * 3)));
+                } finally {
+                    lock.unlock();
                 }
                 return true;
             }
@@ -560,11 +596,14 @@ public class ZipFile implements ZipConstants, Closeable {
      * @since 1.8
      */
     public Stream<? extends ZipEntry> stream() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return StreamSupport.stream(new EntrySpliterator<>(0, res.zsrc.total,
                 pos -> getZipEntry(null, pos)), false);
-       }
+        } finally {
+            lock.unlock();
+        }
     }
 
     private String getEntryName(int pos) {
@@ -585,10 +624,13 @@ public class ZipFile implements ZipConstants, Closeable {
      * @since 10
      */
     private Stream<String> entryNameStream() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return StreamSupport.stream(
                 new EntrySpliterator<>(0, res.zsrc.total, this::getEntryName), false);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -603,10 +645,13 @@ public class ZipFile implements ZipConstants, Closeable {
      * @since 10
      */
     private Stream<JarEntry> jarStream() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return StreamSupport.stream(new EntrySpliterator<>(0, res.zsrc.total,
                 pos -> (JarEntry)getZipEntry(null, pos)), false);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -671,18 +716,23 @@ public class ZipFile implements ZipConstants, Closeable {
      * @throws IllegalStateException if the zip file has been closed
      */
     public int size() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return res.zsrc.total;
+        } finally {
+            lock.unlock();
         }
     }
 
     private static class CleanableResource implements Runnable {
         // The outstanding inputstreams that need to be closed
         final Set<InputStream> istreams;
+        final ReentrantLock istreamsLock = new ReentrantLock();
 
         // List of cached Inflater objects for decompression
         Deque<Inflater> inflaterCache;
+        private final ReentrantLock inflaterCacheLock = new ReentrantLock();
 
         final Cleanable cleanable;
 
@@ -705,10 +755,13 @@ public class ZipFile implements ZipConstants, Closeable {
          */
         Inflater getInflater() {
             Inflater inf;
-            synchronized (inflaterCache) {
+            inflaterCacheLock.lock();
+            try {
                 if ((inf = inflaterCache.poll()) != null) {
                     return inf;
                 }
+            } finally {
+                inflaterCacheLock.unlock();
             }
             return new Inflater(true);
         }
@@ -717,16 +770,16 @@ public class ZipFile implements ZipConstants, Closeable {
          * Releases the specified inflater to the list of available inflaters.
          */
         void releaseInflater(Inflater inf) {
-            Deque<Inflater> inflaters = this.inflaterCache;
-            if (inflaters != null) {
-                synchronized (inflaters) {
-                    // double checked!
-                    if (inflaters == this.inflaterCache) {
-                        inf.reset();
-                        inflaters.add(inf);
-                        return;
-                    }
+            inflaterCacheLock.lock();
+            try {
+                Deque<Inflater> inflaters = this.inflaterCache;
+                if (inflaters != null) {
+                    inf.reset();
+                    inflaters.add(inf);
+                    return;
                 }
+            } finally {
+                inflaterCacheLock.unlock();
             }
             // inflaters cache already closed - just end it.
             inf.end();
@@ -736,11 +789,10 @@ public class ZipFile implements ZipConstants, Closeable {
             IOException ioe = null;
 
             // Release cached inflaters and close the cache first
-            Deque<Inflater> inflaters = this.inflaterCache;
-            if (inflaters != null) {
-                synchronized (inflaters) {
-                    // no need to double-check as only one thread gets a
-                    // chance to execute run() (Cleaner guarantee)...
+            inflaterCacheLock.lock();
+            try {
+                Deque<Inflater> inflaters = this.inflaterCache;
+                if (inflaters != null) {
                     Inflater inf;
                     while ((inf = inflaters.poll()) != null) {
                         inf.end();
@@ -748,11 +800,14 @@ public class ZipFile implements ZipConstants, Closeable {
                     // close inflaters cache
                     this.inflaterCache = null;
                 }
+            } finally {
+                inflaterCacheLock.unlock();
             }
 
             // Close streams, release their inflaters
             if (istreams != null) {
-                synchronized (istreams) {
+                istreamsLock.lock();
+                try {
                     if (!istreams.isEmpty()) {
                         InputStream[] copy = istreams.toArray(new InputStream[0]);
                         istreams.clear();
@@ -765,19 +820,20 @@ public class ZipFile implements ZipConstants, Closeable {
                             }
                         }
                     }
+                } finally {
+                    istreamsLock.unlock();
                 }
             }
 
-            // Release zip src
+            // Release zip src, only one thread gets a chance to execute
+            // run() (Cleaner guarantee)
             if (zsrc != null) {
-                synchronized (zsrc) {
-                    try {
-                        Source.release(zsrc);
-                        zsrc = null;
-                    } catch (IOException e) {
-                        if (ioe == null) ioe = e;
-                        else ioe.addSuppressed(e);
-                    }
+                try {
+                    Source.release(zsrc);
+                    zsrc = null;
+                } catch (IOException e) {
+                    if (ioe == null) ioe = e;
+                    else ioe.addSuppressed(e);
                 }
             }
             if (ioe != null) {
@@ -801,7 +857,8 @@ public class ZipFile implements ZipConstants, Closeable {
         }
         closeRequested = true;
 
-        synchronized (this) {
+        lock.lock();
+        try {
             // Close streams, release their inflaters, release cached inflaters
             // and release zip source
             try {
@@ -809,6 +866,8 @@ public class ZipFile implements ZipConstants, Closeable {
             } catch (UncheckedIOException ioe) {
                 throw ioe.getCause();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -912,7 +971,8 @@ public class ZipFile implements ZipConstants, Closeable {
         }
 
         public int read(byte[] b, int off, int len) throws IOException {
-            synchronized (ZipFile.this) {
+            lock.lock();
+            try {
                 ensureOpenOrZipException();
                 initDataOffset();
                 if (rem == 0) {
@@ -929,6 +989,8 @@ public class ZipFile implements ZipConstants, Closeable {
                     pos += len;
                     rem -= len;
                 }
+            } finally {
+                lock.unlock();
             }
             if (rem == 0) {
                 close();
@@ -946,7 +1008,8 @@ public class ZipFile implements ZipConstants, Closeable {
         }
 
         public long skip(long n) throws IOException {
-            synchronized (ZipFile.this) {
+            lock.lock();
+            try {
                 initDataOffset();
                 long newPos = pos + n;
                 if (n > 0) {
@@ -964,6 +1027,8 @@ public class ZipFile implements ZipConstants, Closeable {
                 }
                 pos += n;
                 rem -= n;
+            } finally {
+                lock.unlock();
             }
             if (rem == 0) {
                 close();
@@ -985,8 +1050,11 @@ public class ZipFile implements ZipConstants, Closeable {
             }
             closeRequested = true;
             rem = 0;
-            synchronized (res.istreams) {
+            res.istreamsLock.lock();
+            try {
                 res.istreams.remove(this);
+            } finally {
+                res.istreamsLock.unlock();
             }
         }
 
@@ -998,7 +1066,8 @@ public class ZipFile implements ZipConstants, Closeable {
      * JarFile, via SharedSecrets, as an optimization.
      */
     private List<String> getManifestAndSignatureRelatedFiles() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             Source zsrc = res.zsrc;
             int[] metanames = zsrc.signatureMetaNames;
@@ -1016,6 +1085,8 @@ public class ZipFile implements ZipConstants, Closeable {
                 }
             }
             return files == null ? List.of() : files;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -1025,9 +1096,12 @@ public class ZipFile implements ZipConstants, Closeable {
      * unsigned.
      */
     private int getManifestNum() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return res.zsrc.manifestNum;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -1039,13 +1113,16 @@ public class ZipFile implements ZipConstants, Closeable {
      * when looking up the manifest file.
      */
     private String getManifestName(boolean onlyIfSignatureRelatedFiles) {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             Source zsrc = res.zsrc;
             int pos = zsrc.manifestPos;
             if (pos >= 0 && (!onlyIfSignatureRelatedFiles || zsrc.signatureMetaNames != null)) {
                 return getEntryName(pos);
             }
+        } finally {
+            lock.unlock();
         }
         return null;
     }
@@ -1058,9 +1135,12 @@ public class ZipFile implements ZipConstants, Closeable {
      * Returns an empty array if no versioned entries exist.
      */
     private int[] getMetaInfVersions() {
-        synchronized (this) {
+        lock.lock();
+        try {
             ensureOpen();
             return res.zsrc.metaVersions;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -1129,6 +1209,7 @@ public class ZipFile implements ZipConstants, Closeable {
         private int refs = 1;
 
         private RandomAccessFile zfile;      // zfile of the underlying zip file
+        private final ReentrantLock zfileLock = new ReentrantLock();
         private byte[] cen;                  // CEN & ENDHDR
         private long locpos;                 // position of first LOC header (usually 0)
         private byte[] comment;              // zip file comment
@@ -1250,6 +1331,7 @@ public class ZipFile implements ZipConstants, Closeable {
             }
         }
         private static final HashMap<Key, Source> files = new HashMap<>();
+        private static final ReentrantLock filesLock = new ReentrantLock();
         /**
          * Use the platform's default file system to avoid
          * issues when the VM is configured to use a custom file system provider.
@@ -1267,16 +1349,20 @@ public class ZipFile implements ZipConstants, Closeable {
                 throw new IOException(ipe);
             }
             Source src;
-            synchronized (files) {
+            filesLock.lock();
+            try {
                 src = files.get(key);
                 if (src != null) {
                     src.refs++;
                     return src;
                 }
+            } finally {
+                filesLock.unlock();
             }
             src = new Source(key, toDelete, zc);
 
-            synchronized (files) {
+            filesLock.lock();
+            try {
                 Source prev = files.putIfAbsent(key, src);
                 if (prev != null) {    // someone else put in first
                     src.close();       // close the newly created one
@@ -1284,15 +1370,20 @@ public class ZipFile implements ZipConstants, Closeable {
                     return prev;
                 }
                 return src;
+            } finally {
+                filesLock.unlock();
             }
         }
 
         static void release(Source src) throws IOException {
-            synchronized (files) {
+            filesLock.lock();
+            try {
                 if (src != null && --src.refs == 0) {
                     files.remove(src.key);
                     src.close();
                 }
+            } finally {
+                filesLock.unlock();
             }
         }
 
@@ -1339,7 +1430,8 @@ public class ZipFile implements ZipConstants, Closeable {
         private final int readFullyAt(byte[] buf, int off, int len, long pos)
             throws IOException
         {
-            synchronized (zfile) {
+            zfileLock.lock();
+            try {
                 zfile.seek(pos);
                 int N = len;
                 while (N > 0) {
@@ -1349,15 +1441,20 @@ public class ZipFile implements ZipConstants, Closeable {
                     N -= n;
                 }
                 return len;
+            } finally {
+                zfileLock.unlock();
             }
         }
 
         private final int readAt(byte[] buf, int off, int len, long pos)
             throws IOException
         {
-            synchronized (zfile) {
+            zfileLock.lock();
+            try {
                 zfile.seek(pos);
                 return zfile.read(buf, off, len);
+            } finally {
+                zfileLock.unlock();
             }
         }
 
@@ -19,6 +19,11 @@ public interface JavaNioAccess {
      */
     BufferPool getDirectBufferPool();
 
+    /**
+     * Used by {@code jdk.internal.misc.VM}.
+     */
+    BufferPool getPooledDirectBufferPool();
+
     /**
      * Constructs a direct ByteBuffer referring to the block of memory starting
      * at the given memory address and extending {@code cap} bytes.
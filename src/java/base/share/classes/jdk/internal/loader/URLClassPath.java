@@ -38,6 +38,7 @@ import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.jar.JarFile;
 import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
@@ -113,6 +114,10 @@ public class URLClassPath {
     /* Whether this URLClassLoader has been closed yet */
     private boolean closed = false;
 
+    /* Guards loaders, lmap and closed. Loaders are opened while holding
+     * it, so it is not a monitor to avoid pinning virtual threads. */
+    private final ReentrantLock lock = new ReentrantLock();
+
     /* The context to be used when loading classes and resources.  If non-null
      * this is the context that was captured during the creation of the
      * URLClassLoader. null implies no additional security restrictions. */
@@ -198,20 +203,25 @@ public class URLClassPath {
         this.acc = null;
     }
 
-    public synchronized List<IOException> closeLoaders() {
-        if (closed) {
-            return Collections.emptyList();
-        }
-        List<IOException> result = new ArrayList<>();
-        for (Loader loader : loaders) {
-            try {
-                loader.close();
-            } catch (IOException e) {
-                result.add(e);
+    public List<IOException> closeLoaders() {
+        lock.lock();
+        try {
+            if (closed) {
+                return Collections.emptyList();
+            }
+            List<IOException> result = new ArrayList<>();
+            for (Loader loader : loaders) {
+                try {
+                    loader.close();
+                } catch (IOException e) {
+                    result.add(e);
+                }
             }
+            closed = true;
+            return result;
+        } finally {
+            lock.unlock();
         }
-        closed = true;
-        return result;
     }
 
     /**
@@ -221,14 +231,19 @@ public class URLClassPath {
      * If the URL specified is null or is already in the list of
      * URLs, then invoking this method has no effect.
      */
-    public synchronized void addURL(URL url) {
-        if (closed || url == null)
-            return;
-        synchronized (unopenedUrls) {
-            if (! path.contains(url)) {
-                unopenedUrls.addLast(url);
-                path.add(url);
+    public void addURL(URL url) {
+        lock.lock();
+        try {
+            if (closed || url == null)
+                return;
+            synchronized (unopenedUrls) {
+                if (! path.contains(url)) {
+                    unopenedUrls.addLast(url);
+                    path.add(url);
+                }
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -405,53 +420,58 @@ public class URLClassPath {
      * path. The URLs are opened and expanded as needed. Returns null
      * if the specified index is out of range.
      */
-    private synchronized Loader getLoader(int index) {
-        if (closed) {
-            return null;
-        }
-        // Expand URL search path until the request can be satisfied
-        // or unopenedUrls is exhausted.
-        while (loaders.size() < index + 1) {
-            final URL url;
-            synchronized (unopenedUrls) {
-                url = unopenedUrls.pollFirst();
-                if (url == null)
-                    return null;
-            }
-            // Skip this URL if it already has a Loader. (Loader
-            // may be null in the case where URL has not been opened
-            // but is referenced by a JAR index.)
-            String urlNoFragString = URLUtil.urlNoFragString(url);
-            if (lmap.containsKey(urlNoFragString)) {
-                continue;
+    private Loader getLoader(int index) {
+        lock.lock();
+        try {
+            if (closed) {
+                return null;
             }
-            // Otherwise, create a new Loader for the URL.
-            Loader loader;
-            try {
-                loader = getLoader(url);
-                // If the loader defines a local class path then add the
-                // URLs as the next URLs to be opened.
-                URL[] urls = loader.getClassPath();
-                if (urls != null) {
-                    push(urls);
+            // Expand URL search path until the request can be satisfied
+            // or unopenedUrls is exhausted.
+            while (loaders.size() < index + 1) {
+                final URL url;
+                synchronized (unopenedUrls) {
+                    url = unopenedUrls.pollFirst();
+                    if (url == null)
+                        return null;
                 }
-            } catch (IOException e) {
-                // Silently ignore for now...
-                continue;
-            } catch (SecurityException se) {
-                // Always silently ignore. The context, if there is one, that
-                // this URLClassPath was given during construction will never
-                // have permission to access the URL.
-                if (DEBUG) {
-                    System.err.println("Failed to access " + url + ", " + se );
+                // Skip this URL if it already has a Loader. (Loader
+                // may be null in the case where URL has not been opened
+                // but is referenced by a JAR index.)
+                String urlNoFragString = URLUtil.urlNoFragString(url);
+                if (lmap.containsKey(urlNoFragString)) {
+                    continue;
+                }
+                // Otherwise, create a new Loader for the URL.
+                Loader loader;
+                try {
+                    loader = getLoader(url);
+                    // If the loader defines a local class path then add the
+                    // URLs as the next URLs to be opened.
+                    URL[] urls = loader.getClassPath();
+                    if (urls != null) {
+                        push(urls);
+                    }
+                } catch (IOException e) {
+                    // Silently ignore for now...
+                    continue;
+                } catch (SecurityException se) {
+                    // Always silently ignore. The context, if there is one, that
+                    // this URLClassPath was given during construction will never
+                    // have permission to access the URL.
+                    if (DEBUG) {
+                        System.err.println("Failed to access " + url + ", " + se );
+                    }
+                    continue;
                 }
-                continue;
+                // Finally, add the Loader to the search path.
+                loaders.add(loader);
+                lmap.put(urlNoFragString, loader);
             }
-            // Finally, add the Loader to the search path.
-            loaders.add(loader);
-            lmap.put(urlNoFragString, loader);
+            return loaders.get(index);
+        } finally {
+            lock.unlock();
         }
-        return loaders.get(index);
     }
 
     /*
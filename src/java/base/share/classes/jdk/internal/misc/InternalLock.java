@@ -4,6 +4,7 @@
 
 package java.base.share.classes.jdk.internal.misc;
 
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -60,4 +61,8 @@ public class InternalLock {
     public boolean isHeldByCurrentThread() {
         return lock.isHeldByCurrentThread();
     }
+
+    public Condition newCondition() {
+        return lock.newCondition();
+    }
 }
@@ -78,6 +78,7 @@ public class ThreadFlock implements AutoCloseable {
     private volatile int threadCount;
 
     private final String name;
+    private final Object attachment;
     private final ScopedValueContainer.BindingsSnapshot scopedValueBindings;
     private final ThreadContainerImpl container; // encapsulate for now
 
@@ -88,8 +89,9 @@ public class ThreadFlock implements AutoCloseable {
     // set by wakeup, cleared by awaitAll
     private volatile boolean permit;
 
-    ThreadFlock(String name) {
+    ThreadFlock(String name, Object attachment) {
         this.name = name;
+        this.attachment = attachment;
         this.scopedValueBindings = ScopedValueContainer.captureBindings();
         this.container = new ThreadContainerImpl(this);
     }
@@ -207,11 +209,47 @@ public class ThreadFlock implements AutoCloseable {
      * @return a new thread flock
      */
     public static ThreadFlock open(String name) {
-        var flock = new ThreadFlock(name);
+        return open(name, null);
+    }
+
+    /**
+     * Opens a new thread flock with an attachment. The attachment is an object,
+     * typically the higher-level construct that uses the flock, that can be found
+     * from nested flocks with {@link #enclosingFlock()}.
+     *
+     * @param name the name of the flock, can be null
+     * @param attachment the attachment, can be null
+     * @return a new thread flock
+     * @see #open(String)
+     */
+    public static ThreadFlock open(String name, Object attachment) {
+        var flock = new ThreadFlock(name, attachment);
         flock.container.push();
         return flock;
     }
 
+    /**
+     * {@return the attachment of this flock or {@code null} if none}
+     */
+    public Object attachment() {
+        return attachment;
+    }
+
+    /**
+     * {@return the nearest thread flock that is an ancestor of this flock, or
+     * {@code null} if none} The parent of a flock is determined as described
+     * in {@link #open(String)}.
+     */
+    public ThreadFlock enclosingFlock() {
+        ThreadContainer parent = container.parent();
+        while (parent != null) {
+            if (parent instanceof ThreadContainerImpl impl)
+                return impl.flock;
+            parent = parent.parent();
+        }
+        return null;
+    }
+
     /**
      * {@return the name of this flock or {@code null} if unnamed}
      */
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+package java.base.share.classes.jdk.internal.misc;
+
+/**
+ * A hierarchical hashed timing wheel of nodes keyed by a deadline in ticks.
+ * This is the data structure shared by the timers in java.base; it does no
+ * locking and has no notion of time beyond the tick numbers passed to it.
+ * Callers guard it with their own lock and drive it from their own thread.
+ *
+ * <p>The wheel has {@code LEVELS} levels of {@code SLOTS} buckets, where a
+ * bucket of level {@code L} spans {@code SLOTS^L} ticks. A node is linked
+ * into the bucket of the lowest level that can hold its deadline, so linking
+ * and unlinking are constant time. When the current tick crosses into the
+ * span of an occupied higher-level bucket, the bucket is cascaded: its nodes
+ * are relinked into lower levels. A node only expires once its level 0
+ * bucket is reached, so it never expires before its deadline. Nodes that
+ * expire in the same tick, and were linked at the same level, expire in the
+ * order they were linked.
+ */
+public final class TimingWheel {
+    private static final int LEVEL_SHIFT = 6;
+    private static final int SLOTS = 1 << LEVEL_SHIFT;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 7;        // later deadlines are cascaded from the top level
+
+    private final Node[] heads = new Node[LEVELS * SLOTS];
+    private final Node[] tails = new Node[LEVELS * SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private long currentTick;                   // next tick to process
+    private int size;
+
+    /**
+     * An element of the wheel. Subclasses carry the payload.
+     */
+    public static class Node {
+        long deadline;
+        int bucket = -1;                        // -1 if not linked
+        Node prev, next;                        // next also links expired nodes
+
+        protected Node() { }
+
+        /**
+         * Returns the deadline, in ticks, that this node was last linked with.
+         */
+        public final long deadline() {
+            return deadline;
+        }
+
+        /**
+         * Returns true if this node is linked into a wheel. This may be read
+         * without the wheel's lock as a hint.
+         */
+        public final boolean isLinked() {
+            return bucket >= 0;
+        }
+
+        /**
+         * Returns the node after this one in a list returned by {@link
+         * TimingWheel#advance(long)} or {@link TimingWheel#takeAll()}.
+         */
+        public final Node next() {
+            return next;
+        }
+
+        /**
+         * Returns the node after this one in a list returned by {@link
+         * TimingWheel#advance(long)} or {@link TimingWheel#takeAll()}, and
+         * detaches this node from the list.
+         */
+        public final Node takeNext() {
+            Node n = next;
+            next = null;
+            return n;
+        }
+    }
+
+    /**
+     * Returns the number of nodes linked into the wheel.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets the current tick of an empty wheel.
+     */
+    public void reset(long tick) {
+        assert size == 0;
+        currentTick = tick;
+    }
+
+    /**
+     * Links a node into the bucket for the given deadline, relative to the
+     * current tick. A deadline before the current tick expires at the next
+     * advance.
+     */
+    public void link(Node node, long deadline) {
+        node.deadline = deadline;
+        insert(node);
+        size++;
+    }
+
+    /**
+     * Unlinks a node from its bucket.
+     */
+    public void unlink(Node node) {
+        int b = node.bucket;
+        Node p = node.prev, n = node.next;
+        if (p == null)
+            heads[b] = n;
+        else
+            p.next = n;
+        if (n == null)
+            tails[b] = p;
+        else
+            n.prev = p;
+        node.prev = node.next = null;
+        node.bucket = -1;
+        if (heads[b] == null)
+            occupied[b >>> LEVEL_SHIFT] &= ~(1L << (b & SLOT_MASK));
+        size--;
+    }
+
+    /**
+     * Returns the earliest tick, not before the current tick, at which an
+     * occupied bucket is cascaded or expires, or Long.MAX_VALUE if the wheel
+     * is empty.
+     */
+    public long nextTick() {
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            long occ = occupied[level];
+            if (occ != 0L) {
+                int shift = level * LEVEL_SHIFT;
+                // first slot of this level processed at or after currentTick
+                long base = (currentTick + (1L << shift) - 1) >>> shift;
+                int dist = Long.numberOfTrailingZeros(Long.rotateRight(occ, (int) base & SLOT_MASK));
+                long tick = (base + dist) << shift;
+                if (tick < next)
+                    next = tick;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Advances the current tick up to and including the given tick,
+     * cascading buckets as their span is reached, and returns the expired
+     * nodes in order as a list linked through their next fields, or null
+     * if none expired.
+     */
+    public Node advance(long nowTick) {
+        Node first = null, last = null;
+        while (size > 0 && currentTick <= nowTick) {
+            long tick = currentTick;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = level * LEVEL_SHIFT;
+                if ((tick & ((1L << shift) - 1)) == 0L) {
+                    int index = (int) (tick >>> shift) & SLOT_MASK;
+                    for (Node t = detach(level * SLOTS + index), n; t != null; t = n) {
+                        n = t.next;
+                        insert(t);
+                    }
+                }
+            }
+            Node expired = detach((int) tick & SLOT_MASK);
+            if (expired != null) {
+                if (last == null)
+                    first = expired;
+                else
+                    last.next = expired;
+                for (last = expired; ; last = last.next) {
+                    size--;
+                    if (last.next == null)
+                        break;
+                }
+            }
+            currentTick = Math.min(Math.max(nextTick(), tick + 1), nowTick + 1);
+        }
+        if (currentTick <= nowTick)
+            currentTick = nowTick + 1;   // nothing pending, skip ahead
+        return first;
+    }
+
+    /**
+     * Unlinks all nodes from the wheel, returning them as a list linked
+     * through their next fields, or null if the wheel is empty.
+     */
+    public Node takeAll() {
+        Node first = null, last = null;
+        for (int b = 0; b < heads.length && size > 0; b++) {
+            Node t = detach(b);
+            if (t != null) {
+                if (last == null)
+                    first = t;
+                else
+                    last.next = t;
+                for (last = t; ; last = last.next) {
+                    size--;
+                    if (last.next == null)
+                        break;
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Appends a node to the bucket for its deadline, without counting it.
+     */
+    private void insert(Node node) {
+        long delta = node.deadline - currentTick;
+        int level;
+        long slot;
+        if (delta < SLOTS) {
+            level = 0;
+            slot = Math.max(node.deadline, currentTick);
+        } else {
+            level = (63 - Long.numberOfLeadingZeros(delta)) / LEVEL_SHIFT;
+            if (level < LEVELS) {
+                slot = node.deadline >>> (level * LEVEL_SHIFT);
+            } else {
+                // beyond the range of the wheel, cascade again later
+                level = LEVELS - 1;
+                slot = (currentTick >>> (level * LEVEL_SHIFT)) + SLOT_MASK;
+            }
+        }
+        int index = (int) slot & SLOT_MASK;
+        int b = level * SLOTS + index;
+        Node last = tails[b];
+        node.bucket = b;
+        node.prev = last;
+        node.next = null;
+        if (last == null)
+            heads[b] = node;
+        else
+            last.next = node;
+        tails[b] = node;
+        occupied[level] |= 1L << index;
+    }
+
+    /**
+     * Removes all nodes from a bucket, without uncounting them, returning
+     * them as a list linked through their next fields.
+     */
+    private Node detach(int b) {
+        Node first = heads[b];
+        if (first != null) {
+            heads[b] = tails[b] = null;
+            occupied[b >>> LEVEL_SHIFT] &= ~(1L << (b & SLOT_MASK));
+            for (Node t = first; t != null; t = t.next) {
+                t.prev = null;
+                t.bucket = -1;
+            }
+        }
+        return first;
+    }
+}
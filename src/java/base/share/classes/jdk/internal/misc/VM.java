@@ -467,8 +467,9 @@ public class VM {
         static final List<BufferPool> BUFFER_POOLS;
 
         static {
-            ArrayList<BufferPool> bufferPools = new ArrayList<>(3);
+            ArrayList<BufferPool> bufferPools = new ArrayList<>(4);
             bufferPools.add(SharedSecrets.getJavaNioAccess().getDirectBufferPool());
+            bufferPools.add(SharedSecrets.getJavaNioAccess().getPooledDirectBufferPool());
             bufferPools.add(FileChannelImpl.getMappedBufferPool());
             bufferPools.add(FileChannelImpl.getSyncMappedBufferPool());
 
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2023 Geo-Studios - All Rights Reserved.
+ */
+
+package java.base.share.classes.sun.nio.ch;
+
+import jdk.internal.misc.Unsafe;
+import jdk.internal.ref.CleanerFactory;
+
+/**
+ * An array of entries in native memory, each describing one datagram to
+ * be received or sent by a single recvmmsg or sendmmsg system call, and
+ * the native socket addresses that they refer to.
+ *
+ * This class is not thread safe.
+ */
+final class DatagramBatch {
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+    // maximum number of datagrams per system call
+    static final int MAX_SIZE = 64;
+
+    // maximum length of a datagram, as MAX_PACKET_LEN in native code
+    static final int MAX_DATAGRAM_LENGTH = 65536;
+
+    /**
+     * struct {
+     *     jlong bufAddress;
+     *     jint bufLen;
+     *     jint msgLen;            // set by the system call
+     *     jlong sockAddress;
+     *     jint sockAddressLen;    // set by recvmmsg, or 0 if connected
+     *     jint unused;
+     * };
+     */
+    private static final int SIZEOF_ENTRY               = 32;
+    private static final int OFFSETOF_BUF_ADDRESS       = 0;
+    private static final int OFFSETOF_BUF_LEN           = 8;
+    private static final int OFFSETOF_MSG_LEN           = 12;
+    private static final int OFFSETOF_SOCK_ADDRESS      = 16;
+    private static final int OFFSETOF_SOCK_ADDRESS_LEN  = 24;
+
+    private final long address;
+    private final NativeSocketAddress[] sockAddrs;
+
+    DatagramBatch() {
+        NativeSocketAddress[] sockAddrs = NativeSocketAddress.allocate(MAX_SIZE);
+        long address;
+        try {
+            address = UNSAFE.allocateMemory(MAX_SIZE * SIZEOF_ENTRY);
+        } catch (OutOfMemoryError e) {
+            NativeSocketAddress.freeAll(sockAddrs);
+            throw e;
+        }
+        UNSAFE.setMemory(address, MAX_SIZE * SIZEOF_ENTRY, (byte) 0);
+        this.address = address;
+        this.sockAddrs = sockAddrs;
+        CleanerFactory.cleaner().register(this, () -> {
+            UNSAFE.freeMemory(address);
+            NativeSocketAddress.freeAll(sockAddrs);
+        });
+    }
+
+    /**
+     * Returns the address of the entry at the given index.
+     */
+    long address(int index) {
+        return address + (long) index * SIZEOF_ENTRY;
+    }
+
+    /**
+     * Returns the native socket address of the entry at the given index.
+     */
+    NativeSocketAddress sockAddr(int index) {
+        return sockAddrs[index];
+    }
+
+    /**
+     * Sets the buffer of the entry at the given index, and its socket
+     * address to the entry's native socket address.
+     *
+     * @param sockAddrLen the length of the socket address, or 0 for none
+     */
+    void set(int index, long bufAddress, int bufLen, int sockAddrLen) {
+        set(index, bufAddress, bufLen, index, sockAddrLen);
+    }
+
+    /**
+     * Sets the buffer of the entry at the given index, and its socket
+     * address to the native socket address of another entry.
+     */
+    void set(int index, long bufAddress, int bufLen, int sockAddrIndex, int sockAddrLen) {
+        long entry = address(index);
+        UNSAFE.putLong(entry + OFFSETOF_BUF_ADDRESS, bufAddress);
+        UNSAFE.putInt(entry + OFFSETOF_BUF_LEN, bufLen);
+        UNSAFE.putInt(entry + OFFSETOF_MSG_LEN, 0);
+        UNSAFE.putLong(entry + OFFSETOF_SOCK_ADDRESS, sockAddrs[sockAddrIndex].address());
+        UNSAFE.putInt(entry + OFFSETOF_SOCK_ADDRESS_LEN, sockAddrLen);
+    }
+
+    /**
+     * Returns the number of bytes received or sent by the entry at the
+     * given index.
+     */
+    int messageLength(int index) {
+        return UNSAFE.getInt(address(index) + OFFSETOF_MSG_LEN);
+    }
+}
@@ -66,7 +66,7 @@ class DatagramChannelImpl
     implements SelChImpl
 {
     // Used to make native read and write calls
-    private static final NativeDispatcher nd = new DatagramDispatcher();
+    private static final DatagramDispatcher nd = new DatagramDispatcher();
 
     private static final JavaNioAccess NIO_ACCESS = SharedSecrets.getJavaNioAccess();
 
@@ -90,6 +90,11 @@ class DatagramChannelImpl
     private InetSocketAddress previousTarget;
     private int previousSockAddrLength;
 
+    // Native entries and sockaddrs for batched receive and send, created lazily,
+    // protected by readLock and writeLock respectively
+    private DatagramBatch receiveBatch;
+    private DatagramBatch sendBatch;
+
     // Cleaner to close file descriptor and free native socket address
     private final Cleanable cleaner;
 
@@ -796,6 +801,164 @@ class DatagramChannelImpl
         return isa;
     }
 
+    @Override
+    public int receive(ByteBuffer[] dsts, SocketAddress[] sources)
+        throws IOException
+    {
+        if (sources.length < dsts.length)
+            throw new IllegalArgumentException("Too few elements in sources");
+        for (ByteBuffer dst : dsts) {
+            if (dst.isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        readLock.lock();
+        try {
+            @SuppressWarnings("removal")
+            SecurityManager sm = System.getSecurityManager();
+            if (!DatagramDispatcher.isBatchingSupported()
+                    || (sm != null && !isConnected())) {
+                return receiveEach(dsts, sources);
+            }
+            if (dsts.length == 0) {
+                ensureOpen();
+                return 0;
+            }
+            boolean blocking = isBlocking();
+            int n = 0;
+            try {
+                SocketAddress remote = beginRead(blocking, false);
+                configureSocketNonBlockingIfVirtualThread();
+                boolean connected = (remote != null);
+                n = receiveBatch(dsts, sources, connected);
+                if (blocking) {
+                    while (IOStatus.okayToRetry(n) && isOpen()) {
+                        park(Net.POLLIN);
+                        n = receiveBatch(dsts, sources, connected);
+                    }
+                }
+                return (n > 0) ? n : 0;
+            } finally {
+                endRead(blocking, (n > 0));
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Receives datagrams one at a time, the first as if by receive(ByteBuffer)
+     * and the others only while immediately available. Used when datagrams
+     * cannot be received in batches, or must be checked by the security
+     * manager.
+     */
+    private int receiveEach(ByteBuffer[] dsts, SocketAddress[] sources)
+        throws IOException
+    {
+        assert readLock.isHeldByCurrentThread();
+        int n = 0;
+        while (n < dsts.length) {
+            if (n > 0 && isBlocking() && Net.poll(fd, Net.POLLIN, 0) == 0)
+                break;
+            SocketAddress sender = receive(dsts[n]);
+            if (sender == null)
+                break;
+            sources[n++] = sender;
+        }
+        return n;
+    }
+
+    /**
+     * Receives up to DatagramBatch.MAX_SIZE datagrams into the buffers with a
+     * single system call. Heap buffers share one substitute native buffer.
+     * @return the number of datagrams received, or IOStatus.UNAVAILABLE or
+     *         IOStatus.INTERRUPTED
+     */
+    private int receiveBatch(ByteBuffer[] dsts, SocketAddress[] sources,
+                             boolean connected)
+        throws IOException
+    {
+        assert readLock.isHeldByCurrentThread();
+        DatagramBatch batch = receiveBatch;
+        if (batch == null)
+            receiveBatch = batch = new DatagramBatch();
+        int count = Math.min(dsts.length, DatagramBatch.MAX_SIZE);
+
+        int tempSize = 0;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer dst = dsts[i];
+            if (!(dst instanceof DirectBuffer) || !dst.hasRemaining())
+                tempSize += substituteLength(dst);
+        }
+        ByteBuffer temp = (tempSize > 0) ? Util.getTemporaryDirectBuffer(tempSize) : null;
+        long sessions = 0L;   // bit set for each buffer whose session is acquired
+        try {
+            long tempAddress = (temp != null) ? ((DirectBuffer) temp).address() : 0L;
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                ByteBuffer dst = dsts[i];
+                if (dst instanceof DirectBuffer && dst.hasRemaining()) {
+                    NIO_ACCESS.acquireSession(dst);
+                    sessions |= (1L << i);
+                    batch.set(i, ((DirectBuffer) dst).address() + dst.position(),
+                              dst.remaining(), 0);
+                } else {
+                    int len = substituteLength(dst);
+                    batch.set(i, tempAddress + offset, len, 0);
+                    offset += len;
+                }
+            }
+
+            int n = nd.receiveBatch(fd, batch.address(0), count, connected);
+
+            offset = 0;
+            for (int i = 0; i < n; i++) {
+                ByteBuffer dst = dsts[i];
+                int pos = dst.position();
+                int len = batch.messageLength(i);
+                if ((sessions & (1L << i)) != 0) {
+                    dst.position(pos + len);
+                } else {
+                    int rem = dst.remaining();
+                    if (rem > 0) {
+                        len = Math.min(len, rem);
+                        dst.put(pos, temp, offset, len);
+                        dst.position(pos + len);
+                    }
+                    offset += substituteLength(dst, rem);
+                }
+                NativeSocketAddress sa = batch.sockAddr(i);
+                if (i > 0 && sa.equals(batch.sockAddr(i - 1))) {
+                    sources[i] = sources[i - 1];
+                } else if (cachedInetSocketAddress != null && sa.equals(cachedSockAddr)) {
+                    sources[i] = cachedInetSocketAddress;
+                } else {
+                    sources[i] = sa.decode();
+                }
+            }
+            return n;
+        } finally {
+            for (int i = 0; sessions != 0L; i++, sessions >>>= 1) {
+                if ((sessions & 1L) != 0)
+                    NIO_ACCESS.releaseSession(dsts[i]);
+            }
+            if (temp != null)
+                Util.releaseTemporaryDirectBuffer(temp);
+        }
+    }
+
+    /**
+     * Returns the length of the substitute native buffer for a buffer in a
+     * batched receive or send. The buffer must be nonempty for a receive, as
+     * for a single datagram, and is no larger than the largest datagram.
+     */
+    private static int substituteLength(ByteBuffer buf) {
+        return substituteLength(buf, buf.remaining());
+    }
+
+    private static int substituteLength(ByteBuffer buf, int rem) {
+        return Math.min(Math.max(rem, 1), DatagramBatch.MAX_DATAGRAM_LENGTH);
+    }
+
     @Override
     public int send(ByteBuffer src, SocketAddress target)
         throws IOException
@@ -952,6 +1115,151 @@ class DatagramChannelImpl
         return len;
     }
 
+    @Override
+    public int send(ByteBuffer[] srcs, SocketAddress[] targets)
+        throws IOException
+    {
+        if (targets.length < srcs.length)
+            throw new IllegalArgumentException("Too few elements in targets");
+        InetSocketAddress[] isas = new InetSocketAddress[srcs.length];
+        for (int i = 0; i < srcs.length; i++) {
+            Objects.requireNonNull(srcs[i]);
+            isas[i] = Net.checkAddress(targets[i], family);
+        }
+
+        writeLock.lock();
+        try {
+            @SuppressWarnings("removal")
+            SecurityManager sm = System.getSecurityManager();
+            if (!DatagramDispatcher.isBatchingSupported()
+                    || (sm != null && !isConnected())) {
+                return super.send(srcs, targets);
+            }
+            if (srcs.length == 0) {
+                ensureOpen();
+                return 0;
+            }
+            boolean blocking = isBlocking();
+            int sent = 0;
+            try {
+                SocketAddress remote = beginWrite(blocking, false);
+                configureSocketNonBlockingIfVirtualThread();
+                boolean connected = (remote != null);
+                for (int i = 0; i < isas.length; i++) {
+                    InetSocketAddress isa = isas[i];
+                    if (connected) {
+                        if (!targets[i].equals(remote))
+                            throw new AlreadyConnectedException();
+                    } else {
+                        if (isa.getAddress().isLinkLocalAddress())
+                            isas[i] = IPAddressUtil.toScopedAddress(isa);
+                        if (isa.getPort() == 0)
+                            throw new SocketException("Can't send to port 0");
+                    }
+                }
+                while (sent < srcs.length) {
+                    int n = sendBatch(srcs, isas, sent, connected);
+                    if (n > 0) {
+                        sent += n;
+                    } else if (blocking && IOStatus.okayToRetry(n) && isOpen()) {
+                        park(Net.POLLOUT);
+                    } else {
+                        break;
+                    }
+                }
+            } finally {
+                endWrite(blocking, sent > 0);
+            }
+            return sent;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sends up to DatagramBatch.MAX_SIZE datagrams, starting with the buffer
+     * at the given index, with a single system call. Heap buffers share one
+     * substitute native buffer.
+     * @return the number of datagrams sent, or IOStatus.UNAVAILABLE or
+     *         IOStatus.INTERRUPTED
+     */
+    private int sendBatch(ByteBuffer[] srcs, InetSocketAddress[] targets,
+                          int start, boolean connected)
+        throws IOException
+    {
+        assert writeLock.isHeldByCurrentThread();
+        DatagramBatch batch = sendBatch;
+        if (batch == null)
+            sendBatch = batch = new DatagramBatch();
+        int count = Math.min(srcs.length - start, DatagramBatch.MAX_SIZE);
+
+        int tempSize = 0;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer src = srcs[start + i];
+            if (!(src instanceof DirectBuffer))
+                tempSize += substituteLength(src);
+        }
+        ByteBuffer temp = (tempSize > 0) ? Util.getTemporaryDirectBuffer(tempSize) : null;
+        long sessions = 0L;   // bit set for each buffer whose session is acquired
+        try {
+            long tempAddress = (temp != null) ? ((DirectBuffer) temp).address() : 0L;
+            int offset = 0;
+            int sockAddrIndex = -1;
+            int sockAddrLen = 0;
+            for (int i = 0; i < count; i++) {
+                ByteBuffer src = srcs[start + i];
+                InetSocketAddress target = targets[start + i];
+                // encode the target unless the same as the previous target
+                if (!connected && (i == 0 || target != targets[start + i - 1])) {
+                    sockAddrIndex = i;
+                    sockAddrLen = batch.sockAddr(i).encode(family, target);
+                }
+                long address;
+                int len;
+                if (src instanceof DirectBuffer) {
+                    NIO_ACCESS.acquireSession(src);
+                    sessions |= (1L << i);
+                    address = ((DirectBuffer) src).address() + src.position();
+                    len = src.remaining();
+                } else {
+                    len = Math.min(src.remaining(), DatagramBatch.MAX_DATAGRAM_LENGTH);
+                    temp.put(offset, src, src.position(), len);
+                    address = tempAddress + offset;
+                    offset += substituteLength(src, len);
+                }
+                if (connected) {
+                    batch.set(i, address, len, 0);
+                } else {
+                    batch.set(i, address, len, sockAddrIndex, sockAddrLen);
+                }
+            }
+
+            int n;
+            try {
+                n = nd.sendBatch(fd, batch.address(0), count);
+            } catch (PortUnreachableException pue) {
+                if (connected)
+                    throw pue;
+                // as for a single datagram, the first datagram is considered sent
+                ByteBuffer src = srcs[start];
+                src.position(src.limit());
+                return 1;
+            }
+            for (int i = 0; i < n; i++) {
+                ByteBuffer src = srcs[start + i];
+                src.position(src.position() + batch.messageLength(i));
+            }
+            return n;
+        } finally {
+            for (int i = 0; sessions != 0L; i++, sessions >>>= 1) {
+                if ((sessions & 1L) != 0)
+                    NIO_ACCESS.releaseSession(srcs[start + i]);
+            }
+            if (temp != null)
+                Util.releaseTemporaryDirectBuffer(temp);
+        }
+    }
+
     @Override
     public int read(ByteBuffer buf) throws IOException {
         Objects.requireNonNull(buf);
@@ -24,6 +24,7 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jdk.internal.access.JavaIOFileDescriptorAccess;
 import jdk.internal.access.SharedSecrets;
@@ -68,7 +69,7 @@ public class FileChannelImpl
     private final NativeThreadSet threads = new NativeThreadSet(2);
 
     // Lock for operations involving position and size
-    private final Object positionLock = new Object();
+    private final ReentrantLock positionLock = new ReentrantLock();
 
     // blocking operations are not interruptible
     private volatile boolean uninterruptible;
@@ -168,8 +169,8 @@ public class FileChannelImpl
             }
         }
 
-        // signal any threads blocked on this channel
-        threads.signalAndWait();
+        // signal any threads blocked or parked on this channel
+        threads.signalAndWait(() -> nd.cancelIO(fd));
 
         if (parent != null) {
 
@@ -197,7 +198,8 @@ public class FileChannelImpl
         ensureOpen();
         if (!readable)
             throw new NonReadableChannelException();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             if (direct)
                 Util.checkChannelPositionAligned(position(), alignment);
             int n = 0;
@@ -208,7 +210,7 @@ public class FileChannelImpl
                 if (!isOpen())
                     return 0;
                 do {
-                    long comp = Blocker.begin();
+                    long comp = Blocker.begin(!nd.parksForIO());
                     try {
                         n = IOUtil.read(fd, dst, -1, direct, alignment, nd);
                     } finally {
@@ -221,6 +223,8 @@ public class FileChannelImpl
                 endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
@@ -231,7 +235,8 @@ public class FileChannelImpl
         ensureOpen();
         if (!readable)
             throw new NonReadableChannelException();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             if (direct)
                 Util.checkChannelPositionAligned(position(), alignment);
             long n = 0;
@@ -242,7 +247,7 @@ public class FileChannelImpl
                 if (!isOpen())
                     return 0;
                 do {
-                    long comp = Blocker.begin();
+                    long comp = Blocker.begin(!nd.parksForIO());
                     try {
                         n = IOUtil.read(fd, dsts, offset, length, direct, alignment, nd);
                     } finally {
@@ -256,6 +261,8 @@ public class FileChannelImpl
                 endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
@@ -263,7 +270,8 @@ public class FileChannelImpl
         ensureOpen();
         if (!writable)
             throw new NonWritableChannelException();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             if (direct)
                 Util.checkChannelPositionAligned(position(), alignment);
             int n = 0;
@@ -274,7 +282,7 @@ public class FileChannelImpl
                 if (!isOpen())
                     return 0;
                 do {
-                    long comp = Blocker.begin();
+                    long comp = Blocker.begin(!nd.parksForIO());
                     try {
                         n = IOUtil.write(fd, src, -1, direct, alignment, nd);
                     } finally {
@@ -288,6 +296,8 @@ public class FileChannelImpl
                 endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
@@ -298,7 +308,8 @@ public class FileChannelImpl
         ensureOpen();
         if (!writable)
             throw new NonWritableChannelException();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             if (direct)
                 Util.checkChannelPositionAligned(position(), alignment);
             long n = 0;
@@ -309,7 +320,7 @@ public class FileChannelImpl
                 if (!isOpen())
                     return 0;
                 do {
-                    long comp = Blocker.begin();
+                    long comp = Blocker.begin(!nd.parksForIO());
                     try {
                         n = IOUtil.write(fd, srcs, offset, length, direct, alignment, nd);
                     } finally {
@@ -322,6 +333,8 @@ public class FileChannelImpl
                 endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
@@ -329,7 +342,8 @@ public class FileChannelImpl
 
     public long position() throws IOException {
         ensureOpen();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             long p = -1;
             int ti = -1;
             try {
@@ -353,6 +367,8 @@ public class FileChannelImpl
                 endBlocking(p > -1);
                 assert IOStatus.check(p);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
@@ -360,7 +376,8 @@ public class FileChannelImpl
         ensureOpen();
         if (newPosition < 0)
             throw new IllegalArgumentException();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             long p = -1;
             int ti = -1;
             try {
@@ -382,12 +399,15 @@ public class FileChannelImpl
                 endBlocking(p > -1);
                 assert IOStatus.check(p);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
     public long size() throws IOException {
         ensureOpen();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             long s = -1;
             int ti = -1;
             try {
@@ -409,6 +429,8 @@ public class FileChannelImpl
                 endBlocking(s > -1);
                 assert IOStatus.check(s);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
@@ -418,7 +440,8 @@ public class FileChannelImpl
             throw new IllegalArgumentException("Negative size");
         if (!writable)
             throw new NonWritableChannelException();
-        synchronized (positionLock) {
+        positionLock.lock();
+        try {
             int rv = -1;
             long p = -1;
             int ti = -1;
@@ -486,6 +509,8 @@ public class FileChannelImpl
                 endBlocking(rv > -1);
                 assert IOStatus.check(rv);
             }
+        } finally {
+            positionLock.unlock();
         }
     }
 
@@ -534,7 +559,7 @@ public class FileChannelImpl
         throws IOException
     {
         assert !nd.transferToDirectlyNeedsPositionLock() ||
-               Thread.holdsLock(positionLock);
+               positionLock.isHeldByCurrentThread();
 
         long n = -1;
         int ti = -1;
@@ -605,7 +630,8 @@ public class FileChannelImpl
             return IOStatus.UNSUPPORTED;
 
         if (nd.transferToDirectlyNeedsPositionLock()) {
-            synchronized (positionLock) {
+            positionLock.lock();
+            try {
                 long pos = position();
                 try {
                     return transferToDirectlyInternal(position, icount,
@@ -613,6 +639,8 @@ public class FileChannelImpl
                 } finally {
                     position(pos);
                 }
+            } finally {
+                positionLock.unlock();
             }
         } else {
             return transferToDirectlyInternal(position, icount, target, targetFD);
@@ -827,7 +855,8 @@ public class FileChannelImpl
         if (count < MAPPED_TRANSFER_THRESHOLD)
             return IOStatus.UNSUPPORTED_CASE;
 
-        synchronized (src.positionLock) {
+        src.positionLock.lock();
+        try {
             long pos = src.position();
             long max = Math.min(count, src.size() - pos);
 
@@ -863,6 +892,8 @@ public class FileChannelImpl
             long nwritten = max - remaining;
             src.position(pos + nwritten);
             return nwritten;
+        } finally {
+            src.positionLock.unlock();
         }
     }
 
@@ -941,8 +972,11 @@ public class FileChannelImpl
         if (direct)
             Util.checkChannelPositionAligned(position, alignment);
         if (nd.needsPositionLock()) {
-            synchronized (positionLock) {
+            positionLock.lock();
+            try {
                 return readInternal(dst, position);
+            } finally {
+                positionLock.unlock();
             }
         } else {
             return readInternal(dst, position);
@@ -950,7 +984,7 @@ public class FileChannelImpl
     }
 
     private int readInternal(ByteBuffer dst, long position) throws IOException {
-        assert !nd.needsPositionLock() || Thread.holdsLock(positionLock);
+        assert !nd.needsPositionLock() || positionLock.isHeldByCurrentThread();
         int n = 0;
         int ti = -1;
 
@@ -960,7 +994,7 @@ public class FileChannelImpl
             if (!isOpen())
                 return -1;
             do {
-                long comp = Blocker.begin();
+                long comp = Blocker.begin(!nd.parksForIO());
                 try {
                     n = IOUtil.read(fd, dst, position, direct, alignment, nd);
                 } finally {
@@ -986,8 +1020,11 @@ public class FileChannelImpl
         if (direct)
             Util.checkChannelPositionAligned(position, alignment);
         if (nd.needsPositionLock()) {
-            synchronized (positionLock) {
+            positionLock.lock();
+            try {
                 return writeInternal(src, position);
+            } finally {
+                positionLock.unlock();
             }
         } else {
             return writeInternal(src, position);
@@ -995,7 +1032,7 @@ public class FileChannelImpl
     }
 
     private int writeInternal(ByteBuffer src, long position) throws IOException {
-        assert !nd.needsPositionLock() || Thread.holdsLock(positionLock);
+        assert !nd.needsPositionLock() || positionLock.isHeldByCurrentThread();
         int n = 0;
         int ti = -1;
         try {
@@ -1004,7 +1041,7 @@ public class FileChannelImpl
             if (!isOpen())
                 return -1;
             do {
-                long comp = Blocker.begin();
+                long comp = Blocker.begin(!nd.parksForIO());
                 try {
                     n = IOUtil.write(fd, src, position, direct, alignment, nd);
                 } finally {
@@ -1248,7 +1285,8 @@ public class FileChannelImpl
 
             long mapSize;
             int pagePosition;
-            synchronized (positionLock) {
+            positionLock.lock();
+            try {
                 long filesize;
                 do {
                     long comp = Blocker.begin();
@@ -1305,7 +1343,9 @@ public class FileChannelImpl
                         throw new IOException("Map failed", y);
                     }
                 }
-            } // synchronized
+            } finally {
+                positionLock.unlock();
+            }
 
             // On Windows, and potentially other platforms, we need an open
             // file descriptor for some mapping operations.
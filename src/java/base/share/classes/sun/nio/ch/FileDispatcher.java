@@ -65,4 +65,21 @@ abstract class FileDispatcher extends NativeDispatcher {
                                long position, long count, boolean append);
 
     abstract int setDirectIO(FileDescriptor fd, String path);
+
+    /**
+     * Returns {@code true} if read and write operations invoked by a virtual
+     * thread park the thread until the I/O completes, rather than block its
+     * carrier, so that there is no need to compensate with {@code Blocker}.
+     */
+    boolean parksForIO() {
+        return false;
+    }
+
+    /**
+     * Cancels read and write operations in progress on the given file
+     * descriptor by threads parked for them. Invoked repeatedly while a
+     * channel is closed until no threads remain in its operations.
+     */
+    void cancelIO(FileDescriptor fd) {
+    }
 }
@@ -65,8 +65,18 @@ class NativeThreadSet {
     // Signals all threads in this set.
     //
     synchronized void signalAndWait() {
+        signalAndWait(null);
+    }
+
+    // Signals all threads in this set, also running the given action, if
+    // any, each time to wake threads that are parked rather than blocked
+    // in a system call.
+    //
+    synchronized void signalAndWait(Runnable signaller) {
         boolean interrupted = false;
         while (used > 0) {
+            if (signaller != null)
+                signaller.run();
             int u = used;
             int n = elts.length;
             for (int i = 0; i < n; i++) {
@@ -293,9 +293,9 @@ public abstract class Poller {
      */
     static void stopPoll(int fdVal, int event) {
         if (event == Net.POLLIN) {
-            readPoller(fdVal).wakeup(fdVal);
+            readPoller(fdVal).stop(fdVal);
         } else if (event == Net.POLLOUT) {
-            writePoller(fdVal).wakeup(fdVal);
+            writePoller(fdVal).stop(fdVal);
         } else {
             throw new IllegalArgumentException();
         }
@@ -309,6 +309,19 @@ public abstract class Poller {
         stopPoll(fdVal, Net.POLLOUT);
     }
 
+    /**
+     * Unparks any thread that is polling the given file descriptor, leaving
+     * it registered so that the thread deregisters it when it continues.
+     * This ensures that a poller whose registrations hold a reference to
+     * the file does not keep the file open after it is closed.
+     */
+    private void stop(int fdVal) {
+        Thread t = map.get(fdVal);
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
     /**
      * Unparks any thread that is polling the given file descriptor.
      */
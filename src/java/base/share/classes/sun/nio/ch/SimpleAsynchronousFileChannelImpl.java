@@ -46,10 +46,25 @@ public class SimpleAsynchronousFileChannelImpl
                                                boolean writing,
                                                ThreadPool pool)
     {
-        // Executor is either default or based on pool parameters
-        ExecutorService executor = (pool == null) ?
+        return new SimpleAsynchronousFileChannelImpl(fdo, reading, writing, executor(pool));
+    }
+
+    /**
+     * Returns the executor for a channel, either default or based on pool
+     * parameters.
+     */
+    static ExecutorService executor(ThreadPool pool) {
+        return (pool == null) ?
             DefaultExecutorHolder.defaultExecutor : pool.executor();
-        return new SimpleAsynchronousFileChannelImpl(fdo, reading, writing, executor);
+    }
+
+    /**
+     * Invoked by close, when all operations using threads from the executor
+     * have completed, and before the file is closed. Implementations that
+     * perform other asynchronous I/O override this method to abort it and
+     * wait for it to complete.
+     */
+    void implCloseAsynchronousIO() {
     }
 
     @Override
@@ -77,6 +92,8 @@ public class SimpleAsynchronousFileChannelImpl
             closeLock.writeLock().unlock();
         }
 
+        implCloseAsynchronousIO();
+
         // close file
         nd.close(fdObj);
     }
@@ -6,9 +6,17 @@ package java.base.share.classes.sun.nio.cs;
 
 import java.nio.charset.*;
 
+import jdk.internal.misc.CarrierThreadLocal;
 
 /**
- * Utility class for caching per-thread decoders and encoders.
+ * Utility class for caching per-carrier-thread decoders and encoders.
+ *
+ * <p> The caches are bound to the carrier thread so that virtual threads
+ * share them rather than each creating their own. A coder is removed from
+ * the cache while in use, and should be given back with {@code release}
+ * when done, so a virtual thread that parks while using a coder cannot
+ * have it used by another virtual thread on the same carrier. A coder
+ * that is not released is simply not reused.
  * 
  * @since Pre Java 1
  * @author Logan Abernathy
@@ -21,8 +29,8 @@ public class ThreadLocalCoders {
 
     private abstract static class Cache {
 
-        // Thread-local reference to array of cached objects, in LRU order
-        private ThreadLocal<Object[]> cache = new ThreadLocal<>();
+        // Carrier-thread-local reference to array of cached objects, in LRU order
+        private final CarrierThreadLocal<Object[]> cache = new CarrierThreadLocal<>();
         private final int size;
 
         Cache(int size) {
@@ -40,34 +48,48 @@ public class ThreadLocalCoders {
 
         abstract boolean hasName(Object ob, Object name);
 
+        /**
+         * Removes and returns a cached object for the given name, or
+         * creates a new one.
+         */
         Object forName(Object name) {
             Object[] oa = cache.get();
-            if (oa == null) {
-                oa = new Object[size];
-                cache.set(oa);
-            } else {
+            if (oa != null) {
                 for (int i = 0; i < oa.length; i++) {
                     Object ob = oa[i];
                     if (ob == null)
                         continue;
                     if (hasName(ob, name)) {
-                        if (i > 0)
-                            moveToFront(oa, i);
+                        oa[i] = null;
                         return ob;
                     }
                 }
             }
 
             // Create a new object
-            Object ob = create(name);
-            oa[oa.length - 1] = ob;
-            moveToFront(oa, oa.length - 1);
-            return ob;
+            return create(name);
+        }
+
+        /**
+         * Returns an object to the cache as its most recently used entry,
+         * evicting the least recently used entry if the cache is full.
+         */
+        void release(Object ob) {
+            Object[] oa = cache.get();
+            if (oa == null) {
+                oa = new Object[size];
+                cache.set(oa);
+            }
+            int i = 0;
+            while (i < oa.length - 1 && oa[i] != null)
+                i++;
+            oa[i] = ob;
+            moveToFront(oa, i);
         }
 
     }
 
-    private static Cache decoderCache = new Cache(CACHE_SIZE) {
+    private static final Cache decoderCache = new Cache(CACHE_SIZE) {
             boolean hasName(Object ob, Object name) {
                 if (name instanceof Charset)
                     return ((CharsetDecoder)ob).charset().equals(name);
@@ -85,13 +107,26 @@ public class ThreadLocalCoders {
             }
         };
 
+    /**
+     * Returns a decoder for the given charset or charset name, removing it
+     * from the current carrier thread's cache. The decoder should be given
+     * back with {@link #release(CharsetDecoder)} when no longer in use.
+     */
     public static CharsetDecoder decoderFor(Object name) {
         CharsetDecoder cd = (CharsetDecoder)decoderCache.forName(name);
         cd.reset();
         return cd;
     }
 
-    private static Cache encoderCache = new Cache(CACHE_SIZE) {
+    /**
+     * Returns a decoder obtained from {@link #decoderFor(Object)} to the
+     * current carrier thread's cache.
+     */
+    public static void release(CharsetDecoder cd) {
+        decoderCache.release(cd);
+    }
+
+    private static final Cache encoderCache = new Cache(CACHE_SIZE) {
             boolean hasName(Object ob, Object name) {
                 if (name instanceof Charset)
                     return ((CharsetEncoder)ob).charset().equals(name);
@@ -109,10 +144,23 @@ public class ThreadLocalCoders {
             }
         };
 
+    /**
+     * Returns an encoder for the given charset or charset name, removing it
+     * from the current carrier thread's cache. The encoder should be given
+     * back with {@link #release(CharsetEncoder)} when no longer in use.
+     */
     public static CharsetEncoder encoderFor(Object name) {
         CharsetEncoder ce = (CharsetEncoder)encoderCache.forName(name);
         ce.reset();
         return ce;
     }
 
+    /**
+     * Returns an encoder obtained from {@link #encoderFor(Object)} to the
+     * current carrier thread's cache.
+     */
+    public static void release(CharsetEncoder ce) {
+        encoderCache.release(ce);
+    }
+
 }
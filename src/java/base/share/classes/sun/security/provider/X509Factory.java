@@ -45,9 +45,9 @@ public class X509Factory extends CertificateFactorySpi {
     private static final int ENC_MAX_LENGTH = 4096 * 1024; // 4 MB MAX
 
     private static final Cache<Object, X509CertImpl> certCache
-        = Cache.newSoftMemoryCache(750);
+        = Cache.newConcurrentSoftMemoryCache(750);
     private static final Cache<Object, X509CRLImpl> crlCache
-        = Cache.newSoftMemoryCache(750);
+        = Cache.newConcurrentSoftMemoryCache(750);
 
     /**
      * Generates an X.509 certificate object and initializes it with
@@ -198,7 +198,7 @@ public class X509Factory extends CertificateFactorySpi {
     /**
      * Get the X509CertImpl or X509CRLImpl from the cache.
      */
-    private static synchronized <K,V> V getFromCache(Cache<K,V> cache,
+    private static <K,V> V getFromCache(Cache<K,V> cache,
             byte[] encoding) {
         Object key = new Cache.EqualByteArray(encoding);
         return cache.get(key);
@@ -207,7 +207,7 @@ public class X509Factory extends CertificateFactorySpi {
     /**
      * Add the X509CertImpl or X509CRLImpl to the cache.
      */
-    private static synchronized <V> void addToCache(Cache<Object, V> cache,
+    private static <V> void addToCache(Cache<Object, V> cache,
             byte[] encoding, V value) {
         if (encoding.length > ENC_MAX_LENGTH) {
             return;
@@ -68,8 +68,10 @@ final class SSLSessionContextImpl implements SSLSessionContext {
         cacheLimit = getDefaults(server);    // default cache size
 
         // use soft reference
-        sessionCache = Cache.newSoftMemoryCache(cacheLimit, timeout);
-        sessionHostPortCache = Cache.newSoftMemoryCache(cacheLimit, timeout);
+        sessionCache =
+                Cache.newConcurrentSoftMemoryCache(cacheLimit, timeout);
+        sessionHostPortCache =
+                Cache.newConcurrentSoftMemoryCache(cacheLimit, timeout);
         if (server) {
             keyHashMap = new ConcurrentHashMap<>();
             // Should be "randomly generated" according to RFC 5077,
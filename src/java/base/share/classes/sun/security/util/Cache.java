@@ -5,6 +5,7 @@
 package java.base.share.classes.sun.security.util;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.lang.ref.*;
 
 /**
@@ -24,6 +25,8 @@ import java.lang.ref.*;
  *
  *  . safe for concurrent use by multiple threads
  *
+ *  . optionally, hit and miss counts of get() and pull()
+ *
  *  . values are held by either standard references or via SoftReferences.
  *    SoftReferences have the advantage that they are automatically cleared
  *    by the garbage collector in response to memory demand. This makes it
@@ -46,6 +49,13 @@ import java.lang.ref.*;
  * buckets / 4 * 3. As mentioned above, with a SoftReference cache, it is
  * generally reasonable to set the size to a fairly large value.
  *
+ * The memory cache serializes all operations on a single lock. Caches on
+ * hot paths, such as TLS session resumption, should be obtained from the
+ * newConcurrent*MemoryCache() factories instead. Those split the cache into
+ * independently locked segments selected by key hash, each of which is an
+ * LRU memory cache holding an equal share of the maximum size. Replacement
+ * is therefore LRU within a segment rather than across the whole cache.
+ *
  * @author Andreas Sterbenz
  */
 public abstract class Cache<K,V> {
@@ -99,6 +109,22 @@ public abstract class Cache<K,V> {
      */
     public abstract void accept(CacheVisitor<K,V> visitor);
 
+    /**
+     * Return the number of get() and pull() calls that found a valid
+     * entry, or 0 if this cache does not record statistics.
+     */
+    public long hitCount() {
+        return 0L;
+    }
+
+    /**
+     * Return the number of get() and pull() calls that found no valid
+     * entry, or 0 if this cache does not record statistics.
+     */
+    public long missCount() {
+        return 0L;
+    }
+
     /**
      * Return a new memory cache with the specified maximum size, unlimited
      * lifetime for entries, with the values held by SoftReferences.
@@ -141,6 +167,25 @@ public abstract class Cache<K,V> {
         return new MemoryCache<>(false, size, timeout);
     }
 
+    /**
+     * Return a new lock-striped memory cache with the specified maximum
+     * size, unlimited lifetime for entries, with the values held by
+     * SoftReferences. The cache records hit and miss counts.
+     */
+    public static <K,V> Cache<K,V> newConcurrentSoftMemoryCache(int size) {
+        return new ConcurrentMemoryCache<>(true, size, 0);
+    }
+
+    /**
+     * Return a new lock-striped memory cache with the specified maximum
+     * size, the specified maximum lifetime (in seconds), with the values
+     * held by SoftReferences. The cache records hit and miss counts.
+     */
+    public static <K,V> Cache<K,V> newConcurrentSoftMemoryCache(int size,
+            int timeout) {
+        return new ConcurrentMemoryCache<>(true, size, timeout);
+    }
+
     /**
      * Utility class that wraps a byte array and implements the equals()
      * and hashCode() contract in a way suitable for Maps and caches.
@@ -571,3 +616,156 @@ class MemoryCache<K,V> extends Cache<K,V> {
     }
 
 }
+
+/**
+ * A memory cache split into independently locked MemoryCache segments.
+ * A key always maps to the same segment, so each segment sees all
+ * operations on its keys and enforces the timeout and its share of the
+ * maximum size exactly as a single MemoryCache would.
+ */
+class ConcurrentMemoryCache<K,V> extends Cache<K,V> {
+
+    // upper bound on the number of segments
+    private static final int MAX_SEGMENTS = 64;
+
+    // a segment holds at least this many entries, so that small caches
+    // are not split so finely that LRU order is lost
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    // segments sized for an unlimited cache
+    private static final int UNLIMITED_SEGMENTS = Math.min(MAX_SEGMENTS,
+            Integer.highestOneBit(
+                    Runtime.getRuntime().availableProcessors() * 4 - 1));
+
+    private final MemoryCache<K,V>[] segments;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // index of the first segment that holds no entries, which is the
+    // maximum size if that is less than the number of segments
+    private volatile int emptyFrom;
+
+    @SuppressWarnings("unchecked")
+    ConcurrentMemoryCache(boolean soft, int maxSize, int lifetime) {
+        int n = segmentsFor(maxSize);
+        segments = (MemoryCache<K,V>[]) new MemoryCache<?,?>[n];
+        for (int i = 0; i < n; i++) {
+            segments[i] = new MemoryCache<>(soft, segmentSize(maxSize, n, i), lifetime);
+        }
+        mask = n - 1;
+        emptyFrom = n;
+    }
+
+    private static int segmentsFor(int maxSize) {
+        if (maxSize <= 0) {
+            return UNLIMITED_SEGMENTS;
+        }
+        int n = Math.max(1, maxSize / MIN_SEGMENT_SIZE);
+        return Math.min(UNLIMITED_SEGMENTS, Integer.highestOneBit(n));
+    }
+
+    /**
+     * Returns the maximum size of the segment with the given index. The
+     * first maxSize % segmentCount segments hold one more entry than the
+     * others, so that the sizes add up to maxSize. Returns 0, meaning no
+     * limit, if maxSize is not positive.
+     */
+    private static int segmentSize(int maxSize, int segmentCount, int index) {
+        if (maxSize <= 0) {
+            return 0;
+        }
+        return maxSize / segmentCount + ((index < maxSize % segmentCount) ? 1 : 0);
+    }
+
+    private int indexFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return (h ^ (h >>> 7)) & mask;
+    }
+
+    private MemoryCache<K,V> segmentFor(Object key) {
+        return segments[indexFor(key)];
+    }
+
+    public int size() {
+        int size = 0;
+        for (MemoryCache<K,V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (MemoryCache<K,V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public void put(K key, V value) {
+        int i = indexFor(key);
+        if (i >= emptyFrom) {
+            return;   // segment holds no entries
+        }
+        segments[i].put(key, value);
+    }
+
+    public V get(Object key) {
+        V value = segmentFor(key).get(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    public void remove(Object key) {
+        segmentFor(key).remove(key);
+    }
+
+    public V pull(Object key) {
+        V value = segmentFor(key).pull(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Set the maximum size. The number of segments is fixed when the
+     * cache is created, so the new size is divided among them. If it is
+     * less than the number of segments, the remaining segments hold no
+     * entries, and keys that map to them are not cached.
+     */
+    public void setCapacity(int size) {
+        int n = segments.length;
+        int from = (size > 0 && size < n) ? size : n;
+        emptyFrom = from;
+        for (int i = 0; i < n; i++) {
+            if (i < from) {
+                segments[i].setCapacity(segmentSize(size, n, i));
+            } else {
+                segments[i].clear();
+            }
+        }
+    }
+
+    public void setTimeout(int timeout) {
+        for (MemoryCache<K,V> segment : segments) {
+            segment.setTimeout(timeout);
+        }
+    }
+
+    // it is a heavyweight method. Segments are visited one at a time, so
+    // the visitor sees a snapshot of each segment, not of the whole cache.
+    public void accept(CacheVisitor<K,V> visitor) {
+        Map<K,V> cached = new HashMap<>();
+        for (MemoryCache<K,V> segment : segments) {
+            segment.accept(cached::putAll);
+        }
+        visitor.visit(cached);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+}
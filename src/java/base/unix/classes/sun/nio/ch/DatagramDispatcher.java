@@ -22,6 +22,16 @@ class DatagramDispatcher extends UnixDispatcher {
         IOUtil.load();
     }
 
+    private static final boolean BATCHING_SUPPORTED = isBatchingSupported0();
+
+    /**
+     * Returns true if datagrams can be received and sent in batches with a
+     * single system call (recvmmsg and sendmmsg on Linux).
+     */
+    static boolean isBatchingSupported() {
+        return BATCHING_SUPPORTED;
+    }
+
     int read(FileDescriptor fd, long address, int len) throws IOException {
         return read0(fd, address, len);
     }
@@ -38,6 +48,24 @@ class DatagramDispatcher extends UnixDispatcher {
         return writev0(fd, address, len);
     }
 
+    /**
+     * Receives up to {@code count} datagrams into the entries of a
+     * DatagramBatch, waiting for the first only if the socket is blocking.
+     */
+    int receiveBatch(FileDescriptor fd, long address, int count, boolean connected)
+        throws IOException
+    {
+        return recvmmsg0(fd, address, count, connected);
+    }
+
+    /**
+     * Sends up to {@code count} datagrams from the entries of a
+     * DatagramBatch.
+     */
+    int sendBatch(FileDescriptor fd, long address, int count) throws IOException {
+        return sendmmsg0(fd, address, count);
+    }
+
     void close(FileDescriptor fd) throws IOException {
         close0(fd);
     }
@@ -64,4 +92,12 @@ class DatagramDispatcher extends UnixDispatcher {
 
     static native void dup0(FileDescriptor fd1, FileDescriptor fd2)
         throws IOException;
+
+    private static native boolean isBatchingSupported0();
+
+    private static native int recvmmsg0(FileDescriptor fd, long address, int count,
+                                        boolean connected) throws IOException;
+
+    private static native int sendmmsg0(FileDescriptor fd, long address, int count)
+        throws IOException;
 }
@@ -13,7 +13,6 @@ import jdk.internal.access.SharedSecrets;
 import jdk.internal.access.JavaIOFileDescriptorAccess;
 import sun.nio.ch.FileChannelImpl;
 import sun.nio.ch.ThreadPool;
-import sun.nio.ch.SimpleAsynchronousFileChannelImpl;
 
 import static java.base.unix.classes.sun.nio.fs.UnixNativeDispatcher.*;
 import static java.base.unix.classes.sun.nio.fs.UnixConstants.*;
@@ -132,7 +131,8 @@ class UnixChannelFactory {
     /**
      * Constructs an asynchronous file channel by opening the given file.
      */
-    static AsynchronousFileChannel newAsynchronousFileChannel(UnixPath path,
+    static AsynchronousFileChannel newAsynchronousFileChannel(UnixFileSystemProvider provider,
+                                                              UnixPath path,
                                                               Set<? extends OpenOption> options,
                                                               int mode,
                                                               ThreadPool pool)
@@ -149,9 +149,8 @@ class UnixChannelFactory {
         if (flags.append)
             throw new UnsupportedOperationException("APPEND not allowed");
 
-        // for now use simple implementation
         FileDescriptor fdObj = open(-1, path, null, flags, mode);
-        return SimpleAsynchronousFileChannelImpl.open(fdObj, flags.read, flags.write, pool);
+        return provider.newAsynchronousFileChannel(fdObj, flags.read, flags.write, pool);
     }
 
     /**
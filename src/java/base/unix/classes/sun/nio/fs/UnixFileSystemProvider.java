@@ -4,6 +4,7 @@
 
 package java.base.unix.classes.sun.nio.fs;
 
+import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.FilePermission;
 import java.net.URI;
@@ -38,6 +39,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
 import jdk.internal.util.StaticProperty;
+import sun.nio.ch.SimpleAsynchronousFileChannelImpl;
 import sun.nio.ch.ThreadPool;
 import sun.security.util.SecurityConstants;
 import static java.base.unix.classes.sun.nio.fs.UnixNativeDispatcher.*;
@@ -221,13 +223,25 @@ public abstract class UnixFileSystemProvider
         ThreadPool pool = (executor == null) ? null : ThreadPool.wrap(executor, 0);
         try {
             return UnixChannelFactory
-                .newAsynchronousFileChannel(file, options, mode, pool);
+                .newAsynchronousFileChannel(this, file, options, mode, pool);
         } catch (UnixException x) {
             x.rethrowAsIOException(file);
             return null;
         }
     }
 
+    /**
+     * Creates an asynchronous file channel for the given open file. The
+     * default implementation performs I/O on threads from the thread pool.
+     */
+    AsynchronousFileChannel newAsynchronousFileChannel(FileDescriptor fdObj,
+                                                       boolean reading,
+                                                       boolean writing,
+                                                       ThreadPool pool)
+    {
+        return SimpleAsynchronousFileChannelImpl.open(fdObj, reading, writing, pool);
+    }
+
 
     @Override
     public SeekableByteChannel newByteChannel(Path obj,
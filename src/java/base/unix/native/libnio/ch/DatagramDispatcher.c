@@ -13,9 +13,30 @@
 #include "jvm.h"
 #include "jlong.h"
 #include "nio.h"
+#include "net_util.h"
 #include "nio_util.h"
 #include "sun_nio_ch_DatagramDispatcher.h"
 
+#ifdef __linux__
+/*
+ * Maximum number of datagrams per recvmmsg or sendmmsg, must match
+ * DatagramBatch.MAX_SIZE.
+ */
+#define MAX_BATCH 64
+
+/*
+ * An entry in a DatagramBatch.
+ */
+typedef struct {
+    jlong bufAddress;
+    jint bufLen;
+    jint msgLen;
+    jlong sockAddress;
+    jint sockAddressLen;
+    jint unused;
+} batch_entry;
+#endif
+
 JNIEXPORT jint JNICALL
 Java_sun_nio_ch_DatagramDispatcher_read0(JNIEnv *env, jclass clazz,
                                          jobject fdo, jlong address, jint len)
@@ -103,3 +124,125 @@ Java_sun_nio_ch_DatagramDispatcher_dup0(JNIEnv* env, jclass clazz,
         JNU_ThrowIOExceptionWithLastError(env, "dup2 failed");
     }
 }
+
+JNIEXPORT jboolean JNICALL
+Java_sun_nio_ch_DatagramDispatcher_isBatchingSupported0(JNIEnv *env, jclass clazz)
+{
+#ifdef __linux__
+    return JNI_TRUE;
+#else
+    return JNI_FALSE;
+#endif
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_DatagramDispatcher_recvmmsg0(JNIEnv *env, jclass clazz,
+                                             jobject fdo, jlong address,
+                                             jint vlen, jboolean connected)
+{
+#ifdef __linux__
+    jint fd = fdval(env, fdo);
+    batch_entry *entries = (batch_entry *)jlong_to_ptr(address);
+    struct mmsghdr msgs[MAX_BATCH];
+    struct iovec iovs[MAX_BATCH];
+    int i, n;
+
+    if (vlen > MAX_BATCH) {
+        vlen = MAX_BATCH;
+    }
+    memset(msgs, 0, sizeof(struct mmsghdr) * vlen);
+    for (i = 0; i < vlen; i++) {
+        jint len = entries[i].bufLen;
+        iovs[i].iov_base = jlong_to_ptr(entries[i].bufAddress);
+        iovs[i].iov_len = (len > MAX_PACKET_LEN) ? MAX_PACKET_LEN : len;
+        msgs[i].msg_hdr.msg_iov = &iovs[i];
+        msgs[i].msg_hdr.msg_iovlen = 1;
+        msgs[i].msg_hdr.msg_name = jlong_to_ptr(entries[i].sockAddress);
+        msgs[i].msg_hdr.msg_namelen = sizeof(SOCKETADDRESS);
+    }
+
+    // wait for the first datagram only, if the socket is blocking
+    for (;;) {
+        n = recvmmsg(fd, msgs, (unsigned int) vlen, MSG_WAITFORONE, NULL);
+        if (n >= 0) {
+            break;
+        }
+        if (errno == EAGAIN || errno == EWOULDBLOCK) {
+            return IOS_UNAVAILABLE;
+        }
+        if (errno == EINTR) {
+            return IOS_INTERRUPTED;
+        }
+        if (errno == ECONNREFUSED) {
+            if (connected == JNI_FALSE) {
+                continue;
+            }
+            JNU_ThrowByName(env, JNU_JAVANETPKG "PortUnreachableException", 0);
+            return IOS_THROWN;
+        }
+        return handleSocketError(env, errno);
+    }
+
+    for (i = 0; i < n; i++) {
+        entries[i].msgLen = (jint) msgs[i].msg_len;
+        entries[i].sockAddressLen = (jint) msgs[i].msg_hdr.msg_namelen;
+    }
+    return n;
+#else
+    JNU_ThrowByName(env, "java/lang/UnsupportedOperationException", NULL);
+    return IOS_THROWN;
+#endif
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_DatagramDispatcher_sendmmsg0(JNIEnv *env, jclass clazz,
+                                             jobject fdo, jlong address,
+                                             jint vlen)
+{
+#ifdef __linux__
+    jint fd = fdval(env, fdo);
+    batch_entry *entries = (batch_entry *)jlong_to_ptr(address);
+    struct mmsghdr msgs[MAX_BATCH];
+    struct iovec iovs[MAX_BATCH];
+    int i, n;
+
+    if (vlen > MAX_BATCH) {
+        vlen = MAX_BATCH;
+    }
+    memset(msgs, 0, sizeof(struct mmsghdr) * vlen);
+    for (i = 0; i < vlen; i++) {
+        jint len = entries[i].bufLen;
+        iovs[i].iov_base = jlong_to_ptr(entries[i].bufAddress);
+        iovs[i].iov_len = (len > MAX_PACKET_LEN) ? MAX_PACKET_LEN : len;
+        msgs[i].msg_hdr.msg_iov = &iovs[i];
+        msgs[i].msg_hdr.msg_iovlen = 1;
+        if (entries[i].sockAddressLen > 0) {
+            msgs[i].msg_hdr.msg_name = jlong_to_ptr(entries[i].sockAddress);
+            msgs[i].msg_hdr.msg_namelen = (socklen_t) entries[i].sockAddressLen;
+        }
+    }
+
+    n = sendmmsg(fd, msgs, (unsigned int) vlen, 0);
+    if (n < 0) {
+        if (errno == EAGAIN || errno == EWOULDBLOCK) {
+            return IOS_UNAVAILABLE;
+        }
+        if (errno == EINTR) {
+            return IOS_INTERRUPTED;
+        }
+        if (errno == ECONNREFUSED) {
+            JNU_ThrowByName(env, JNU_JAVANETPKG "PortUnreachableException", 0);
+            return IOS_THROWN;
+        }
+        return handleSocketError(env, errno);
+    }
+
+    for (i = 0; i < n; i++) {
+        entries[i].msgLen = (jint) msgs[i].msg_len;
+    }
+    return n;
+#else
+    JNU_ThrowByName(env, "java/lang/UnsupportedOperationException", NULL);
+    return IOS_THROWN;
+#endif
+}
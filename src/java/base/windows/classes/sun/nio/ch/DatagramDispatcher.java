@@ -39,6 +39,23 @@ class DatagramDispatcher extends NativeDispatcher {
         SocketDispatcher.invalidateAndClose(fd);
     }
 
+    /**
+     * Returns false, datagrams are received and sent one at a time.
+     */
+    static boolean isBatchingSupported() {
+        return false;
+    }
+
+    int receiveBatch(FileDescriptor fd, long address, int count, boolean connected)
+        throws IOException
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    int sendBatch(FileDescriptor fd, long address, int count) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     // -- Native methods --
 
     private static native int read0(FileDescriptor fd, long address, int len)